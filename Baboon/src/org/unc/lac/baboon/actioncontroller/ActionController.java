@@ -4,6 +4,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 import com.google.common.base.Strings;
 import org.unc.lac.baboon.annotations.GuardProvider;
@@ -11,6 +13,7 @@ import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.annotations.TaskController;
 import org.unc.lac.baboon.exceptions.InvalidGuardProviderMethod;
 import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
+import org.unc.lac.baboon.invocation.GuardProviderAccessorFactory;
 
 /**
  * An ActionController is an abstract class defined by
@@ -22,6 +25,11 @@ import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
  * the object instance, that are organized in a Map indexed by the guard name
  * corresponding to the {@link GuardProvider#value()}.</li>
  * </ul>
+ * <p>
+ * Each {@link GuardProvider} annotated method is also given a slot, an index on
+ * the {@link #guardProviderAccessors} array. The framework resolves the slots
+ * once and reads the guard values by slot afterwards.
+ * </p>
  *
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -46,11 +54,27 @@ public abstract class ActionController {
      */
     protected HashMap<String, Method> guardProviderMethodsMap;
 
+    /**
+     * The Map of slots of the {@link GuardProvider} annotated methods of this
+     * actionController, indexed by guard names. A slot is the position of the
+     * guard provider accessor on {@link #guardProviderAccessors}.
+     */
+    protected HashMap<String, Integer> guardProviderSlotsMap;
+
+    /**
+     * The accessors of the {@link GuardProvider} annotated methods of this
+     * actionController, with {@link #actionObject} already bound. They are
+     * indexed by slot.
+     * 
+     * @see #getGuardProviderSlot(String)
+     */
+    protected BooleanSupplier[] guardProviderAccessors;
+
     /**
      * Constructor. Sets the {@link #actionObject}, the {@link #actionMethod}
      * and finally resolves the {@link GuardProvider} annotated methods of the
-     * {@link #actionObject} and saves them into
-     * {@link #guardProviderMethodsMap}
+     * {@link #actionObject}, saves them into
+     * {@link #guardProviderMethodsMap} and creates their accessors.
      * 
      * @param actionObject
      *            The object instance of the actionController
@@ -89,12 +113,30 @@ public abstract class ActionController {
         this.actionObject = actionObject;
         this.guardProviderMethodsMap = new HashMap<>();
         resolveGuardProviderMethods();
+        createGuardProviderAccessors();
     }
 
     public Object getActionObject() {
         return actionObject;
     }
 
+    /**
+     * Returns true if this actionController was created for the object
+     * instance and method provided. The object is compared by identity.
+     * 
+     * @param object
+     *            The object instance, or the class declaring the method if it
+     *            is static.
+     * @param method
+     *            A {@link TaskController} or {@link HappeningController}
+     *            annotated method.
+     * @return true if the object and method are the ones of this
+     *         actionController.
+     */
+    public boolean isActionOf(Object object, Method method) {
+        return actionObject == object && actionMethod.equals(method);
+    }
+
     /**
      * This method returns the value of the guard by executing the
      * {@link GuardProvider} annotated method associated with the guard. It is
@@ -109,10 +151,75 @@ public abstract class ActionController {
      *         Error when invoking a {@link GuardProvider} method.
      * @throws IllegalAccessException
      *         Error when accessing a {@link GuardProvider} method.
+     * @throws IndexOutOfBoundsException
+     *         If there is no {@link GuardProvider} annotated method for the guard.
      */
     public boolean getGuardValue(String guardName)
             throws IllegalAccessException, InvocationTargetException {
-        return (Boolean) guardProviderMethodsMap.get(guardName).invoke(actionObject);
+        return getGuardValue(getGuardProviderSlot(guardName));
+    }
+
+    /**
+     * This method returns the value of the guard by executing the
+     * {@link GuardProvider} annotated method on the slot provided. It is
+     * intended to be used by the framework only, the user should not call this
+     * method.
+     * 
+     * @param guardProviderSlot
+     *            The slot of the {@link GuardProvider} annotated method, as
+     *            returned by {@link #getGuardProviderSlot(String)}
+     * @return The value of the guard
+     *
+     * @throws InvocationTargetException
+     *         Error when invoking a {@link GuardProvider} method.
+     * @throws IllegalAccessException
+     *         Error when accessing a {@link GuardProvider} method.
+     * @throws IndexOutOfBoundsException
+     *         If there is no {@link GuardProvider} annotated method on the slot.
+     */
+    public boolean getGuardValue(int guardProviderSlot)
+            throws IllegalAccessException, InvocationTargetException {
+        BooleanSupplier accessor = guardProviderAccessors[guardProviderSlot];
+        try {
+            return accessor.getAsBoolean();
+        } catch (Throwable e) {
+            if (e instanceof IllegalAccessException) {
+                throw (IllegalAccessException) e;
+            }
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    /**
+     * Returns the accessor of the {@link GuardProvider} annotated method on
+     * the slot provided, to be registered as the supplier of its guard. The
+     * same accessor is returned on every call.
+     *
+     * @param guardProviderSlot
+     *            The slot of the {@link GuardProvider} annotated method, as
+     *            returned by {@link #getGuardProviderSlot(String)}
+     * @return the accessor of the {@link GuardProvider} annotated method.
+     * @throws IndexOutOfBoundsException
+     *         If there is no {@link GuardProvider} annotated method on the slot.
+     */
+    public BooleanSupplier getGuardSupplier(int guardProviderSlot) {
+        return guardProviderAccessors[guardProviderSlot];
+    }
+
+    /**
+     * This method returns the slot of the {@link GuardProvider} annotated
+     * method that handles the guard provided, to be used on
+     * {@link #getGuardValue(int)}.
+     * 
+     * @param guardName
+     *            the guard name associated to the {@link GuardProvider}
+     *            annotated method.
+     * @return the slot of the {@link GuardProvider} annotated method, or -1 if
+     *         there is no {@link GuardProvider} annotated method for the guard.
+     */
+    public int getGuardProviderSlot(String guardName) {
+        Integer slot = guardProviderSlotsMap.get(guardName);
+        return slot == null ? -1 : slot;
     }
 
     /**
@@ -177,6 +284,26 @@ public abstract class ActionController {
         }
     }
     
+    /**
+     * This method creates an accessor for every method on
+     * {@link #guardProviderMethodsMap}, saves it on
+     * {@link #guardProviderAccessors} and its slot on
+     * {@link #guardProviderSlotsMap}.
+     * 
+     * @see GuardProviderAccessorFactory
+     */
+    private void createGuardProviderAccessors() {
+        guardProviderSlotsMap = new HashMap<>();
+        guardProviderAccessors = new BooleanSupplier[guardProviderMethodsMap.size()];
+        int slot = 0;
+        for (Map.Entry<String, Method> guardProvider : guardProviderMethodsMap.entrySet()) {
+            guardProviderAccessors[slot] = GuardProviderAccessorFactory.createAccessor(actionObject,
+                    guardProvider.getValue());
+            guardProviderSlotsMap.put(guardProvider.getKey(), slot);
+            slot++;
+        }
+    }
+
     /**
      * Returns the name of the {@link #actionMethod}
      * 
@@ -187,4 +314,14 @@ public abstract class ActionController {
         return actionMethod.getName();
     }
 
+    /**
+     * Returns true if the {@link #actionMethod} is static.
+     * 
+     * @return true if the {@link #actionMethod} is static.
+     * 
+     */
+    public boolean isStaticMethod() {
+        return Modifier.isStatic(actionMethod.getModifiers());
+    }
+
 }
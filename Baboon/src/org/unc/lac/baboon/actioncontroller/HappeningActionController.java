@@ -1,7 +1,11 @@
 package org.unc.lac.baboon.actioncontroller;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
 
+import org.unc.lac.baboon.annotations.AcquisitionMode;
 import org.unc.lac.baboon.annotations.GuardProvider;
 import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.annotations.TaskController;
@@ -25,6 +29,29 @@ import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
  */
 public class HappeningActionController extends ActionController {
 
+    /**
+     * How the permission is acquired, as declared on the
+     * {@link HappeningController} annotation.
+     */
+    private final AcquisitionMode acquisitionMode;
+    /**
+     * The timeout in milliseconds for {@link AcquisitionMode#TIMEOUT}.
+     */
+    private final long acquisitionTimeout;
+    /**
+     * The method called when the execution is rejected, or null.
+     */
+    private final Method fallbackMethod;
+    /**
+     * Indicates if the executions of the method can be coalesced.
+     */
+    private final boolean coalescing;
+    /**
+     * The method called once per coalesced batch, or null if the method is
+     * not coalescing.
+     */
+    private final Method batchMethod;
+
     /**
      * Constructor. Sets the {@link #actionObject}, the {@link #actionMethod}
      * and finally resolves the {@link GuardProvider} annotated methods of the
@@ -56,6 +83,12 @@ public class HappeningActionController extends ActionController {
      *             <li>When the actionObject provided is null</li>
      *             <li>When the actionMethod provided is null</li>
      *             <li>When the actionMethod provided is not annotated with {@link HappeningController}</li>
+     *             <li>When the timeout of the annotation is negative</li>
+     *             <li>When the fallback method of the annotation is not valid</li>
+     *             <li>When the method is coalescing but does not return void or
+     *             does not use {@link AcquisitionMode#BLOCK}</li>
+     *             <li>When the batch method of the annotation is not valid, or
+     *             is declared on a method that is not coalescing</li>
      *             </ul>
      * 
      */
@@ -65,7 +98,182 @@ public class HappeningActionController extends ActionController {
         if(!actionMethod.isAnnotationPresent(HappeningController.class)){
             throw new IllegalArgumentException("Method must be annotated with HappeningController");
         }
+        HappeningController annotation = actionMethod.getAnnotation(HappeningController.class);
+        this.acquisitionMode = annotation.acquisition();
+        if (annotation.timeout() < 0) {
+            throw new IllegalArgumentException("The timeout of the HappeningController cannot be negative");
+        }
+        this.acquisitionTimeout = annotation.timeout();
+        this.fallbackMethod = resolveFallbackMethod(annotation.fallback());
+        this.coalescing = annotation.coalescing();
+        if (coalescing && (actionMethod.getReturnType() != void.class || acquisitionMode != AcquisitionMode.BLOCK)) {
+            throw new IllegalArgumentException(
+                    "A coalescing HappeningController must return void and use the BLOCK acquisition mode");
+        }
+        if (!coalescing && !annotation.batch().isEmpty()) {
+            throw new IllegalArgumentException("Only a coalescing HappeningController can declare a batch method");
+        }
+        this.batchMethod = coalescing ? resolveBatchMethod(annotation.batch()) : null;
+    }
+
+    /**
+     * Returns true if the executions of the {@link HappeningController}
+     * annotated method can be coalesced.
+     *
+     * @return the value of {@link HappeningController#coalescing()}.
+     */
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Resolves the fallback method declared on the {@link HappeningController}
+     * annotation.
+     *
+     * @param fallbackName
+     *            The name of the fallback method, or an empty string.
+     * @return the fallback method, or null if no fallback method is declared.
+     * @throws IllegalArgumentException
+     *             If the fallback method does not exist, does not have the
+     *             parameter types of {@link #actionMethod}, is not static
+     *             while {@link #actionMethod} is static, or returns a type
+     *             that is not assignable to the return type of
+     *             {@link #actionMethod}.
+     */
+    private Method resolveFallbackMethod(String fallbackName) throws IllegalArgumentException {
+        if (fallbackName.isEmpty()) {
+            return null;
+        }
+        Class<?> actionClass = isStaticMethod() ? (Class<?>) actionObject : actionObject.getClass();
+        Method fallback;
+        try {
+            fallback = actionClass.getMethod(fallbackName, actionMethod.getParameterTypes());
+        } catch (NoSuchMethodException | SecurityException e) {
+            throw new IllegalArgumentException("The fallback method " + fallbackName
+                    + " must be public and take the parameters of " + actionMethod.getName(), e);
+        }
+        if (isStaticMethod() && !Modifier.isStatic(fallback.getModifiers())) {
+            throw new IllegalArgumentException("The fallback method of a static HappeningController must be static");
+        }
+        Class<?> returnType = actionMethod.getReturnType();
+        if (returnType == void.class ? fallback.getReturnType() != void.class
+                : !returnType.isAssignableFrom(fallback.getReturnType())) {
+            throw new IllegalArgumentException("The fallback method " + fallbackName
+                    + " must return a type assignable to the return type of " + actionMethod.getName());
+        }
+        return fallback;
+    }
+
+    /**
+     * Resolves the batch method declared on the {@link HappeningController}
+     * annotation of a coalescing method.
+     *
+     * @param batchName
+     *            The name of the batch method.
+     * @return the batch method.
+     * @throws IllegalArgumentException
+     *             If the batch method is not declared, does not exist, does
+     *             not take a single {@link List} or int parameter, does not
+     *             return void, or is not static while {@link #actionMethod}
+     *             is static.
+     */
+    private Method resolveBatchMethod(String batchName) throws IllegalArgumentException {
+        if (batchName.isEmpty()) {
+            throw new IllegalArgumentException("A coalescing HappeningController must declare its batch method");
+        }
+        Class<?> actionClass = isStaticMethod() ? (Class<?>) actionObject : actionObject.getClass();
+        Method batch;
+        try {
+            batch = actionClass.getMethod(batchName, List.class);
+        } catch (NoSuchMethodException | SecurityException e) {
+            try {
+                batch = actionClass.getMethod(batchName, int.class);
+            } catch (NoSuchMethodException | SecurityException e2) {
+                throw new IllegalArgumentException("The batch method " + batchName
+                        + " must be public and take a List or an int as its only parameter", e2);
+            }
+        }
+        if (isStaticMethod() && !Modifier.isStatic(batch.getModifiers())) {
+            throw new IllegalArgumentException("The batch method of a static HappeningController must be static");
+        }
+        if (batch.getReturnType() != void.class) {
+            throw new IllegalArgumentException("The batch method " + batchName + " must return void");
+        }
+        return batch;
+    }
+
+    /**
+     * Executes the batch method once for a coalesced batch of executions of
+     * the {@link HappeningController} annotated method. It is intended to be
+     * used by the framework only, the user should not call this method.
+     *
+     * @param executions
+     *            The arguments of each execution of the batch, in the order
+     *            they were buffered.
+     * @throws IllegalAccessException
+     *             Error when accessing the batch method.
+     * @throws InvocationTargetException
+     *             If the batch method throws an exception.
+     * @throws IllegalStateException
+     *             If the method is not coalescing.
+     */
+    public void invokeBatch(List<Object[]> executions) throws IllegalAccessException, InvocationTargetException {
+        if (batchMethod == null) {
+            throw new IllegalStateException("The HappeningController " + getMethodName() + " has no batch method");
+        }
+        Object argument = batchMethod.getParameterTypes()[0] == int.class ? executions.size() : executions;
+        batchMethod.invoke(isStaticMethod() ? null : actionObject, argument);
+    }
 
+    /**
+     * Returns how the permission transition is acquired before the execution
+     * of the {@link HappeningController} annotated method.
+     *
+     * @return the {@link AcquisitionMode} declared on the annotation.
+     */
+    public AcquisitionMode getAcquisitionMode() {
+        return acquisitionMode;
+    }
+
+    /**
+     * Returns the maximum time to wait for the permission transition when the
+     * {@link AcquisitionMode} is {@link AcquisitionMode#TIMEOUT}.
+     *
+     * @return the timeout in milliseconds.
+     */
+    public long getAcquisitionTimeout() {
+        return acquisitionTimeout;
+    }
+
+    /**
+     * Returns true if a fallback method is declared on the
+     * {@link HappeningController} annotation.
+     *
+     * @return true if there is a fallback method.
+     */
+    public boolean hasFallback() {
+        return fallbackMethod != null;
     }
 
+    /**
+     * Executes the fallback method instead of the rejected
+     * {@link HappeningController} annotated method. It is intended to be used
+     * by the framework only, the user should not call this method.
+     *
+     * @param arguments
+     *            The arguments received by the rejected method.
+     * @return the value returned by the fallback method.
+     * @throws IllegalAccessException
+     *             Error when accessing the fallback method.
+     * @throws InvocationTargetException
+     *             If the fallback method throws an exception.
+     * @throws IllegalStateException
+     *             If there is no fallback method.
+     */
+    public Object invokeFallback(Object[] arguments) throws IllegalAccessException, InvocationTargetException {
+        if (fallbackMethod == null) {
+            throw new IllegalStateException("The HappeningController " + getMethodName() + " has no fallback method");
+        }
+        return fallbackMethod.invoke(isStaticMethod() ? null : actionObject, arguments);
+    }
 }
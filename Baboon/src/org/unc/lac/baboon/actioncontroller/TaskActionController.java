@@ -8,6 +8,9 @@ import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.annotations.TaskController;
 import org.unc.lac.baboon.exceptions.InvalidGuardProviderMethod;
 import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
+import org.unc.lac.baboon.invocation.ActionInvoker;
+import org.unc.lac.baboon.invocation.ActionInvokerFactory;
+import org.unc.lac.baboon.invocation.BatchActionInvoker;
 
 /**
  * A TaskAction is an abstract class that inherits from {@link ActionController}, defined by
@@ -33,11 +36,29 @@ public class TaskActionController extends ActionController {
      */
     private Object[] parameters;
 
+    /**
+     * The {@link ActionInvoker} used to execute {@link ActionController#actionMethod}
+     * with {@link #actionObject} and {@link #parameters} already bound.
+     */
+    private ActionInvoker invoker;
+
+    /**
+     * The {@link TaskController#batch()} of {@link ActionController#actionMethod}.
+     */
+    private int batch;
+
+    /**
+     * The {@link BatchActionInvoker} used to execute {@link ActionController#actionMethod}
+     * when {@link #batch} is greater than one, or null otherwise.
+     */
+    private BatchActionInvoker batchInvoker;
+
     /**
      * Constructor. Sets the {@link #actionObject}, the {@link #actionMethod},
-     * the {@link #parameters} and finally resolves the {@link GuardProvider}
+     * the {@link #parameters}, resolves the {@link GuardProvider}
      * annotated methods of the {@link #actionObject} and saves them into
-     * {@link #guardProviderMethodsMap}
+     * {@link #guardProviderMethodsMap}. Finally creates the {@link #invoker}
+     * used to execute the {@link #actionMethod}.
      * 
      * @param actionObject
      *            The object instance of the actionController
@@ -67,6 +88,10 @@ public class TaskActionController extends ActionController {
      *             <li>When the actionMethod provided is null</li>
      *             <li>When the actionMethod provided is not annotated with
      *             {@link TaskController}</li>
+     *             <li>When the {@link TaskController#batch()} of the actionMethod
+     *             is not positive</li>
+     *             <li>When the {@link TaskController#batch()} of the actionMethod
+     *             is greater than one and its first parameter is not an int</li>
      *             </ul>
      * 
      */
@@ -77,22 +102,102 @@ public class TaskActionController extends ActionController {
             throw new IllegalArgumentException("Method must be annotated with TaskController");
         }
         this.parameters = parameters;
+        this.batch = actionMethod.getAnnotation(TaskController.class).batch();
+        if (batch < 1) {
+            throw new IllegalArgumentException("The batch of a TaskController must be positive");
+        }
+        if (batch > 1) {
+            Class<?>[] parameterTypes = actionMethod.getParameterTypes();
+            if (parameterTypes.length == 0 || parameterTypes[0] != int.class) {
+                throw new IllegalArgumentException(
+                        "The first parameter of a TaskController with a batch greater than one must be an int");
+            }
+            this.batchInvoker = ActionInvokerFactory.createBatchInvoker(actionObject, actionMethod, parameters);
+        } else {
+            this.invoker = ActionInvokerFactory.createInvoker(actionObject, actionMethod, parameters);
+        }
     }
 
     /**
-     * Calls the invoke method on {@link #actionMethod} using
-     * {@link #actionObject} and {@link #parameters} as the arguments.
+     * Executes {@link #actionMethod} using {@link #actionObject} and
+     * {@link #parameters} as the arguments, through {@link #invoker}.
      * 
      * @throws IllegalAccessException
      *         Error when accessing the Action method
      * @throws InvocationTargetException
      *         Error when invoking the Action method
      * 
-     * @see Method#invoke(Object, Object...)
+     * @see ActionInvoker#invoke()
      * 
      */
     public void executeMethod() throws IllegalAccessException, InvocationTargetException {
-        actionMethod.invoke(actionObject, parameters);
+        executeMethod(1);
+    }
+
+    /**
+     * Executes {@link #actionMethod} once for a number of permissions fired.
+     * If {@link #batch} is greater than one, the number of permissions is
+     * passed as the first argument, before {@link #parameters}, through
+     * {@link #batchInvoker}.
+     * 
+     * @param permissions
+     *         The number of times the permission was fired for this execution,
+     *         between one and {@link #getBatch()}.
+     * @throws IllegalAccessException
+     *         Error when accessing the Action method
+     * @throws InvocationTargetException
+     *         Error when invoking the Action method
+     * @throws IllegalArgumentException
+     *         If the number of permissions is not between one and {@link #getBatch()}.
+     * 
+     * @see TaskController#batch()
+     */
+    public void executeMethod(int permissions) throws IllegalAccessException, InvocationTargetException {
+        if (permissions < 1 || permissions > batch) {
+            throw new IllegalArgumentException("The permissions of an execution must be between 1 and " + batch);
+        }
+        if (batchInvoker != null) {
+            batchInvoker.invoke(permissions);
+        } else {
+            invoker.invoke();
+        }
+    }
+
+    /**
+     * Returns the maximum number of permissions fired for a single execution
+     * of {@link #actionMethod}, taken from {@link TaskController#batch()}.
+     * 
+     * @return the batch size, at least one.
+     */
+    public int getBatch() {
+        return batch;
+    }
+
+    /**
+     * Creates a new {@link TaskActionController} that executes the same
+     * {@link #actionMethod} with the same {@link #parameters} on another object
+     * instance.
+     * 
+     * @param replicaObject
+     *            The object instance to be used as {@link #actionObject} of the new
+     *            {@link TaskActionController}.
+     * @return the new {@link TaskActionController}.
+     * @throws MultipleGuardProvidersException
+     *             When more than one {@link GuardProvider} annotated methods are
+     *             referred to the same guard name on the replicaObject.
+     * @throws InvalidGuardProviderMethod
+     *             When a {@link GuardProvider} annotated method of the replicaObject
+     *             is not valid.
+     * @throws IllegalArgumentException
+     *             When the replicaObject is null or its class does not declare
+     *             {@link #actionMethod}.
+     */
+    public TaskActionController createReplica(Object replicaObject)
+            throws MultipleGuardProvidersException, InvalidGuardProviderMethod, IllegalArgumentException {
+        if (replicaObject != null && !actionMethod.getDeclaringClass().isInstance(replicaObject)) {
+            throw new IllegalArgumentException("The replica must be an instance of " + actionMethod.getDeclaringClass().getName());
+        }
+        return new TaskActionController(replicaObject, actionMethod, parameters);
     }
 
     /**
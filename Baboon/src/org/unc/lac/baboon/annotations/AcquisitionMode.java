@@ -0,0 +1,43 @@
+package org.unc.lac.baboon.annotations;
+
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
+
+/**
+ * This enum represents how the framework acquires the permission of a
+ * {@link HappeningController} annotated method before its execution.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see HappeningController#acquisition()
+ */
+public enum AcquisitionMode {
+    /**
+     * The calling thread waits until the permission transition is fired, as
+     * long as it takes.
+     */
+    BLOCK,
+    /**
+     * The permission transition is fired only if it is enabled when the
+     * method is called. Otherwise, the execution is rejected.
+     */
+    TRY_ONCE,
+    /**
+     * The calling thread waits until the permission transition is fired, at
+     * most the time set on {@link HappeningController#timeout()}. If the time
+     * elapses, the execution is rejected.
+     */
+    TIMEOUT;
+
+    /**
+     * Returns true if the execution of the method can be rejected, in which
+     * case the body of the method is skipped and the
+     * {@link HappeningController#fallback()} method is called or a
+     * {@link HappeningRejectedException} is thrown.
+     *
+     * @return true if the permission may not be acquired.
+     */
+    public boolean canReject() {
+        return this != BLOCK;
+    }
+}
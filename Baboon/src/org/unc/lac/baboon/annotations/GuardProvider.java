@@ -19,6 +19,12 @@ import org.unc.lac.baboon.actioncontroller.ActionController;
  * 
  * The {@link #value()} attribute must contain the name of the guard whose
  * boolean value is to be provided by the method.
+ * 
+ * When the topic evaluates its guards lazily, the method is called by any
+ * thread that fires, checks or waits for a transition guarded by the guard,
+ * possibly by many threads at once and while the action is executing, so it
+ * must be thread safe. Only one subscription can provide a lazily evaluated
+ * guard at a time.
  *  
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -5,6 +5,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
 import org.unc.lac.baboon.topic.Topic;
 
 /**
@@ -17,6 +18,13 @@ import org.unc.lac.baboon.topic.Topic;
  * After a HappeningController annotated method ends its execution, the framework automatically
  * fires the transitions and sets the guards specified by the subscribed topic's fire callback
  * and set guard callback.
+ * <p>
+ * By default, the thread calling the method waits until the permission
+ * transition can be fired. With {@link #acquisition()} the wait can be avoided
+ * or bounded. If the permission is not acquired, the body of the method is not
+ * executed and the {@link #fallback()} method is called instead, or a
+ * {@link HappeningRejectedException} is thrown if there is no fallback method.
+ * </p>
  *
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -24,4 +32,59 @@ import org.unc.lac.baboon.topic.Topic;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
 public @interface HappeningController {
+    /**
+     * How the permission transition is acquired before the execution of the
+     * method.
+     *
+     * @return the {@link AcquisitionMode} of the method.
+     */
+    AcquisitionMode acquisition() default AcquisitionMode.BLOCK;
+
+    /**
+     * The maximum time, in milliseconds, to wait for the permission transition
+     * when {@link #acquisition()} is {@link AcquisitionMode#TIMEOUT}.
+     *
+     * @return the timeout in milliseconds, not negative.
+     */
+    long timeout() default 0;
+
+    /**
+     * The name of a public method of the same class, with the same parameter
+     * types, that is called with the same arguments when the execution of this
+     * method is rejected. Its return value is returned to the caller. The
+     * fallback method must be static if this method is static, and its return
+     * type must be assignable to the return type of this method. The fallback
+     * method is not synchronized by the framework.
+     *
+     * @return the name of the fallback method, or an empty string if a
+     *         {@link HappeningRejectedException} is thrown on rejection.
+     */
+    String fallback() default "";
+
+    /**
+     * Allows the executions of this method to be coalesced when it is
+     * subscribed to a {@link Topic} with a coalescing batch size greater than
+     * one. A coalescing method must return void, use
+     * {@link AcquisitionMode#BLOCK} and declare its {@link #batch()} method,
+     * as its executions are buffered and the caller returns before they are
+     * handled.
+     *
+     * @return true if the executions of the method can be coalesced.
+     * @see Topic#getCoalescingBatchSize()
+     */
+    boolean coalescing() default false;
+
+    /**
+     * The name of a public method of the same class that is called once per
+     * coalesced batch, instead of calling this method once per execution. It
+     * must return void and take a single parameter: either a {@link java.util.List}
+     * of the arguments of each execution of the batch, as {@code Object[]}, in
+     * the order the executions were buffered, or an {@code int} with the
+     * number of executions of the batch. The batch method must be static if
+     * this method is static. It only applies to {@link #coalescing()} methods.
+     *
+     * @return the name of the batch method, or an empty string if the method
+     *         is not coalescing.
+     */
+    String batch() default "";
 }
@@ -17,6 +17,11 @@ import org.unc.lac.javapetriconcurrencymonitor.monitor.PetriMonitor;
  * {@link PetriMonitor} takes. After a TaskController annotated method ends its execution,
  * the framework automatically fires the transitions and sets the guards
  * specified by the subscribed topic's fire callback and set guard callback.
+ * <p>
+ * A TaskController annotated method can be executed in batches with
+ * {@link #batch()}, when its permission transition is enabled many times at
+ * once.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -25,4 +30,22 @@ import org.unc.lac.javapetriconcurrencymonitor.monitor.PetriMonitor;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ElementType.METHOD})
 public @interface TaskController {
+    /**
+     * The maximum number of times the permission transition is fired for a
+     * single execution of the method. When it is greater than one, the
+     * framework fires the permission once, waiting for it if needed, and then
+     * keeps firing it while it is enabled, up to the batch size. The method is
+     * executed once, and the fire callback of the topic is fired once per
+     * permission fired.
+     * <p>
+     * The first parameter of a method with a batch greater than one must be
+     * an int, which receives the number of times the permission was fired.
+     * The parameters provided on subscription are the remaining ones. Such a
+     * method can only be subscribed to a topic as a simple taskController, not
+     * as part of a complex taskController.
+     * </p>
+     *
+     * @return the batch size of the method, at least one.
+     */
+    int batch() default 1;
 }
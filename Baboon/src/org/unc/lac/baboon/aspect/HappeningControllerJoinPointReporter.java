@@ -1,16 +1,42 @@
 package org.unc.lac.baboon.aspect;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.unc.lac.baboon.annotations.AcquisitionMode;
 import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.aspect.JoinPointObserver.State;
 
 /**
  * In this Aspect are declared the pointcut and advices to be applied when a
  * {@link HappeningController} annotated method execution JoinPoints is reached.
+ * <p>
+ * The advices of the methods that use {@link AcquisitionMode#BLOCK} only use
+ * the {@link JoinPoint.StaticPart} of the join point and the executing object,
+ * so AspectJ does not create a {@link JoinPoint} object on each execution of
+ * those methods. The methods that can be rejected need an around advice,
+ * which is able to skip the execution of the method.
+ * </p>
+ * <p>
+ * The methods returning a {@link CompletionStage} are asynchronous
+ * happenings. The permission is acquired without blocking the calling thread,
+ * and the callbacks are fired and set when the {@link CompletionStage}
+ * returned by the method completes, normally or exceptionally, instead of when
+ * the method returns. The caller receives a {@link CompletableFuture} that
+ * completes after the callbacks, with the result of the method.
+ * </p>
+ * <p>
+ * The executions of the methods annotated with
+ * {@link HappeningController#coalescing()} are handed to the observer, which
+ * may buffer them and synchronize many of them at once.
+ * </p>
  *
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -27,15 +53,60 @@ public class HappeningControllerJoinPointReporter {
 
     /**
      * The pointcut happening is defined as any execution of a method annotated
-     * with {@link HappeningController}
+     * with {@link HappeningController} that uses {@link AcquisitionMode#BLOCK}
+     * and can not be coalesced
+     */
+    @Pointcut("execution(@org.unc.lac.baboon.annotations.HappeningController * *(..)) && !rejectableHappening() && !asyncHappening()"
+            + " && !coalescingHappening()")
+    public void happening() {
+    }
+
+    /**
+     * The pointcut coalescingHappening is defined as any execution of a method
+     * annotated with {@link HappeningController} that returns void and allows
+     * its executions to be coalesced
+     */
+    @Pointcut("execution(@org.unc.lac.baboon.annotations.HappeningController(coalescing=true) void *(..))")
+    public void coalescingHappening() {
+    }
+
+    /**
+     * The pointcut asyncHappening is defined as any execution of a method
+     * annotated with {@link HappeningController} that returns a
+     * {@link CompletionStage} or a {@link CompletableFuture}
+     */
+    @Pointcut("execution(@org.unc.lac.baboon.annotations.HappeningController java.util.concurrent.CompletionStage *(..))"
+            + " || execution(@org.unc.lac.baboon.annotations.HappeningController java.util.concurrent.CompletableFuture *(..))")
+    public void asyncHappening() {
+    }
+
+    /**
+     * The pointcut rejectableHappening is defined as any execution of a method
+     * annotated with {@link HappeningController} that uses
+     * {@link AcquisitionMode#TRY_ONCE} or {@link AcquisitionMode#TIMEOUT}
+     */
+    @Pointcut("execution(@org.unc.lac.baboon.annotations.HappeningController(acquisition=org.unc.lac.baboon.annotations.AcquisitionMode.TRY_ONCE) * *(..))"
+            + " || execution(@org.unc.lac.baboon.annotations.HappeningController(acquisition=org.unc.lac.baboon.annotations.AcquisitionMode.TIMEOUT) * *(..))")
+    public void rejectableHappening() {
+    }
+
+    /**
+     * The pointcut instanceHappening is defined as any execution of a non
+     * static method annotated with {@link HappeningController}
      * 
-     * @param joinPoint
-     *      The {@link JoinPoint} of execution reached. Is only one point of all 
-     *      the joinpoints that conform the pointcut.
+     * @param target
+     *      The instance of the object executing the method.
+     */
+    @Pointcut(value = "happening() && this(target)", argNames = "target")
+    public void instanceHappening(final Object target) {
+    }
+
+    /**
+     * The pointcut staticHappening is defined as any execution of a static
+     * method annotated with {@link HappeningController}
      */
-    @Pointcut(value = "execution(@org.unc.lac.baboon.annotations.HappeningController * *(..))",
-            argNames = "joinPoint")
-    public void happening(final JoinPoint joinPoint) {
+    @Pointcut("happening() && !this(Object)")
+    public void staticHappening() {
     }
 
     /**
@@ -44,13 +115,15 @@ public class HappeningControllerJoinPointReporter {
      * is done to allow the framework to manage the synchronization of the
      * {@link HappeningController} annotated method.
      * 
-     *  @param joinPoint
-     *      The {@link JoinPoint} of execution reached. Indicates which instance of object and 
+     * @param target
+     *      The instance of the object executing the {@link HappeningController} method.
+     * @param staticPart
+     *      The {@link JoinPoint.StaticPart} of the execution reached. Indicates which
      *      {@link HappeningController} method has triggered the advice.
      */
-    @Before(value = "happening(joinPoint)", argNames = "joinPoint")
-    public void beforeHappening(final JoinPoint joinPoint) {
-        observer.update(joinPoint.getTarget(), joinPoint.getSignature().getName(), State.BEFORE_EXECUTION);
+    @Before(value = "instanceHappening(target)", argNames = "target,staticPart")
+    public void beforeHappening(final Object target, final JoinPoint.StaticPart staticPart) {
+        observer.update(target, staticPart, State.BEFORE_EXECUTION);
     }
 
     /**
@@ -59,13 +132,248 @@ public class HappeningControllerJoinPointReporter {
      * is done to allow the framework to manage the synchronization of the
      * {@link HappeningController} annotated method.
      * 
-     * @param joinPoint
-     *      The {@link JoinPoint} of execution reached. Indicates which instance of object and 
+     * @param target
+     *      The instance of the object executing the {@link HappeningController} method.
+     * @param staticPart
+     *      The {@link JoinPoint.StaticPart} of the execution reached. Indicates which
      *      {@link HappeningController} method has triggered the advice.
-     *
      */
-    @After(value = "happening(joinPoint)", argNames = "joinPoint")
-    public void afterHappening(final JoinPoint joinPoint) {
-        observer.update(joinPoint.getTarget(), joinPoint.getSignature().getName(), State.AFTER_EXECUTION);
+    @After(value = "instanceHappening(target)", argNames = "target,staticPart")
+    public void afterHappening(final Object target, final JoinPoint.StaticPart staticPart) {
+        observer.update(target, staticPart, State.AFTER_EXECUTION);
+    }
+
+    /**
+     * Before the execution of the static {@link HappeningController} annotated
+     * method, this advice updates the {@link JoinPointObserver} {@link #observer}.
+     * 
+     * @param staticPart
+     *      The {@link JoinPoint.StaticPart} of the execution reached. Indicates which
+     *      {@link HappeningController} method has triggered the advice.
+     */
+    @Before(value = "staticHappening()", argNames = "staticPart")
+    public void beforeStaticHappening(final JoinPoint.StaticPart staticPart) {
+        observer.update(null, staticPart, State.BEFORE_EXECUTION);
+    }
+
+    /**
+     * After the execution of the static {@link HappeningController} annotated
+     * method, this advice updates the {@link JoinPointObserver} {@link #observer}.
+     * 
+     * @param staticPart
+     *      The {@link JoinPoint.StaticPart} of the execution reached. Indicates which
+     *      {@link HappeningController} method has triggered the advice.
+     */
+    @After(value = "staticHappening()", argNames = "staticPart")
+    public void afterStaticHappening(final JoinPoint.StaticPart staticPart) {
+        observer.update(null, staticPart, State.AFTER_EXECUTION);
+    }
+
+    /**
+     * Around the execution of a {@link HappeningController} annotated method
+     * that can be rejected, this advice asks the {@link JoinPointObserver}
+     * {@link #observer} to acquire the permission. If it is acquired, the
+     * method is executed and the observer is updated after the execution.
+     * Otherwise, the method is skipped and the result of the call is provided
+     * by the observer.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @param target
+     *      The instance of the object executing the {@link HappeningController} method.
+     * @return the value returned by the method or by the observer.
+     * @throws Throwable
+     *      The exception thrown by the method or by the observer.
+     */
+    @Around(value = "rejectableHappening() && !asyncHappening() && !coalescingHappening() && this(target)", argNames = "joinPoint,target")
+    public Object aroundRejectableHappening(final ProceedingJoinPoint joinPoint, final Object target) throws Throwable {
+        return proceedIfAcquired(joinPoint, target);
+    }
+
+    /**
+     * Around the execution of a static {@link HappeningController} annotated
+     * method that can be rejected, this advice does the same as
+     * {@link #aroundRejectableHappening(ProceedingJoinPoint, Object)}.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @return the value returned by the method or by the observer.
+     * @throws Throwable
+     *      The exception thrown by the method or by the observer.
+     */
+    @Around(value = "rejectableHappening() && !asyncHappening() && !coalescingHappening() && !this(Object)", argNames = "joinPoint")
+    public Object aroundStaticRejectableHappening(final ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceedIfAcquired(joinPoint, null);
+    }
+
+    private static Object proceedIfAcquired(final ProceedingJoinPoint joinPoint, final Object target) throws Throwable {
+        JoinPoint.StaticPart staticPart = joinPoint.getStaticPart();
+        if (!observer.tryAcquire(target, staticPart)) {
+            return observer.rejected(target, staticPart, joinPoint.getArgs());
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            observer.update(target, staticPart, State.AFTER_EXECUTION);
+        }
+    }
+
+    /**
+     * Around the execution of a {@link HappeningController} annotated method
+     * that can be coalesced, this advice hands the execution to the
+     * {@link JoinPointObserver} {@link #observer}, which decides when the
+     * method body is executed and synchronizes it.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @param target
+     *      The instance of the object executing the {@link HappeningController} method.
+     * @throws Throwable
+     *      The exception thrown by the method or by the observer.
+     */
+    @Around(value = "coalescingHappening() && this(target)", argNames = "joinPoint,target")
+    public void aroundCoalescingHappening(final ProceedingJoinPoint joinPoint, final Object target) throws Throwable {
+        observer.coalesce(target, joinPoint.getStaticPart(), toExecution(joinPoint));
+    }
+
+    /**
+     * Around the execution of a static {@link HappeningController} annotated
+     * method that can be coalesced, this advice does the same as
+     * {@link #aroundCoalescingHappening(ProceedingJoinPoint, Object)}.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @throws Throwable
+     *      The exception thrown by the method or by the observer.
+     */
+    @Around(value = "coalescingHappening() && !this(Object)", argNames = "joinPoint")
+    public void aroundStaticCoalescingHappening(final ProceedingJoinPoint joinPoint) throws Throwable {
+        observer.coalesce(null, joinPoint.getStaticPart(), toExecution(joinPoint));
+    }
+
+    private static HappeningExecution toExecution(final ProceedingJoinPoint joinPoint) {
+        return new HappeningExecution() {
+            @Override
+            public void proceed() throws Throwable {
+                joinPoint.proceed();
+            }
+
+            @Override
+            public Object[] getArguments() {
+                return joinPoint.getArgs();
+            }
+        };
+    }
+
+    /**
+     * Around the execution of a {@link HappeningController} annotated method
+     * that returns a {@link CompletionStage}, this advice asks the
+     * {@link JoinPointObserver} {@link #observer} to acquire the permission
+     * asynchronously and returns at once. When the permission is acquired,
+     * the method is executed, and the observer is updated when the
+     * {@link CompletionStage} returned by the method completes. If the
+     * permission is not acquired, the result is provided by the observer.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @param target
+     *      The instance of the object executing the {@link HappeningController} method.
+     * @return a {@link CompletableFuture} completed with the result of the
+     *      method after the callbacks are fired and set.
+     */
+    @Around(value = "asyncHappening() && this(target)", argNames = "joinPoint,target")
+    public Object aroundAsyncHappening(final ProceedingJoinPoint joinPoint, final Object target) {
+        return proceedWhenAcquired(joinPoint, target);
+    }
+
+    /**
+     * Around the execution of a static {@link HappeningController} annotated
+     * method that returns a {@link CompletionStage}, this advice does the same
+     * as {@link #aroundAsyncHappening(ProceedingJoinPoint, Object)}.
+     * 
+     * @param joinPoint
+     *      The {@link ProceedingJoinPoint} of execution reached.
+     * @return a {@link CompletableFuture} completed with the result of the
+     *      method after the callbacks are fired and set.
+     */
+    @Around(value = "asyncHappening() && !this(Object)", argNames = "joinPoint")
+    public Object aroundStaticAsyncHappening(final ProceedingJoinPoint joinPoint) {
+        return proceedWhenAcquired(joinPoint, null);
+    }
+
+    private static CompletableFuture<Object> proceedWhenAcquired(final ProceedingJoinPoint joinPoint,
+            final Object target) {
+        final JoinPoint.StaticPart staticPart = joinPoint.getStaticPart();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> acquisition;
+        try {
+            acquisition = observer.tryAcquireAsync(target, staticPart);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        acquisition.whenComplete((acquired, acquisitionError) -> {
+            if (acquisitionError != null) {
+                result.completeExceptionally(acquisitionError);
+            } else if (!acquired) {
+                try {
+                    completeWith(result, (CompletionStage<?>) observer.rejected(target, staticPart, joinPoint.getArgs()));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            } else {
+                CompletionStage<?> stage;
+                try {
+                    stage = (CompletionStage<?>) joinPoint.proceed();
+                } catch (Throwable e) {
+                    release(target, staticPart, null, e, result);
+                    return;
+                }
+                if (stage == null) {
+                    release(target, staticPart, null, null, result);
+                } else {
+                    stage.whenComplete((value, error) -> release(target, staticPart, value, error, result));
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Updates the {@link #observer} after the execution of an asynchronous
+     * happening, and completes the future returned to the caller. If the
+     * update fails, the future completes with that error, or the error is
+     * added as suppressed to the error of the execution.
+     */
+    private static void release(final Object target, final JoinPoint.StaticPart staticPart, final Object value,
+            Throwable error, final CompletableFuture<Object> result) {
+        try {
+            observer.update(target, staticPart, State.AFTER_EXECUTION);
+        } catch (Throwable callbackError) {
+            if (error == null) {
+                error = callbackError;
+            } else {
+                error.addSuppressed(callbackError);
+            }
+        }
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(value);
+        }
+    }
+
+    private static void completeWith(final CompletableFuture<Object> result, final CompletionStage<?> stage) {
+        if (stage == null) {
+            result.complete(null);
+        } else {
+            stage.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
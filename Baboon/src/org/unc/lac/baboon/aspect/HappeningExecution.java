@@ -0,0 +1,34 @@
+package org.unc.lac.baboon.aspect;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+
+/**
+ * An execution of a {@link HappeningController} annotated method, provided by
+ * {@link HappeningControllerJoinPointReporter} to the {@link JoinPointObserver}
+ * when the execution can be coalesced. The observer decides when, and on which
+ * thread, the body is executed, or hands the arguments of many executions to
+ * the {@link HappeningController#batch()} method instead.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see JoinPointObserver#coalesce(Object, org.aspectj.lang.JoinPoint.StaticPart, HappeningExecution)
+ */
+public interface HappeningExecution {
+    /**
+     * Executes the body of the {@link HappeningController} annotated method,
+     * with the arguments of the call.
+     *
+     * @throws Throwable
+     *            The exception thrown by the method.
+     */
+    void proceed() throws Throwable;
+
+    /**
+     * Returns the arguments of the call to the {@link HappeningController}
+     * annotated method.
+     *
+     * @return the arguments of the execution.
+     */
+    Object[] getArguments();
+}
@@ -1,6 +1,12 @@
 package org.unc.lac.baboon.aspect;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.aspectj.lang.JoinPoint;
+import org.unc.lac.baboon.annotations.AcquisitionMode;
 import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
 
 /**
  * Observer Interface. The classes implementing this interface can be subscribed
@@ -40,4 +46,136 @@ public interface JoinPointObserver {
      *            {@link HappeningController} annotated method.
      */
     void update(Object target, String methodName, JoinPointObserver.State state);
+
+    /**
+     * This method is called by {@link HappeningControllerJoinPointReporter}
+     * when a HappeningController method is about to be executed or when a
+     * HappeningController method execution just finished. The static part of
+     * the join point is the same object on every execution of the method, so
+     * observers can use it as a key to cache what they resolve on the first
+     * execution. By default, it calls {@link #update(Object, String, State)}
+     * with the name of the method.
+     * 
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param state
+     *            The {@link State} of the execution of the
+     *            {@link HappeningController} annotated method.
+     */
+    default void update(Object target, JoinPoint.StaticPart joinPointStaticPart, JoinPointObserver.State state) {
+        update(target, joinPointStaticPart.getSignature().getName(), state);
+    }
+
+    /**
+     * This method is called by {@link HappeningControllerJoinPointReporter}
+     * instead of {@link #update(Object, JoinPoint.StaticPart, State)} with
+     * {@link State#BEFORE_EXECUTION} when the {@link HappeningController}
+     * annotated method does not use {@link AcquisitionMode#BLOCK}. If it
+     * returns false, the method is not executed and
+     * {@link #rejected(Object, JoinPoint.StaticPart, Object[])} is called
+     * instead. By default, it calls
+     * {@link #update(Object, JoinPoint.StaticPart, State)} and returns true.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @return true if the method can be executed.
+     */
+    default boolean tryAcquire(Object target, JoinPoint.StaticPart joinPointStaticPart) {
+        update(target, joinPointStaticPart, State.BEFORE_EXECUTION);
+        return true;
+    }
+
+    /**
+     * This method is called by {@link HappeningControllerJoinPointReporter}
+     * instead of {@link #tryAcquire(Object, JoinPoint.StaticPart)} when the
+     * {@link HappeningController} annotated method returns a
+     * {@link CompletionStage}. The method is executed when the future
+     * returned completes with true, so the calling thread does not wait for
+     * the permission. If it completes with false,
+     * {@link #rejected(Object, JoinPoint.StaticPart, Object[])} is called
+     * instead. By default, it calls
+     * {@link #tryAcquire(Object, JoinPoint.StaticPart)} on the calling thread.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @return a {@link CompletableFuture} completed with true when the method
+     *         can be executed, or with false if it is rejected.
+     */
+    default CompletableFuture<Boolean> tryAcquireAsync(Object target, JoinPoint.StaticPart joinPointStaticPart) {
+        return CompletableFuture.completedFuture(tryAcquire(target, joinPointStaticPart));
+    }
+
+    /**
+     * This method is called by {@link HappeningControllerJoinPointReporter}
+     * when {@link #tryAcquire(Object, JoinPoint.StaticPart)} returns false.
+     * The value returned, or the exception thrown, is the result of the call to
+     * the {@link HappeningController} annotated method. By default, it throws
+     * a {@link HappeningRejectedException}.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param arguments
+     *            The arguments of the call to the method.
+     * @return the value to be returned by the rejected method.
+     * @throws Throwable
+     *            The exception to be thrown by the rejected method.
+     */
+    default Object rejected(Object target, JoinPoint.StaticPart joinPointStaticPart, Object[] arguments)
+            throws Throwable {
+        throw new HappeningRejectedException("The execution of " + joinPointStaticPart.getSignature().getName()
+                + " was rejected");
+    }
+
+    /**
+     * This method is called by {@link HappeningControllerJoinPointReporter}
+     * instead of {@link #update(Object, JoinPoint.StaticPart, State)} when the
+     * {@link HappeningController} annotated method allows its executions to be
+     * coalesced. The observer may buffer the execution and run it later,
+     * together with other executions of the same method, on any thread. By
+     * default, the execution is synchronized as any other
+     * {@link AcquisitionMode#BLOCK} happening, on the calling thread.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param execution
+     *            The body of the {@link HappeningController} annotated method.
+     * @throws Throwable
+     *            The exception thrown by the method, if it is executed on the
+     *            calling thread.
+     * @see HappeningController#coalescing()
+     */
+    default void coalesce(Object target, JoinPoint.StaticPart joinPointStaticPart, HappeningExecution execution)
+            throws Throwable {
+        update(target, joinPointStaticPart, State.BEFORE_EXECUTION);
+        try {
+            execution.proceed();
+        } finally {
+            update(target, joinPointStaticPart, State.AFTER_EXECUTION);
+        }
+    }
 }
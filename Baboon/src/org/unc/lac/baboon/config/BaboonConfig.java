@@ -3,7 +3,10 @@ package org.unc.lac.baboon.config;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.javatuples.Pair;
 import com.google.common.base.Strings;
 import javassist.Modifier;
@@ -18,10 +21,17 @@ import org.unc.lac.baboon.exceptions.InvalidGuardProviderMethod;
 import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
 import org.unc.lac.baboon.exceptions.NoTopicsJsonFileException;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.subscription.AbstractActionControllerSubscription;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.ComplexForkJoinTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.ComplexSecuentialTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
+import org.unc.lac.baboon.subscription.ReplicaFactory;
 import org.unc.lac.baboon.subscription.SimpleTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.TopicExecutionPlan;
 import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.baboon.topic.WaitStrategy;
 import org.unc.lac.baboon.utils.MethodDictionary;
 import org.unc.lac.baboon.utils.TopicsJsonParser;
 
@@ -34,6 +44,11 @@ import org.unc.lac.baboon.utils.TopicsJsonParser;
  * and {@link TaskController} annotated methods (and the instance of the object supposed
  * to run this methods) to a {@link Topic}
  * </p>
+ * <p>
+ * The subscriptions can be added and removed while the framework is running.
+ * The collections of subscriptions are immutable snapshots, replaced on every
+ * change, so they can be read without locking while they are modified.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -41,25 +56,26 @@ import org.unc.lac.baboon.utils.TopicsJsonParser;
  */
 public class BaboonConfig {
     /**
-     * Map containing all the {@link HappeningControllerSubscription} subscriptions
-     * registered in this {@link BaboonConfig}, indexed by a {@link Pair} of
-     * {@link HappeningActionController#actionObject} and
+     * Registry containing all the {@link HappeningControllerSubscription} subscriptions
+     * registered in this {@link BaboonConfig}, indexed by the identity of
+     * {@link HappeningActionController#actionObject} and by
      * {@link HappeningActionController#actionMethod}
      */
-    private HashMap<Pair<Object, Method>, HappeningControllerSubscription> happeningControllerSubscriptionsMap = new HashMap<>();
+    private final HappeningControllerRegistry happeningControllerSubscriptionsMap = new HappeningControllerRegistry();
 
     /**
      * List containing all the {@link SimpleTaskControllerSubscription} subscriptions
-     * registered in this {@link BaboonConfig}.
+     * registered in this {@link BaboonConfig}. It is an immutable snapshot,
+     * replaced on every change.
      */
-    private ArrayList<SimpleTaskControllerSubscription> simpleTaskSubscriptionsList = new ArrayList<>();
+    private volatile List<SimpleTaskControllerSubscription> simpleTaskSubscriptionsList = Collections.emptyList();
 
     /**
      * Map containing all the {@link ComplexSecuentialTaskControllerSubscription}
      * subscriptions registered in this {@link BaboonConfig}, indexed by name
-     * given by user.
+     * given by user. It is an immutable snapshot, replaced on every change.
      */
-    private HashMap<String, ComplexSecuentialTaskControllerSubscription> complexTaskMap = new HashMap<>();
+    private volatile Map<String, ComplexSecuentialTaskControllerSubscription> complexTaskMap = Collections.emptyMap();
 
     /**
      * Map of Topics registered this {@link BaboonConfig}, indexed by the names
@@ -67,6 +83,27 @@ public class BaboonConfig {
      */
     private HashMap<String, Topic> topicsList = new HashMap<>();
 
+    /**
+     * The {@link BaboonPetriCore} used to compile the {@link TopicExecutionPlan}
+     * of the subscriptions when they are registered. It might be null, in
+     * which case the plans are compiled when the subscriptions are executed.
+     */
+    private BaboonPetriCore petriCore;
+
+    /**
+     * Sets the {@link BaboonPetriCore} used to compile the
+     * {@link TopicExecutionPlan} of the subscriptions. After setting it, the
+     * transitions and guards of the topics are resolved when subscribing, so
+     * a topic referring to a transition or guard that does not exist on the
+     * petri net can not be subscribed.
+     * 
+     * @param petriCore
+     *            The {@link BaboonPetriCore} of the application.
+     */
+    public void setPetriCore(BaboonPetriCore petriCore) {
+        this.petriCore = petriCore;
+    }
+
     /**
      * Returns the {@link HappeningControllerSubscription} mapped to key on
      * {@link #happeningControllerSubscriptionsMap}
@@ -77,10 +114,60 @@ public class BaboonConfig {
      *            {@link HappeningControllerSubscription} is to be returned.
      * @return a {@link HappeningControllerSubscription} to which the specified key
      *         is mapped, or null if this map contains no mapping for the key.
-     * 
+     * @see #getHappeningController(Object, Method)
      */
     public HappeningControllerSubscription getHappeningController(Pair<Object, Method> key) {
-        return happeningControllerSubscriptionsMap.get(key);
+        return key == null ? null : happeningControllerSubscriptionsMap.get(key.getValue0(), key.getValue1());
+    }
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} of the object
+     * instance and method provided. The object is compared by identity, so its
+     * hashCode and equals methods are not called, and the lookup does not lock,
+     * so it can be done while subscribing.
+     * 
+     * @param object
+     *            The object instance, or null if the method is static.
+     * @param method
+     *            The {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} of the object and
+     *         method, or null if they are not subscribed.
+     */
+    public HappeningControllerSubscription getHappeningController(Object object, Method method) {
+        return happeningControllerSubscriptionsMap.get(object, method);
+    }
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} of the object
+     * instance and the method subscribed with the name provided. Only the
+     * methods subscribed for the object are considered, so an overloaded
+     * method is resolved as long as only one of its overloads is subscribed.
+     * 
+     * @param object
+     *            The object instance, or null if the method is static.
+     * @param methodsClass
+     *            The class of the object, or the class declaring the method if
+     *            it is static.
+     * @param methodName
+     *            The name of the {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} of the object and
+     *         method, or null if no method with that name is subscribed.
+     * @throws IllegalArgumentException
+     *             If more than one overload of the method is subscribed for
+     *             the object, or if methodsClass is null.
+     */
+    public HappeningControllerSubscription getHappeningController(Object object, Class<?> methodsClass,
+            String methodName) throws IllegalArgumentException {
+        if (methodsClass == null) {
+            throw new IllegalArgumentException("The class of the method can not be null");
+        }
+        List<HappeningControllerSubscription> subscriptions = happeningControllerSubscriptionsMap.getByName(object,
+                methodsClass, methodName);
+        if (subscriptions.size() > 1) {
+            throw new IllegalArgumentException("More than one overload of the method " + methodName
+                    + " is subscribed, the method must be resolved by its signature");
+        }
+        return subscriptions.isEmpty() ? null : subscriptions.get(0);
     }
 
     /**
@@ -96,12 +183,26 @@ public class BaboonConfig {
         return happeningControllerSubscriptionsMap.size();
     }
 
+    /**
+     * Returns a number that changes every time a
+     * {@link HappeningControllerSubscription} is unsubscribed. The
+     * {@link HappeningControllerSubscription} objects obtained from this
+     * {@link BaboonConfig} are still subscribed while the number returned does
+     * not change, so they can be cached and checked without locking.
+     * 
+     * @return the version of the happeningController subscriptions.
+     * @see #unsubscribeController(Object, String, Object...)
+     */
+    public int getHappeningControllersVersion() {
+        return happeningControllerSubscriptionsMap.getVersion();
+    }
+
     /**
      * This method returns a {@link Collection} containing all the
      * {@link SimpleTaskControllerSubscription} subscriptions registered in this
      * {@link BaboonConfig}.
      * 
-     * @return a {@link Collection} containing all the
+     * @return an unmodifiable snapshot of the
      *         {@link SimpleTaskControllerSubscription} subscriptions registered in this
      *         {@link BaboonConfig}.
      * 
@@ -115,7 +216,7 @@ public class BaboonConfig {
      * {@link ComplexSecuentialTaskControllerSubscription} subscriptions registered in
      * this {@link BaboonConfig}.
      * 
-     * @return a {@link Collection} containing all the
+     * @return an unmodifiable snapshot of the
      *         {@link ComplexSecuentialTaskControllerSubscription} subscriptions
      *         registered in this {@link BaboonConfig}.
      */
@@ -202,6 +303,8 @@ public class BaboonConfig {
      *            to resolve and subscribe the method.</li>
      *            </ul>
      * 
+     * @return the {@link HappeningControllerSubscription} or
+     *         {@link SimpleTaskControllerSubscription} created.
      * @throws NotSubscribableException
      *             <ul>
      *             <li>If the topicName provided as argument is null</li>
@@ -219,8 +322,17 @@ public class BaboonConfig {
      *             {@link HappeningController} or {@link TaskController}</li>
      *             <li>When trying to subscribe a {@link HappeningActionController}
      *             that is already subscribed</li>
+     *             <li>When trying to subscribe a {@link HappeningActionController}
+     *             that is not coalescing to a coalescing {@link Topic}, or to a
+     *             {@link Topic} with an invalid coalescing configuration</li>
      *             <li>When trying to subscribe a {@link TaskActionController} to a
      *             {@link Topic} with empty {@link Topic#permission}</li>
+     *             <li>When trying to subscribe a {@link TaskActionController} to a
+     *             {@link Topic} without {@link WaitStrategy} or with negative
+     *             spin tries</li>
+     *             <li>When trying to subscribe a {@link TaskActionController}
+     *             whose {@link TaskController#batch()} is not positive, or is
+     *             greater than one and its first parameter is not an int</li>
      *             <li>If the permission transition name is an empty String for
      *             a {@link SimpleTaskControllerSubscription}</li>
      *             <li>If the permission transition name is null for a
@@ -231,6 +343,8 @@ public class BaboonConfig {
      *             <li>If the {@link ActionController#actionObject} does not have a
      *             {@link GuardProvider} annotated method to handle a guard
      *             declared in the topic</li>
+     *             <li>If a {@link BaboonPetriCore} was set and the topic refers
+     *             to a transition or guard that can not be resolved on it</li>
      *             </ul>
      *
      * 
@@ -241,9 +355,56 @@ public class BaboonConfig {
      * @see SimpleTaskControllerSubscription
      * @see ComplexSecuentialTaskControllerSubscription
      */
-    public void subscribeControllerToTopic(String topicName, Object object, String methodName, Object... parameters)
+    public AbstractActionControllerSubscription subscribeControllerToTopic(String topicName, Object object,
+            String methodName, Object... parameters) throws NotSubscribableException {
+        return internalSubscribeToTopic(false, topicName, 0, null, object, methodName, parameters);
+    }
+
+    /**
+     * Subscribes an object instance, a method and the arguments of this method
+     * to one topic, as {@link #subscribeControllerToTopic(String, Object, String, Object...)}
+     * does, executing the {@link SimpleTaskControllerSubscription} with the
+     * number of replicas provided instead of {@link Topic#getReplicas()}. The
+     * method to be subscribed must be annotated with {@link TaskController}.
+     * 
+     * @param topicName
+     *            The name of the topic to be used for the subscription
+     * @param replicas
+     *            The number of replicas of the subscription.
+     * @param replicaFactory
+     *            The {@link ReplicaFactory} used to create the object instance of
+     *            each replica. It might be null, in which case all the replicas
+     *            share the object instance provided, which must be stateless or
+     *            thread safe.
+     * @param object
+     *            The object instance to subscribe on a new {@link TaskActionController}
+     *            as {@link ActionController#actionObject}
+     * @param methodName
+     *            The name of the method to subscribe on a new
+     *            {@link TaskActionController} as {@link ActionController#actionMethod}
+     * @param parameters
+     *            The parameters to be used as arguments of the method on the
+     *            new {@link TaskActionController}. They are shared by all the replicas.
+     * 
+     * @return the {@link HappeningControllerSubscription} or
+     *         {@link SimpleTaskControllerSubscription} created.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If replicas is less than one</li>
+     *             <li>If the method is annotated with {@link HappeningController}</li>
+     *             <li>For the same reasons of
+     *             {@link #subscribeControllerToTopic(String, Object, String, Object...)}</li>
+     *             </ul>
+     * 
+     * @see AbstractTaskControllerSubscription#setReplicas(int, ReplicaFactory)
+     */
+    public AbstractActionControllerSubscription subscribeReplicatedControllerToTopic(String topicName, int replicas,
+            ReplicaFactory replicaFactory, Object object, String methodName, Object... parameters)
             throws NotSubscribableException {
-         internalSubscribeToTopic(false, topicName, object, methodName, parameters);
+        if (replicas < 1) {
+            throw new NotSubscribableException("The replicas must be at least one");
+        }
+        return internalSubscribeToTopic(false, topicName, replicas, replicaFactory, object, methodName, parameters);
     }
     
     /**
@@ -276,6 +437,8 @@ public class BaboonConfig {
      *            to resolve and subscribe the method.</li>
      *            </ul>
      * 
+     * @return the {@link HappeningControllerSubscription} or
+     *         {@link SimpleTaskControllerSubscription} created.
      * @throws NotSubscribableException
      *             <ul>
      *             <li>If the topicName provided as argument is null</li>
@@ -294,8 +457,17 @@ public class BaboonConfig {
      *             {@link HappeningController} or {@link TaskController}</li>
      *             <li>When trying to subscribe a {@link HappeningActionController}
      *             that is already subscribed</li>
+     *             <li>When trying to subscribe a {@link HappeningActionController}
+     *             that is not coalescing to a coalescing {@link Topic}, or to a
+     *             {@link Topic} with an invalid coalescing configuration</li>
      *             <li>When trying to subscribe a {@link TaskActionController} to a
      *             {@link Topic} with empty {@link Topic#permission}</li>
+     *             <li>When trying to subscribe a {@link TaskActionController} to a
+     *             {@link Topic} without {@link WaitStrategy} or with negative
+     *             spin tries</li>
+     *             <li>When trying to subscribe a {@link TaskActionController}
+     *             whose {@link TaskController#batch()} is not positive, or is
+     *             greater than one and its first parameter is not an int</li>
      *             <li>If the permission transition name is an empty String for
      *             a {@link SimpleTaskControllerSubscription}</li>
      *             <li>If the permission transition name is null for a
@@ -306,6 +478,8 @@ public class BaboonConfig {
      *             <li>If the {@link ActionController#actionObject} does not have a
      *             {@link GuardProvider} annotated method to handle a guard
      *             declared in the topic</li>
+     *             <li>If a {@link BaboonPetriCore} was set and the topic refers
+     *             to a transition or guard that can not be resolved on it</li>
      *             </ul>
      *
      * 
@@ -316,12 +490,184 @@ public class BaboonConfig {
      * @see SimpleTaskControllerSubscription
      * @see ComplexSecuentialTaskControllerSubscription
      */
-    public void subscribeStaticControllerToTopic(String topicName, Class<?> methodsClass, String methodName, Object... parameters) throws NotSubscribableException{
-        internalSubscribeToTopic(true, topicName, methodsClass, methodName, parameters);
+    public AbstractActionControllerSubscription subscribeStaticControllerToTopic(String topicName, Class<?> methodsClass,
+            String methodName, Object... parameters) throws NotSubscribableException {
+        return internalSubscribeToTopic(true, topicName, 0, null, methodsClass, methodName, parameters);
     }
     
-    private void internalSubscribeToTopic(boolean staticMethod, String topicName, Object object, String methodName, Object... parameters)
-            throws NotSubscribableException{
+    /**
+     * Unsubscribes an object instance and a method from its topics. The
+     * {@link HappeningControllerSubscription} or the
+     * {@link SimpleTaskControllerSubscription} objects of the object and the
+     * method are removed. The object is compared by identity, and the method
+     * is resolved with the parameters as on
+     * {@link #subscribeControllerToTopic(String, Object, String, Object...)}.
+     * <p>
+     * This method can be called while the happeningControllers are being
+     * executed. The replicas of the {@link SimpleTaskControllerSubscription}
+     * objects removed that are already being executed are not stopped by this
+     * method. The guard suppliers registered by the subscriptions removed are
+     * removed too.
+     * </p>
+     * 
+     * @param object
+     *            The object instance subscribed.
+     * @param methodName
+     *            The name of the method subscribed.
+     * @param parameters
+     *            The parameters used to subscribe the method.
+     * @return the subscriptions removed, which is an empty list if the object
+     *         and method were not subscribed.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the object or the methodName provided are null</li>
+     *             <li>If the framework fails to resolve the method</li>
+     *             </ul>
+     */
+    public List<AbstractActionControllerSubscription> unsubscribeController(Object object, String methodName,
+            Object... parameters) throws NotSubscribableException {
+        return internalUnsubscribe(false, object, methodName, parameters);
+    }
+
+    /**
+     * Unsubscribes a static method from its topics, as
+     * {@link #unsubscribeController(Object, String, Object...)} does.
+     * 
+     * @param methodsClass
+     *            The class declaring the static method subscribed.
+     * @param methodName
+     *            The name of the method subscribed.
+     * @param parameters
+     *            The parameters used to subscribe the method.
+     * @return the subscriptions removed, which is an empty list if the method
+     *         was not subscribed.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the methodsClass or the methodName provided are null</li>
+     *             <li>If the framework fails to resolve the method</li>
+     *             <li>If the method resolved is not static</li>
+     *             </ul>
+     */
+    public List<AbstractActionControllerSubscription> unsubscribeStaticController(Class<?> methodsClass,
+            String methodName, Object... parameters) throws NotSubscribableException {
+        return internalUnsubscribe(true, methodsClass, methodName, parameters);
+    }
+
+    private synchronized List<AbstractActionControllerSubscription> internalUnsubscribe(boolean staticMethod,
+            Object object, String methodName, Object... parameters) throws NotSubscribableException {
+        if (object == null) {
+            throw new NotSubscribableException("Cannot unsubscribe a null object");
+        }
+        if (methodName == null) {
+            throw new NotSubscribableException("Cannot unsubscribe a null method name");
+        }
+        Method method = resolveMethod(staticMethod, object, methodName, parameters);
+        List<AbstractActionControllerSubscription> removed = new ArrayList<>();
+        HappeningControllerSubscription happeningController = happeningControllerSubscriptionsMap
+                .remove(staticMethod ? null : object, method);
+        if (happeningController != null) {
+            removed.add(happeningController);
+        }
+        ArrayList<SimpleTaskControllerSubscription> newSimpleTasks = new ArrayList<>(simpleTaskSubscriptionsList.size());
+        for (SimpleTaskControllerSubscription taskSubscription : simpleTaskSubscriptionsList) {
+            if (taskSubscription.getAction(0).isActionOf(object, method)) {
+                removed.add(taskSubscription);
+            } else {
+                newSimpleTasks.add(taskSubscription);
+            }
+        }
+        if (newSimpleTasks.size() != simpleTaskSubscriptionsList.size()) {
+            simpleTaskSubscriptionsList = Collections.unmodifiableList(newSimpleTasks);
+        }
+        for (AbstractActionControllerSubscription subscription : removed) {
+            subscription.removeGuardSuppliers();
+        }
+        return removed;
+    }
+
+    private synchronized void addSimpleTaskSubscription(SimpleTaskControllerSubscription taskSubscription) {
+        ArrayList<SimpleTaskControllerSubscription> newSimpleTasks = new ArrayList<>(simpleTaskSubscriptionsList);
+        newSimpleTasks.add(taskSubscription);
+        simpleTaskSubscriptionsList = Collections.unmodifiableList(newSimpleTasks);
+    }
+
+    /**
+     * Checks the {@link WaitStrategy} configuration of a topic used by a
+     * taskController subscription.
+     * 
+     * @param topic
+     *            The topic of the subscription.
+     * @throws NotSubscribableException
+     *             If the topic has no wait strategy or its spin tries are
+     *             negative.
+     */
+    private void checkWaitStrategy(Topic topic) throws NotSubscribableException {
+        if (topic.getWaitStrategy() == null) {
+            throw new NotSubscribableException("The wait strategy of the topic cannot be null");
+        }
+        if (topic.getSpinTries() < 0) {
+            throw new NotSubscribableException("The spin tries of the topic cannot be negative");
+        }
+    }
+
+    /**
+     * Resolves the method to subscribe, or unsubscribe, by its name and the
+     * classes of the parameters.
+     */
+    private Method resolveMethod(boolean staticMethod, Object object, String methodName, Object... parameters)
+            throws NotSubscribableException {
+        Class<?>[] paramClasses = new Class<?>[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            paramClasses[i] = parameters[i].getClass();
+        }
+        try {
+            Method method = lookupMethod(staticMethod, object, methodName, paramClasses);
+            if (staticMethod && !Modifier.isStatic(method.getModifiers())) {
+                throw new NotSubscribableException("The method to subscribe is not static");
+            }
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new NotSubscribableException("This method does not exist on object provided", e);
+        } catch (SecurityException e) {
+            throw new NotSubscribableException("Security violation while trying to get method provided", e);
+        }
+    }
+
+    /**
+     * Resolves a method by its name and the classes of the parameters. If
+     * there is no such method, a {@link TaskController} with a batch greater
+     * than one is looked for, whose first parameter receives the number of
+     * permissions fired and is not provided on subscription.
+     * 
+     * @see TaskController#batch()
+     */
+    private static Method lookupMethod(boolean staticMethod, Object object, String methodName,
+            Class<?>[] paramClasses) throws NoSuchMethodException, SecurityException {
+        try {
+            return staticMethod ? MethodDictionary.getStaticMethod((Class<?>) object, methodName, paramClasses)
+                    : MethodDictionary.getMethod(object, methodName, paramClasses);
+        } catch (NoSuchMethodException e) {
+            Class<?>[] batchParamClasses = new Class<?>[paramClasses.length + 1];
+            batchParamClasses[0] = int.class;
+            System.arraycopy(paramClasses, 0, batchParamClasses, 1, paramClasses.length);
+            Method method;
+            try {
+                method = staticMethod ? MethodDictionary.getStaticMethod((Class<?>) object, methodName, batchParamClasses)
+                        : MethodDictionary.getMethod(object, methodName, batchParamClasses);
+            } catch (NoSuchMethodException batchException) {
+                throw e;
+            }
+            TaskController taskController = method.getAnnotation(TaskController.class);
+            if (taskController == null || taskController.batch() <= 1) {
+                throw e;
+            }
+            return method;
+        }
+    }
+
+    private AbstractActionControllerSubscription internalSubscribeToTopic(boolean staticMethod, String topicName,
+            int replicas, ReplicaFactory replicaFactory, Object object, String methodName, Object... parameters)
+            throws NotSubscribableException {
         Class<?>[] paramClasses = new Class<?>[parameters.length];
         for (int i = 0; i < parameters.length; i++) {
             paramClasses[i] = parameters[i].getClass();
@@ -344,32 +690,51 @@ public class BaboonConfig {
         Pair<Object, Method> key;
         try {
             if(!staticMethod){
-                method = MethodDictionary.getMethod(object, methodName, paramClasses);
+                method = lookupMethod(false, object, methodName, paramClasses);
                 key = new Pair<>(object, method);
             }
             else{
-                method = MethodDictionary.getStaticMethod((Class<?>) object, methodName, paramClasses);
+                method = lookupMethod(true, object, methodName, paramClasses);
                 if(!Modifier.isStatic(method.getModifiers())){
                     throw new NotSubscribableException("The method to subscribe is not static");
                 }
                 key = new Pair<>(null, method);
             }
             if (method.isAnnotationPresent(HappeningController.class)) {
+                if (replicas > 0) {
+                    throw new NotSubscribableException("Replicas can only be set for taskControllers");
+                }
                 HappeningActionController happeningController;
                 try {
                     happeningController = new HappeningActionController(object, method);
+                    if (topic.getCoalescingBatchSize() < 1) {
+                        throw new NotSubscribableException("The coalescing batch size of the topic must be positive");
+                    }
+                    if (topic.isCoalescing()) {
+                        if (!happeningController.isCoalescing()) {
+                            throw new NotSubscribableException(
+                                    "The happeningController must be coalescing to be subscribed to a coalescing topic");
+                        }
+                        if (topic.getCoalescingWindow() <= 0) {
+                            throw new NotSubscribableException("The coalescing window of the topic must be positive");
+                        }
+                    }
                     HappeningControllerSubscription happeningControllerSubscription = new HappeningControllerSubscription(topic,
                             happeningController);
-                    if (happeningControllerSubscriptionsMap.putIfAbsent(key, happeningControllerSubscription) != null) {
+                    compileExecutionPlan(happeningControllerSubscription);
+                    if (happeningControllerSubscriptionsMap.putIfAbsent(key.getValue0(), key.getValue1(),
+                            happeningControllerSubscription) != null) {
                         throw new NotSubscribableException(
                                 "The happeningController is already subscribed to another topic.");
                     }
+                    return happeningControllerSubscription;
                 } catch (MultipleGuardProvidersException | InvalidGuardProviderMethod e) {
                     throw new NotSubscribableException("Error resolving GuardProvider Methods", e);
                 } catch (IllegalArgumentException e) {
                     throw new NotSubscribableException("Error creating HappeningActionController", e);
                 }
             } else if (method.isAnnotationPresent(TaskController.class)) {
+                checkWaitStrategy(topic);
                 if (topic.getPermission().isEmpty()) {
                     throw new NotSubscribableException(
                             "Cannot subscribe a taskController to a topic with empty permission array.");
@@ -384,7 +749,12 @@ public class BaboonConfig {
                 try {
                     taskController = new TaskActionController(object, method, parameters);
                     SimpleTaskControllerSubscription taskSubscription = new SimpleTaskControllerSubscription(topic, taskController);
-                    simpleTaskSubscriptionsList.add(taskSubscription);
+                    if (replicas > 0) {
+                        taskSubscription.setReplicas(replicas, replicaFactory);
+                    }
+                    compileExecutionPlan(taskSubscription);
+                    addSimpleTaskSubscription(taskSubscription);
+                    return taskSubscription;
                 } catch (MultipleGuardProvidersException | InvalidGuardProviderMethod e) {
                     throw new NotSubscribableException("Error resolving GuardProvider Methods", e);
                 } catch (IllegalArgumentException e) {
@@ -426,9 +796,80 @@ public class BaboonConfig {
      *             <li>If there are guard callbacks on the topic and
      *             {@link Topic#setGuardCallback} and {@link Topic#permission}
      *             sizes are different.</li>
+     *             <li>If the {@link Topic} has no wait strategy or its spin
+     *             tries are negative</li>
      *             </ul>
      */
     public void createNewComplexTaskController(String complexTaskName, String topicName) throws NotSubscribableException {
+        registerComplexTaskController(complexTaskName, topicName, false);
+    }
+
+    /**
+     * Creates a new {@link ComplexForkJoinTaskControllerSubscription}. Its
+     * taskControllers are appended as the ones of a
+     * {@link ComplexSecuentialTaskControllerSubscription}, on its last stage,
+     * and a new stage is begun by
+     * {@link #addStageToForkJoinTaskController(String)}.
+     * 
+     * @param complexTaskName
+     *            A name to identify this complex taskController. This name must be unique.
+     * @param topicName
+     *            The name of the topic to be used for the subscription
+     * 
+     * @see Topic
+     * @see ComplexForkJoinTaskControllerSubscription
+     * @see TaskActionController
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If complexTaskName is empty String</li>
+     *             <li>If complexTaskName is null</li>
+     *             <li>If complexTaskName is already registered</li>
+     *             <li>If topicName is empty String</li>
+     *             <li>When a topic with name topicName does not exist</li>
+     *             <li>When the {@link Topic} has an empty
+     *             {@link Topic#permission}</li>
+     *             <li>If there are guard callbacks on the topic and
+     *             {@link Topic#setGuardCallback} and {@link Topic#permission}
+     *             sizes are different.</li>
+     *             <li>If the {@link Topic} has no wait strategy or its spin
+     *             tries are negative</li>
+     *             </ul>
+     */
+    public void createNewForkJoinTaskController(String complexTaskName, String topicName) throws NotSubscribableException {
+        registerComplexTaskController(complexTaskName, topicName, true);
+    }
+
+    /**
+     * Closes the last stage of the {@link ComplexForkJoinTaskControllerSubscription}
+     * identified by complexTaskName, so the next taskController appended to it
+     * begins a new stage. The taskControllers of a stage are executed
+     * concurrently, and the next stage begins after all of them end.
+     * 
+     * @param complexTaskName
+     *            The name given to the complex taskController on
+     *            {@link #createNewForkJoinTaskController(String, String)}.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If there is no complex taskController with the name complexTaskName</li>
+     *             <li>If the complex taskController is not a
+     *             {@link ComplexForkJoinTaskControllerSubscription}</li>
+     *             <li>If its last stage has no taskControllers</li>
+     *             </ul>
+     */
+    public void addStageToForkJoinTaskController(String complexTaskName) throws NotSubscribableException {
+        ComplexSecuentialTaskControllerSubscription complexTask = getComplexSecuentialTask(complexTaskName);
+        if (complexTask == null) {
+            throw new NotSubscribableException("There is no complex taskController with the name " + complexTaskName);
+        }
+        if (!(complexTask instanceof ComplexForkJoinTaskControllerSubscription)) {
+            throw new NotSubscribableException("The complex taskController " + complexTaskName + " has no stages");
+        }
+        ((ComplexForkJoinTaskControllerSubscription) complexTask).addStage();
+    }
+
+    private void registerComplexTaskController(String complexTaskName, String topicName, boolean forkJoin)
+            throws NotSubscribableException {
         Topic topic = getTopicByName(topicName);
         if (Strings.isNullOrEmpty(complexTaskName)) {
             throw new NotSubscribableException("TaskController name cannot be empty or null");
@@ -439,10 +880,77 @@ public class BaboonConfig {
         if (topic.getPermission().isEmpty()) {
             throw new NotSubscribableException("The topic permission array cannot be empty for a taskController subscription");
         }
-        ComplexSecuentialTaskControllerSubscription taskController = new ComplexSecuentialTaskControllerSubscription(topic);
-        if (complexTaskMap.putIfAbsent(complexTaskName, taskController) != null) {
-            throw new NotSubscribableException("Already registered a taskController with the name " + complexTaskName);
+        checkWaitStrategy(topic);
+        ComplexSecuentialTaskControllerSubscription taskController = forkJoin
+                ? new ComplexForkJoinTaskControllerSubscription(topic)
+                : new ComplexSecuentialTaskControllerSubscription(topic);
+        synchronized (this) {
+            if (complexTaskMap.containsKey(complexTaskName)) {
+                throw new NotSubscribableException("Already registered a taskController with the name " + complexTaskName);
+            }
+            HashMap<String, ComplexSecuentialTaskControllerSubscription> newComplexTaskMap = new HashMap<>(complexTaskMap);
+            newComplexTaskMap.put(complexTaskName, taskController);
+            complexTaskMap = Collections.unmodifiableMap(newComplexTaskMap);
+        }
+    }
+
+    /**
+     * Removes the {@link ComplexSecuentialTaskControllerSubscription} with the
+     * name provided. The replicas of the complex taskController already being
+     * executed are not stopped by this method, but its guard suppliers are
+     * removed.
+     * 
+     * @param complexTaskName
+     *            The name given to the complex taskController on
+     *            {@link #createNewComplexTaskController(String, String)}.
+     * @return the {@link ComplexSecuentialTaskControllerSubscription} removed,
+     *         or null if there is no complex taskController with that name.
+     */
+    public synchronized ComplexSecuentialTaskControllerSubscription removeComplexTaskController(String complexTaskName) {
+        ComplexSecuentialTaskControllerSubscription complexTask = complexTaskMap.get(complexTaskName);
+        if (complexTask != null) {
+            HashMap<String, ComplexSecuentialTaskControllerSubscription> newComplexTaskMap = new HashMap<>(complexTaskMap);
+            newComplexTaskMap.remove(complexTaskName);
+            complexTaskMap = Collections.unmodifiableMap(newComplexTaskMap);
+            complexTask.removeGuardSuppliers();
+        }
+        return complexTask;
+    }
+
+    /**
+     * Sets the number of replicas of the {@link ComplexSecuentialTaskControllerSubscription}
+     * identified by complexTaskName, instead of using {@link Topic#getReplicas()}.
+     * 
+     * @param complexTaskName
+     *            The name that identifies the complex taskController, it is provided on
+     *            {@link #createNewComplexTaskController(String, String)} when creating
+     *            the taskController.
+     * @param replicas
+     *            The number of replicas of the complex taskController.
+     * @param replicaFactory
+     *            The {@link ReplicaFactory} used to create the object instances of
+     *            each replica. It might be null, in which case all the replicas
+     *            share the object instances subscribed, which must be stateless or
+     *            thread safe.
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If there is no complex taskController with the name complexTaskName</li>
+     *             <li>If replicas is less than one</li>
+     *             </ul>
+     * 
+     * @see AbstractTaskControllerSubscription#setReplicas(int, ReplicaFactory)
+     */
+    public void setComplexTaskControllerReplicas(String complexTaskName, int replicas, ReplicaFactory replicaFactory)
+            throws NotSubscribableException {
+        ComplexSecuentialTaskControllerSubscription complexTask = getComplexSecuentialTask(complexTaskName);
+        if (complexTask == null) {
+            throw new NotSubscribableException("There is no complex taskController with the name " + complexTaskName);
+        }
+        if (replicas < 1) {
+            throw new NotSubscribableException("The replicas must be at least one");
         }
+        complexTask.setReplicas(replicas, replicaFactory);
     }
 
     /**
@@ -478,6 +986,8 @@ public class BaboonConfig {
      *             <li>If there's an exception on
      *             {@link ActionController#resolveGuardProviderMethods()}</li>
      *             <li>If the method is not annotated with {@link TaskController}</li>
+     *             <li>If the {@link TaskController#batch()} of the method is
+     *             not one</li>
      *             <li>If the {@link TaskActionController} object does not have a
      *             {@link GuardProvider} annotated method to handle a guard
      *             declared in the topic</li>
@@ -490,6 +1000,8 @@ public class BaboonConfig {
      *             null</li>
      *             <li>If fails to append the {@link TaskActionController} to
      *             {@link ComplexSecuentialTaskControllerSubscription}.</li>
+     *             <li>If a {@link BaboonPetriCore} was set and the topic refers
+     *             to a transition or guard that can not be resolved on it</li>
      *             </ul>
      *
      */
@@ -531,6 +1043,8 @@ public class BaboonConfig {
      *             <li>If an exception is thrown on
      *             {@link ActionController#resolveGuardProviderMethods()}</li>
      *             <li>If the method is not annotated with {@link TaskController}</li>
+     *             <li>If the {@link TaskController#batch()} of the method is
+     *             not one</li>
      *             <li>If the {@link TaskActionController} object does not have a
      *             {@link GuardProvider} annotated method to handle a guard
      *             declared in the topic</li>
@@ -543,6 +1057,8 @@ public class BaboonConfig {
      *             null</li>
      *             <li>If fails to append the {@link TaskActionController} to
      *             {@link ComplexSecuentialTaskControllerSubscription}.</li>
+     *             <li>If a {@link BaboonPetriCore} was set and the topic refers
+     *             to a transition or guard that can not be resolved on it</li>
      *             </ul>
      */
     public void appendStaticControllerToComplexTaskController(String complexTaskName, Class<?> methodsClass, String methodName, Object... parameters)
@@ -580,8 +1096,12 @@ public class BaboonConfig {
                 if (complexTask == null) {
                     throw new NotSubscribableException(
                             "The complex taskController with name " + complexTaskName + " does not exists");
+                } else if (method.getAnnotation(TaskController.class).batch() != 1) {
+                    throw new NotSubscribableException(
+                            "A complex taskController can only contain taskControllers with a batch of one");
                 } else {
                     complexTask.addTask(new TaskActionController(object, method, parameters));
+                    compileExecutionPlan(complexTask);
                 }
             } else {
                 throw new NotSubscribableException("The method should be annotated with TaskController annotation");
@@ -596,4 +1116,21 @@ public class BaboonConfig {
 
     }
 
+    /**
+     * Compiles the {@link TopicExecutionPlan} of the subscription provided if
+     * a {@link BaboonPetriCore} was set. Otherwise no actions are taken.
+     * 
+     * @param subscription
+     *            The subscription whose plan is to be compiled.
+     * @throws NotSubscribableException
+     *             If the topic of the subscription refers to a transition or
+     *             guard that can not be resolved on the {@link BaboonPetriCore}
+     * @see AbstractActionControllerSubscription#getExecutionPlan(BaboonPetriCore)
+     */
+    private void compileExecutionPlan(AbstractActionControllerSubscription subscription) throws NotSubscribableException {
+        if (petriCore != null) {
+            subscription.getExecutionPlan(petriCore);
+        }
+    }
+
 }
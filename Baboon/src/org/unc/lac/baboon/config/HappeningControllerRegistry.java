@@ -0,0 +1,221 @@
+package org.unc.lac.baboon.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
+
+/**
+ * A HappeningControllerRegistry maps an object instance and a
+ * {@link HappeningController} annotated method to its
+ * {@link HappeningControllerSubscription}.
+ * <p>
+ * The objects are compared by identity and hashed with
+ * {@link System#identityHashCode(Object)}, so the hashCode and equals methods
+ * of the user objects are never called. The subscriptions are kept on a hash
+ * table that is replaced, and never modified, when a subscription is
+ * registered or removed, so lookups do not lock and see either the old or the
+ * new table. Registrations and removals are serialized.
+ * </p>
+ * <p>
+ * The registry references the objects strongly, as their subscriptions do
+ * through {@link org.unc.lac.baboon.actioncontroller.HappeningActionController}.
+ * An object subscribed to a topic stays reachable until all its
+ * {@link HappeningController} methods are unsubscribed.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+final class HappeningControllerRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile Node[] table = new Node[INITIAL_CAPACITY];
+    private int size;
+    /**
+     * Incremented every time a subscription is removed.
+     */
+    private volatile int version;
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} of an object and a
+     * method, without locking.
+     *
+     * @param target
+     *            The object instance, or null if the method is static.
+     * @param method
+     *            The {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription}, or null if the
+     *         object and method are not registered.
+     */
+    HappeningControllerSubscription get(Object target, Method method) {
+        if (method == null) {
+            return null;
+        }
+        Node[] tab = table;
+        int hash = hash(target, method);
+        for (Node node = tab[hash & (tab.length - 1)]; node != null; node = node.next) {
+            if (node.matches(hash, target, method)) {
+                return node.subscription;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} objects of an object
+     * whose method has the name provided, without locking. Every entry of the
+     * table is checked, so it is slower than {@link #get(Object, Method)}.
+     *
+     * @param target
+     *            The object instance, or null if the method is static.
+     * @param methodsClass
+     *            The class of the object, or the class declaring the method if
+     *            it is static.
+     * @param methodName
+     *            The name of the {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} objects of the
+     *         overloads of the method subscribed for the object. The list is
+     *         empty if none is subscribed.
+     */
+    List<HappeningControllerSubscription> getByName(Object target, Class<?> methodsClass, String methodName) {
+        List<HappeningControllerSubscription> subscriptions = new ArrayList<>(1);
+        for (Node head : table) {
+            for (Node node = head; node != null; node = node.next) {
+                if (node.target == target && node.method.getName().equals(methodName)
+                        && node.method.getDeclaringClass().isAssignableFrom(methodsClass)) {
+                    subscriptions.add(node.subscription);
+                }
+            }
+        }
+        return subscriptions;
+    }
+
+    /**
+     * Registers the {@link HappeningControllerSubscription} of an object and a
+     * method, unless they are already registered.
+     *
+     * @param target
+     *            The object instance, or null if the method is static.
+     * @param method
+     *            The {@link HappeningController} annotated method.
+     * @param subscription
+     *            The {@link HappeningControllerSubscription} to register.
+     * @return the {@link HappeningControllerSubscription} already registered,
+     *         or null if the subscription provided was registered.
+     */
+    synchronized HappeningControllerSubscription putIfAbsent(Object target, Method method,
+            HappeningControllerSubscription subscription) {
+        HappeningControllerSubscription existing = get(target, method);
+        if (existing != null) {
+            return existing;
+        }
+        Node[] tab = table;
+        int capacity = tab.length;
+        if ((size + 1) * 4 > capacity * 3) {
+            capacity *= 2;
+        }
+        Node[] newTable = copy(tab, capacity, null);
+        int hash = hash(target, method);
+        int index = hash & (capacity - 1);
+        newTable[index] = new Node(target, method, hash, subscription, newTable[index]);
+        size++;
+        table = newTable;
+        return null;
+    }
+
+    /**
+     * Removes the {@link HappeningControllerSubscription} of an object and a
+     * method, and increments the {@link #getVersion() version} of the
+     * registry.
+     *
+     * @param target
+     *            The object instance, or null if the method is static.
+     * @param method
+     *            The {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} removed, or null if
+     *         the object and method were not registered.
+     */
+    synchronized HappeningControllerSubscription remove(Object target, Method method) {
+        HappeningControllerSubscription existing = get(target, method);
+        if (existing == null) {
+            return null;
+        }
+        table = copy(table, table.length, existing);
+        version++;
+        return existing;
+    }
+
+    /**
+     * Returns the version of the registry, which changes every time a
+     * subscription is removed. A subscription obtained from the registry is
+     * still registered while the version does not change.
+     *
+     * @return the version of the registry.
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of subscriptions registered.
+     *
+     * @return the number of subscriptions registered.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Copies the entries of a table into a new table of the capacity
+     * provided, except the entry of the subscription excluded, and counts them.
+     */
+    private Node[] copy(Node[] tab, int capacity, HappeningControllerSubscription excluded) {
+        Node[] newTable = new Node[capacity];
+        int count = 0;
+        for (Node head : tab) {
+            for (Node node = head; node != null; node = node.next) {
+                if (node.subscription != excluded) {
+                    int index = node.hash & (capacity - 1);
+                    newTable[index] = new Node(node.target, node.method, node.hash, node.subscription,
+                            newTable[index]);
+                    count++;
+                }
+            }
+        }
+        size = count;
+        return newTable;
+    }
+
+    private static int hash(Object target, Method method) {
+        int h = 31 * System.identityHashCode(target) + method.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An entry of the table. It is never modified after it is published.
+     */
+    private static final class Node {
+        final Object target;
+        final Method method;
+        final int hash;
+        final HappeningControllerSubscription subscription;
+        final Node next;
+
+        Node(Object target, Method method, int hash, HappeningControllerSubscription subscription, Node next) {
+            this.target = target;
+            this.method = method;
+            this.hash = hash;
+            this.subscription = subscription;
+            this.next = next;
+        }
+
+        boolean matches(int hash, Object target, Method method) {
+            return this.hash == hash && this.target == target
+                    && (this.method == method || this.method.equals(method));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.unc.lac.baboon.exceptions;
+
+import org.unc.lac.baboon.annotations.AcquisitionMode;
+import org.unc.lac.baboon.annotations.HappeningController;
+
+/**
+ * This exception is thrown when the execution of a {@link HappeningController}
+ * annotated method, with an {@link AcquisitionMode} other than
+ * {@link AcquisitionMode#BLOCK}, is rejected because its permission transition
+ * could not be fired, and the method does not declare a fallback method. As it
+ * is thrown from the user's method, it is an unchecked exception.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see HappeningController#fallback()
+ */
+public class HappeningRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 4105796204671552312L;
+
+    public HappeningRejectedException() {
+        super("The permission of the happeningController was not acquired");
+    }
+
+    public HappeningRejectedException(String message) {
+        super(message);
+    }
+
+    public HappeningRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
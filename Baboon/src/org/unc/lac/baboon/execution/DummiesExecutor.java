@@ -6,16 +6,28 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * A pool of threads used by Baboon framework to execute the {@link DummyThread}
- * objects.
+ * objects. Every {@link DummyThread} is executed on its own platform thread.
+ * <p>
+ * The core pool grows by one with every {@link DummyThread} executed, and
+ * shrinks by one with every {@link DummyThread} stopped. The size of the core
+ * pool is updated while holding the lock of the executor, so concurrent
+ * executions and stops do not lose updates. A thread left without a
+ * {@link DummyThread} ends after a minute idle.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
  * @version 1.0
  */
-public class DummiesExecutor extends ThreadPoolExecutor {
+public class DummiesExecutor extends ThreadPoolExecutor implements TaskExecutionStrategy {
+    /**
+     * The time an idle thread is kept before it ends, in seconds.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60;
 
     public DummiesExecutor() {
-        super(0, Integer.MAX_VALUE, Long.MAX_VALUE, TimeUnit.HOURS, new SynchronousQueue<Runnable>());
+        super(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+        allowCoreThreadTimeOut(true);
     }
 
     /**
@@ -29,8 +41,23 @@ public class DummiesExecutor extends ThreadPoolExecutor {
      *      is called by this {@link ThreadPoolExecutor}.
      *       
      */
-    public void executeDummy(DummyThread dummy) {
+    @Override
+    public synchronized void executeDummy(DummyThread dummy) {
         this.setCorePoolSize(this.getCorePoolSize() + 1);
         this.submit(dummy);
     }
-}
\ No newline at end of file
+
+    /**
+     * This method stops a {@link DummyThread} object and decreases in one the
+     * size of the core pool, so the thread executing it can finish when the
+     * {@link DummyThread} stops.
+     * 
+     * @param dummy
+     *      the {@link DummyThread} object to be stopped.
+     */
+    @Override
+    public synchronized void stopDummy(DummyThread dummy) {
+        dummy.stop();
+        this.setCorePoolSize(Math.max(0, this.getCorePoolSize() - 1));
+    }
+}
@@ -1,16 +1,30 @@
 package org.unc.lac.baboon.execution;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.unc.lac.baboon.actioncontroller.TaskActionController;
+import org.unc.lac.baboon.annotations.TaskController;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.FiringReport;
 import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.ComplexForkJoinTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.ComplexSecuentialTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.SimpleTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.TopicExecutionPlan;
 import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.baboon.topic.WaitStrategy;
 import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
 import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
 
@@ -24,6 +38,33 @@ import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
  * {@link AbstractTaskControllerSubscription} and finally, after the execution of the last
  * taskController, fires the transition callback. After setting the callback, the thread
  * starts the taskController execution process over again.
+ * <p>
+ * The execution can be stopped by {@link #stop()}. The DummyThread stops at the
+ * end of an iteration, after the transition callback is fired, so the execution
+ * of a complex taskController is never left halfway. The first permission of
+ * an iteration is waited for on the petri monitor by
+ * {@link BaboonPetriCore#fireTransition(int, java.util.function.BooleanSupplier)},
+ * and {@link #stop()} gives up that wait through
+ * {@link BaboonPetriCore#wakeUp(int, Thread)}.
+ * </p>
+ * <p>
+ * The permissions are waited for as the {@link WaitStrategy} of the
+ * {@link Topic} of the subscription indicates.
+ * </p>
+ * <p>
+ * A simple taskController with a {@link TaskController#batch()} greater than
+ * one fires its permission as many times as it is enabled, up to the batch
+ * size, and is executed once for all of them. Its guard callback is set once
+ * and its transition callback is fired once per permission fired.
+ * </p>
+ * <p>
+ * The taskControllers of a stage of a
+ * {@link ComplexForkJoinTaskControllerSubscription} are executed
+ * concurrently. The first one is executed by the thread executing the
+ * DummyThread, and the rest are forked on a shared {@link ForkJoinPool}, where
+ * each one fires its own permission. The next stage begins after all of them
+ * end.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -40,15 +81,84 @@ public class DummyThread implements Callable<Void> {
      * The Petri core used to synchronize the execution of the taskController.
      */
     private BaboonPetriCore petriCore;
+    /**
+     * The execution plan of the taskController, compiled for {@link #petriCore}.
+     */
+    private TopicExecutionPlan executionPlan;
+    /**
+     * The indexes of the guard callback of each taskController, taken from
+     * {@link #executionPlan}.
+     */
+    private int[][] guardIndexes;
+    /**
+     * Buffers where the guard values of each taskController are collected
+     * before setting them together on {@link #petriCore}.
+     */
+    private boolean[][] guardValues;
+    /**
+     * The indexes of the fire callback, taken from {@link #executionPlan}.
+     */
+    private int[] fireCallbackIndexes;
+    /**
+     * How the permissions are waited for, taken from the {@link Topic} of
+     * the subscription.
+     */
+    private WaitStrategy waitStrategy;
+    /**
+     * The number of times a permission is checked before waiting on the petri
+     * monitor, for the {@link WaitStrategy#SPIN_THEN_PARK} strategy.
+     */
+    private int spinTries;
+    /**
+     * The maximum number of permissions fired for a single execution, taken
+     * from the {@link TaskController#batch()} of a simple taskController. It
+     * is one for complex taskControllers.
+     */
+    private int batch;
+    /**
+     * The number of permissions fired for the taskController being executed.
+     */
+    private int acquiredPermissions = 1;
+    /**
+     * The index following the last taskController of the stage of each
+     * taskController.
+     * 
+     * @see AbstractTaskControllerSubscription#getStageEnd(int)
+     */
+    private int[] stageEnds;
+    /**
+     * The index of the next simple taskController to be executed.
+     */
+    private int secuenceStatus = 0;
+    /**
+     * Indicates if the execution was asked to stop.
+     */
+    private volatile boolean stopRequested = false;
+    /**
+     * The thread waiting for the first permission transition of an iteration
+     * on {@link #call()}, or null if there is none. It is woken up by
+     * {@link #stop()}. Guarded by {@link #stopLock}.
+     */
+    private Thread waitingThread;
+    /**
+     * The permission transition {@link #waitingThread} waits for. Guarded by
+     * {@link #stopLock}.
+     */
+    private int waitingPermission;
+    private final Object stopLock = new Object();
 
     /**
      * Constructor of the class. Receives an {@link AbstractTaskControllerSubscription} to be executed
-     * and the {@link BaboonPetriCore} used to synchronize the execution.
+     * and the {@link BaboonPetriCore} used to synchronize the execution, and gets the
+     * {@link TopicExecutionPlan} of the subscription.
      * 
      * @param taskSubscription
      *       The {@link AbstractTaskControllerSubscription} object to be executed.
      * @param petriCore
      *       The {@link BaboonPetriCore} object, used to synchronize the execution.
+     * @throws IllegalArgumentException
+     *       If any of the arguments is null, or if the {@link TopicExecutionPlan} of
+     *       the subscription can not be compiled for the {@link BaboonPetriCore} provided.
      */
     public DummyThread(AbstractTaskControllerSubscription taskSubscription, BaboonPetriCore petriCore) {
         if (taskSubscription == null) {
@@ -59,6 +169,27 @@ public class DummyThread implements Callable<Void> {
         }
         this.taskSubscription = taskSubscription;
         this.petriCore = petriCore;
+        try {
+            this.executionPlan = taskSubscription.getExecutionPlan(petriCore);
+        } catch (NotSubscribableException e) {
+            LOGGER.log(Level.SEVERE, "Cannot execute the taskController subscribed to topic "
+                    + taskSubscription.getTopic().getName(), e);
+            throw new IllegalArgumentException("Cannot compile the execution plan of the taskController", e);
+        }
+        guardIndexes = new int[executionPlan.getSize()][];
+        guardValues = new boolean[executionPlan.getSize()][];
+        for (int step = 0; step < executionPlan.getSize(); step++) {
+            guardIndexes[step] = executionPlan.getGuardIndexes(step);
+            guardValues[step] = new boolean[guardIndexes[step].length];
+        }
+        fireCallbackIndexes = executionPlan.getFireCallbackIndexes();
+        waitStrategy = taskSubscription.getTopic().getWaitStrategy();
+        spinTries = taskSubscription.getTopic().getSpinTries();
+        batch = executionPlan.getSize() == 1 ? taskSubscription.getAction(0).getBatch() : 1;
+        stageEnds = new int[executionPlan.getSize()];
+        for (int step = 0; step < executionPlan.getSize(); step++) {
+            stageEnds[step] = Math.min(taskSubscription.getStageEnd(step), executionPlan.getSize());
+        }
     }
 
     /**
@@ -79,68 +210,494 @@ public class DummyThread implements Callable<Void> {
      */
     @Override
     public Void call() {
-        int secuenceStatus = 0;
-        int maxStatus = taskSubscription.getSize();
         while (true) {
-            TaskActionController taskController = taskSubscription.getAction(secuenceStatus);
-            String permission = taskSubscription.getTopic().getPermission().get(secuenceStatus);
-            try {
+            if (secuenceStatus == 0) {
+                if (!fireFirstPermission()) {
+                    return null;
+                }
+            } else {
+                firePermission();
+            }
+            executeAfterPermission();
+        }
+    }
+
+    /**
+     * Asks this DummyThread to stop. If an iteration is in progress, it is
+     * completed, so the taskController stops after its transition callback is
+     * fired. A thread executing {@link #call()} that is waiting for the first
+     * permission transition of an iteration gives up the wait, and is not left
+     * interrupted even if the engine wakes it up by an interruption. A
+     * fork-join stage in progress is completed as well.
+     */
+    public void stop() {
+        synchronized (stopLock) {
+            stopRequested = true;
+            if (waitingThread != null) {
+                petriCore.wakeUp(waitingPermission, waitingThread);
+            }
+        }
+    }
+
+    /**
+     * Returns true if this DummyThread was asked to stop by {@link #stop()}.
+     * 
+     * @return true if a stop was requested.
+     */
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    /**
+     * Returns true if this DummyThread was asked to stop and is at the end of
+     * an iteration, so it must not ask for its next permission.
+     * 
+     * @return true if the execution is stopped.
+     */
+    boolean isStopped() {
+        return stopRequested && secuenceStatus == 0;
+    }
+
+    /**
+     * Asks the Petri monitor for the first permission of an iteration, unless
+     * a stop was requested. The permission is waited for on the petri monitor,
+     * as the {@link WaitStrategy} indicates, and the wait is given up if
+     * {@link #stop()} is called meanwhile. If the taskController executes in
+     * batches, the permission is fired again while it is enabled, up to the
+     * batch size.
+     * 
+     * @return true if the permission was fired, false if the DummyThread must
+     *         stop.
+     * @throws RuntimeException
+     *       If the permission can not be fired.
+     */
+    private boolean fireFirstPermission() {
+        int permission = executionPlan.getPermissionIndex(0);
+        synchronized (stopLock) {
+            if (stopRequested) {
+                return false;
+            }
+            waitingThread = Thread.currentThread();
+            waitingPermission = permission;
+        }
+        try {
+            if (waitStrategy != WaitStrategy.BLOCKING) {
+                awaitEnabled(permission, true);
+            }
+            if (!petriCore.fireTransition(permission, this::isStopRequested)) {
+                return false;
+            }
+            if (batch > 1) {
+                acquiredPermissions = 1 + petriCore.fireTransitionUpTo(permission, batch - 1, true);
+            }
+            return true;
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                    + petriCore.getTransitionName(permission), e);
+            throw new RuntimeException("Error while firing the permission transition ", e);
+        } finally {
+            synchronized (stopLock) {
+                waitingThread = null;
+                if (stopRequested) {
+                    // an engine that wakes up by interruption might have done it after the wait
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the permission transition that must be fired to
+     * execute the next simple taskController of the
+     * {@link AbstractTaskControllerSubscription}.
+     * 
+     * @return the index of the permission transition on the {@link BaboonPetriCore}.
+     */
+    int getNextPermissionIndex() {
+        return executionPlan.getPermissionIndex(secuenceStatus);
+    }
+
+    /**
+     * Returns the {@link AbstractTaskControllerSubscription} executed by this object.
+     * 
+     * @return the {@link AbstractTaskControllerSubscription} executed by this object.
+     */
+    AbstractTaskControllerSubscription getTaskSubscription() {
+        return taskSubscription;
+    }
+
+    /**
+     * Returns the {@link BaboonPetriCore} used to synchronize the execution.
+     * 
+     * @return the {@link BaboonPetriCore} used to synchronize the execution.
+     */
+    BaboonPetriCore getPetriCore() {
+        return petriCore;
+    }
+
+    /**
+     * Asks the Petri monitor for permission to execute the next simple
+     * taskController, executes it and sets its guard callback. If the
+     * taskController is the last one of the {@link AbstractTaskControllerSubscription},
+     * the transition callback is fired.
+     * 
+     * @throws RuntimeException
+     *       If the permission can not be fired, the taskController execution fails,
+     *       or the callbacks can not be set.
+     */
+    void executeStep() {
+        firePermission();
+        executeAfterPermission();
+    }
+
+    /**
+     * Asks the Petri monitor for permission to execute the next simple
+     * taskController. The calling thread is blocked until the permission
+     * transition is fired, waiting as the {@link WaitStrategy} indicates. If
+     * the taskController executes in batches, the permission is fired again
+     * while it is enabled, up to the batch size.
+     * 
+     * @throws RuntimeException
+     *       If the permission can not be fired.
+     */
+    void firePermission() {
+        firePermission(secuenceStatus);
+    }
+
+    /**
+     * Fires the permission transition of the next simple taskController if it
+     * is enabled, without waiting on the Petri monitor. If the taskController
+     * executes in batches, the permission is fired again while it is enabled,
+     * up to the batch size.
+     * 
+     * @return true if the permission was fired, false if it is not enabled.
+     * @throws RuntimeException
+     *       If the permission can not be fired.
+     */
+    boolean tryFirePermission() {
+        int permission = executionPlan.getPermissionIndex(secuenceStatus);
+        try {
+            if (batch > 1) {
+                int fired = petriCore.fireTransitionUpTo(permission, batch, true);
+                if (fired > 0) {
+                    acquiredPermissions = fired;
+                }
+                return fired > 0;
+            }
+            return petriCore.fireTransition(permission, true);
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                    + petriCore.getTransitionName(permission), e);
+            throw new RuntimeException("Error while firing the permission transition ", e);
+        }
+    }
+
+    /**
+     * Asks the Petri monitor for permission to execute a simple
+     * taskController, as {@link #firePermission()} does.
+     * 
+     * @param step
+     *       The index of the simple taskController.
+     * @throws RuntimeException
+     *       If the permission can not be fired.
+     */
+    private void firePermission(int step) {
+        int permission = executionPlan.getPermissionIndex(step);
+        if (waitStrategy != WaitStrategy.BLOCKING) {
+            awaitEnabled(permission, false);
+        }
+        try {
+            if (batch > 1) {
+                acquiredPermissions = petriCore.fireTransitionUpTo(permission, batch);
+            } else {
                 petriCore.fireTransition(permission, false);
-            } catch (IllegalTransitionFiringError | PetriNetException e) {
-                LOGGER.log(Level.SEVERE, "Error while firing the callback transition " + permission, e);
-                throw new RuntimeException("Error while firing the permission transition ", e);
-            } catch (IllegalArgumentException e) {
-                if (permission == null || permission.isEmpty()) {
-                    LOGGER.log(Level.SEVERE,
-                            "Tried to fire a permission transition without permission transition on topic "
-                                    + taskSubscription.getTopic().getName());
-                } else {
-                    LOGGER.log(Level.SEVERE, "Failed to fire the permission transition " + permission
-                            + " because it does not exists on petri net", e);
+            }
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                    + petriCore.getTransitionName(permission), e);
+            throw new RuntimeException("Error while firing the permission transition ", e);
+        }
+    }
+
+    /**
+     * Waits for a permission transition to be enabled without parking the
+     * thread, as the {@link WaitStrategy} indicates. It returns when the
+     * permission is enabled, when the spin tries are exhausted or when the
+     * thread is interrupted, so the permission is fired afterwards on the
+     * petri monitor, which waits if it is not enabled anymore. The permission
+     * is polled by {@link BaboonPetriCore#mightBeEnabled(int)}, which neither
+     * calls guard suppliers nor locks the petri monitor.
+     * 
+     * @param permission
+     *       The index of the permission transition.
+     * @param stoppable
+     *       true to return as well when {@link #stop()} is called.
+     */
+    private void awaitEnabled(int permission, boolean stoppable) {
+        Thread current = Thread.currentThread();
+        if (waitStrategy == WaitStrategy.SPIN_THEN_PARK) {
+            for (int i = 0; i < spinTries && !current.isInterrupted() && !(stoppable && stopRequested); i++) {
+                if (petriCore.mightBeEnabled(permission)) {
+                    return;
                 }
-                throw new RuntimeException("The permission transition does not exists on petri net", e);
             }
+        } else {
+            while (!current.isInterrupted() && !(stoppable && stopRequested) && !petriCore.mightBeEnabled(permission)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Executes the next simple taskController, whose permission transition was
+     * already fired by {@link #firePermission()}, and sets its guard callback.
+     * If the taskController begins a stage of a
+     * {@link ComplexForkJoinTaskControllerSubscription}, the rest of the stage
+     * is executed concurrently. If the taskController, or its stage, is the
+     * last one of the {@link AbstractTaskControllerSubscription}, the
+     * transition callback is fired.
+     * 
+     * @throws RuntimeException
+     *       If the taskController execution fails, or the callbacks can not be set.
+     */
+    void executeAfterPermission() {
+        int step = secuenceStatus;
+        int stageEnd = stageEnds[step];
+        int executions = acquiredPermissions;
+        acquiredPermissions = 1;
+        if (stageEnd - step > 1) {
+            executeStage(step, stageEnd);
+        } else {
+            executeAction(step, executions);
+        }
+        secuenceStatus = stageEnd % executionPlan.getSize();
+        if (secuenceStatus == 0 && fireCallbackIndexes.length > 0) {
+            FiringReport failure = petriCore.fireTransitionsReportingFailure(fireCallbackIndexes, executions);
+            if (failure != null) {
+                String transitionCallback = petriCore
+                        .getTransitionName(failure.getTransitionIndex(failure.getFailedPosition()));
+                Throwable error = failure.getError(failure.getFailedPosition());
+                LOGGER.log(Level.SEVERE, "Error while firing the callback transition " + transitionCallback, error);
+                throw new RuntimeException("Error while firing the callback transition " + transitionCallback, error);
+            }
+        }
+    }
 
+    /**
+     * Executes the simple taskControllers of a stage concurrently. The first
+     * one, whose permission was already fired, is executed on the calling
+     * thread, and the rest are forked on {@link StagePool#POOL}. It returns
+     * after all of them end.
+     * <p>
+     * A stop requested meanwhile does not affect the stage: its forks are
+     * executed, so the iteration ends and its transition callbacks are fired.
+     * If any of the taskControllers fails, the stage is cancelled: the forks
+     * that did not start are cancelled, the ones waiting for their
+     * permissions give them up, and the failure is thrown once every fork
+     * ended.
+     * </p>
+     * 
+     * @param first
+     *       The index of the first simple taskController of the stage.
+     * @param end
+     *       The index following the last simple taskController of the stage.
+     * @throws RuntimeException
+     *       If any of the taskControllers fails. The first failure is thrown.
+     */
+    private void executeStage(int first, int end) {
+        Stage stage = new Stage(petriCore);
+        List<ForkJoinTask<Boolean>> forks = new ArrayList<>(end - first - 1);
+        for (int step = first + 1; step < end; step++) {
+            final int forkedStep = step;
+            forks.add(StagePool.POOL.submit(() -> {
+                try {
+                    if (!acquirePermission(forkedStep, stage)) {
+                        return false;
+                    }
+                    executeAction(forkedStep, 1);
+                    return true;
+                } catch (RuntimeException e) {
+                    stage.cancel();
+                    throw e;
+                }
+            }));
+        }
+        RuntimeException failure = null;
+        try {
+            executeAction(first, 1);
+        } catch (RuntimeException e) {
+            failure = e;
+            stage.cancel();
+            for (ForkJoinTask<Boolean> fork : forks) {
+                fork.cancel(false);
+            }
+        }
+        for (ForkJoinTask<Boolean> fork : forks) {
             try {
-                taskController.executeMethod();
-            } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e1) {
-                LOGGER.log(Level.SEVERE, "Error when trying to execute the method " + taskController.getMethodName(), e1);
-                throw new RuntimeException("Error when trying to execute the method " + taskController.getMethodName(), e1);
+                fork.join();
+            } catch (CancellationException e) {
+                // only cancelled after a failure, which is thrown below
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
             }
-            for (String guardCallback : taskSubscription.getTopic().getGuardCallback(secuenceStatus)) {
-                boolean result;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Fires the permission of a forked simple taskController, letting
+     * {@link StagePool#POOL} compensate the worker waiting for it. The
+     * permission is waited for on the petri monitor, and the wait is given up
+     * when the stage is cancelled.
+     * 
+     * @param step
+     *       The index of the simple taskController.
+     * @param stage
+     *       The stage the simple taskController belongs to.
+     * @return true if the permission was fired, false if the stage was
+     *       cancelled.
+     * @throws RuntimeException
+     *       If the permission can not be fired.
+     */
+    private boolean acquirePermission(int step, Stage stage) {
+        int permission = executionPlan.getPermissionIndex(step);
+        class PermissionBlocker implements ForkJoinPool.ManagedBlocker {
+            private boolean done;
+            private boolean fired;
+
+            @Override
+            public boolean block() throws InterruptedException {
+                stage.addWaiter(Thread.currentThread(), permission);
                 try {
-                    result = taskController.getGuardValue(guardCallback);
-                    petriCore.setGuard(guardCallback, result);
-                } catch (NullPointerException | IllegalAccessException | IllegalArgumentException
-                        | InvocationTargetException | IndexOutOfBoundsException | PetriNetException e) {
-                    LOGGER.log(Level.SEVERE, "Failed to set the guard callback " + guardCallback, e);
-                    throw new RuntimeException("Error while setting the guard callback " + guardCallback, e);
+                    fired = petriCore.fireTransition(permission, stage::isCancelled);
+                } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+                    LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                            + petriCore.getTransitionName(permission), e);
+                    throw new RuntimeException("Error while firing the permission transition ", e);
+                } finally {
+                    stage.removeWaiter(Thread.currentThread());
                 }
+                done = true;
+                return true;
             }
-            secuenceStatus = (secuenceStatus + 1) % maxStatus;
-            if (secuenceStatus == 0) {
-                for (String transitionCallback : taskSubscription.getTopic().getFireCallback()) {
-                    try {
-                        petriCore.fireTransition(transitionCallback, true);
-                    } catch (IllegalTransitionFiringError | PetriNetException e) {
-                        LOGGER.log(Level.SEVERE, "Error while firing the callback transition " + transitionCallback, e);
-                        throw new RuntimeException("Error while firing the callback transition " + transitionCallback,
-                                e);
-                    } catch (IllegalArgumentException e) {
-                        if (transitionCallback == null || transitionCallback.isEmpty()) {
-                            LOGGER.log(Level.WARNING,
-                                    "Tried to fire a transitionCallback with empty callback transition on topic "
-                                            + taskSubscription.getTopic().getName());
-                        } else {
-                            LOGGER.log(Level.SEVERE, "Failed to fire the callback transition " + transitionCallback
-                                    + " because it does not exists on petri net", e);
-                            throw new RuntimeException("The callback transition does not exists on petri net", e);
-                        }
-                    }
+
+            @Override
+            public boolean isReleasable() {
+                return done;
+            }
+        }
+        PermissionBlocker blocker = new PermissionBlocker();
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while firing the permission transition "
+                    + petriCore.getTransitionName(permission), e);
+        }
+        return blocker.fired;
+    }
+
+    /**
+     * Executes a simple taskController, whose permission transition was
+     * already fired, and sets its guard callback.
+     * 
+     * @param step
+     *       The index of the simple taskController.
+     * @param permissions
+     *       The number of times its permission transition was fired.
+     * @throws RuntimeException
+     *       If the taskController execution fails, or the guard callback can not be set.
+     */
+    private void executeAction(int step, int permissions) {
+        TaskActionController taskController = taskSubscription.getAction(step);
+        try {
+            taskController.executeMethod(permissions);
+        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e1) {
+            LOGGER.log(Level.SEVERE, "Error when trying to execute the method " + taskController.getMethodName(), e1);
+            throw new RuntimeException("Error when trying to execute the method " + taskController.getMethodName(), e1);
+        }
+        int[] guards = guardIndexes[step];
+        boolean[] values = guardValues[step];
+        if (guards.length > 0 && executionPlan.hasLazyGuards()) {
+            try {
+                petriCore.invalidateGuards(guards);
+            } catch (IndexOutOfBoundsException | PetriNetException e) {
+                LOGGER.log(Level.SEVERE, "Failed to invalidate the guard callback of the method " + taskController.getMethodName(), e);
+                throw new RuntimeException("Error while invalidating the guard callback of the method " + taskController.getMethodName(), e);
+            }
+        } else if (guards.length > 0) {
+            try {
+                for (int i = 0; i < guards.length; i++) {
+                    values[i] = taskController.getGuardValue(executionPlan.getGuardProviderSlot(step, i));
                 }
+                int written = petriCore.setGuards(guards, values);
+                taskSubscription.getTopic().getGuardUpdateCounters().record(written, guards.length - written);
+            } catch (NullPointerException | IllegalAccessException | IllegalArgumentException
+                    | InvocationTargetException | IndexOutOfBoundsException | PetriNetException e) {
+                LOGGER.log(Level.SEVERE, "Failed to set the guard callback of the method " + taskController.getMethodName(), e);
+                throw new RuntimeException("Error while setting the guard callback of the method " + taskController.getMethodName(), e);
             }
         }
     }
 
+    /**
+     * The state shared by the forks of a stage of a
+     * {@link ComplexForkJoinTaskControllerSubscription}: whether it was
+     * cancelled, and the forks waiting for their permissions, which are woken
+     * up through the {@link BaboonPetriCore} to notice a cancellation.
+     */
+    private static final class Stage {
+        private final BaboonPetriCore petriCore;
+        private volatile boolean cancelled;
+        /**
+         * The permission transition each waiting fork waits for. Guarded by
+         * the stage itself.
+         */
+        private final Map<Thread, Integer> waiters = new HashMap<>();
+
+        Stage(BaboonPetriCore petriCore) {
+            this.petriCore = petriCore;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            for (Map.Entry<Thread, Integer> waiter : waiters.entrySet()) {
+                petriCore.wakeUp(waiter.getValue(), waiter.getKey());
+            }
+        }
+
+        synchronized void addWaiter(Thread thread, int permission) {
+            waiters.put(thread, permission);
+        }
+
+        synchronized void removeWaiter(Thread thread) {
+            waiters.remove(thread);
+            if (cancelled) {
+                // an engine that wakes up by interruption might have done it after the wait
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Holds the {@link ForkJoinPool} shared by all the DummyThread objects to
+     * execute the stages of {@link ComplexForkJoinTaskControllerSubscription}
+     * objects. It is created on the first stage executed.
+     */
+    private static final class StagePool {
+        static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("baboon-stage-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+    }
+
 }
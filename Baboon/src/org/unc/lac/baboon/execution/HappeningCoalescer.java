@@ -0,0 +1,217 @@
+package org.unc.lac.baboon.execution;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.aspect.HappeningExecution;
+import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
+import org.unc.lac.baboon.topic.Topic;
+
+/**
+ * A HappeningCoalescer buffers the executions of a coalescing
+ * {@link HappeningController} annotated method and synchronizes them in
+ * batches, as configured by the {@link Topic} of its
+ * {@link HappeningControllerSubscription}.
+ * <p>
+ * A batch is synchronized when {@link Topic#getCoalescingBatchSize()}
+ * executions are buffered, by the thread that completes it, or when the
+ * {@link Topic#getCoalescingWindow()} of the first buffered execution
+ * elapses, by a thread of {@link ForkJoinPool#commonPool()}. The permission
+ * of a batch is fired by one call to
+ * {@link org.unc.lac.baboon.petri.BaboonPetriCore#fireTransitionUpTo(int, int, boolean)},
+ * the {@link HappeningController#batch()} method is called once with the
+ * executions acquired and their callbacks are fired together. The engines
+ * that do not fire a batch in one operation, as
+ * {@link org.unc.lac.baboon.petri.JpcmPetriEngine}, still fire the permission
+ * once per execution, each one entering the petri monitor. The batches of
+ * a subscription are synchronized one at a time, in the order the executions
+ * were buffered. The executions whose permission was not acquired stay first
+ * on the buffer, for the next batch.
+ * </p>
+ * <p>
+ * The thread that completes a batch waits for its permission, as for any
+ * {@link org.unc.lac.baboon.annotations.AcquisitionMode#BLOCK} happening, but
+ * the pool thread of an elapsed window does not: if the permission is not
+ * enabled, the batch stays on the buffer and the window is scheduled again.
+ * A batch of an elapsed window that fails is logged, since no caller waits
+ * for it. The executions submitted afterwards are buffered as usual.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see HappeningControllerSynchronizer#coalesce(Object, org.aspectj.lang.JoinPoint.StaticPart, HappeningExecution)
+ */
+final class HappeningCoalescer {
+    private final static Logger LOGGER = Logger.getLogger(HappeningCoalescer.class.getName());
+
+    private final HappeningControllerSynchronizer synchronizer;
+    private final HappeningDispatchSite.Entry entry;
+    private final ScheduledExecutorService windowTimer;
+    private final int batchSize;
+    private final long window;
+    private final ConcurrentLinkedDeque<HappeningExecution> executions = new ConcurrentLinkedDeque<>();
+    /**
+     * The number of executions buffered. It is incremented after an execution
+     * is added, so there are always at least this many executions on the
+     * buffer.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final AtomicBoolean windowScheduled = new AtomicBoolean();
+
+    /**
+     * @param synchronizer
+     *            The {@link HappeningControllerSynchronizer} that acquires and
+     *            releases the permissions of the batches.
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription.
+     * @param windowTimer
+     *            The timer used to synchronize the incomplete batches when
+     *            their window elapses.
+     */
+    HappeningCoalescer(HappeningControllerSynchronizer synchronizer, HappeningDispatchSite.Entry entry,
+            ScheduledExecutorService windowTimer) {
+        Topic topic = entry.subscription.getTopic();
+        this.synchronizer = synchronizer;
+        this.entry = entry;
+        this.windowTimer = windowTimer;
+        this.batchSize = topic.getCoalescingBatchSize();
+        this.window = topic.getCoalescingWindow();
+    }
+
+    /**
+     * Buffers an execution. If it completes a batch, the batch is synchronized
+     * on the calling thread.
+     *
+     * @param execution
+     *            The execution of the {@link HappeningController} annotated
+     *            method.
+     * @throws Throwable
+     *             The exception thrown while synchronizing the batch completed
+     *             by the execution.
+     */
+    void submit(HappeningExecution execution) throws Throwable {
+        executions.add(execution);
+        if (pending.incrementAndGet() >= batchSize) {
+            flush(false);
+        } else {
+            scheduleWindow();
+        }
+    }
+
+    /**
+     * Synchronizes the buffered executions, if no other thread is doing it.
+     * The buffer is checked again after releasing it, so the executions added
+     * while it was taken are not left behind.
+     *
+     * @param windowElapsed
+     *            true to synchronize an incomplete batch without waiting for
+     *            its permission.
+     * @throws Throwable
+     *             The exception thrown while synchronizing a batch.
+     */
+    private void flush(boolean windowElapsed) throws Throwable {
+        boolean incomplete = windowElapsed;
+        try {
+            while (flushing.compareAndSet(false, true)) {
+                try {
+                    while (synchronizeBatch(incomplete, !windowElapsed)) {
+                        incomplete = false;
+                    }
+                } finally {
+                    flushing.set(false);
+                }
+                if (pending.get() < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            if (pending.get() > 0) {
+                scheduleWindow();
+            }
+        }
+    }
+
+    private void scheduleWindow() {
+        if (windowScheduled.compareAndSet(false, true)) {
+            windowTimer.schedule(() -> ForkJoinPool.commonPool().execute(this::flushWindow), window,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushWindow() {
+        windowScheduled.set(false);
+        try {
+            flush(true);
+        } catch (Throwable e) {
+            LOGGER.log(Level.SEVERE, "A coalesced batch of the happeningController "
+                    + entry.subscription.getAction().getMethodName() + " failed", e);
+        }
+    }
+
+    /**
+     * Takes a batch from the buffer and synchronizes it. The permission is
+     * fired once per execution, as the marking allows it, then the batch
+     * method is called once with the executions acquired and the callbacks of
+     * all of them are fired and set together, even if the batch method fails.
+     *
+     * @param incomplete
+     *            true to synchronize a batch with less executions than the
+     *            batch size.
+     * @param wait
+     *            true to wait for the permission of the first execution.
+     * @return true if a batch was synchronized.
+     * @throws Throwable
+     *             The exception thrown while acquiring the permission, by the
+     *             batch method or while firing the callbacks.
+     */
+    private boolean synchronizeBatch(boolean incomplete, boolean wait) throws Throwable {
+        int size = Math.min(batchSize, pending.get());
+        if (size == 0 || (size < batchSize && !incomplete)) {
+            return false;
+        }
+        List<HappeningExecution> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(executions.poll());
+        }
+        pending.addAndGet(-size);
+        int acquired = 0;
+        try {
+            acquired = synchronizer.acquireBatch(entry, size, wait);
+        } finally {
+            for (int i = size - 1; i >= acquired; i--) {
+                executions.addFirst(batch.get(i));
+            }
+            pending.addAndGet(size - acquired);
+        }
+        if (acquired == 0) {
+            return false;
+        }
+        List<Object[]> arguments = new ArrayList<>(acquired);
+        for (int i = 0; i < acquired; i++) {
+            arguments.add(batch.get(i).getArguments());
+        }
+        try {
+            entry.subscription.getAction().invokeBatch(arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("The batch method of the happeningController "
+                    + entry.subscription.getAction().getMethodName() + " failed", e);
+        } finally {
+            synchronizer.releaseBatch(entry, acquired);
+        }
+        return true;
+    }
+}
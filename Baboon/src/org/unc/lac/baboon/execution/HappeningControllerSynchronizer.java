@@ -2,16 +2,31 @@ package org.unc.lac.baboon.execution;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.javatuples.Pair;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.unc.lac.baboon.actioncontroller.HappeningActionController;
+import org.unc.lac.baboon.annotations.AcquisitionMode;
+import org.unc.lac.baboon.aspect.HappeningExecution;
 import org.unc.lac.baboon.aspect.JoinPointObserver;
 import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.FiringReport;
 import org.unc.lac.baboon.aspect.HappeningControllerJoinPointReporter;
 import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
-import org.unc.lac.baboon.utils.MethodDictionary;
+import org.unc.lac.baboon.subscription.TopicExecutionPlan;
+import org.unc.lac.baboon.topic.Topic;
 import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
 import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
 import org.unc.lac.baboon.annotations.HappeningController;
@@ -32,6 +47,26 @@ public class HappeningControllerSynchronizer implements JoinPointObserver {
 
     private BaboonConfig baboonConfig;
     private BaboonPetriCore petriCore;
+    /**
+     * The subscriptions resolved for each {@link HappeningController} join
+     * point. The static parts of the join points are compared by identity.
+     */
+    private final ConcurrentHashMap<JoinPoint.StaticPart, HappeningDispatchSite> dispatchSites = new ConcurrentHashMap<>();
+    /**
+     * The {@link HappeningCoalescer} of each subscription to a coalescing
+     * topic, by the identity of its {@link HappeningDispatchSite.Entry}.
+     */
+    private final ConcurrentHashMap<HappeningDispatchSite.Entry, HappeningCoalescer> coalescers = new ConcurrentHashMap<>();
+    /**
+     * The timer of the coalescing windows, created on the first coalesced
+     * execution.
+     */
+    private volatile ScheduledExecutorService coalescingTimer;
+    /**
+     * The version of the happeningController subscriptions whose stale
+     * entries were last removed from the dispatch sites.
+     */
+    private int prunedVersion;
 
     private static Logger LOGGER = Logger.getLogger(HappeningControllerSynchronizer.class.getName());
 
@@ -47,6 +82,15 @@ public class HappeningControllerSynchronizer implements JoinPointObserver {
      * method by firing the permission transition before the method execution,
      * and by firing the transition callbacks and setting the guard callbacks
      * after the method execution.
+     * <p>
+     * The subscription is resolved on each call among the methods subscribed
+     * for the target, so an overloaded method is supported as long as only one
+     * of its overloads is subscribed. Static methods, which have no target,
+     * are not supported. The {@link HappeningControllerJoinPointReporter}
+     * advices use
+     * {@link #update(Object, JoinPoint.StaticPart, JoinPointObserver.State)}
+     * instead, which resolves them only once.
+     * </p>
      *
      * @param target
      *            The instance of the object invoking the
@@ -59,34 +103,467 @@ public class HappeningControllerSynchronizer implements JoinPointObserver {
      */
     @Override
     public void update(Object target, String methodName, JoinPointObserver.State state) {
+        if (target == null) {
+            throw new RuntimeException("The static method " + methodName + " cannot be resolved without its class");
+        }
+        HappeningControllerSubscription happeningController = resolveSubscription(target, target.getClass(),
+                methodName);
+        TopicExecutionPlan executionPlan = compileExecutionPlan(happeningController);
+        synchronize(new HappeningDispatchSite.Entry(target, happeningController, executionPlan,
+                baboonConfig.getHappeningControllersVersion()), state);
+    }
+
+    /**
+     * This method is called by the {@link HappeningControllerJoinPointReporter}
+     * advices when a HappeningController method is about to be executed or when
+     * a HappeningController method execution just finished. It manages the
+     * synchronization as {@link #update(Object, String, JoinPointObserver.State)}
+     * does.
+     * <p>
+     * The method, the subscription and its {@link TopicExecutionPlan} are
+     * resolved on the first execution of the join point by each object, and
+     * cached by the identity of the {@link JoinPoint.StaticPart} and the
+     * object. After that, the synchronization does not allocate objects nor
+     * call the hashCode or equals methods of the user objects. The cached
+     * subscriptions are resolved again after any happeningController is
+     * unsubscribed.
+     * </p>
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param state
+     *            The {@link State} of the execution of the
+     *            {@link HappeningController} annotated method.
+     */
+    @Override
+    public void update(Object target, JoinPoint.StaticPart joinPointStaticPart, JoinPointObserver.State state) {
+        synchronize(resolveEntry(target, joinPointStaticPart), state);
+    }
+
+    /**
+     * This method is called by the {@link HappeningControllerJoinPointReporter}
+     * advices before the execution of a {@link HappeningController} annotated
+     * method that can be rejected. The permission transition is fired as
+     * declared by the {@link AcquisitionMode} of the method: only if it is
+     * enabled for {@link AcquisitionMode#TRY_ONCE}, or waiting at most the
+     * timeout of the method for {@link AcquisitionMode#TIMEOUT}. If the
+     * calling thread is interrupted while waiting, the permission is not
+     * acquired and the interrupted status of the thread is kept.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @return true if the permission transition was fired or the method has no
+     *         permission transition.
+     */
+    @Override
+    public boolean tryAcquire(Object target, JoinPoint.StaticPart joinPointStaticPart) {
+        HappeningDispatchSite.Entry entry = resolveEntry(target, joinPointStaticPart);
+        int permission = entry.permissionIndex;
+        if (permission == TopicExecutionPlan.NO_PERMISSION) {
+            return true;
+        }
+        HappeningActionController action = entry.subscription.getAction();
+        long timeout;
+        switch (action.getAcquisitionMode()) {
+        case TRY_ONCE:
+            timeout = 0;
+            break;
+        case TIMEOUT:
+            timeout = action.getAcquisitionTimeout();
+            break;
+        default:
+            before(entry);
+            return true;
+        }
         try {
-        	Method method;
-        	if(target == null){
-            	method =  MethodDictionary.getStaticMethod(null, methodName);
-            }
-            else{
-            	method = MethodDictionary.getMethod(target, methodName);
+            return petriCore.tryFireTransition(permission, timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                    + petriCore.getTransitionName(permission), e);
+            throw new RuntimeException("Error while firing the permission transition", e);
+        }
+    }
+
+    /**
+     * This method is called by the {@link HappeningControllerJoinPointReporter}
+     * advices before the execution of a {@link HappeningController} annotated
+     * method that returns a {@link CompletionStage}. The permission transition
+     * is fired by {@link BaboonPetriCore#fireTransitionAsync(int, long, TimeUnit)},
+     * so the calling thread never waits for it, whatever the
+     * {@link AcquisitionMode} of the method is.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @return a {@link CompletableFuture} completed with true when the
+     *         permission transition is fired or if the method has no
+     *         permission transition, or with false if the permission is not
+     *         acquired.
+     */
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(Object target, JoinPoint.StaticPart joinPointStaticPart) {
+        HappeningDispatchSite.Entry entry = resolveEntry(target, joinPointStaticPart);
+        int permission = entry.permissionIndex;
+        if (permission == TopicExecutionPlan.NO_PERMISSION) {
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        HappeningActionController action = entry.subscription.getAction();
+        switch (action.getAcquisitionMode()) {
+        case TRY_ONCE:
+            return petriCore.fireTransitionAsync(permission, 0, TimeUnit.MILLISECONDS);
+        case TIMEOUT:
+            return petriCore.fireTransitionAsync(permission, action.getAcquisitionTimeout(), TimeUnit.MILLISECONDS);
+        default:
+            return petriCore.fireTransitionAsync(permission);
+        }
+    }
+
+    /**
+     * This method is called by the {@link HappeningControllerJoinPointReporter}
+     * advices when the permission of a {@link HappeningController} annotated
+     * method was not acquired. The fallback method declared on the
+     * {@link HappeningController} annotation is called with the same
+     * arguments, and its result is returned. If there is no fallback method, a
+     * {@link HappeningRejectedException} is thrown. No callback is fired nor
+     * set, as the method was not executed.
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param arguments
+     *            The arguments of the call to the method.
+     * @return the value returned by the fallback method.
+     * @throws Throwable
+     *            The exception thrown by the fallback method, or a
+     *            {@link HappeningRejectedException}.
+     */
+    @Override
+    public Object rejected(Object target, JoinPoint.StaticPart joinPointStaticPart, Object[] arguments)
+            throws Throwable {
+        HappeningActionController action = resolveEntry(target, joinPointStaticPart).subscription.getAction();
+        if (!action.hasFallback()) {
+            throw new HappeningRejectedException(
+                    "The permission of the happeningController " + action.getMethodName() + " was not acquired");
+        }
+        try {
+            return action.invokeFallback(arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } catch (IllegalAccessException e) {
+            throw new HappeningRejectedException(
+                    "The fallback method of the happeningController " + action.getMethodName() + " failed", e);
+        }
+    }
+
+    /**
+     * This method is called by the {@link HappeningControllerJoinPointReporter}
+     * advices instead of
+     * {@link #update(Object, JoinPoint.StaticPart, JoinPointObserver.State)}
+     * when the {@link HappeningController} annotated method can be coalesced.
+     * If the method is subscribed to a {@link Topic} whose coalescing batch
+     * size is greater than one, the execution is buffered and the calling
+     * thread returns, unless it completes a batch, in which case it
+     * synchronizes the batch and the {@link HappeningController#batch()}
+     * method is called once for the whole batch. Otherwise, the execution is
+     * synchronized on the calling thread as any other happening.
+     * <p>
+     * The exceptions thrown while synchronizing a batch are thrown to the
+     * caller that completed it. If the batch was synchronized when its window
+     * elapsed, the exception is thrown to the next caller instead, whose
+     * execution is not buffered.
+     * </p>
+     *
+     * @param target
+     *            The instance of the object invoking the
+     *            {@link HappeningController} annotated method, or null if the
+     *            method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point
+     *            of the {@link HappeningController} annotated method.
+     * @param execution
+     *            The body of the {@link HappeningController} annotated method.
+     * @throws Throwable
+     *            The exception thrown by the method, if it is not coalesced,
+     *            or the exception thrown while synchronizing a batch.
+     * @see Topic#getCoalescingBatchSize()
+     */
+    @Override
+    public void coalesce(Object target, JoinPoint.StaticPart joinPointStaticPart, HappeningExecution execution)
+            throws Throwable {
+        HappeningDispatchSite.Entry entry = resolveEntry(target, joinPointStaticPart);
+        if (!entry.subscription.getTopic().isCoalescing()) {
+            before(entry);
+            try {
+                execution.proceed();
+            } finally {
+                after(entry);
             }
-            HappeningControllerSubscription happeningController = baboonConfig
-                    .getHappeningController(new Pair<>(target, method));
-            if (happeningController == null) {
-                throw new RuntimeException("This Happening Handler is not subscribed");
-            } else {
-                switch (state) {
-                case BEFORE_EXECUTION:
-                    before(happeningController);
-                    break;
-                case AFTER_EXECUTION:
-                    after(happeningController);
-                    break;
-                default:
-                    break;
+            return;
+        }
+        HappeningCoalescer coalescer = coalescers.get(entry);
+        if (coalescer == null) {
+            coalescer = coalescers.computeIfAbsent(entry,
+                    key -> new HappeningCoalescer(this, key, getCoalescingTimer()));
+        }
+        coalescer.submit(execution);
+    }
+
+    /**
+     * Fires the permission transition of a subscription once per execution of
+     * a coalesced batch, as the marking allows it, with a single
+     * {@link BaboonPetriCore#fireTransitionUpTo(int, int, boolean)} batch
+     * firing. If the calling thread waits, it waits for the first firing, as
+     * for any {@link AcquisitionMode#BLOCK} happening. The rest of the
+     * permissions are only fired if they are enabled right away.
+     *
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription.
+     * @param executions
+     *            The number of executions of the batch.
+     * @param wait
+     *            true to wait for the first permission, false to return right
+     *            away if it is not enabled.
+     * @return the number of executions whose permission was acquired, at
+     *         least one if the calling thread waits.
+     */
+    int acquireBatch(HappeningDispatchSite.Entry entry, int executions, boolean wait) {
+        int permission = entry.permissionIndex;
+        if (permission == TopicExecutionPlan.NO_PERMISSION) {
+            return executions;
+        }
+        try {
+            return petriCore.fireTransitionUpTo(permission, executions, !wait);
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                    + petriCore.getTransitionName(permission) + " for a coalesced batch", e);
+            throw new RuntimeException("Error while firing the permission transition", e);
+        }
+    }
+
+    /**
+     * Sets the guard callback of a subscription once, and fires its transition
+     * callbacks once per execution of a coalesced batch, as a single group.
+     *
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription.
+     * @param executions
+     *            The number of executions of the batch that were run.
+     */
+    void releaseBatch(HappeningDispatchSite.Entry entry, int executions) {
+        if (executions > 0) {
+            after(entry, executions);
+        }
+    }
+
+    private ScheduledExecutorService getCoalescingTimer() {
+        ScheduledExecutorService timer = coalescingTimer;
+        if (timer == null) {
+            synchronized (coalescers) {
+                timer = coalescingTimer;
+                if (timer == null) {
+                    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "baboon-coalescing-timer");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    coalescingTimer = timer;
                 }
             }
-        } catch (NoSuchMethodException | SecurityException e) {
-            throw new RuntimeException("The method cannot be resolved", e);
         }
+        return timer;
+    }
+
+    /**
+     * Returns the {@link HappeningDispatchSite.Entry} of the object on the
+     * join point, resolving it if it is the first execution of the join point
+     * by the object.
+     *
+     * @param target
+     *            The instance of the object invoking the method, or null if
+     *            the method is static.
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point.
+     * @return the {@link HappeningDispatchSite.Entry} of the subscription.
+     */
+    private HappeningDispatchSite.Entry resolveEntry(Object target, JoinPoint.StaticPart joinPointStaticPart) {
+        HappeningDispatchSite site = dispatchSites.get(joinPointStaticPart);
+        if (site == null) {
+            site = dispatchSites.computeIfAbsent(joinPointStaticPart, HappeningControllerSynchronizer::createDispatchSite);
+        }
+        HappeningDispatchSite.Entry entry = site.lookup(target);
+        int version = baboonConfig.getHappeningControllersVersion();
+        if (entry == null || entry.version != version) {
+            if (entry != null) {
+                removeStaleEntries(version);
+            }
+            Method method = site.getMethod();
+            HappeningControllerSubscription happeningController = method != null
+                    ? resolveSubscription(target, method)
+                    : resolveSubscription(target, joinPointStaticPart.getSignature().getDeclaringType(),
+                            joinPointStaticPart.getSignature().getName());
+            entry = site.register(target, happeningController, compileExecutionPlan(happeningController), version);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes the cached subscriptions of the happeningControllers that were
+     * unsubscribed, so the objects unsubscribed are not referenced anymore.
+     * It must be called after unsubscribing happeningControllers; otherwise,
+     * the cached subscriptions are only removed on the next execution of a
+     * happeningController whose subscription was cached.
+     */
+    public void removeUnsubscribedEntries() {
+        removeStaleEntries(baboonConfig.getHappeningControllersVersion());
+    }
+
+    /**
+     * Removes from every {@link HappeningDispatchSite} the entries resolved
+     * before a happeningController was unsubscribed, so the objects
+     * unsubscribed are not referenced anymore. The {@link HappeningCoalescer}
+     * objects of those entries are discarded after synchronizing the
+     * executions they already buffered.
+     *
+     * @param version
+     *            The current version of the happeningController subscriptions.
+     */
+    private synchronized void removeStaleEntries(int version) {
+        if (version == prunedVersion) {
+            return;
+        }
+        prunedVersion = version;
+        for (HappeningDispatchSite site : dispatchSites.values()) {
+            site.removeStaleEntries(version);
+        }
+        coalescers.keySet().removeIf(entry -> entry.version != version);
+    }
 
+    /**
+     * Creates the {@link HappeningDispatchSite} of a join point, with the
+     * method obtained from its signature when possible.
+     *
+     * @param joinPointStaticPart
+     *            The {@link JoinPoint.StaticPart} of the execution join point.
+     * @return a new {@link HappeningDispatchSite} without objects registered.
+     */
+    private static HappeningDispatchSite createDispatchSite(JoinPoint.StaticPart joinPointStaticPart) {
+        Signature signature = joinPointStaticPart.getSignature();
+        if (signature instanceof MethodSignature) {
+            return new HappeningDispatchSite(((MethodSignature) signature).getMethod());
+        }
+        return new HappeningDispatchSite(null);
+    }
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} of the object and
+     * the method subscribed with the name provided. The method is resolved
+     * among the ones subscribed for the object, so it can be overloaded as
+     * long as only one of its overloads is subscribed.
+     *
+     * @param target
+     *            The instance of the object invoking the method, or null if
+     *            the method is static.
+     * @param methodsClass
+     *            The class of the object invoking the method, or the class
+     *            declaring it if the method is static.
+     * @param methodName
+     *            The name of the {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} of the method.
+     */
+    private HappeningControllerSubscription resolveSubscription(Object target, Class<?> methodsClass,
+            String methodName) {
+        HappeningControllerSubscription happeningController;
+        try {
+            happeningController = baboonConfig.getHappeningController(target, methodsClass, methodName);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("The method " + methodName + " cannot be resolved", e);
+        }
+        if (happeningController == null) {
+            throw new RuntimeException("This Happening Handler is not subscribed");
+        }
+        return happeningController;
+    }
+
+    /**
+     * Returns the {@link HappeningControllerSubscription} of the object and
+     * method provided.
+     *
+     * @param target
+     *            The instance of the object invoking the method, or null if
+     *            the method is static.
+     * @param method
+     *            The {@link HappeningController} annotated method.
+     * @return the {@link HappeningControllerSubscription} of the method.
+     */
+    private HappeningControllerSubscription resolveSubscription(Object target, Method method) {
+        HappeningControllerSubscription happeningController = baboonConfig
+                .getHappeningController(target, method);
+        if (happeningController == null) {
+            throw new RuntimeException("This Happening Handler is not subscribed");
+        }
+        return happeningController;
+    }
+
+    /**
+     * Returns the {@link TopicExecutionPlan} of the subscription for the
+     * {@link BaboonPetriCore} of this synchronizer.
+     *
+     * @param happeningController
+     *            The {@link HappeningControllerSubscription} object.
+     * @return the {@link TopicExecutionPlan} of the subscription.
+     */
+    private TopicExecutionPlan compileExecutionPlan(HappeningControllerSubscription happeningController) {
+        try {
+            return happeningController.getExecutionPlan(petriCore);
+        } catch (NotSubscribableException e) {
+            String methodName = happeningController.getAction().getMethodName();
+            LOGGER.log(Level.SEVERE, "Failed to compile the execution plan of the happeningController " + methodName, e);
+            throw new RuntimeException("The happeningController cannot be synchronized", e);
+        }
+    }
+
+    /**
+     * Fires the permission transition or the callbacks of a subscription,
+     * depending on the state of the execution.
+     *
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription.
+     * @param state
+     *            The {@link State} of the execution of the
+     *            {@link HappeningController} annotated method.
+     */
+    private void synchronize(HappeningDispatchSite.Entry entry, JoinPointObserver.State state) {
+        switch (state) {
+        case BEFORE_EXECUTION:
+            before(entry);
+            break;
+        case AFTER_EXECUTION:
+            after(entry);
+            break;
+        default:
+            break;
+        }
     }
 
     /**
@@ -94,38 +571,59 @@ public class HappeningControllerSynchronizer implements JoinPointObserver {
      * annotated method. Inside this method the transition callbacks are fired
      * and the guard callbacks are setted.
      *
-     * @param happeningControllerSubscription
-     *            The {@link HappeningControllerSubscription} object containing the
-     *            {@link HappeningController} annotated method, the invoking
-     *            object, and the topic with the permission and callbacks.
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} with the
+     *            {@link HappeningControllerSubscription} object and the
+     *            indexes of the guards and transitions to use.
+     */
+    private void after(HappeningDispatchSite.Entry entry) {
+        after(entry, 1);
+    }
+
+    /**
+     * Sets the guard callbacks of a subscription and fires its transition
+     * callbacks as many times as executions were run.
+     *
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription.
+     * @param executions
+     *            The number of executions of the method that finished.
      */
-    private void after(HappeningControllerSubscription happeningControllerSubscription) {
-        for (String guardCallback : happeningControllerSubscription.getTopic().getGuardCallback(0)) {
+    private void after(HappeningDispatchSite.Entry entry, int executions) {
+        int[] guardIndexes = entry.guardIndexes;
+        if (guardIndexes.length > 0 && entry.executionPlan.hasLazyGuards()) {
             try {
-                boolean result = happeningControllerSubscription.getAction().getGuardValue(guardCallback);
-                petriCore.setGuard(guardCallback, result);
+                petriCore.invalidateGuards(guardIndexes);
+            } catch (IndexOutOfBoundsException | PetriNetException e) {
+                String methodName = entry.subscription.getAction().getMethodName();
+                LOGGER.log(Level.SEVERE, "Failed to invalidate the guard callback of the method " + methodName, e);
+                throw new RuntimeException("Error while invalidating the guard callback of the method " + methodName, e);
+            }
+        } else if (guardIndexes.length > 0) {
+            try {
+                boolean[] values = entry.getGuardValuesBuffer();
+                for (int i = 0; i < guardIndexes.length; i++) {
+                    values[i] = entry.subscription.getAction()
+                            .getGuardValue(entry.executionPlan.getGuardProviderSlot(0, i));
+                }
+                int written = petriCore.setGuards(guardIndexes, values);
+                entry.subscription.getTopic().getGuardUpdateCounters().record(written, guardIndexes.length - written);
             } catch (NullPointerException | IllegalAccessException | IllegalArgumentException
                     | InvocationTargetException | IndexOutOfBoundsException | PetriNetException e) {
-                LOGGER.log(Level.SEVERE, "Failed to set the guard callback " + guardCallback, e);
-                throw new RuntimeException("Error while setting the guard callback " + guardCallback, e);
+                String methodName = entry.subscription.getAction().getMethodName();
+                LOGGER.log(Level.SEVERE, "Failed to set the guard callback of the method " + methodName, e);
+                throw new RuntimeException("Error while setting the guard callback of the method " + methodName, e);
             }
         }
-        for (String transitionCallback : happeningControllerSubscription.getTopic().getFireCallback()) {
-            try {
-                petriCore.fireTransition(transitionCallback, true);
-            } catch (IllegalTransitionFiringError | PetriNetException e) {
-                LOGGER.log(Level.SEVERE, "Error while firing the callback transition " + transitionCallback, e);
-                throw new RuntimeException("Error while firing the permission transition ", e);
-            } catch (IllegalArgumentException e) {
-                if (transitionCallback == null || transitionCallback.isEmpty()) {
-                    LOGGER.log(Level.WARNING,
-                            "Tried to fire a transitionCallback without permission transition on topic "
-                                    + happeningControllerSubscription.getTopic().getName());
-                } else {
-                    LOGGER.log(Level.SEVERE, "Failed to fire the callback transition " + transitionCallback
-                            + " because it does not exists on petri net", e);
-                    throw new RuntimeException("The callback transition does not exists on petri net", e);
-                }
+        int[] fireCallbackIndexes = entry.fireCallbackIndexes;
+        if (fireCallbackIndexes.length > 0) {
+            FiringReport failure = petriCore.fireTransitionsReportingFailure(fireCallbackIndexes, executions);
+            if (failure != null) {
+                String transitionCallback = petriCore
+                        .getTransitionName(failure.getTransitionIndex(failure.getFailedPosition()));
+                Throwable error = failure.getError(failure.getFailedPosition());
+                LOGGER.log(Level.SEVERE, "Error while firing the callback transition " + transitionCallback, error);
+                throw new RuntimeException("Error while firing the callback transition", error);
             }
         }
     }
@@ -134,29 +632,20 @@ public class HappeningControllerSynchronizer implements JoinPointObserver {
      * This method is called before the execution of a {@link HappeningController}
      * annotated method. Inside this method the permission transition is fired.
      *
-     * @param happeningControllerSubscription
-     *            The {@link HappeningControllerSubscription} object containing the
-     *            {@link HappeningController} annotated method, the invoking
-     *            object, and the topic with the permission and callbacks.
+     * @param entry
+     *            The {@link HappeningDispatchSite.Entry} of the subscription,
+     *            with the index of the permission transition.
      */
-    private void before(HappeningControllerSubscription happeningControllerSubscription) {
-        if (!happeningControllerSubscription.getTopic().getPermission().isEmpty()) {
-            String permission = happeningControllerSubscription.getTopic().getPermission().get(0);
+    private void before(HappeningDispatchSite.Entry entry) {
+        int permission = entry.permissionIndex;
+        if (permission != TopicExecutionPlan.NO_PERMISSION) {
             try {
                 petriCore.fireTransition(permission, false);
-            } catch (IllegalTransitionFiringError | PetriNetException e) {
-                LOGGER.log(Level.SEVERE, "Error while firing the permission transition", e);
+            } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+                LOGGER.log(Level.SEVERE, "Error while firing the permission transition "
+                        + petriCore.getTransitionName(permission), e);
                 throw new RuntimeException("Error while firing the permission transition", e);
-            } catch (IllegalArgumentException e) {
-                if (permission == null || permission.isEmpty()) {
-                    LOGGER.log(Level.WARNING, "Executing a HappenningController without permission transition");
-                } else {
-                    LOGGER.log(Level.SEVERE, "Failed to fire the permission transition " + permission
-                            + " because it does not exists on petri net", e);
-                    throw new RuntimeException("The permission transition does not exists on petri net", e);
-                }
             }
-
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,208 @@
+package org.unc.lac.baboon.execution;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
+import org.unc.lac.baboon.subscription.TopicExecutionPlan;
+
+/**
+ * A HappeningDispatchSite caches the {@link HappeningControllerSubscription}
+ * objects resolved for the execution join point of a
+ * {@link HappeningController} annotated method, one per object executing it.
+ * It is used by {@link HappeningControllerSynchronizer} to synchronize the
+ * executions after the first one without resolving the method, hashing the
+ * user objects or allocating new objects.
+ * <p>
+ * The objects are compared by identity. The last object registered is checked
+ * first, which is the only check needed when a single object executes the
+ * method. The rest of the objects are kept on an identity map that is
+ * replaced, and never modified, when a new object is registered, so it can be
+ * read without locking.
+ * </p>
+ * <p>
+ * Each {@link Entry} records the version of the happeningController
+ * subscriptions it was resolved with. When a subscription is removed, the
+ * version changes and the entries of previous versions must be resolved
+ * again. They are removed as soon as the subscription is removed, so the
+ * objects unsubscribed are not referenced anymore.
+ * </p>
+ * <p>
+ * The values of the guard callbacks are collected on a buffer per thread,
+ * shared by all the entries, so no per-entry thread state is kept.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see HappeningControllerSynchronizer#update(Object, JoinPoint.StaticPart,
+ *      org.unc.lac.baboon.aspect.JoinPointObserver.State)
+ */
+final class HappeningDispatchSite {
+
+    /**
+     * The {@link HappeningControllerSubscription} of an object, and the arrays
+     * of its {@link TopicExecutionPlan} used on each synchronization.
+     */
+    static final class Entry {
+        final Object target;
+        final HappeningControllerSubscription subscription;
+        final TopicExecutionPlan executionPlan;
+        final int permissionIndex;
+        final int[] guardIndexes;
+        final int[] fireCallbackIndexes;
+        /**
+         * The version of the happeningController subscriptions when the entry
+         * was resolved.
+         *
+         * @see org.unc.lac.baboon.config.BaboonConfig#getHappeningControllersVersion()
+         */
+        final int version;
+
+        Entry(Object target, HappeningControllerSubscription subscription, TopicExecutionPlan executionPlan,
+                int version) {
+            this.target = target;
+            this.version = version;
+            this.subscription = subscription;
+            this.executionPlan = executionPlan;
+            this.permissionIndex = executionPlan.getPermissionIndex(0);
+            this.guardIndexes = executionPlan.getGuardIndexes(0);
+            this.fireCallbackIndexes = executionPlan.getFireCallbackIndexes();
+        }
+
+        /**
+         * Returns the buffer of the calling thread for the values of the guard
+         * callback.
+         *
+         * @return an array with one element per guard of the guard callback.
+         */
+        boolean[] getGuardValuesBuffer() {
+            return HappeningDispatchSite.getGuardValuesBuffer(guardIndexes.length);
+        }
+    }
+
+    /**
+     * The buffers of each thread for the values of the guard callbacks, by
+     * number of guards, shared by every {@link Entry}.
+     */
+    private static final ThreadLocal<boolean[][]> GUARD_VALUES = ThreadLocal.withInitial(() -> new boolean[0][]);
+
+    private final Method method;
+    private volatile Entry lastEntry;
+    private volatile IdentityHashMap<Object, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * Returns the buffer of the calling thread for the values of a guard
+     * callback with the number of guards provided. The buffer is reused by
+     * every guard callback with the same number of guards.
+     *
+     * @param guardCount
+     *            The number of guards of the guard callback.
+     * @return an array with one element per guard.
+     */
+    static boolean[] getGuardValuesBuffer(int guardCount) {
+        boolean[][] buffers = GUARD_VALUES.get();
+        if (guardCount >= buffers.length) {
+            buffers = Arrays.copyOf(buffers, guardCount + 1);
+            GUARD_VALUES.set(buffers);
+        }
+        boolean[] buffer = buffers[guardCount];
+        if (buffer == null) {
+            buffer = new boolean[guardCount];
+            buffers[guardCount] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * @param method
+     *            The {@link HappeningController} annotated method of the join
+     *            point, or null if it can not be obtained from the join point.
+     */
+    HappeningDispatchSite(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * Returns the {@link HappeningController} annotated method of the join
+     * point.
+     *
+     * @return the method, or null if it must be resolved by name for each
+     *         object.
+     */
+    Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the {@link Entry} registered for the object.
+     *
+     * @param target
+     *            The object executing the method, or null if the method is
+     *            static.
+     * @return the {@link Entry} of the object, or null if it was not
+     *         registered yet.
+     */
+    Entry lookup(Object target) {
+        Entry entry = lastEntry;
+        if (entry != null && entry.target == target) {
+            return entry;
+        }
+        return entries.get(target);
+    }
+
+    /**
+     * Registers the {@link HappeningControllerSubscription} of an object. If
+     * another thread registered the object first with the same version, the
+     * {@link Entry} registered by that thread is returned.
+     *
+     * @param target
+     *            The object executing the method, or null if the method is
+     *            static.
+     * @param subscription
+     *            The {@link HappeningControllerSubscription} of the object.
+     * @param executionPlan
+     *            The {@link TopicExecutionPlan} of the subscription.
+     * @param version
+     *            The version of the happeningController subscriptions when the
+     *            subscription was resolved.
+     * @return the {@link Entry} registered for the object.
+     */
+    synchronized Entry register(Object target, HappeningControllerSubscription subscription,
+            TopicExecutionPlan executionPlan, int version) {
+        Entry entry = entries.get(target);
+        if (entry == null || entry.version != version) {
+            entry = new Entry(target, subscription, executionPlan, version);
+            IdentityHashMap<Object, Entry> newEntries = new IdentityHashMap<>(entries);
+            newEntries.put(target, entry);
+            entries = newEntries;
+        }
+        lastEntry = entry;
+        return entry;
+    }
+
+    /**
+     * Removes the entries resolved with a version other than the one
+     * provided, so the objects that are no longer subscribed are not
+     * referenced anymore.
+     *
+     * @param version
+     *            The current version of the happeningController subscriptions.
+     */
+    synchronized void removeStaleEntries(int version) {
+        IdentityHashMap<Object, Entry> newEntries = new IdentityHashMap<>();
+        for (Entry entry : entries.values()) {
+            if (entry.version == version) {
+                newEntries.put(entry.target, entry);
+            }
+        }
+        entries = newEntries;
+        Entry last = lastEntry;
+        if (last != null && last.version != version) {
+            lastEntry = null;
+        }
+    }
+}
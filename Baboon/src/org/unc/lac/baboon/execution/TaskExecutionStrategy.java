@@ -0,0 +1,45 @@
+package org.unc.lac.baboon.execution;
+
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+
+/**
+ * Strategy used by Baboon framework to execute the {@link DummyThread} objects
+ * of the {@link AbstractTaskControllerSubscription} objects. Each implementation
+ * decides which threads run the taskControllers.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see DummiesExecutor
+ * @see VirtualThreadDummiesExecutor
+ * @see TaskScheduler
+ * @see TaskExecutionStrategyFactory
+ */
+public interface TaskExecutionStrategy {
+    /**
+     * Starts the execution of a {@link DummyThread} object. This method must
+     * not wait for the {@link DummyThread} to finish.
+     * 
+     * @param dummy
+     *      the {@link DummyThread} object to be executed.
+     */
+    void executeDummy(DummyThread dummy);
+
+    /**
+     * Stops the execution of a {@link DummyThread} object started by
+     * {@link #executeDummy(DummyThread)}. The {@link DummyThread} stops at the
+     * end of its current iteration. This method must not wait for it to stop.
+     * By default, it calls {@link DummyThread#stop()}.
+     * 
+     * @param dummy
+     *      the {@link DummyThread} object to be stopped.
+     */
+    default void stopDummy(DummyThread dummy) {
+        dummy.stop();
+    }
+
+    /**
+     * Stops accepting new {@link DummyThread} objects.
+     */
+    void shutdown();
+}
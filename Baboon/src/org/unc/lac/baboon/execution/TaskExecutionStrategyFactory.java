@@ -0,0 +1,57 @@
+package org.unc.lac.baboon.execution;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the {@link TaskExecutionStrategy} used by Baboon framework when the
+ * user does not provide one.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see TaskExecutionStrategy
+ */
+public class TaskExecutionStrategyFactory {
+    private final static Logger LOGGER = Logger.getLogger(TaskExecutionStrategyFactory.class.getName());
+
+    /**
+     * Creates the default {@link TaskExecutionStrategy} for the running Java
+     * version. A {@link VirtualThreadDummiesExecutor} is created if virtual
+     * threads are supported, otherwise a {@link DummiesExecutor} is created.
+     * The strategy selected is logged. To keep platform threads on Java 21 or
+     * newer, a {@link DummiesExecutor} can be set on
+     * {@link org.unc.lac.baboon.main.BaboonFramework#setTaskExecutionStrategy(TaskExecutionStrategy)}.
+     * 
+     * @return the default {@link TaskExecutionStrategy}.
+     */
+    public static TaskExecutionStrategy createDefaultStrategy() {
+        TaskExecutionStrategy strategy = createVirtualThreadStrategy();
+        if (strategy instanceof VirtualThreadDummiesExecutor) {
+            LOGGER.log(Level.INFO, "The taskControllers are executed on virtual threads");
+        } else {
+            LOGGER.log(Level.INFO, "The taskControllers are executed on platform threads");
+        }
+        return strategy;
+    }
+
+    /**
+     * Creates a {@link VirtualThreadDummiesExecutor} if virtual threads are
+     * supported by the running Java version, otherwise a
+     * {@link DummiesExecutor} is created.
+     * 
+     * @return a {@link TaskExecutionStrategy} that uses virtual threads when
+     *         they are supported.
+     * @see #createDefaultStrategy()
+     */
+    public static TaskExecutionStrategy createVirtualThreadStrategy() {
+        if (VirtualThreadDummiesExecutor.isSupported()) {
+            try {
+                return new VirtualThreadDummiesExecutor();
+            } catch (UnsupportedOperationException e) {
+                LOGGER.log(Level.WARNING, "Virtual threads are not available, using platform threads", e);
+            }
+        }
+        return new DummiesExecutor();
+    }
+}
@@ -0,0 +1,389 @@
+package org.unc.lac.baboon.execution;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.MarkingObserver;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+
+/**
+ * An event driven executor of {@link AbstractTaskControllerSubscription} objects.
+ * Instead of dedicating one thread per taskController, blocked on its permission
+ * transition, every taskController waits as a {@link DummyThread} continuation that
+ * is dispatched to a fixed size pool of worker threads when its permission
+ * transition becomes enabled. This way, the number of threads depends on the
+ * pool size and not on the number of taskControllers subscribed.
+ * <p>
+ * The waiting taskControllers are kept in a queue per permission transition,
+ * and the permission transitions with waiting taskControllers are checked
+ * every time the {@link BaboonPetriCore} reports a marking change, once per
+ * transition no matter how many taskControllers wait for it. A periodic check
+ * can be requested as well, so the transitions enabled by the passing of time
+ * on timed petri nets are also detected.
+ * </p>
+ * <p>
+ * At most one worker thread at a time claims each permission transition, by
+ * firing it without waiting on the Petri monitor. When the claim ends, the
+ * next taskController waiting for the same transition is checked right away,
+ * so the replicas of a taskController take the tokens left one after the
+ * other. If the permission transition is taken by another thread between the
+ * check and the firing, the taskController waits again for the next marking
+ * change, so the worker threads never block on the Petri monitor.
+ * </p>
+ * <p>
+ * A taskController that fails is not scheduled anymore. The failure is logged
+ * and the taskController is kept in {@link #getFailedTasks()}.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see DummyThread
+ * @see MarkingObserver
+ */
+public class TaskScheduler implements MarkingObserver, TaskExecutionStrategy {
+    private final static Logger LOGGER = Logger.getLogger(TaskScheduler.class.getName());
+    /**
+     * The default period, in milliseconds, of the check of the waiting
+     * taskControllers. Zero means that they are only checked on marking changes.
+     */
+    public static final long DEFAULT_RESCAN_PERIOD = 0;
+
+    private final BaboonPetriCore petriCore;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService rescanTimer;
+    /**
+     * The taskControllers waiting for their permission transition to be
+     * enabled, in a queue per permission transition, indexed by transition
+     * index.
+     */
+    private final List<ConcurrentLinkedQueue<DummyThread>> waitingTasks;
+    /**
+     * The permission transitions whose queue on {@link #waitingTasks} might
+     * not be empty. They are the only ones checked on a marking change.
+     */
+    private final Set<Integer> waitingPermissions = ConcurrentHashMap.newKeySet();
+    /**
+     * The taskControllers that failed and are not scheduled anymore.
+     */
+    private final ConcurrentLinkedQueue<AbstractTaskControllerSubscription> failedTasks = new ConcurrentLinkedQueue<>();
+    /**
+     * Indicates, for each transition, if a worker thread is firing it as permission.
+     */
+    private final AtomicIntegerArray firingPermissions;
+    /**
+     * The number of checks of the waiting taskControllers requested and not
+     * served yet. Only the thread that increments it from zero performs the checks.
+     */
+    private final AtomicInteger scanRequests = new AtomicInteger();
+
+    /**
+     * Creates a scheduler with the number of worker threads provided, which
+     * checks the waiting taskControllers only on marking changes.
+     *
+     * @param petriCore
+     *       The {@link BaboonPetriCore} object, used to synchronize the execution.
+     * @param workerThreads
+     *       The number of worker threads used to execute the taskControllers.
+     * @throws IllegalArgumentException
+     *       If the petri core is null or the number of worker threads is not positive.
+     */
+    public TaskScheduler(BaboonPetriCore petriCore, int workerThreads) {
+        this(petriCore, workerThreads, DEFAULT_RESCAN_PERIOD);
+    }
+
+    /**
+     * Creates a scheduler with the number of worker threads provided.
+     *
+     * @param petriCore
+     *       The {@link BaboonPetriCore} object, used to synchronize the execution.
+     * @param workerThreads
+     *       The number of worker threads used to execute the taskControllers.
+     * @param rescanPeriod
+     *       The period, in milliseconds, of the check of the waiting taskControllers
+     *       that is performed besides the checks on marking changes, or zero to
+     *       check them only on marking changes.
+     * @throws IllegalArgumentException
+     *       If the petri core is null, the number of worker threads is not
+     *       positive or the period is negative.
+     */
+    public TaskScheduler(BaboonPetriCore petriCore, int workerThreads, long rescanPeriod) {
+        if (petriCore == null) {
+            throw new IllegalArgumentException("Petri Core can not be null");
+        }
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("The number of worker threads must be positive");
+        }
+        if (rescanPeriod < 0) {
+            throw new IllegalArgumentException("The rescan period can not be negative");
+        }
+        this.petriCore = petriCore;
+        this.firingPermissions = new AtomicIntegerArray(petriCore.getTransitionCount());
+        this.waitingTasks = new ArrayList<>(petriCore.getTransitionCount());
+        for (int t = 0; t < petriCore.getTransitionCount(); t++) {
+            waitingTasks.add(new ConcurrentLinkedQueue<>());
+        }
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+        petriCore.addMarkingObserver(this);
+        if (rescanPeriod > 0) {
+            this.rescanTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread timer = new Thread(runnable, "baboon-task-scheduler-timer");
+                timer.setDaemon(true);
+                return timer;
+            });
+            rescanTimer.scheduleWithFixedDelay(this::scan, rescanPeriod, rescanPeriod, TimeUnit.MILLISECONDS);
+        } else {
+            this.rescanTimer = null;
+        }
+    }
+
+    /**
+     * Schedules the execution of an {@link AbstractTaskControllerSubscription}.
+     * The taskController waits until its permission transition is enabled, as
+     * {@link DummyThread#call()} does, but without a dedicated thread.
+     *
+     * @param taskSubscription
+     *       The {@link AbstractTaskControllerSubscription} object to be executed.
+     * @throws IllegalArgumentException
+     *       If the subscription is null or its execution plan can not be compiled.
+     * @see DummyThread#DummyThread(AbstractTaskControllerSubscription, BaboonPetriCore)
+     */
+    public void schedule(AbstractTaskControllerSubscription taskSubscription) {
+        park(new DummyThread(taskSubscription, petriCore));
+    }
+
+    /**
+     * Schedules the execution of a {@link DummyThread}. Instead of calling
+     * {@link DummyThread#call()}, the steps of the {@link DummyThread} are
+     * executed by the worker threads when its permission transitions are enabled.
+     *
+     * @param dummy
+     *       The {@link DummyThread} object to be executed.
+     * @throws IllegalArgumentException
+     *       If the {@link DummyThread} does not use the {@link BaboonPetriCore} of
+     *       this scheduler.
+     */
+    @Override
+    public void executeDummy(DummyThread dummy) {
+        if (dummy.getPetriCore() != petriCore) {
+            throw new IllegalArgumentException("The DummyThread must use the petri core of the scheduler");
+        }
+        park(dummy);
+    }
+
+    /**
+     * Returns the subscriptions of the taskControllers that failed, in the
+     * order they failed. They are not scheduled anymore.
+     *
+     * @return the failed taskControllers.
+     */
+    public List<AbstractTaskControllerSubscription> getFailedTasks() {
+        return new ArrayList<>(failedTasks);
+    }
+
+    /**
+     * Stops the execution of a {@link DummyThread}. If it is waiting for the
+     * first permission transition of an iteration, it is removed from the
+     * waiting taskControllers right away. Otherwise, it is discarded when its
+     * current iteration ends.
+     *
+     * @param dummy
+     *       The {@link DummyThread} object to be stopped.
+     */
+    @Override
+    public void stopDummy(DummyThread dummy) {
+        dummy.stop();
+        if (dummy.isStopped()) {
+            waitingTasks.get(dummy.getNextPermissionIndex()).remove(dummy);
+        }
+    }
+
+    /**
+     * Checks the waiting taskControllers after a transition firing or a guard
+     * update on the {@link BaboonPetriCore}.
+     */
+    @Override
+    public void markingChanged() {
+        scan();
+    }
+
+    /**
+     * Stops the scheduler. The waiting taskControllers are not executed
+     * anymore and the worker threads are interrupted.
+     */
+    @Override
+    public void shutdown() {
+        petriCore.removeMarkingObserver(this);
+        if (rescanTimer != null) {
+            rescanTimer.shutdownNow();
+        }
+        workers.shutdownNow();
+        for (ConcurrentLinkedQueue<DummyThread> permissionTasks : waitingTasks) {
+            permissionTasks.clear();
+        }
+        waitingPermissions.clear();
+    }
+
+    /**
+     * Puts a taskController to wait for its permission transition, and checks
+     * if it can be dispatched right away.
+     *
+     * @param task
+     *       The {@link DummyThread} continuation of the taskController.
+     */
+    private void park(DummyThread task) {
+        if (task.isStopped()) {
+            return;
+        }
+        enqueue(task);
+        scan();
+    }
+
+    /**
+     * Adds a taskController to the queue of its permission transition on
+     * {@link #waitingTasks}.
+     *
+     * @param task
+     *       The {@link DummyThread} continuation of the taskController.
+     */
+    private void enqueue(DummyThread task) {
+        int permission = task.getNextPermissionIndex();
+        waitingTasks.get(permission).add(task);
+        waitingPermissions.add(permission);
+    }
+
+    /**
+     * Dispatches to the worker threads the waiting taskControllers whose
+     * permission transition might be enabled and is not being claimed by
+     * another worker. Only the permission transitions with waiting
+     * taskControllers are checked, and only the first taskController waiting
+     * for each one is dispatched, since a transition is claimed by one worker
+     * at a time. Concurrent calls are merged, so only one thread checks the
+     * waiting taskControllers at a time.
+     */
+    private void scan() {
+        if (waitingPermissions.isEmpty() || scanRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests;
+        do {
+            requests = scanRequests.get();
+            Iterator<Integer> iterator = waitingPermissions.iterator();
+            while (iterator.hasNext()) {
+                int permission = iterator.next();
+                ConcurrentLinkedQueue<DummyThread> permissionTasks = waitingTasks.get(permission);
+                if (permissionTasks.isEmpty()) {
+                    iterator.remove();
+                    // a taskController might have been added after the check
+                    if (!permissionTasks.isEmpty()) {
+                        waitingPermissions.add(permission);
+                    }
+                    continue;
+                }
+                if (firingPermissions.get(permission) != 0 || !petriCore.mightBeEnabled(permission)) {
+                    continue;
+                }
+                DummyThread task = permissionTasks.poll();
+                while (task != null && task.isStopped()) {
+                    task = permissionTasks.poll();
+                }
+                if (task != null) {
+                    firingPermissions.set(permission, 1);
+                    dispatch(task, permission);
+                }
+            }
+        } while (scanRequests.addAndGet(-requests) != 0);
+    }
+
+    /**
+     * Claims the permission transition of the next step of a taskController on
+     * a worker thread, executes the step, and puts the taskController to wait
+     * again for its next permission transition. If the permission transition
+     * is not enabled anymore, the taskController waits again for it.
+     *
+     * @param task
+     *       The {@link DummyThread} continuation of the taskController.
+     * @param permission
+     *       The index of the permission transition of the step.
+     */
+    private void dispatch(DummyThread task, int permission) {
+        try {
+            workers.execute(() -> {
+                try {
+                    long version = petriCore.getMarkingVersion();
+                    boolean claimed;
+                    try {
+                        claimed = task.tryFirePermission();
+                    } finally {
+                        firingPermissions.set(permission, 0);
+                    }
+                    if (!claimed) {
+                        repark(task, version);
+                        return;
+                    }
+                    // the scans done while claiming skipped the permission
+                    scan();
+                    task.executeAfterPermission();
+                } catch (RuntimeException e) {
+                    fail(task, e);
+                    scan();
+                    return;
+                }
+                park(task);
+            });
+        } catch (RuntimeException e) {
+            firingPermissions.set(permission, 0);
+            fail(task, e);
+        }
+    }
+
+    /**
+     * Puts a taskController whose permission transition could not be claimed
+     * to wait again. The waiting taskControllers are checked again only if
+     * the marking changed since the claim began, so a taskController whose
+     * permission transition stays disabled waits for the next marking change.
+     *
+     * @param task
+     *       The {@link DummyThread} continuation of the taskController.
+     * @param version
+     *       The version of the marking read before the claim.
+     */
+    private void repark(DummyThread task, long version) {
+        if (task.isStopped()) {
+            return;
+        }
+        enqueue(task);
+        if (petriCore.getMarkingVersion() != version) {
+            scan();
+        }
+    }
+
+    /**
+     * Logs the failure of a taskController and keeps it in
+     * {@link #failedTasks}, so it is not scheduled anymore.
+     *
+     * @param task
+     *       The {@link DummyThread} continuation of the taskController.
+     * @param failure
+     *       The cause of the failure.
+     */
+    private void fail(DummyThread task, RuntimeException failure) {
+        LOGGER.log(Level.SEVERE, "The taskController subscribed to topic "
+                + task.getTaskSubscription().getTopic().getName() + " failed and will not be scheduled anymore",
+                failure);
+        failedTasks.add(task.getTaskSubscription());
+    }
+}
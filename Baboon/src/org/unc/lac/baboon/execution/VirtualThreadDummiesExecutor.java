@@ -0,0 +1,114 @@
+package org.unc.lac.baboon.execution;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link TaskExecutionStrategy} that executes every {@link DummyThread} on its
+ * own virtual thread. The blocking programming model of {@link DummyThread} is
+ * kept, but a {@link DummyThread} blocked on the Petri monitor does not hold a
+ * platform thread.
+ * <p>
+ * Virtual threads are available since Java 21. As Baboon framework is compiled
+ * for Java 8, the virtual thread executor is obtained by reflection, and
+ * {@link #isSupported()} must be checked before creating an instance.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see TaskExecutionStrategyFactory#createVirtualThreadStrategy()
+ */
+public class VirtualThreadDummiesExecutor implements TaskExecutionStrategy {
+    /**
+     * The first Java version where virtual threads are not a preview feature.
+     */
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+    /**
+     * The method Executors.newVirtualThreadPerTaskExecutor(), or null if
+     * virtual threads are not supported by the running Java version.
+     */
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates an executor that starts a new virtual thread for every
+     * {@link DummyThread}.
+     * 
+     * @throws UnsupportedOperationException
+     *      If the running Java version does not support virtual threads.
+     */
+    public VirtualThreadDummiesExecutor() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java " + VIRTUAL_THREADS_JAVA_VERSION);
+        }
+        try {
+            executor = (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new UnsupportedOperationException("Failed to create the virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Returns true if the running Java version supports virtual threads.
+     * 
+     * @return true if virtual threads can be used.
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Submits a {@link DummyThread} object to be executed on a new virtual thread.
+     * 
+     * @param dummy
+     *      the {@link DummyThread} object.
+     */
+    @Override
+    public void executeDummy(DummyThread dummy) {
+        executor.submit(dummy);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Looks for Executors.newVirtualThreadPerTaskExecutor() on Java
+     * {@value #VIRTUAL_THREADS_JAVA_VERSION} or newer.
+     * 
+     * @return the method, or null if virtual threads are not supported.
+     */
+    private static Method findVirtualThreadExecutorFactory() {
+        if (getJavaVersion() < VIRTUAL_THREADS_JAVA_VERSION) {
+            return null;
+        }
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the major version of the running Java, parsing the
+     * "java.specification.version" property ("1.8" on Java 8, "21" on Java 21).
+     * 
+     * @return the major Java version, or 0 if it can not be parsed.
+     */
+    private static int getJavaVersion() {
+        String version = System.getProperty("java.specification.version", "0");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.unc.lac.baboon.actioncontroller.TaskActionController;
+
+/**
+ * An ActionInvoker executes a {@link Method} over a fixed object instance and a
+ * fixed array of arguments. The target and the arguments are bound once, when
+ * the invoker is created, so every call to {@link #invoke()} only executes the
+ * method.
+ * <p>
+ * ActionInvoker objects are created by {@link ActionInvokerFactory} when a
+ * {@link TaskActionController} is created, and are used by the framework on
+ * every execution of the action.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see ActionInvokerFactory
+ */
+public interface ActionInvoker {
+
+    /**
+     * Executes the bound method over the bound object instance and arguments.
+     * Any value returned by the method is discarded.
+     * 
+     * @throws IllegalAccessException
+     *         Error when accessing the bound method.
+     * @throws InvocationTargetException
+     *         When the bound method throws an exception. The exception thrown
+     *         by the method is the cause.
+     */
+    void invoke() throws IllegalAccessException, InvocationTargetException;
+}
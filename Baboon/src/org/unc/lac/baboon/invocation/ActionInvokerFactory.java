@@ -0,0 +1,72 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the fastest {@link ActionInvoker} available for a given method.
+ * <ol>
+ * <li>A {@link LambdaActionInvoker} is tried first.</li>
+ * <li>If the method can not be bound with a generated class, a
+ * {@link MethodHandleActionInvoker} is tried.</li>
+ * <li>Finally, a {@link ReflectiveActionInvoker} is used.</li>
+ * </ol>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public class ActionInvokerFactory {
+    private final static Logger LOGGER = Logger.getLogger(ActionInvokerFactory.class.getName());
+
+    /**
+     * Creates an {@link ActionInvoker} for the method provided, binding the
+     * target and arguments to it.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke.
+     * @param arguments
+     *            The arguments used on every invocation. Null is treated as an
+     *            empty array.
+     * @return an {@link ActionInvoker} for the method, never null.
+     */
+    public static ActionInvoker createInvoker(Object target, Method method, Object... arguments) {
+        Object[] checkedArguments = arguments == null ? new Object[] {} : arguments;
+        if (checkedArguments.length == method.getParameterCount()) {
+            try {
+                return new LambdaActionInvoker(target, method, checkedArguments);
+            } catch (Throwable e) {
+                LOGGER.log(Level.FINE, "Could not generate a lambda invoker for " + method, e);
+            }
+            try {
+                return new MethodHandleActionInvoker(target, method, checkedArguments);
+            } catch (IllegalAccessException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Could not bind a method handle for " + method, e);
+            }
+        }
+        return new ReflectiveActionInvoker(target, method, checkedArguments);
+    }
+
+    /**
+     * Creates a {@link BatchActionInvoker} for a method whose first parameter
+     * receives the number of permissions fired, binding the target and the
+     * remaining arguments to it.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke.
+     * @param arguments
+     *            The arguments used on every invocation after the first one.
+     *            Null is treated as an empty array.
+     * @return a {@link BatchActionInvoker} for the method, never null.
+     */
+    public static BatchActionInvoker createBatchInvoker(Object target, Method method, Object... arguments) {
+        return new BatchActionInvoker(target, method, arguments == null ? new Object[] {} : arguments);
+    }
+}
@@ -0,0 +1,106 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.unc.lac.baboon.annotations.TaskController;
+
+/**
+ * A BatchActionInvoker executes a {@link TaskController} annotated method with
+ * a batch greater than one over a fixed object instance and a fixed array of
+ * arguments. The number of permissions fired for the execution is passed as
+ * the first argument of the method, before the bound ones.
+ * <p>
+ * A {@link MethodHandle} whose receiver and bound arguments are already
+ * inserted is used when possible, so its type is always {@code (int)void}.
+ * Otherwise the method is invoked by reflection.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see TaskController#batch()
+ * @see ActionInvokerFactory#createBatchInvoker(Object, Method, Object...)
+ */
+public class BatchActionInvoker {
+    private final static Logger LOGGER = Logger.getLogger(BatchActionInvoker.class.getName());
+
+    private final Object target;
+    private final Method method;
+    private final Object[] arguments;
+    /**
+     * The method with its receiver and bound arguments inserted, or null if
+     * it is invoked by reflection.
+     */
+    private final MethodHandle boundHandle;
+
+    /**
+     * Constructor. Unreflects the method and binds the target and the
+     * arguments after the first one to it.
+     *
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke, whose first parameter is an int.
+     * @param arguments
+     *            The arguments used on every invocation after the first one.
+     */
+    public BatchActionInvoker(Object target, Method method, Object[] arguments) {
+        this.target = target;
+        this.method = method;
+        this.arguments = arguments;
+        MethodHandle handle = null;
+        if (arguments.length == method.getParameterCount() - 1) {
+            try {
+                handle = MethodHandles.publicLookup().unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    handle = handle.bindTo(target);
+                }
+                if (arguments.length > 0) {
+                    handle = MethodHandles.insertArguments(handle, 1, arguments);
+                }
+                handle = handle.asType(MethodType.methodType(void.class, int.class));
+            } catch (IllegalAccessException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Could not bind a method handle for " + method, e);
+                handle = null;
+            }
+        }
+        this.boundHandle = handle;
+    }
+
+    /**
+     * Executes the bound method over the bound object instance and arguments,
+     * passing the number of permissions fired as the first argument. Any value
+     * returned by the method is discarded.
+     *
+     * @param permissions
+     *            The number of times the permission was fired for this
+     *            execution.
+     * @throws IllegalAccessException
+     *         Error when accessing the bound method.
+     * @throws InvocationTargetException
+     *         When the bound method throws an exception. The exception thrown
+     *         by the method is the cause.
+     */
+    public void invoke(int permissions) throws IllegalAccessException, InvocationTargetException {
+        if (boundHandle != null) {
+            try {
+                boundHandle.invokeExact(permissions);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+            return;
+        }
+        Object[] batchArguments = new Object[arguments.length + 1];
+        batchArguments[0] = permissions;
+        System.arraycopy(arguments, 0, batchArguments, 1, arguments.length);
+        method.invoke(target, batchArguments);
+    }
+}
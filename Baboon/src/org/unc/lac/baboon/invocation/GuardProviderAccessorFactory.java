@@ -0,0 +1,104 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.unc.lac.baboon.annotations.GuardProvider;
+
+/**
+ * Creates {@link BooleanSupplier} accessors for {@link GuardProvider} annotated
+ * methods. The object instance is bound once, so reading a guard value does not
+ * require a map lookup, a reflective call nor unboxing a {@link Boolean}.
+ * <ol>
+ * <li>A {@link BooleanSupplier} generated with {@link LambdaMetafactory} is
+ * tried first.</li>
+ * <li>If the method can not be bound with a generated class, a
+ * {@link MethodHandle} is used.</li>
+ * <li>Finally, {@link Method#invoke(Object, Object...)} is used.</li>
+ * </ol>
+ * <p>
+ * The accessors do not wrap the exceptions thrown by the guard provider
+ * method, they are thrown as they are. When reflection is used, the exception
+ * thrown by the method is unwrapped from the {@link InvocationTargetException}
+ * so every accessor behaves the same way.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public class GuardProviderAccessorFactory {
+    private final static Logger LOGGER = Logger.getLogger(GuardProviderAccessorFactory.class.getName());
+
+    /**
+     * Creates a {@link BooleanSupplier} that returns the value provided by the
+     * {@link GuardProvider} annotated method.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The {@link GuardProvider} annotated method. It must return
+     *            boolean and must not take parameters.
+     * @return a {@link BooleanSupplier} for the method, never null.
+     */
+    public static BooleanSupplier createAccessor(final Object target, final Method method) {
+        final boolean isStatic = Modifier.isStatic(method.getModifiers());
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType capturedTypes = isStatic ? MethodType.methodType(BooleanSupplier.class)
+                    : MethodType.methodType(BooleanSupplier.class, method.getDeclaringClass());
+            CallSite site = LambdaMetafactory.metafactory(lookup, "getAsBoolean", capturedTypes,
+                    MethodType.methodType(boolean.class), lookup.unreflect(method),
+                    MethodType.methodType(boolean.class));
+            return isStatic ? (BooleanSupplier) site.getTarget().invoke()
+                    : (BooleanSupplier) site.getTarget().invoke(target);
+        } catch (Throwable e) {
+            LOGGER.log(Level.FINE, "Could not generate a lambda accessor for " + method, e);
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            if (!isStatic) {
+                handle = handle.bindTo(target);
+            }
+            final MethodHandle boundHandle = handle.asType(MethodType.methodType(boolean.class));
+            return () -> {
+                try {
+                    return (boolean) boundHandle.invokeExact();
+                } catch (Throwable e) {
+                    throw GuardProviderAccessorFactory.<RuntimeException> sneakyThrow(e);
+                }
+            };
+        } catch (IllegalAccessException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not bind a method handle for " + method, e);
+        }
+        return () -> {
+            try {
+                return (Boolean) method.invoke(target);
+            } catch (InvocationTargetException e) {
+                throw GuardProviderAccessorFactory.<RuntimeException> sneakyThrow(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw GuardProviderAccessorFactory.<RuntimeException> sneakyThrow(e);
+            }
+        };
+    }
+
+    /**
+     * Throws the exception provided without declaring it, since
+     * {@link BooleanSupplier#getAsBoolean()} does not declare checked
+     * exceptions.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> T sneakyThrow(Throwable e) throws T {
+        throw (T) e;
+    }
+}
@@ -0,0 +1,72 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * An {@link ActionInvoker} backed by a {@link Runnable} generated with
+ * {@link LambdaMetafactory}. The generated class captures the target and the
+ * arguments and calls the method directly, as a lambda expression written by
+ * hand would do. This allows the JIT compiler to inline the method on the
+ * framework execution loop.
+ * <p>
+ * Only public methods declared on public classes can be bound this way.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public class LambdaActionInvoker implements ActionInvoker {
+    private final Runnable runnable;
+
+    /**
+     * Constructor. Generates the {@link Runnable} that calls the method.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke.
+     * @param arguments
+     *            The arguments used on every invocation.
+     * @throws Throwable
+     *             If the {@link Runnable} can not be generated for the method
+     *             or the arguments provided.
+     */
+    public LambdaActionInvoker(Object target, Method method, Object[] arguments) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle implementation = lookup.unreflect(method);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodType capturedTypes = MethodType.methodType(Runnable.class, method.getParameterTypes());
+        if (!isStatic) {
+            capturedTypes = capturedTypes.insertParameterTypes(0, method.getDeclaringClass());
+        }
+        CallSite site = LambdaMetafactory.metafactory(lookup, "run", capturedTypes,
+                MethodType.methodType(void.class), implementation, MethodType.methodType(void.class));
+        Object[] capturedValues;
+        if (isStatic) {
+            capturedValues = arguments;
+        } else {
+            capturedValues = new Object[arguments.length + 1];
+            capturedValues[0] = target;
+            System.arraycopy(arguments, 0, capturedValues, 1, arguments.length);
+        }
+        this.runnable = (Runnable) site.getTarget().invokeWithArguments(capturedValues);
+    }
+
+    @Override
+    public void invoke() throws InvocationTargetException {
+        try {
+            runnable.run();
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * An {@link ActionInvoker} backed by a {@link MethodHandle} whose receiver and
+ * arguments are already inserted, so its type is always {@code ()void}. Calls
+ * are done through {@link MethodHandle#invokeExact(Object...)}, which avoids the
+ * access checks and the arguments array copy done by
+ * {@link Method#invoke(Object, Object...)}.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public class MethodHandleActionInvoker implements ActionInvoker {
+    private final MethodHandle boundHandle;
+
+    /**
+     * Constructor. Unreflects the method and binds the target and the
+     * arguments to it.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke.
+     * @param arguments
+     *            The arguments used on every invocation.
+     * @throws IllegalAccessException
+     *             If the method is not accessible by the framework.
+     * @throws ClassCastException
+     *             If the arguments can not be converted to the method parameter
+     *             types.
+     */
+    public MethodHandleActionInvoker(Object target, Method method, Object[] arguments)
+            throws IllegalAccessException {
+        MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(target);
+        }
+        if (arguments.length > 0) {
+            handle = MethodHandles.insertArguments(handle, 0, arguments);
+        }
+        this.boundHandle = handle.asType(MethodType.methodType(void.class));
+    }
+
+    @Override
+    public void invoke() throws InvocationTargetException {
+        try {
+            boundHandle.invokeExact();
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.unc.lac.baboon.invocation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * An {@link ActionInvoker} that uses {@link Method#invoke(Object, Object...)}.
+ * It is used as fallback when the method can not be bound by
+ * {@link LambdaActionInvoker} nor by {@link MethodHandleActionInvoker}.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public class ReflectiveActionInvoker implements ActionInvoker {
+    private final Object target;
+    private final Method method;
+    private final Object[] arguments;
+
+    /**
+     * Constructor.
+     * 
+     * @param target
+     *            The object instance over which the method is invoked. It is
+     *            ignored when the method is static.
+     * @param method
+     *            The method to invoke.
+     * @param arguments
+     *            The arguments used on every invocation.
+     */
+    public ReflectiveActionInvoker(Object target, Method method, Object[] arguments) {
+        this.target = target;
+        this.method = method;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public void invoke() throws IllegalAccessException, InvocationTargetException {
+        method.invoke(target, arguments);
+    }
+}
@@ -1,6 +1,8 @@
 package org.unc.lac.baboon.main;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 import org.reflections.Reflections;
 import org.unc.lac.baboon.annotations.HappeningController;
@@ -17,14 +19,26 @@ import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.execution.DummiesExecutor;
 import org.unc.lac.baboon.execution.DummyThread;
 import org.unc.lac.baboon.execution.HappeningControllerSynchronizer;
+import org.unc.lac.baboon.execution.TaskExecutionStrategy;
+import org.unc.lac.baboon.execution.TaskExecutionStrategyFactory;
+import org.unc.lac.baboon.execution.TaskScheduler;
+import org.unc.lac.baboon.execution.VirtualThreadDummiesExecutor;
 import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.JpcmPetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.baboon.petri.PetriEngines;
 import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.subscription.AbstractActionControllerSubscription;
 import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.ComplexForkJoinTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.ComplexSecuentialTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.HappeningControllerSubscription;
+import org.unc.lac.baboon.subscription.ReplicaFactory;
 import org.unc.lac.baboon.subscription.SimpleTaskControllerSubscription;
+import org.unc.lac.baboon.topic.GuardEvaluation;
 import org.unc.lac.baboon.topic.Topic;
 import org.unc.lac.baboon.utils.TopicsJsonParser;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
 import org.unc.lac.javapetriconcurrencymonitor.monitor.PetriMonitor;
 import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.FirstInLinePolicy;
 import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
@@ -40,6 +54,12 @@ import rx.Subscription;
  * At least one class implementing {@link BaboonApplication} must be written for
  * BaboonFramework to initialize the system.
  * </p>
+ * <p>
+ * The controllers can also be subscribed and unsubscribed after the system is
+ * started, without stopping it. The taskControllers subscribed at runtime
+ * start right away, and the ones unsubscribed stop at the end of their
+ * current iteration.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -57,10 +77,40 @@ public class BaboonFramework {
 
     private static BaboonConfig baboonConfig = new BaboonConfig();
 
-    private static DummiesExecutor dummiesExecutor = new DummiesExecutor();
+    /**
+     * The strategy used to execute the taskControllers. If null, the strategy
+     * returned by {@link TaskExecutionStrategyFactory#createDefaultStrategy()} is used.
+     */
+    private static TaskExecutionStrategy taskExecutionStrategy;
 
     private static BaboonPetriCore petriCore;
 
+    /**
+     * The synchronizer of the happeningControllers, created by
+     * {@link #main(String[])}, or null before.
+     */
+    private static HappeningControllerSynchronizer happeningControllerSynchronizer;
+
+    /**
+     * Number of worker threads of the {@link TaskScheduler}. If zero, the
+     * taskControllers are executed by {@link #taskExecutionStrategy}.
+     */
+    private static int taskSchedulerWorkers = 0;
+
+    /**
+     * The {@link DummyThread} objects executing the replicas of each
+     * {@link AbstractTaskControllerSubscription}, used to stop them when the
+     * subscription is removed. It is only accessed while holding the
+     * BaboonFramework class lock.
+     */
+    private static final IdentityHashMap<AbstractTaskControllerSubscription, List<DummyThread>> runningTasks = new IdentityHashMap<>();
+
+    /**
+     * Indicates if the taskControllers were started by {@link #main(String[])}.
+     */
+    private static boolean started = false;
+
+
     /**
      * Main method.
      * <p>
@@ -89,18 +139,158 @@ public class BaboonFramework {
         if (petriCore == null) {
             throw new NullPointerException("The petri core is null. Must be created on declare() method");
         } else {
-            HappeningControllerJoinPointReporter.setObserver(new HappeningControllerSynchronizer(baboonConfig, petriCore));
+            happeningControllerSynchronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+            HappeningControllerJoinPointReporter.setObserver(happeningControllerSynchronizer);
             petriCore.initializePetriNet();
+            baboonConfig.setPetriCore(petriCore);
         }
         for (BaboonApplication appSetup : appSetupObjects) {
             appSetup.subscribe();
         }
+        startTaskControllers();
+    }
+
+    /**
+     * Creates the {@link #taskExecutionStrategy}, if it was not set, and
+     * starts the execution of every taskController subscribed.
+     */
+    private static synchronized void startTaskControllers() {
+        if (taskSchedulerWorkers > 0) {
+            taskExecutionStrategy = new TaskScheduler(petriCore, taskSchedulerWorkers);
+        } else if (taskExecutionStrategy == null) {
+            taskExecutionStrategy = TaskExecutionStrategyFactory.createDefaultStrategy();
+        }
         for (AbstractTaskControllerSubscription simpleTask : baboonConfig.getSimpleTasksCollection()) {
-            dummiesExecutor.executeDummy(new DummyThread(simpleTask, petriCore));
+            executeReplicas(simpleTask);
         }
         for (AbstractTaskControllerSubscription complexTask : baboonConfig.getComplexSecuentialTasksCollection()) {
-            dummiesExecutor.executeDummy(new DummyThread(complexTask, petriCore));
+            executeReplicas(complexTask);
+        }
+        started = true;
+    }
+
+    /**
+     * Executes one {@link DummyThread} per replica of the subscription provided,
+     * by using {@link #taskExecutionStrategy}.
+     * 
+     * @param taskSubscription
+     *            The {@link AbstractTaskControllerSubscription} to be executed.
+     * @throws IllegalArgumentException
+     *            If a replica of the subscription can not be created.
+     * @see AbstractTaskControllerSubscription#getReplica(int)
+     */
+    private static void executeReplicas(AbstractTaskControllerSubscription taskSubscription) {
+        List<DummyThread> dummies = new ArrayList<>(taskSubscription.getReplicas());
+        for (int replica = 0; replica < taskSubscription.getReplicas(); replica++) {
+            try {
+                dummies.add(new DummyThread(taskSubscription.getReplica(replica), petriCore));
+            } catch (NotSubscribableException e) {
+                throw new IllegalArgumentException("Cannot create the replicas of the taskController subscribed to topic "
+                        + taskSubscription.getTopic().getName(), e);
+            }
+        }
+        for (DummyThread dummy : dummies) {
+            taskExecutionStrategy.executeDummy(dummy);
+        }
+        runningTasks.put(taskSubscription, dummies);
+    }
+
+    /**
+     * Stops the {@link DummyThread} objects executing the replicas of the
+     * subscription provided, if it is a taskController subscription that was
+     * started.
+     * 
+     * @param subscription
+     *            The subscription removed.
+     */
+    private static void stopReplicas(AbstractActionControllerSubscription subscription) {
+        List<DummyThread> dummies = runningTasks.remove(subscription);
+        if (dummies != null) {
+            for (DummyThread dummy : dummies) {
+                taskExecutionStrategy.stopDummy(dummy);
+            }
+        }
+    }
+
+    /**
+     * Removes the cached subscriptions of the happeningControllers unsubscribed
+     * from the {@link HappeningControllerSynchronizer}, if it was created.
+     */
+    private static void removeUnsubscribedHappeningControllers() {
+        if (happeningControllerSynchronizer != null) {
+            happeningControllerSynchronizer.removeUnsubscribedEntries();
+        }
+    }
+
+    /**
+     * Starts the execution of a subscription created after the taskControllers
+     * were started, if it is a taskController subscription.
+     * 
+     * @param subscription
+     *            The subscription created.
+     */
+    private static void startIfRunning(AbstractActionControllerSubscription subscription) {
+        if (started && subscription instanceof AbstractTaskControllerSubscription) {
+            executeReplicas((AbstractTaskControllerSubscription) subscription);
+        }
+    }
+
+    /**
+     * Sets the {@link TaskExecutionStrategy} used to execute the taskControllers.
+     * If no strategy is set, {@link TaskExecutionStrategyFactory#createDefaultStrategy()}
+     * is used, which executes each taskController on its own virtual thread on
+     * Java 21 or newer, and on its own platform thread otherwise. Platform
+     * threads are kept on any Java version by setting a {@link DummiesExecutor}.
+     * <p>
+     * This method should be called on {@link BaboonApplication#declare()}.
+     * </p>
+     * 
+     * @param strategy
+     *            The {@link TaskExecutionStrategy} used to execute the taskControllers.
+     * @throws IllegalArgumentException
+     *            If the strategy is null.
+     * @see DummiesExecutor
+     * @see VirtualThreadDummiesExecutor
+     */
+    public static void setTaskExecutionStrategy(TaskExecutionStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("The task execution strategy can not be null");
+        }
+        taskExecutionStrategy = strategy;
+        taskSchedulerWorkers = 0;
+    }
+
+    /**
+     * Makes the framework execute the taskControllers with a {@link TaskScheduler}
+     * instead of using one thread per taskController. The taskControllers wait for
+     * their permission transition without a thread, and are executed by a fixed
+     * number of worker threads when their permission transition is enabled.
+     * <p>
+     * This method should be called on {@link BaboonApplication#declare()}.
+     * </p>
+     * 
+     * @param workerThreads
+     *            The number of worker threads used to execute the taskControllers.
+     * @throws IllegalArgumentException
+     *            If the number of worker threads is not positive.
+     * @see TaskScheduler
+     */
+    public static void useTaskScheduler(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("The number of worker threads must be positive");
         }
+        taskSchedulerWorkers = workerThreads;
+        taskExecutionStrategy = null;
+    }
+
+    /**
+     * Makes the framework execute the taskControllers with a {@link TaskScheduler}
+     * that has one worker thread per available processor.
+     * 
+     * @see #useTaskScheduler(int)
+     */
+    public static void useTaskScheduler() {
+        useTaskScheduler(Runtime.getRuntime().availableProcessors());
     }
 
     /**
@@ -141,6 +331,67 @@ public class BaboonFramework {
         petriCore = new BaboonPetriCore(pnmlFilePath, type, firingPolicy);
     }
 
+    /**
+     * Creates the Petri Net core of the application by using the pnml file
+     * provided as an argument, the petri net type, the transition firing
+     * policy and the {@link PetriEngine} with the name provided.
+     * <p>
+     * If the engine name is null then {@link JpcmPetriEngine} is used, as on
+     * {@link #createPetriCore(String, petriNetType, Class)}. Other engines are
+     * found by {@link java.util.ServiceLoader} among the
+     * {@link org.unc.lac.baboon.petri.PetriEngineProvider} implementations on
+     * the classpath.
+     * </p>
+     * 
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net.
+     * @param firingPolicy
+     *            A {@link Class} object that extends {@link TransitionsPolicy}.
+     *            It might be null, in which case the default policy of the
+     *            engine will be used.
+     * @param engineName
+     *            The name of the {@link PetriEngine} to use. It might be null.
+     * @param <A> 
+     *            Class type that extends {@link TransitionsPolicy}.
+     * @throws BadPolicyException
+     *      If the transitions policy provided is badly formed.
+     * @throws IllegalArgumentException
+     *      If there is no engine with the name provided.
+     * @see PetriEngines#createEngine(String, String, petriNetType, Class)
+     */
+    public static <A extends TransitionsPolicy> void createPetriCore(String pnmlFilePath, petriNetType type,
+            Class<A> firingPolicy, String engineName) throws BadPolicyException {
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, pnmlFilePath, type, firingPolicy));
+    }
+
+    /**
+     * Discards the memoized value of a guard provided by a
+     * {@link GuardProvider} annotated method of a topic whose guard evaluation
+     * is {@link GuardEvaluation#MEMOIZED}. It must be called when the state
+     * the {@link GuardProvider} depends on is changed by code that is not the
+     * action subscribed, since the framework only invalidates the guard after
+     * the executions of the action.
+     * 
+     * @param guardName
+     *            The name of the guard.
+     * @throws IllegalArgumentException
+     *            If the petri core was not created, or if no transition of the
+     *            petri net uses a guard with the name provided.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     * @see BaboonPetriCore#invalidateGuard(String)
+     */
+    public static void invalidateGuard(String guardName) throws IllegalArgumentException, PetriNetException {
+        if (petriCore == null) {
+            throw new IllegalArgumentException("The petri core was not created");
+        }
+        petriCore.invalidateGuard(guardName);
+    }
+
     /**
      * Subscribes an object instance, a method and the arguments of this method
      * to one topic. The method to be subscribed must be annotated with
@@ -212,9 +463,54 @@ public class BaboonFramework {
      * @see SimpleTaskControllerSubscription
      * @see ComplexSecuentialTaskControllerSubscription
      */
-    public static void subscribeControllerToTopic(String topicName, Object object, String methodName, Object... parameters)
+    public static synchronized void subscribeControllerToTopic(String topicName, Object object, String methodName,
+            Object... parameters) throws NotSubscribableException {
+        startIfRunning(baboonConfig.subscribeControllerToTopic(topicName, object, methodName, parameters));
+    }
+
+    /**
+     * Subscribes an object instance, a method and the arguments of this method
+     * to one topic, as {@link #subscribeControllerToTopic(String, Object, String, Object...)}
+     * does, executing the taskController with the number of replicas provided.
+     * Each replica is executed by its own worker, so the taskController can run
+     * as many times concurrently as the petri net allows, up to the number of
+     * replicas. The method to be subscribed must be annotated with
+     * {@link TaskController}.
+     * 
+     * @param topicName
+     *            The name of the topic to be used for the subscription
+     * @param replicas
+     *            The number of replicas of the taskController.
+     * @param replicaFactory
+     *            The {@link ReplicaFactory} used to create the object instance of
+     *            each replica. It might be null, in which case all the replicas
+     *            share the object instance provided, which must be stateless or
+     *            thread safe.
+     * @param object
+     *            The object instance to subscribe on a new {@link TaskActionController}
+     *            as {@link ActionController#actionObject}
+     * @param methodName
+     *            The name of the method to subscribe on a new
+     *            {@link TaskActionController} as {@link ActionController#actionMethod}
+     * @param parameters
+     *            The parameters to be used as arguments of the method on the
+     *            new {@link TaskActionController}. They are shared by all the replicas.
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If replicas is less than one</li>
+     *             <li>If the method is annotated with {@link HappeningController}</li>
+     *             <li>For the same reasons of
+     *             {@link #subscribeControllerToTopic(String, Object, String, Object...)}</li>
+     *             </ul>
+     * 
+     * @see BaboonConfig#subscribeReplicatedControllerToTopic(String, int, ReplicaFactory, Object, String, Object...)
+     */
+    public static synchronized void subscribeReplicatedControllerToTopic(String topicName, int replicas,
+            ReplicaFactory replicaFactory, Object object, String methodName, Object... parameters)
             throws NotSubscribableException {
-        baboonConfig.subscribeControllerToTopic(topicName, object, methodName, parameters);
+        startIfRunning(baboonConfig.subscribeReplicatedControllerToTopic(topicName, replicas, replicaFactory, object,
+                methodName, parameters));
     }
     
     
@@ -287,8 +583,66 @@ public class BaboonFramework {
      * @see SimpleTaskControllerSubscription
      * @see ComplexSecuentialTaskControllerSubscription
      */
-    public static void subscribeStaticControllerToTopic(String topicName, Class<?> methodsClass, String methodName, Object... parameters) throws NotSubscribableException{
-        baboonConfig.subscribeStaticControllerToTopic(topicName, methodsClass, methodName, parameters);
+    public static synchronized void subscribeStaticControllerToTopic(String topicName, Class<?> methodsClass,
+            String methodName, Object... parameters) throws NotSubscribableException {
+        startIfRunning(baboonConfig.subscribeStaticControllerToTopic(topicName, methodsClass, methodName, parameters));
+    }
+
+    /**
+     * Unsubscribes an object instance and a method from its topics. It can be
+     * called while the system is running. A happeningController unsubscribed
+     * is not synchronized anymore: its next executions throw a
+     * RuntimeException, as any method that is not subscribed. The replicas of
+     * a taskController unsubscribed stop at the end of their current
+     * iteration.
+     * 
+     * @param object
+     *            The object instance subscribed.
+     * @param methodName
+     *            The name of the method subscribed.
+     * @param parameters
+     *            The parameters used to subscribe the method.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the object or the methodName provided are null</li>
+     *             <li>If the framework fails to resolve the method</li>
+     *             </ul>
+     * @see BaboonConfig#unsubscribeController(Object, String, Object...)
+     */
+    public static synchronized void unsubscribeController(Object object, String methodName, Object... parameters)
+            throws NotSubscribableException {
+        for (AbstractActionControllerSubscription subscription : baboonConfig.unsubscribeController(object, methodName,
+                parameters)) {
+            stopReplicas(subscription);
+        }
+        removeUnsubscribedHappeningControllers();
+    }
+
+    /**
+     * Unsubscribes a static method from its topics, as
+     * {@link #unsubscribeController(Object, String, Object...)} does.
+     * 
+     * @param methodsClass
+     *            The class declaring the static method subscribed.
+     * @param methodName
+     *            The name of the method subscribed.
+     * @param parameters
+     *            The parameters used to subscribe the method.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the methodsClass or the methodName provided are null</li>
+     *             <li>If the framework fails to resolve the method</li>
+     *             <li>If the method resolved is not static</li>
+     *             </ul>
+     * @see BaboonConfig#unsubscribeStaticController(Class, String, Object...)
+     */
+    public static synchronized void unsubscribeStaticController(Class<?> methodsClass, String methodName,
+            Object... parameters) throws NotSubscribableException {
+        for (AbstractActionControllerSubscription subscription : baboonConfig.unsubscribeStaticController(methodsClass,
+                methodName, parameters)) {
+            stopReplicas(subscription);
+        }
+        removeUnsubscribedHappeningControllers();
     }
 
     /**
@@ -337,6 +691,57 @@ public class BaboonFramework {
         return petriCore.getMarking();
     }
 
+    /**
+     * This method copies the current marking on the Petri Net core of the
+     * application into a buffer owned by the caller, without allocating.
+     *
+     * @param _into
+     *            the buffer, whose first {@link #getPlaceCount()} elements are
+     *            overwritten with the tokens in each place of the Petri Net
+     * @return the version of the marking copied
+     * @throws IllegalArgumentException
+     *             if the buffer is null or shorter than the number of places
+     * @see BaboonPetriCore#getMarking(int[])
+     */
+    public static long getMarking(int[] _into) {
+        return petriCore.getMarking(_into);
+    }
+
+    /**
+     * This method returns the version of the marking on the Petri Net core of
+     * the application, which changes every time the marking might have changed
+     *
+     * @return the version of the marking
+     * @see BaboonPetriCore#getMarkingVersion()
+     */
+    public static long getMarkingVersion() {
+        return petriCore.getMarkingVersion();
+    }
+
+    /**
+     * This method returns the tokens in a place of the Petri Net core of the
+     * application
+     *
+     * @param _placeIndex
+     *            the index of the place, as on {@link #getMarking()}
+     * @return the tokens in the place
+     * @throws IndexOutOfBoundsException
+     *             if there is no place with the given index
+     */
+    public static int getTokens(int _placeIndex) {
+        return petriCore.getTokens(_placeIndex);
+    }
+
+    /**
+     * This method returns the number of places of the Petri Net core of the
+     * application
+     *
+     * @return the number of places of the Petri Net
+     */
+    public static int getPlaceCount() {
+        return petriCore.getPlaceCount();
+    }
+
     /**
      * Creates a new {@link ComplexSecuentialTaskControllerSubscription}
      * 
@@ -362,10 +767,90 @@ public class BaboonFramework {
      *             sizes are different.</li>
      *             </ul>
      */
-    public static void createNewComplexTaskController(String complexTaskName, String topicName) throws NotSubscribableException {
+    public static synchronized void createNewComplexTaskController(String complexTaskName, String topicName) throws NotSubscribableException {
         baboonConfig.createNewComplexTaskController(complexTaskName, topicName);
     }
 
+    /**
+     * Creates a new {@link ComplexForkJoinTaskControllerSubscription}, whose
+     * taskControllers are grouped into stages. The taskControllers of a stage
+     * are executed concurrently, and the next stage begins after all of them
+     * end. The taskControllers are appended as the ones of a
+     * {@link ComplexSecuentialTaskControllerSubscription}.
+     * 
+     * @param complexTaskName
+     *            A name to identify this complex taskController.
+     * @param topicName
+     *            The name of the topic to be used for the subscription
+     * 
+     * @see Topic
+     * @see ComplexForkJoinTaskControllerSubscription
+     * @see #addStageToForkJoinTaskController(String)
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If complexTaskName is empty String</li>
+     *             <li>If complexTaskName is null</li>
+     *             <li>If topicName is empty String</li>
+     *             <li>When a topic with name topicName does not exist</li>
+     *             <li>When the {@link Topic} has an empty
+     *             {@link Topic#permission}</li>
+     *             <li>If there are guard callbacks on the topic and
+     *             {@link Topic#setGuardCallback} and {@link Topic#permission}
+     *             sizes are different.</li>
+     *             </ul>
+     */
+    public static synchronized void createNewForkJoinTaskController(String complexTaskName, String topicName) throws NotSubscribableException {
+        baboonConfig.createNewForkJoinTaskController(complexTaskName, topicName);
+    }
+
+    /**
+     * Closes the last stage of the {@link ComplexForkJoinTaskControllerSubscription}
+     * identified by complexTaskName, so the next taskController appended to it
+     * begins a new stage.
+     * 
+     * @param complexTaskName
+     *            The name given to the complex taskController on
+     *            {@link #createNewForkJoinTaskController(String, String)}.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If there is no complex taskController with the name complexTaskName</li>
+     *             <li>If the complex taskController is not a
+     *             {@link ComplexForkJoinTaskControllerSubscription}</li>
+     *             <li>If its last stage has no taskControllers</li>
+     *             </ul>
+     */
+    public static void addStageToForkJoinTaskController(String complexTaskName) throws NotSubscribableException {
+        baboonConfig.addStageToForkJoinTaskController(complexTaskName);
+    }
+
+    /**
+     * Sets the number of replicas of the {@link ComplexSecuentialTaskControllerSubscription}
+     * identified by complexTaskName. Each replica is executed by its own worker.
+     * 
+     * @param complexTaskName
+     *            The name that identifies the complex taskController, it is provided on
+     *            {@link #createNewComplexTaskController(String, String)} when creating
+     *            the taskController.
+     * @param replicas
+     *            The number of replicas of the complex taskController.
+     * @param replicaFactory
+     *            The {@link ReplicaFactory} used to create the object instances of
+     *            each replica. It might be null, in which case all the replicas
+     *            share the object instances subscribed, which must be stateless or
+     *            thread safe.
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If there is no complex taskController with the name complexTaskName</li>
+     *             <li>If replicas is less than one</li>
+     *             </ul>
+     */
+    public static void setComplexTaskControllerReplicas(String complexTaskName, int replicas, ReplicaFactory replicaFactory)
+            throws NotSubscribableException {
+        baboonConfig.setComplexTaskControllerReplicas(complexTaskName, replicas, replicaFactory);
+    }
+
     /**
      * This method requires an object instance, a method and the arguments of
      * this method to append a new {@link TaskActionController} to the
@@ -468,4 +953,59 @@ public class BaboonFramework {
         baboonConfig.appendStaticControllerToComplexTaskController(complexTaskName, methodsClass, methodName, parameters);
     }
 
+    /**
+     * Starts the execution of a {@link ComplexSecuentialTaskControllerSubscription}
+     * created after the system was started. The complex taskControllers created
+     * on {@link BaboonApplication#subscribe()} are started by the framework, but
+     * the ones created at runtime must be started after all their taskControllers
+     * were appended.
+     * 
+     * @param complexTaskName
+     *            The name given to the complex taskController on
+     *            {@link #createNewComplexTaskController(String, String)}.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the system was not started yet</li>
+     *             <li>If there is no complex taskController with that name</li>
+     *             <li>If the complex taskController was already started</li>
+     *             <li>If the complex taskController has no taskControllers</li>
+     *             </ul>
+     */
+    public static synchronized void startComplexTaskController(String complexTaskName) throws NotSubscribableException {
+        if (!started) {
+            throw new NotSubscribableException("The complex taskControllers are started by the framework on startup");
+        }
+        ComplexSecuentialTaskControllerSubscription complexTask = baboonConfig.getComplexSecuentialTask(complexTaskName);
+        if (complexTask == null) {
+            throw new NotSubscribableException("There is no complex taskController with the name " + complexTaskName);
+        }
+        if (runningTasks.containsKey(complexTask)) {
+            throw new NotSubscribableException("The complex taskController " + complexTaskName + " was already started");
+        }
+        if (complexTask.getSize() == 0) {
+            throw new NotSubscribableException("The complex taskController " + complexTaskName + " has no taskControllers");
+        }
+        executeReplicas(complexTask);
+    }
+
+    /**
+     * Removes a {@link ComplexSecuentialTaskControllerSubscription}. It can be
+     * called while the system is running, in which case the replicas of the
+     * complex taskController stop at the end of their current iteration, after
+     * its transition callback is fired.
+     * 
+     * @param complexTaskName
+     *            The name given to the complex taskController on
+     *            {@link #createNewComplexTaskController(String, String)}.
+     * @throws NotSubscribableException
+     *            If there is no complex taskController with that name.
+     */
+    public static synchronized void removeComplexTaskController(String complexTaskName) throws NotSubscribableException {
+        ComplexSecuentialTaskControllerSubscription complexTask = baboonConfig.removeComplexTaskController(complexTaskName);
+        if (complexTask == null) {
+            throw new NotSubscribableException("There is no complex taskController with the name " + complexTaskName);
+        }
+        stopReplicas(complexTask);
+    }
+
 }
@@ -1,6 +1,23 @@
 package org.unc.lac.baboon.petri;
 
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 import org.unc.lac.baboon.exceptions.BadPolicyException;
 import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
 import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
@@ -8,7 +25,7 @@ import org.unc.lac.javapetriconcurrencymonitor.monitor.PetriMonitor;
 import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.FirstInLinePolicy;
 import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
 import org.unc.lac.javapetriconcurrencymonitor.petrinets.PetriNet;
-import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.components.Transition;
 import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
 
 import rx.Observer;
@@ -17,18 +34,151 @@ import rx.Subscription;
 /**
  * BaboonPetriCore is a wrapper containing the objects that are necessary for
  * initialize and execute petri nets.
+ * <p>
+ * The petri net is held and fired by a {@link PetriEngine}. A
+ * {@link JpcmPetriEngine} is used by default, and other engines can be
+ * provided through {@link #BaboonPetriCore(PetriEngine)}.
+ * </p>
+ * <p>
+ * Transitions and guards can be referred by name or by index. Indexes are
+ * resolved once by using {@link #getTransitionIndex(String)} and
+ * {@link #getGuardIndex(String)}, so the framework does not need to search
+ * transitions or guards by name on every firing.
+ * </p>
+ * <p>
+ * A guard can be set by value, or provided by a {@link BooleanSupplier}
+ * registered with {@link #setGuardSupplier(int, BooleanSupplier, boolean)}.
+ * The supplier of a guard is evaluated only when the value is needed to
+ * decide if a transition guarded by it is enabled: before the transition is
+ * fired or checked through this {@link BaboonPetriCore}, and while a thread
+ * waits for it. The value is pushed to the petri monitor right before that
+ * decision, so the guards of the transitions that are not being considered
+ * are never evaluated.
+ * </p>
+ * <p>
+ * The last value written on each guard is mirrored without locking, so
+ * guard updates that do not change the value are skipped before entering
+ * the petri monitor, and do not wake up the threads waiting for transitions.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
  * @version 1.0
+ * @see PetriEngine
  * @see PetriMonitor
  * @see PetriNet
  */
 
 public class BaboonPetriCore {
-    private PetriNetFactory factory;
-    private PetriMonitor monitor;
-    private PetriNet petri;
+    /**
+     * The engine that holds the petri net and fires its transitions.
+     */
+    private final PetriEngine engine;
+    /**
+     * Map of transition indexes, indexed by transition name.
+     */
+    private HashMap<String, Integer> transitionIndexes = new HashMap<>();
+    /**
+     * The names of the guards used by the petri net, indexed by guard index.
+     */
+    private String[] guardNames;
+    /**
+     * Map of guard indexes, indexed by guard name.
+     */
+    private HashMap<String, Integer> guardIndexes = new HashMap<>();
+    /**
+     * The lock of each guard, indexed by guard index, used to apply the
+     * updates of a guard one at a time. A group of guards set by
+     * {@link #setGuards(int[], boolean[])} takes the locks of all of them, in
+     * ascending index order, so it is applied as a single update, while the
+     * updates of unrelated guards do not contend. {@link ReentrantLock}s are
+     * used instead of monitors, so a virtual thread waiting on the petri
+     * monitor while holding one does not pin its carrier thread.
+     */
+    private ReentrantLock[] guardLocks;
+    /**
+     * The buffers of each thread used by {@link #setGuards(int[], boolean[])}.
+     */
+    private final ThreadLocal<GuardUpdate> guardUpdates = ThreadLocal.withInitial(GuardUpdate::new);
+    /**
+     * The observers updated after every transition firing and guard update.
+     */
+    private final CopyOnWriteArrayList<MarkingObserver> markingObservers = new CopyOnWriteArrayList<>();
+    /**
+     * The threads waiting on {@link #tryFireTransition(int, long, TimeUnit)}
+     * for a transition to be enabled.
+     */
+    private final ConcurrentLinkedQueue<TryFireWaiter> tryFireWaiters = new ConcurrentLinkedQueue<>();
+    /**
+     * The time, in seconds, the thread of {@link #pendingFiringsTimer} is
+     * kept alive while there are no timeouts to check.
+     */
+    private static final long PENDING_FIRINGS_TIMER_KEEP_ALIVE_SECONDS = 1;
+    /**
+     * The firings requested by {@link #fireTransitionAsync(int, long, TimeUnit)}
+     * whose transitions were not enabled yet.
+     */
+    private final ConcurrentLinkedQueue<PendingFiring> pendingFirings = new ConcurrentLinkedQueue<>();
+    /**
+     * The number of checks of the pending firings requested and not served
+     * yet. Only the thread that increments it from zero performs the checks.
+     */
+    private final AtomicInteger pendingFiringsChecks = new AtomicInteger();
+    /**
+     * The timer that rejects the pending firings whose timeout elapsed,
+     * created with the first pending firing with timeout. Its thread ends
+     * when there are no timeouts left to check.
+     */
+    private ScheduledThreadPoolExecutor pendingFiringsTimer;
+    /**
+     * The index of the guard of each transition, or -1 if the transition is
+     * not guarded, indexed by transition index.
+     */
+    private int[] transitionGuards;
+    /**
+     * The supplier registered for each guard, or null if the guard is set by
+     * value, indexed by guard index.
+     */
+    private AtomicReferenceArray<LazyGuard> lazyGuards;
+    /**
+     * The number of firings waiting or about to be decided for the
+     * transitions guarded by each guard, indexed by guard index. The
+     * suppliers of the guards with demand are evaluated again when their
+     * value may have changed.
+     */
+    private AtomicIntegerArray guardDemand;
+    /**
+     * The number of guards provided by a supplier. While it is zero, the
+     * firings skip the lazy guards bookkeeping.
+     */
+    private final AtomicInteger lazyGuardCount = new AtomicInteger();
+    /**
+     * The version of the marking, increased when the marking might have
+     * changed, before the observers are notified. It is only increased if it
+     * was read since the last increase, so the firings do not contend on it
+     * while no one polls the marking.
+     */
+    private final AtomicLong markingVersion = new AtomicLong();
+    /**
+     * Indicates if {@link #markingVersion} was read since it was last
+     * increased.
+     */
+    private volatile boolean markingVersionRead = false;
+    /**
+     * The maximum number of times {@link #getMarking(int[])} copies the
+     * marking again because it changed during the copy.
+     */
+    private static final int MARKING_COPY_RETRIES = 3;
+    /**
+     * The last value written on each guard through this {@link BaboonPetriCore},
+     * indexed by guard index: {@link #GUARD_UNKNOWN} before the first write,
+     * {@link #GUARD_FALSE} or {@link #GUARD_TRUE} afterwards. It is only
+     * written while holding the lock of the guard on {@link #guardLocks}.
+     */
+    private AtomicIntegerArray guardMirror;
+    private static final int GUARD_UNKNOWN = 0;
+    private static final int GUARD_FALSE = 1;
+    private static final int GUARD_TRUE = 2;
 
     /**
      * Creates the Petri Net core of the application by using the pnml file
@@ -64,19 +214,54 @@ public class BaboonPetriCore {
      *      If the transitions policy provided is not correctly formed.
      */
     public <A extends TransitionsPolicy> BaboonPetriCore(String pnmlFilePath, petriNetType type, Class<A> firingPolicy) throws BadPolicyException {
-        if (pnmlFilePath == null) {
-            throw new IllegalArgumentException("The pnml file path can not be null");
+        this(new JpcmPetriEngine(pnmlFilePath, type, firingPolicy));
+    }
+
+    /**
+     * Creates the Petri Net core of the application over the
+     * {@link PetriEngine} provided, which holds the petri net and fires its
+     * transitions.
+     * 
+     * @param engine
+     *            The {@link PetriEngine} to which the petri net operations are
+     *            delegated.
+     * @throws IllegalArgumentException
+     *            If the engine is null.
+     * @see PetriEngines#createEngine(String, String, petriNetType, Class)
+     */
+    public BaboonPetriCore(PetriEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("The petri engine can not be null");
         }
-        petriNetType typeChecked = type == null ? petriNetType.PLACE_TRANSITION : type;
-        factory = new PetriNetFactory(pnmlFilePath);
-        petri = factory.makePetriNet(typeChecked);
-        TransitionsPolicy firingPolicyChecked;
-        try {
-            firingPolicyChecked = firingPolicy == null ? new FirstInLinePolicy(petri) : firingPolicy.getDeclaredConstructor(PetriNet.class).newInstance(petri);
-            monitor = new PetriMonitor(petri, firingPolicyChecked);
-        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
-                | NoSuchMethodException | SecurityException e) {
-            throw new BadPolicyException("Failed to create an instance with the policy class provided.");
+        this.engine = engine;
+        indexTransitionsAndGuards();
+    }
+
+    /**
+     * Saves the guards used by the transitions of the petri net on
+     * {@link #guardNames}, and maps the transition and guard names to their
+     * indexes.
+     */
+    private void indexTransitionsAndGuards() {
+        int transitionCount = engine.getTransitionCount();
+        transitionGuards = new int[transitionCount];
+        ArrayList<String> guards = new ArrayList<>();
+        for (int i = 0; i < transitionCount; i++) {
+            transitionIndexes.put(engine.getTransitionName(i), i);
+            String guardName = engine.getGuardName(i);
+            if (guardName != null && !guardIndexes.containsKey(guardName)) {
+                guardIndexes.put(guardName, guards.size());
+                guards.add(guardName);
+            }
+            transitionGuards[i] = guardName == null ? -1 : guardIndexes.get(guardName);
+        }
+        guardNames = guards.toArray(new String[guards.size()]);
+        lazyGuards = new AtomicReferenceArray<>(guardNames.length);
+        guardMirror = new AtomicIntegerArray(guardNames.length);
+        guardDemand = new AtomicIntegerArray(guardNames.length);
+        guardLocks = new ReentrantLock[guardNames.length];
+        for (int i = 0; i < guardLocks.length; i++) {
+            guardLocks[i] = new ReentrantLock();
         }
     }
 
@@ -85,7 +270,7 @@ public class BaboonPetriCore {
      * its setup.
      */
     public void initializePetriNet() {
-        petri.initializePetriNet();
+        engine.initialize();
     }
 
     /**
@@ -99,7 +284,7 @@ public class BaboonPetriCore {
      * @see PetriMonitor#setTransitionsPolicy(TransitionsPolicy)
      */
     public void changeFiringPolicy(TransitionsPolicy firingPolicy) {
-        monitor.setTransitionsPolicy(firingPolicy);
+        engine.setTransitionsPolicy(firingPolicy);
     }
 
     /**
@@ -110,15 +295,665 @@ public class BaboonPetriCore {
      *            The name of the transition to be fired.
      * @param perennialFiring
      *            Indicates if the firing is perennial or not.
+     * @return true if the transition was fired, false if the firing is
+     *         perennial and the transition was not enabled.
      * @throws PetriNetException
      *            If an error regarding petri nets occurs.
      * 
      * @see PetriMonitor
      * @see PetriMonitor#fireTransition(String, boolean)
      */
-    public void fireTransition(String transitionName, boolean perennialFiring)
+    public boolean fireTransition(String transitionName, boolean perennialFiring)
             throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
-        monitor.fireTransition(transitionName, perennialFiring);
+        return fireTransition(getTransitionIndex(transitionName), perennialFiring);
+    }
+
+    /**
+     * Fires a transition by using petri monitor. This method is called
+     * automatically by Baboon framework and is not intended to be used by user,
+     * 
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param perennialFiring
+     *            Indicates if the firing is perennial or not.
+     * @return true if the transition was fired, false if the firing is
+     *         perennial and the transition was not enabled.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     * 
+     * @see PetriMonitor
+     * @see PetriMonitor#fireTransition(Transition, boolean)
+     */
+    public boolean fireTransition(int transitionIndex, boolean perennialFiring)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        int lazyGuard = demandLazyGuard(transitionIndex);
+        boolean fired;
+        try {
+            refreshLazyGuard(lazyGuard);
+            fired = engine.fire(transitionIndex, perennialFiring);
+        } finally {
+            releaseLazyGuard(lazyGuard);
+        }
+        if (fired) {
+            notifyMarkingObservers();
+        }
+        return fired;
+    }
+
+    /**
+     * Fires a transition, waiting for it to be enabled as
+     * {@link #fireTransition(int, boolean)} does, unless the wait is
+     * cancelled. The wait is done by the engine, so the
+     * {@link TransitionsPolicy} decides among the waiting threads and the
+     * transitions enabled by time are noticed. This method is called
+     * automatically by Baboon framework and is not intended to be used by
+     * user.
+     * <p>
+     * The cancellation is checked before waiting and every time the calling
+     * thread is woken up by {@link #wakeUp(int, Thread)}, so whoever cancels
+     * the wait must wake up the thread afterwards.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param cancellation
+     *            Returns true when the wait must be given up.
+     * @return true if the transition was fired, false if the wait was
+     *         cancelled.
+     * @throws IllegalArgumentException
+     *            If the cancellation is null.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     *
+     * @see PetriEngine#fire(int, BooleanSupplier)
+     */
+    public boolean fireTransition(int transitionIndex, BooleanSupplier cancellation)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The cancellation can not be null");
+        }
+        int lazyGuard = demandLazyGuard(transitionIndex);
+        boolean fired;
+        try {
+            refreshLazyGuard(lazyGuard);
+            fired = engine.fire(transitionIndex, cancellation);
+        } finally {
+            releaseLazyGuard(lazyGuard);
+        }
+        if (fired) {
+            notifyMarkingObservers();
+        }
+        return fired;
+    }
+
+    /**
+     * Wakes up a thread whose wait for a transition on
+     * {@link #fireTransition(int, BooleanSupplier)} was cancelled, so it gives
+     * up the wait. This method is called automatically by Baboon
+     * framework and is not intended to be used by user.
+     * <p>
+     * Depending on the engine, the thread might be woken up by an
+     * interruption. A caller that can not tell if the thread is still waiting
+     * must clear the interruption on that thread once the wait ended.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition the thread waits for.
+     * @param waiter
+     *            The waiting thread.
+     *
+     * @see PetriEngine#wakeUp(int, Thread)
+     */
+    public void wakeUp(int transitionIndex, Thread waiter) {
+        engine.wakeUp(transitionIndex, waiter);
+    }
+
+    /**
+     * Fires a transition once, waiting for it to be enabled as
+     * {@link #fireTransition(int, boolean)} does, and then keeps firing it
+     * while it is enabled, up to a maximum number of firings. The marking
+     * observers are updated once, after the last firing. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     * <p>
+     * The batch is fired by {@link PetriEngine#fireUpTo(int, int, boolean)}, so
+     * only the first firing waits: if a concurrent firing disables the
+     * transition, the batch ends. The guard of the transition is evaluated
+     * once, before the batch.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param maxFirings
+     *            The maximum number of times the transition is fired.
+     * @return the number of times the transition was fired, between one and
+     *         maxFirings.
+     * @throws IllegalArgumentException
+     *            If maxFirings is not positive.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     *
+     * @see org.unc.lac.baboon.annotations.TaskController#batch()
+     */
+    public int fireTransitionUpTo(int transitionIndex, int maxFirings)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        return fireTransitionUpTo(transitionIndex, maxFirings, false);
+    }
+
+    /**
+     * Fires a transition up to a maximum number of times, as
+     * {@link #fireTransitionUpTo(int, int)} does. If the firing is perennial,
+     * the first firing does not wait either, so nothing is fired if the
+     * transition is not enabled. This method is called automatically by
+     * Baboon framework and is not intended to be used by user.
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param maxFirings
+     *            The maximum number of times the transition is fired.
+     * @param perennialFiring
+     *            Indicates if the first firing is perennial or not.
+     * @return the number of times the transition was fired, zero only if the
+     *         firing is perennial and the transition was not enabled.
+     * @throws IllegalArgumentException
+     *            If maxFirings is not positive.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    public int fireTransitionUpTo(int transitionIndex, int maxFirings, boolean perennialFiring)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        if (maxFirings < 1) {
+            throw new IllegalArgumentException("The transition must be fired at least once");
+        }
+        int fired = 0;
+        int lazyGuard = demandLazyGuard(transitionIndex);
+        try {
+            refreshLazyGuard(lazyGuard);
+            fired = engine.fireUpTo(transitionIndex, maxFirings, perennialFiring);
+        } finally {
+            releaseLazyGuard(lazyGuard);
+            if (fired > 0) {
+                notifyMarkingObservers();
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Fires a transition if it is enabled now or becomes enabled before the
+     * timeout elapses. Unlike {@link #fireTransition(String, boolean)}, the
+     * caller does not wait longer than the timeout. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     *
+     * @param transitionName
+     *            The name of the transition to be fired.
+     * @param timeout
+     *            The maximum time to wait for the transition to be enabled. If
+     *            it is zero or negative, the transition is fired only if it is
+     *            enabled when this method is called.
+     * @param unit
+     *            The {@link TimeUnit} of the timeout.
+     * @return true if the transition was fired, false if the timeout elapsed.
+     * @throws IllegalArgumentException
+     *            If there is no transition with the name provided or the unit
+     *            is null.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     * @throws InterruptedException
+     *            If the calling thread is interrupted while waiting.
+     *
+     * @see #tryFireTransition(int, long, TimeUnit)
+     */
+    public boolean tryFireTransition(String transitionName, long timeout, TimeUnit unit)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException, InterruptedException {
+        return tryFireTransition(getTransitionIndex(transitionName), timeout, unit);
+    }
+
+    /**
+     * Fires a transition if it is enabled now or becomes enabled before the
+     * timeout elapses. This method is called automatically by Baboon framework
+     * and is not intended to be used by user.
+     * <p>
+     * The transition is fired by {@link PetriEngine#tryFire(int)}, which
+     * never waits, so the calling thread does not wait longer than the
+     * timeout even if a concurrent firing takes the transition first. While
+     * waiting, the calling thread is parked until a firing or guard update
+     * done through this {@link BaboonPetriCore} leaves the transition enabled.
+     * The firings done by the engine itself, as the ones of automatic
+     * transitions, happen inside one of those firings or guard updates, so
+     * they are noticed when it ends.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param timeout
+     *            The maximum time to wait for the transition to be enabled. If
+     *            it is zero or negative, the transition is fired only if it is
+     *            enabled when this method is called.
+     * @param unit
+     *            The {@link TimeUnit} of the timeout.
+     * @return true if the transition was fired, false if the timeout elapsed.
+     * @throws IllegalArgumentException
+     *            If the unit is null.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     * @throws InterruptedException
+     *            If the calling thread is interrupted while waiting.
+     */
+    public boolean tryFireTransition(int transitionIndex, long timeout, TimeUnit unit)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException, InterruptedException {
+        if (unit == null) {
+            throw new IllegalArgumentException("The time unit can not be null");
+        }
+        long start = System.nanoTime();
+        long timeoutNanos = unit.toNanos(Math.max(timeout, 0));
+        TryFireWaiter waiter = null;
+        int lazyGuard = demandLazyGuard(transitionIndex);
+        try {
+            while (true) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                refreshLazyGuard(lazyGuard);
+                if (engine.tryFire(transitionIndex)) {
+                    break;
+                }
+                // measured from the start, so long timeouts do not overflow
+                long remaining = timeoutNanos - (System.nanoTime() - start);
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (waiter == null) {
+                    waiter = new TryFireWaiter(Thread.currentThread(), transitionIndex);
+                }
+                tryFireWaiters.add(waiter);
+                try {
+                    // checked again after registering, so a notification is not lost
+                    if (!engine.isEnabled(transitionIndex)) {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                } finally {
+                    tryFireWaiters.remove(waiter);
+                }
+            }
+        } finally {
+            releaseLazyGuard(lazyGuard);
+        }
+        notifyMarkingObservers();
+        return true;
+    }
+
+    /**
+     * Fires a transition as soon as it is enabled, without blocking the
+     * calling thread. This method is called automatically by Baboon framework
+     * and is not intended to be used by user.
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @return a {@link CompletableFuture} completed with true when the
+     *         transition is fired.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     *
+     * @see #fireTransitionAsync(int, long, TimeUnit)
+     */
+    public CompletableFuture<Boolean> fireTransitionAsync(int transitionIndex) throws IndexOutOfBoundsException {
+        return fireTransitionAsync(transitionIndex, false, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fires a transition if it is enabled now or becomes enabled before the
+     * timeout elapses, as {@link #tryFireTransition(int, long, TimeUnit)}
+     * does, but without blocking the calling thread. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     * <p>
+     * If the transition is enabled, it is fired by the calling thread and the
+     * future returned is already completed. Otherwise, the firing is kept
+     * pending and tried again, by {@link PetriEngine#tryFire(int)}, after every
+     * firing and guard update done through this {@link BaboonPetriCore}. A
+     * pending firing whose try fails is dropped and its future completed
+     * exceptionally. The pending firings with timeout are rejected by a timer
+     * thread when their timeout elapses. The pending futures are completed on the
+     * {@link ForkJoinPool#commonPool()}, so their dependent actions do not run
+     * on the thread that enabled the transition.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param timeout
+     *            The maximum time to wait for the transition to be enabled. If
+     *            it is zero or negative, the transition is fired only if it is
+     *            enabled when this method is called.
+     * @param unit
+     *            The {@link TimeUnit} of the timeout.
+     * @return a {@link CompletableFuture} completed with true if the
+     *         transition was fired, with false if the timeout elapsed, or
+     *         exceptionally if the firing failed.
+     * @throws IllegalArgumentException
+     *            If the unit is null.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with the index provided.
+     */
+    public CompletableFuture<Boolean> fireTransitionAsync(int transitionIndex, long timeout, TimeUnit unit)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (unit == null) {
+            throw new IllegalArgumentException("The time unit can not be null");
+        }
+        return fireTransitionAsync(transitionIndex, true, timeout, unit);
+    }
+
+    private CompletableFuture<Boolean> fireTransitionAsync(int transitionIndex, boolean bounded, long timeout,
+            TimeUnit unit) {
+        int lazyGuard = demandLazyGuard(transitionIndex);
+        boolean fired;
+        try {
+            refreshLazyGuard(lazyGuard);
+            fired = engine.tryFire(transitionIndex);
+        } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+            releaseLazyGuard(lazyGuard);
+            CompletableFuture<Boolean> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (fired) {
+            releaseLazyGuard(lazyGuard);
+            notifyMarkingObservers();
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        if (bounded && timeout <= 0) {
+            releaseLazyGuard(lazyGuard);
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        PendingFiring pending = new PendingFiring(transitionIndex, lazyGuard, bounded,
+                bounded ? System.nanoTime() + unit.toNanos(timeout) : 0);
+        pendingFirings.add(pending);
+        if (bounded) {
+            pending.expiration = schedulePendingFiringsCheck(unit.toNanos(timeout));
+        }
+        checkPendingFirings();
+        return pending.result;
+    }
+
+    /**
+     * Schedules a check of the pending firings on the timer, creating the
+     * timer if it was not created.
+     *
+     * @param delay
+     *            The delay of the check, in nanoseconds.
+     * @return the {@link ScheduledFuture} of the check.
+     */
+    private synchronized ScheduledFuture<?> schedulePendingFiringsCheck(long delay) {
+        if (pendingFiringsTimer == null) {
+            pendingFiringsTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread timer = new Thread(runnable, "baboon-pending-firings-timer");
+                timer.setDaemon(true);
+                return timer;
+            });
+            pendingFiringsTimer.setKeepAliveTime(PENDING_FIRINGS_TIMER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            pendingFiringsTimer.allowCoreThreadTimeOut(true);
+            pendingFiringsTimer.setRemoveOnCancelPolicy(true);
+        }
+        return pendingFiringsTimer.schedule(this::checkPendingFirings, delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Tries to fire the pending firings, drops the ones whose try fails, and
+     * rejects the ones whose timeout elapsed. Concurrent calls are merged, so
+     * only one thread checks the pending firings at a time.
+     */
+    private void checkPendingFirings() {
+        if (pendingFiringsChecks.getAndIncrement() != 0) {
+            return;
+        }
+        int requests;
+        do {
+            requests = pendingFiringsChecks.get();
+            long now = System.nanoTime();
+            Iterator<PendingFiring> iterator = pendingFirings.iterator();
+            while (iterator.hasNext()) {
+                PendingFiring pending = iterator.next();
+                if (pending.result.isDone()) {
+                    iterator.remove();
+                    releasePendingFiring(pending);
+                    continue;
+                }
+                boolean fired;
+                try {
+                    fired = engine.tryFire(pending.transitionIndex);
+                } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+                    iterator.remove();
+                    pending.complete(null, e);
+                    releasePendingFiring(pending);
+                    continue;
+                }
+                if (fired) {
+                    iterator.remove();
+                    pending.complete(Boolean.TRUE, null);
+                    releasePendingFiring(pending);
+                    notifyMarkingObservers();
+                } else if (pending.bounded && now - pending.deadline >= 0) {
+                    iterator.remove();
+                    pending.complete(Boolean.FALSE, null);
+                    releasePendingFiring(pending);
+                }
+            }
+        } while (pendingFiringsChecks.addAndGet(-requests) != 0);
+    }
+
+    /**
+     * Releases the guard demanded by a pending firing and cancels the check
+     * of its timeout, once the firing is removed from the pending firings.
+     *
+     * @param pending
+     *            The {@link PendingFiring} removed.
+     */
+    private void releasePendingFiring(PendingFiring pending) {
+        releaseLazyGuard(pending.lazyGuard);
+        ScheduledFuture<?> expiration = pending.expiration;
+        if (expiration != null) {
+            expiration.cancel(false);
+        }
+    }
+
+    /**
+     * Fires an ordered group of transitions by using perennial firing, so no
+     * firing of the group blocks the caller. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     * <p>
+     * The transitions are fired in the order provided, as if
+     * {@link #fireTransition(int, boolean)} was called for each of them. A
+     * transition that is not enabled is not fired and is reported as
+     * skipped. If the firing of a transition fails, the error is saved on the
+     * report and the remaining transitions are not fired. All the indexes are validated
+     * before any transition is fired.
+     * </p>
+     *
+     * @param transitionIndexes
+     *            The indexes of the transitions to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @return a {@link FiringReport} with the result of each firing.
+     * @throws IllegalArgumentException
+     *            If the transition indexes are null.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with any of the indexes provided.
+     *
+     * @see FiringReport
+     */
+    public FiringReport fireTransitions(int[] transitionIndexes)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        return fireInOrder(transitionIndexes, 1, true);
+    }
+
+    /**
+     * Fires an ordered group of transitions as
+     * {@link #fireTransitions(int[])} does, but the {@link FiringReport} is
+     * only built if a firing fails. This way, firing the callbacks of a
+     * subscription does not allocate any object when all the transitions are
+     * fired. This method is called automatically by Baboon framework and is not
+     * intended to be used by user.
+     *
+     * @param transitionIndexes
+     *            The indexes of the transitions to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @return null if no firing failed, or a {@link FiringReport} with the
+     *         result of each firing if a firing failed.
+     * @throws IllegalArgumentException
+     *            If the transition indexes are null.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with any of the indexes provided.
+     *
+     * @see #fireTransitions(int[])
+     */
+    public FiringReport fireTransitionsReportingFailure(int[] transitionIndexes)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        return fireInOrder(transitionIndexes, 1, false);
+    }
+
+    /**
+     * Fires an ordered group of transitions a number of times in a row, as
+     * {@link #fireTransitionsReportingFailure(int[])} does for the group
+     * repeated that number of times, without building the repeated group.
+     * This way, firing the callbacks of a batch does not allocate any object
+     * when all the transitions are fired. This method is called automatically
+     * by Baboon framework and is not intended to be used by user.
+     *
+     * @param transitionIndexes
+     *            The indexes of the transitions to be fired, as returned by
+     *            {@link #getTransitionIndex(String)}.
+     * @param times
+     *            The number of times the group is fired.
+     * @return null if no firing failed, or a {@link FiringReport} with the
+     *         result of each firing of the repeated group if a firing failed.
+     * @throws IllegalArgumentException
+     *            If the transition indexes are null or the times are not
+     *            positive.
+     * @throws IndexOutOfBoundsException
+     *            If there is no transition with any of the indexes provided.
+     *
+     * @see #fireTransitionsReportingFailure(int[])
+     */
+    public FiringReport fireTransitionsReportingFailure(int[] transitionIndexes, int times)
+            throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (times < 1) {
+            throw new IllegalArgumentException("The transitions must be fired at least once");
+        }
+        return fireInOrder(transitionIndexes, times, false);
+    }
+
+    /**
+     * Validates and fires an ordered group of transitions by using perennial
+     * firing, stopping on the first firing that fails.
+     *
+     * @param transitionIndexes
+     *            The indexes of the transitions to be fired.
+     * @param times
+     *            The number of times the group is fired in a row.
+     * @param reportSuccess
+     *            If true, the {@link FiringReport} is returned even if all the
+     *            transitions were fired.
+     * @return the {@link FiringReport} of the firings of the repeated group,
+     *         or null if no firing failed and the success is not reported.
+     */
+    private FiringReport fireInOrder(int[] transitionIndexes, int times, boolean reportSuccess) {
+        if (transitionIndexes == null) {
+            throw new IllegalArgumentException("The transitions can not be null");
+        }
+        for (int transitionIndex : transitionIndexes) {
+            if (transitionIndex < 0 || transitionIndex >= engine.getTransitionCount()) {
+                throw new IndexOutOfBoundsException("There is no transition with index " + transitionIndex);
+            }
+        }
+        FiringReport report = reportSuccess ? new FiringReport(transitionIndexes) : null;
+        boolean failed = false;
+        boolean anyFired = false;
+        int firings = transitionIndexes.length * times;
+        for (int i = 0; i < firings; i++) {
+            int transitionIndex = transitionIndexes[i % transitionIndexes.length];
+            try {
+                refreshLazyGuard(lazyGuardOf(transitionIndex));
+                boolean fired = engine.fire(transitionIndex, true);
+                anyFired |= fired;
+                if (report != null) {
+                    if (fired) {
+                        report.fired(i);
+                    }
+                } else if (!fired) {
+                    // the report is built on the first skip, to keep the previous firings
+                    report = firedUpTo(transitionIndexes, times, i);
+                }
+            } catch (IllegalTransitionFiringError | PetriNetException | IllegalArgumentException e) {
+                if (report == null) {
+                    report = firedUpTo(transitionIndexes, times, i);
+                }
+                report.failed(i, e);
+                failed = true;
+                break;
+            }
+        }
+        if (anyFired) {
+            notifyMarkingObservers();
+        }
+        return reportSuccess || failed ? report : null;
+    }
+
+    /**
+     * Creates a {@link FiringReport} of a group of transitions repeated a
+     * number of times, whose transitions before a position were fired.
+     */
+    private static FiringReport firedUpTo(int[] transitionIndexes, int times, int position) {
+        int[] repeated = transitionIndexes;
+        if (times > 1) {
+            repeated = new int[transitionIndexes.length * times];
+            for (int i = 0; i < times; i++) {
+                System.arraycopy(transitionIndexes, 0, repeated, i * transitionIndexes.length,
+                        transitionIndexes.length);
+            }
+        }
+        FiringReport report = new FiringReport(repeated);
+        for (int j = 0; j < position; j++) {
+            report.fired(j);
+        }
+        return report;
+    }
+
+    /**
+     * Fires an ordered group of transitions by using perennial firing. The
+     * transition names are resolved to indexes before any transition is fired.
+     *
+     * @param transitionNames
+     *            The names of the transitions to be fired.
+     * @return a {@link FiringReport} with the result of each firing.
+     * @throws IllegalArgumentException
+     *            If the transition names are null or if there is no
+     *            transition with any of the names provided.
+     *
+     * @see #fireTransitions(int[])
+     */
+    public FiringReport fireTransitions(String[] transitionNames) throws IllegalArgumentException {
+        if (transitionNames == null) {
+            throw new IllegalArgumentException("The transitions can not be null");
+        }
+        int[] transitionIndexes = new int[transitionNames.length];
+        for (int i = 0; i < transitionNames.length; i++) {
+            transitionIndexes[i] = getTransitionIndex(transitionNames[i]);
+        }
+        return fireTransitions(transitionIndexes);
     }
 
     /**
@@ -137,9 +972,696 @@ public class BaboonPetriCore {
      */
     public void setGuard(String guardName, boolean newValue)
             throws IndexOutOfBoundsException, NullPointerException, PetriNetException {
-        monitor.setGuard(guardName, newValue);
+        Integer guardIndex = guardIndexes.get(guardName);
+        if (guardIndex != null) {
+            setGuard(guardIndex, newValue);
+            return;
+        }
+        engine.setGuard(guardName, newValue);
+        notifyMarkingObservers();
     }
     
+    /**
+     * Sets a guard by using petri monitor. This method is called automatically
+     * by Baboon framework and is not intended to be used by user,
+     * 
+     * @param guardIndex
+     *            The index of the guard to be modified, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @param newValue
+     *            the new boolean value to be set on the guard.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with the index provided.
+     * 
+     * @see PetriMonitor
+     * @see PetriMonitor#setGuard(String, boolean)
+     */
+    public void setGuard(int guardIndex, boolean newValue)
+            throws IndexOutOfBoundsException, NullPointerException, PetriNetException {
+        String guardName = guardNames[guardIndex];
+        if (guardMirror.get(guardIndex) == mirrorValue(newValue)) {
+            return;
+        }
+        boolean written;
+        ReentrantLock guardLock = guardLocks[guardIndex];
+        guardLock.lock();
+        try {
+            written = writeGuard(guardIndex, guardName, newValue);
+        } finally {
+            guardLock.unlock();
+        }
+        if (written) {
+            notifyMarkingObservers();
+        }
+    }
+
+    /**
+     * Sets a group of guards as a single update. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     * <p>
+     * All the guard indexes are validated before any guard is modified, so an
+     * invalid index leaves every guard untouched. The guards whose value
+     * changes are written by one call to
+     * {@link PetriEngine#setGuards(String[], boolean[], int)}, so the group is
+     * applied atomically on the engines that support it: no firing sees it
+     * half updated. While the guards are being set no other update of those
+     * guards can be applied.
+     * </p>
+     * <p>
+     * Only the guards whose value changes are written. If no value changes,
+     * the petri monitor is not entered and no observer is updated.
+     * </p>
+     *
+     * @param guardIndexes
+     *            The indexes of the guards to be modified, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @param newValues
+     *            the new boolean values to be set on the guards, in the same
+     *            order as the indexes.
+     * @return the number of guards whose value changed and was written.
+     * @throws IllegalArgumentException
+     *            If any of the arguments is null or if the arrays have
+     *            different lengths.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with any of the indexes provided.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     *
+     * @see PetriMonitor#setGuard(String, boolean)
+     */
+    public int setGuards(int[] guardIndexes, boolean[] newValues)
+            throws IllegalArgumentException, IndexOutOfBoundsException, PetriNetException {
+        if (guardIndexes == null || newValues == null) {
+            throw new IllegalArgumentException("The guards and the values can not be null");
+        }
+        if (guardIndexes.length != newValues.length) {
+            throw new IllegalArgumentException("There must be one value for each guard");
+        }
+        boolean unchanged = true;
+        for (int i = 0; i < guardIndexes.length; i++) {
+            int guardIndex = guardIndexes[i];
+            if (guardIndex < 0 || guardIndex >= guardNames.length) {
+                throw new IndexOutOfBoundsException("There is no guard with index " + guardIndex);
+            }
+            unchanged &= guardMirror.get(guardIndex) == mirrorValue(newValues[i]);
+        }
+        if (unchanged) {
+            return 0;
+        }
+        GuardUpdate update = guardUpdates.get();
+        if (update.inUse) {
+            // set again by an observer informed while setting the group
+            update = new GuardUpdate();
+        }
+        update.reserve(guardIndexes.length);
+        update.inUse = true;
+        int written = 0;
+        int[] lockedGuards = update.lockedGuards;
+        System.arraycopy(guardIndexes, 0, lockedGuards, 0, guardIndexes.length);
+        Arrays.sort(lockedGuards, 0, guardIndexes.length);
+        lockGuards(lockedGuards, guardIndexes.length);
+        try {
+            int[] changedIndexes = update.changedIndexes;
+            String[] changedNames = update.changedNames;
+            boolean[] changedValues = update.changedValues;
+            for (int i = 0; i < guardIndexes.length; i++) {
+                if (guardMirror.get(guardIndexes[i]) != mirrorValue(newValues[i])) {
+                    changedIndexes[written] = guardIndexes[i];
+                    changedNames[written] = guardNames[guardIndexes[i]];
+                    changedValues[written] = newValues[i];
+                    written++;
+                }
+            }
+            if (written > 0) {
+                engine.setGuards(changedNames, changedValues, written);
+                for (int i = 0; i < written; i++) {
+                    guardMirror.set(changedIndexes[i], mirrorValue(changedValues[i]));
+                }
+            }
+        } finally {
+            unlockGuards(lockedGuards, guardIndexes.length);
+            update.inUse = false;
+        }
+        if (written > 0) {
+            notifyMarkingObservers();
+        }
+        return written;
+    }
+
+    /**
+     * Takes the locks of a group of guards, in ascending index order, so two
+     * groups that share guards do not wait for each other.
+     *
+     * @param sortedGuardIndexes
+     *            The indexes of the guards, sorted in ascending order. They
+     *            might be repeated.
+     * @param count
+     *            The number of guards of the group, from the first one.
+     */
+    private void lockGuards(int[] sortedGuardIndexes, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || sortedGuardIndexes[i] != sortedGuardIndexes[i - 1]) {
+                guardLocks[sortedGuardIndexes[i]].lock();
+            }
+        }
+    }
+
+    private void unlockGuards(int[] sortedGuardIndexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (i == 0 || sortedGuardIndexes[i] != sortedGuardIndexes[i - 1]) {
+                guardLocks[sortedGuardIndexes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a guard on the petri monitor and on {@link #guardMirror}, unless
+     * the mirror already has the value. It must be called while holding the
+     * lock of the guard.
+     *
+     * @return true if the guard was written.
+     */
+    private boolean writeGuard(int guardIndex, String guardName, boolean newValue) throws PetriNetException {
+        int value = mirrorValue(newValue);
+        if (guardMirror.get(guardIndex) == value) {
+            return false;
+        }
+        engine.setGuard(guardName, newValue);
+        guardMirror.set(guardIndex, value);
+        return true;
+    }
+
+    private static int mirrorValue(boolean value) {
+        return value ? GUARD_TRUE : GUARD_FALSE;
+    }
+
+    /**
+     * Sets a group of guards as a single update. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     * <p>
+     * The guard names are resolved to indexes before any guard is modified, so
+     * an unknown guard name leaves every guard untouched.
+     * </p>
+     *
+     * @param guardNamesToSet
+     *            The names of the guards to be modified.
+     * @param newValues
+     *            the new boolean values to be set on the guards, in the same
+     *            order as the names.
+     * @return the number of guards whose value changed and was written.
+     * @throws IllegalArgumentException
+     *            If any of the arguments is null, if the arrays have different
+     *            lengths or if no transition of the petri net uses a guard with
+     *            any of the names provided.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     *
+     * @see #setGuards(int[], boolean[])
+     */
+    public int setGuards(String[] guardNamesToSet, boolean[] newValues)
+            throws IllegalArgumentException, PetriNetException {
+        if (guardNamesToSet == null) {
+            throw new IllegalArgumentException("The guards and the values can not be null");
+        }
+        int[] guardIndexes = new int[guardNamesToSet.length];
+        for (int i = 0; i < guardNamesToSet.length; i++) {
+            guardIndexes[i] = getGuardIndex(guardNamesToSet[i]);
+        }
+        return setGuards(guardIndexes, newValues);
+    }
+
+    /**
+     * Returns the index of the transition with the name provided.
+     * 
+     * @param transitionName
+     *            The name of the transition.
+     * @return the index of the transition, to be used on
+     *         {@link #fireTransition(int, boolean)}.
+     * @throws IllegalArgumentException
+     *            If there is no transition with the name provided.
+     */
+    public int getTransitionIndex(String transitionName) throws IllegalArgumentException {
+        Integer index = transitionIndexes.get(transitionName);
+        if (index == null) {
+            throw new IllegalArgumentException("The transition " + transitionName + " does not exists on petri net");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the number of transitions of the petri net. Transition indexes go
+     * from zero to this number minus one.
+     * 
+     * @return the number of transitions of the petri net.
+     */
+    public int getTransitionCount() {
+        return engine.getTransitionCount();
+    }
+
+    /**
+     * Returns the name of the transition with the index provided.
+     * 
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return the name of the transition.
+     */
+    public String getTransitionName(int transitionIndex) {
+        return engine.getTransitionName(transitionIndex);
+    }
+
+    /**
+     * Returns true if the transition with the index provided is automatic. An
+     * automatic transition is fired by the petri monitor itself and can not be
+     * fired by the framework.
+     * 
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition is automatic.
+     */
+    public boolean isAutomaticTransition(int transitionIndex) {
+        return engine.isAutomaticTransition(transitionIndex);
+    }
+
+    /**
+     * Returns true if the transition with the index provided is enabled on the
+     * current marking. The value returned is a hint, since other threads can
+     * change the marking before the caller fires the transition.
+     * 
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition is enabled.
+     */
+    public boolean isEnabled(int transitionIndex) {
+        return refreshedIsEnabled(transitionIndex);
+    }
+
+    /**
+     * Returns true if the transition with the index provided might be enabled,
+     * without calling guard suppliers nor taking any lock of the petri monitor,
+     * so it can be polled while spinning. A transition whose guard has a
+     * supplier is reported as possibly enabled, since its guard is only known
+     * after the supplier is called by the firing.
+     * 
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition might be enabled.
+     */
+    public boolean mightBeEnabled(int transitionIndex) {
+        if (lazyGuardCount.get() > 0 && lazyGuardOf(transitionIndex) >= 0) {
+            return true;
+        }
+        return engine.mightBeEnabled(transitionIndex);
+    }
+
+    /**
+     * Evaluates the supplier of the guard of a transition, if it has one, and
+     * checks if the transition is enabled.
+     */
+    private boolean refreshedIsEnabled(int transitionIndex) {
+        if (lazyGuardCount.get() > 0) {
+            try {
+                refreshLazyGuard(lazyGuardOf(transitionIndex));
+            } catch (PetriNetException e) {
+                throw new IllegalStateException(
+                        "Cannot set the guard of the transition " + engine.getTransitionName(transitionIndex), e);
+            }
+        }
+        return engine.isEnabled(transitionIndex);
+    }
+
+    /**
+     * Subscribes a {@link MarkingObserver} to this {@link BaboonPetriCore}. The
+     * observer gets an update after every transition firing and guard update
+     * performed through this {@link BaboonPetriCore}.
+     * 
+     * @param observer
+     *            The {@link MarkingObserver} to subscribe.
+     * @throws IllegalArgumentException
+     *            If the observer is null.
+     */
+    public void addMarkingObserver(MarkingObserver observer) {
+        if (observer == null) {
+            throw new IllegalArgumentException("The observer can not be null");
+        }
+        markingObservers.add(observer);
+    }
+
+    /**
+     * Unsubscribes a {@link MarkingObserver} from this {@link BaboonPetriCore}.
+     * 
+     * @param observer
+     *            The {@link MarkingObserver} to unsubscribe.
+     */
+    public void removeMarkingObserver(MarkingObserver observer) {
+        markingObservers.remove(observer);
+    }
+
+    /**
+     * Evaluates the suppliers of the guards with demand that are not memoized,
+     * wakes up the threads waiting on {@link #tryFireTransition(int, long, TimeUnit)}
+     * whose transitions are enabled,
+     * checks the pending firings of {@link #fireTransitionAsync(int, long, TimeUnit)}
+     * and updates every {@link MarkingObserver} subscribed to this {@link BaboonPetriCore}.
+     */
+    private void notifyMarkingObservers() {
+        if (markingVersionRead) {
+            markingVersionRead = false;
+            markingVersion.incrementAndGet();
+        }
+        if (lazyGuardCount.get() > 0) {
+            refreshDemandedGuards();
+        }
+        if (!tryFireWaiters.isEmpty()) {
+            for (TryFireWaiter waiter : tryFireWaiters) {
+                if (engine.isEnabled(waiter.transitionIndex)) {
+                    LockSupport.unpark(waiter.thread);
+                }
+            }
+        }
+        if (!pendingFirings.isEmpty()) {
+            checkPendingFirings();
+        }
+        if (markingObservers.isEmpty()) {
+            return;
+        }
+        for (MarkingObserver observer : markingObservers) {
+            observer.markingChanged();
+        }
+    }
+
+    /**
+     * Registers the supplier of a guard. From then on, the guard is evaluated
+     * by calling the supplier when its value is needed to decide if a
+     * transition guarded by it is enabled, instead of waiting for its value to
+     * be set. A guard has one supplier at most: registering the same supplier
+     * again does nothing, and registering a different one is rejected until
+     * the first one is removed by
+     * {@link #removeGuardSupplier(int, BooleanSupplier)}.
+     * <p>
+     * A memoized guard keeps the value of its last evaluation until it is
+     * invalidated by {@link #invalidateGuard(int)}. A guard that is not
+     * memoized is evaluated every time its value is needed, and after every
+     * firing and guard update done through this {@link BaboonPetriCore} while
+     * a thread waits for one of its transitions. A value set by
+     * {@link #setGuard(int, boolean)} is kept until the next evaluation.
+     * </p>
+     *
+     * @param guardIndex
+     *            The index of the guard, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @param supplier
+     *            The supplier of the guard value. It is called without holding
+     *            any lock of the petri monitor, from any thread that fires,
+     *            checks or waits for a transition guarded by it, so it must be
+     *            thread safe.
+     * @param memoized
+     *            true to keep the value until the guard is invalidated.
+     * @throws IllegalArgumentException
+     *            If the supplier is null.
+     * @throws IllegalStateException
+     *            If the guard already has a different supplier.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with the index provided.
+     * @throws PetriNetException
+     *            If the guard is evaluated because a thread is waiting for one
+     *            of its transitions, and an error regarding petri nets occurs.
+     */
+    public void setGuardSupplier(int guardIndex, BooleanSupplier supplier, boolean memoized)
+            throws IllegalArgumentException, IndexOutOfBoundsException, PetriNetException {
+        if (supplier == null) {
+            throw new IllegalArgumentException("The guard supplier can not be null");
+        }
+        if (guardIndex < 0 || guardIndex >= guardNames.length) {
+            throw new IndexOutOfBoundsException("There is no guard with index " + guardIndex);
+        }
+        LazyGuard lazyGuard = new LazyGuard(supplier, memoized);
+        while (!lazyGuards.compareAndSet(guardIndex, null, lazyGuard)) {
+            LazyGuard registered = lazyGuards.get(guardIndex);
+            if (registered != null) {
+                if (registered.supplier == supplier) {
+                    return;
+                }
+                throw new IllegalStateException("The guard " + guardNames[guardIndex] + " already has a supplier");
+            }
+        }
+        lazyGuardCount.incrementAndGet();
+        invalidateGuard(guardIndex);
+    }
+
+    /**
+     * Registers the supplier of a guard, as
+     * {@link #setGuardSupplier(int, BooleanSupplier, boolean)} does.
+     *
+     * @param guardName
+     *            The name of the guard.
+     * @param supplier
+     *            The supplier of the guard value.
+     * @param memoized
+     *            true to keep the value until the guard is invalidated.
+     * @throws IllegalArgumentException
+     *            If the supplier is null or if no transition of the petri net
+     *            uses a guard with the name provided.
+     * @throws IllegalStateException
+     *            If the guard already has a different supplier.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    public void setGuardSupplier(String guardName, BooleanSupplier supplier, boolean memoized)
+            throws IllegalArgumentException, PetriNetException {
+        setGuardSupplier(getGuardIndex(guardName), supplier, memoized);
+    }
+
+    /**
+     * Removes the supplier of a guard, if it is the one provided. The guard
+     * keeps the value of its last evaluation, until it is set again.
+     *
+     * @param guardIndex
+     *            The index of the guard, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @param supplier
+     *            The supplier registered for the guard.
+     * @return true if the supplier was removed.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with the index provided.
+     */
+    public boolean removeGuardSupplier(int guardIndex, BooleanSupplier supplier) throws IndexOutOfBoundsException {
+        LazyGuard lazyGuard = lazyGuards.get(guardIndex);
+        if (lazyGuard == null || lazyGuard.supplier != supplier
+                || !lazyGuards.compareAndSet(guardIndex, lazyGuard, null)) {
+            return false;
+        }
+        lazyGuardCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns true if the guard with the index provided has a supplier.
+     *
+     * @param guardIndex
+     *            The index of the guard.
+     * @return true if the guard is provided by a supplier.
+     */
+    public boolean hasGuardSupplier(int guardIndex) {
+        return lazyGuards.get(guardIndex) != null;
+    }
+
+    /**
+     * Discards the memoized value of a guard provided by a supplier, so it is
+     * evaluated again the next time it is needed. If a thread is waiting for
+     * a transition guarded by it, the guard is evaluated right away. Guards
+     * without supplier are ignored.
+     * <p>
+     * It must be called every time the value provided by a memoized supplier
+     * may have changed. The framework calls it after the execution of every
+     * action that has the guard on its guard callback.
+     * </p>
+     *
+     * @param guardIndex
+     *            The index of the guard, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with the index provided.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     */
+    public void invalidateGuard(int guardIndex) throws IndexOutOfBoundsException, PetriNetException {
+        if (invalidate(guardIndex)) {
+            notifyMarkingObservers();
+        }
+    }
+
+    /**
+     * Discards the memoized value of a guard provided by a supplier, as
+     * {@link #invalidateGuard(int)} does.
+     *
+     * @param guardName
+     *            The name of the guard.
+     * @throws IllegalArgumentException
+     *            If no transition of the petri net uses a guard with the name
+     *            provided.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     */
+    public void invalidateGuard(String guardName) throws IllegalArgumentException, PetriNetException {
+        invalidateGuard(getGuardIndex(guardName));
+    }
+
+    /**
+     * Discards the memoized values of a group of guards, as
+     * {@link #invalidateGuard(int)} does for each of them. This method is
+     * called automatically by Baboon framework instead of
+     * {@link #setGuards(int[], boolean[])} for the guards evaluated lazily.
+     *
+     * @param guardIndexes
+     *            The indexes of the guards, as returned by
+     *            {@link #getGuardIndex(String)}.
+     * @throws IndexOutOfBoundsException
+     *            If there is no guard with any of the indexes provided.
+     * @throws PetriNetException
+     *           If an error regarding petri nets occurs.
+     */
+    public void invalidateGuards(int[] guardIndexes) throws IndexOutOfBoundsException, PetriNetException {
+        boolean changed = false;
+        for (int guardIndex : guardIndexes) {
+            changed |= invalidate(guardIndex);
+        }
+        if (changed) {
+            notifyMarkingObservers();
+        }
+    }
+
+    /**
+     * Discards the memoized value of a guard and evaluates it if it has
+     * demand.
+     *
+     * @return true if the guard was evaluated and its value changed.
+     */
+    private boolean invalidate(int guardIndex) throws PetriNetException {
+        LazyGuard lazyGuard = lazyGuards.get(guardIndex);
+        if (lazyGuard == null) {
+            return false;
+        }
+        lazyGuard.valid = false;
+        return guardDemand.get(guardIndex) > 0 && refreshLazyGuard(guardIndex);
+    }
+
+    /**
+     * Returns the index of the guard of a transition if it is provided by a
+     * supplier, or -1 otherwise.
+     */
+    private int lazyGuardOf(int transitionIndex) {
+        int guardIndex = transitionGuards[transitionIndex];
+        return guardIndex >= 0 && lazyGuards.get(guardIndex) != null ? guardIndex : -1;
+    }
+
+    /**
+     * Registers the demand of a firing of a transition on its guard, if it is
+     * provided by a supplier. The demand must be released by
+     * {@link #releaseLazyGuard(int)} after the firing is decided.
+     *
+     * @return the index of the guard demanded, or -1.
+     */
+    private int demandLazyGuard(int transitionIndex) {
+        if (lazyGuardCount.get() == 0) {
+            return -1;
+        }
+        int guardIndex = lazyGuardOf(transitionIndex);
+        if (guardIndex >= 0) {
+            guardDemand.incrementAndGet(guardIndex);
+        }
+        return guardIndex;
+    }
+
+    private void releaseLazyGuard(int guardIndex) {
+        if (guardIndex >= 0) {
+            guardDemand.decrementAndGet(guardIndex);
+        }
+    }
+
+    /**
+     * Evaluates the supplier of a guard and sets its value on the petri
+     * monitor, unless the guard is memoized and its value is still valid.
+     *
+     * @param guardIndex
+     *            The index of the guard, or -1 to do nothing.
+     * @return true if the guard was evaluated and its value changed.
+     */
+    private boolean refreshLazyGuard(int guardIndex) throws PetriNetException {
+        if (guardIndex < 0) {
+            return false;
+        }
+        LazyGuard lazyGuard = lazyGuards.get(guardIndex);
+        if (lazyGuard == null || (lazyGuard.memoized && lazyGuard.valid)) {
+            return false;
+        }
+        // marked before evaluating, so an invalidation during the evaluation is not lost
+        lazyGuard.valid = true;
+        boolean value = lazyGuard.evaluate();
+        if (guardMirror.get(guardIndex) != mirrorValue(value)) {
+            ReentrantLock guardLock = guardLocks[guardIndex];
+            guardLock.lock();
+            try {
+                writeGuard(guardIndex, guardNames[guardIndex], value);
+            } finally {
+                guardLock.unlock();
+            }
+        }
+        boolean changed = !lazyGuard.evaluated || lazyGuard.value != value;
+        lazyGuard.value = value;
+        lazyGuard.evaluated = true;
+        return changed;
+    }
+
+    /**
+     * Evaluates the guards that are not memoized and have demand, since the
+     * marking or other guards they depend on may have changed.
+     */
+    private void refreshDemandedGuards() {
+        for (int guardIndex = 0; guardIndex < guardNames.length; guardIndex++) {
+            if (guardDemand.get(guardIndex) > 0) {
+                LazyGuard lazyGuard = lazyGuards.get(guardIndex);
+                if (lazyGuard != null && !lazyGuard.memoized) {
+                    try {
+                        refreshLazyGuard(guardIndex);
+                    } catch (PetriNetException e) {
+                        throw new IllegalStateException("Cannot set the guard " + guardNames[guardIndex], e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the guard with the name provided.
+     * 
+     * @param guardName
+     *            The name of the guard.
+     * @return the index of the guard, to be used on
+     *         {@link #setGuard(int, boolean)}.
+     * @throws IllegalArgumentException
+     *            If no transition of the petri net uses a guard with the name provided.
+     */
+    public int getGuardIndex(String guardName) throws IllegalArgumentException {
+        Integer index = guardIndexes.get(guardName);
+        if (index == null) {
+            throw new IllegalArgumentException("The guard " + guardName + " does not exists on petri net");
+        }
+        return index;
+    }
+
+    /**
+     * Returns the name of the guard with the index provided.
+     * 
+     * @param guardIndex
+     *            The index of the guard.
+     * @return the name of the guard.
+     */
+    public String getGuardName(int guardIndex) {
+        return guardNames[guardIndex];
+    }
+
     /**
      * Subscribe the given observer to the given transition events if it's informed
      * @param _transitionName the name of the transition to subscribe to
@@ -149,7 +1671,7 @@ public class BaboonPetriCore {
      * @see PetriMonitor#subscribeToTransition(String, Observer)
      */
     public Subscription listenToTransitionInforms (final String _transitionName, final Observer<String> _observer){
-        return monitor.subscribeToTransition(_transitionName, _observer);
+        return engine.subscribeToTransition(_transitionName, _observer);
     }
     
     /**
@@ -157,7 +1679,174 @@ public class BaboonPetriCore {
      * @return the tokens in each place of the Petri Net
      */
     public Integer[] getMarking(){
-        return petri.getCurrentMarking();
+        return engine.getMarking();
     }
 
+    /**
+     * This method copies the current marking on the Petri Net core of the application
+     * into a buffer owned by the caller, so polling the marking does not allocate.
+     * <p>
+     * The version returned can be compared with {@link #getMarkingVersion()}:
+     * while they are equal the marking has not changed since the copy, and the
+     * buffer does not need to be filled again.
+     * </p>
+     * <p>
+     * The version is read again after the copy, and if it changed the marking is copied
+     * again, a few times at most, so the version returned usually matches the copy.
+     * </p>
+     * @param into the buffer, whose first {@link #getPlaceCount()} elements are overwritten
+     * with the tokens in each place of the Petri Net
+     * @return the version of the marking copied, which might be older than the copy but never newer
+     * @throws IllegalArgumentException if the buffer is null or shorter than the number of places
+     */
+    public long getMarking(int[] into){
+        // the version is read first, so a firing during the copy is seen as a newer version
+        long version = getMarkingVersion();
+        for (int retries = 0; ; retries++) {
+            engine.getMarking(into);
+            long versionAfterCopy = getMarkingVersion();
+            if (versionAfterCopy == version || retries == MARKING_COPY_RETRIES) {
+                return version;
+            }
+            version = versionAfterCopy;
+        }
+    }
+
+    /**
+     * This method returns the version of the marking on the Petri Net core of the application.
+     * It changes every time a transition is fired or a guard is set, and it is cheaper than
+     * comparing two markings.
+     * @return the version of the marking
+     * @see #getMarking(int[])
+     */
+    public long getMarkingVersion(){
+        long version = markingVersion.get();
+        // marked after reading, so a change after this read always increases the version
+        markingVersionRead = true;
+        return version;
+    }
+
+    /**
+     * This method returns the tokens in a place of the Petri Net core of the application
+     * @param _placeIndex the index of the place, as on {@link #getMarking()}
+     * @return the tokens in the place
+     * @throws IndexOutOfBoundsException if there is no place with the given index
+     */
+    public int getTokens(int _placeIndex){
+        return engine.getTokens(_placeIndex);
+    }
+
+    /**
+     * This method returns the number of places of the Petri Net core of the application
+     * @return the number of places of the Petri Net
+     */
+    public int getPlaceCount(){
+        return engine.getPlaceCount();
+    }
+
+    /**
+     * The supplier of a guard evaluated lazily, and the state of its last
+     * evaluation.
+     */
+    private static final class LazyGuard {
+        private final BooleanSupplier supplier;
+        private final boolean memoized;
+        /**
+         * false when the memoized value must be evaluated again.
+         */
+        private volatile boolean valid;
+        private volatile boolean evaluated;
+        private volatile boolean value;
+
+        private LazyGuard(BooleanSupplier supplier, boolean memoized) {
+            this.supplier = supplier;
+            this.memoized = memoized;
+        }
+
+        private boolean evaluate() {
+            try {
+                return supplier.getAsBoolean();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // the guard providers may throw checked exceptions
+                throw new IllegalStateException("The supplier of a guard failed", e);
+            }
+        }
+    }
+
+    /**
+     * The buffers of a thread used to set a group of guards. They grow with
+     * the largest group set by the thread.
+     */
+    private static final class GuardUpdate {
+        private int[] lockedGuards = new int[0];
+        private int[] changedIndexes = new int[0];
+        private String[] changedNames = new String[0];
+        private boolean[] changedValues = new boolean[0];
+        /**
+         * Indicates if the buffers are being used by the thread.
+         */
+        private boolean inUse;
+
+        private void reserve(int count) {
+            if (lockedGuards.length < count) {
+                lockedGuards = new int[count];
+                changedIndexes = new int[count];
+                changedNames = new String[count];
+                changedValues = new boolean[count];
+            }
+        }
+    }
+
+    /**
+     * A thread waiting on {@link BaboonPetriCore#tryFireTransition(int, long, TimeUnit)},
+     * and the transition it waits for.
+     */
+    private static final class TryFireWaiter {
+        private final Thread thread;
+        private final int transitionIndex;
+
+        private TryFireWaiter(Thread thread, int transitionIndex) {
+            this.thread = thread;
+            this.transitionIndex = transitionIndex;
+        }
+    }
+
+    /**
+     * A firing requested by {@link BaboonPetriCore#fireTransitionAsync(int, long, TimeUnit)}
+     * that waits for its transition to be enabled.
+     */
+    private static final class PendingFiring {
+        private final int transitionIndex;
+        /**
+         * The guard of the transition demanded by the firing, or -1.
+         */
+        private final int lazyGuard;
+        private final boolean bounded;
+        private final long deadline;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        /**
+         * The check of the timer that rejects the firing, or null if it has
+         * no timeout.
+         */
+        private volatile ScheduledFuture<?> expiration;
+
+        private PendingFiring(int transitionIndex, int lazyGuard, boolean bounded, long deadline) {
+            this.transitionIndex = transitionIndex;
+            this.lazyGuard = lazyGuard;
+            this.bounded = bounded;
+            this.deadline = deadline;
+        }
+
+        private void complete(Boolean fired, Throwable error) {
+            ForkJoinPool.commonPool().execute(() -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(fired);
+                }
+            });
+        }
+    }
 }
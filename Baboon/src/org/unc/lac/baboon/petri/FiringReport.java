@@ -0,0 +1,140 @@
+package org.unc.lac.baboon.petri;
+
+import java.util.Arrays;
+
+/**
+ * A FiringReport holds the result of firing an ordered group of transitions by
+ * using {@link BaboonPetriCore#fireTransitions(int[])}. For each transition of
+ * the group, the report tells if it was fired, if its firing failed and the
+ * error that made it fail, or if it was skipped because it was not enabled or
+ * a previous firing of the group failed.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see BaboonPetriCore#fireTransitions(int[])
+ */
+public final class FiringReport {
+
+    /**
+     * The result of the firing of a transition of the group.
+     */
+    public enum Status {
+        /**
+         * The transition was fired without errors.
+         */
+        FIRED,
+        /**
+         * The firing of the transition failed. The error can be obtained with
+         * {@link FiringReport#getError(int)}.
+         */
+        FAILED,
+        /**
+         * The transition was not fired, because it was not enabled, as the
+         * firing is perennial, or because the firing of a previous transition
+         * of the group failed.
+         */
+        SKIPPED
+    }
+
+    private final int[] transitionIndexes;
+    private final Status[] statuses;
+    private final Throwable[] errors;
+    private int failedPosition = -1;
+
+    FiringReport(int[] transitionIndexes) {
+        this.transitionIndexes = transitionIndexes;
+        this.statuses = new Status[transitionIndexes.length];
+        this.errors = new Throwable[transitionIndexes.length];
+        Arrays.fill(statuses, Status.SKIPPED);
+    }
+
+    void fired(int position) {
+        statuses[position] = Status.FIRED;
+    }
+
+    void failed(int position, Throwable error) {
+        statuses[position] = Status.FAILED;
+        errors[position] = error;
+        failedPosition = position;
+    }
+
+    /**
+     * Returns the number of transitions of the group.
+     *
+     * @return the number of transitions of the group.
+     */
+    public int getSize() {
+        return transitionIndexes.length;
+    }
+
+    /**
+     * Returns the index of a transition of the group.
+     *
+     * @param position
+     *            The position of the transition on the group.
+     * @return the index of the transition on the {@link BaboonPetriCore}.
+     */
+    public int getTransitionIndex(int position) {
+        return transitionIndexes[position];
+    }
+
+    /**
+     * Returns the result of the firing of a transition of the group.
+     *
+     * @param position
+     *            The position of the transition on the group.
+     * @return the {@link Status} of the transition.
+     */
+    public Status getStatus(int position) {
+        return statuses[position];
+    }
+
+    /**
+     * Returns the error thrown while firing a transition of the group.
+     *
+     * @param position
+     *            The position of the transition on the group.
+     * @return the error thrown while firing the transition, or null if the
+     *         transition was not {@link Status#FAILED}.
+     */
+    public Throwable getError(int position) {
+        return errors[position];
+    }
+
+    /**
+     * Returns true if no firing of the group failed. Transitions that were
+     * {@link Status#SKIPPED} because they were not enabled do not make the
+     * group fail; use {@link #isFullyFired()} to know if all of them were
+     * fired.
+     *
+     * @return true if no firing failed.
+     */
+    public boolean isSuccessful() {
+        return failedPosition < 0;
+    }
+
+    /**
+     * Returns true if all the transitions of the group were fired.
+     *
+     * @return true if every transition of the group is {@link Status#FIRED}.
+     */
+    public boolean isFullyFired() {
+        for (Status status : statuses) {
+            if (status != Status.FIRED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the position of the transition whose firing failed.
+     *
+     * @return the position of the {@link Status#FAILED} transition on the
+     *         group, or -1 if no firing failed.
+     */
+    public int getFailedPosition() {
+        return failedPosition;
+    }
+}
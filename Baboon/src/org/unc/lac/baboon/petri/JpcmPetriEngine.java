@@ -0,0 +1,188 @@
+package org.unc.lac.baboon.petri;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.unc.lac.baboon.exceptions.BadPolicyException;
+import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.PetriMonitor;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.FirstInLinePolicy;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.PetriNet;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.components.Place;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.components.Transition;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+import rx.Observer;
+import rx.Subscription;
+
+/**
+ * The default {@link PetriEngine}, backed by a {@link PetriNet} and a
+ * {@link PetriMonitor} of the Java Petri Concurrency Monitor.
+ * <p>
+ * {@link #tryFire(int)} is a perennial firing on the petri monitor, which
+ * checks the transition and fires it while holding the monitor, so it never
+ * waits for the transition. The petri monitor has no batch firing, so
+ * {@link #fireUpTo(int, int, boolean)} is the default one: the monitor is
+ * taken once per firing of the batch. The same goes for
+ * {@link #setGuards(String[], boolean[])}, which sets the guards one at a
+ * time, so a group of guards is not applied atomically on this engine.
+ * </p>
+ * <p>
+ * The petri monitor only lets a waiting thread go by an interruption, so
+ * {@link #fire(int, java.util.function.BooleanSupplier)} and
+ * {@link #wakeUp(int, Thread)} are the default ones: a cancelled wait is woken
+ * up by interrupting the thread, and the interruption is cleared when the
+ * wait is given up.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see PetriMonitor
+ * @see PetriNet
+ */
+public class JpcmPetriEngine implements PetriEngine {
+    /**
+     * The name of this engine, used to select it on
+     * {@link PetriEngines#createEngine(String, String, petriNetType, Class)}.
+     */
+    public static final String NAME = "jpcm";
+
+    private final PetriNet petri;
+    private final PetriMonitor monitor;
+    /**
+     * The transitions of the petri net, indexed by transition index.
+     */
+    private final Transition[] transitions;
+    /**
+     * The places of the petri net, indexed by place index, so a single place
+     * is read without copying the whole marking.
+     */
+    private final Place[] places;
+
+    /**
+     * Creates the petri net and the petri monitor from a PNML file.
+     * <p>
+     * If the petri net type provided is null then
+     * {@link petriNetType#PLACE_TRANSITION} is used by default. If the
+     * transition firing policy provided is null then {@link FirstInLinePolicy}
+     * is used by default.
+     * </p>
+     *
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net.
+     * @param firingPolicy
+     *            A {@link Class} object that extends {@link TransitionsPolicy}
+     *            used by petri monitor to decide which transition to fire next.
+     *            It might be null.
+     * @throws BadPolicyException
+     *            If the transitions policy provided is not correctly formed.
+     * @throws IllegalArgumentException
+     *            If the pnml file path is null.
+     */
+    public JpcmPetriEngine(String pnmlFilePath, petriNetType type, Class<? extends TransitionsPolicy> firingPolicy)
+            throws BadPolicyException {
+        if (pnmlFilePath == null) {
+            throw new IllegalArgumentException("The pnml file path can not be null");
+        }
+        petriNetType typeChecked = type == null ? petriNetType.PLACE_TRANSITION : type;
+        petri = new PetriNetFactory(pnmlFilePath).makePetriNet(typeChecked);
+        try {
+            TransitionsPolicy firingPolicyChecked = firingPolicy == null ? new FirstInLinePolicy(petri)
+                    : firingPolicy.getDeclaredConstructor(PetriNet.class).newInstance(petri);
+            monitor = new PetriMonitor(petri, firingPolicyChecked);
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException
+                | NoSuchMethodException | SecurityException e) {
+            throw new BadPolicyException("Failed to create an instance with the policy class provided.");
+        }
+        transitions = petri.getTransitions();
+        places = petri.getPlaces();
+    }
+
+    @Override
+    public void initialize() {
+        petri.initializePetriNet();
+    }
+
+    @Override
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    @Override
+    public String getTransitionName(int transitionIndex) {
+        return transitions[transitionIndex].getName();
+    }
+
+    @Override
+    public String getGuardName(int transitionIndex) {
+        return transitions[transitionIndex].getGuardName();
+    }
+
+    @Override
+    public boolean isAutomaticTransition(int transitionIndex) {
+        return transitions[transitionIndex].getLabel().isAutomatic();
+    }
+
+    @Override
+    public boolean fire(int transitionIndex, boolean perennialFiring)
+            throws IllegalTransitionFiringError, PetriNetException {
+        return monitor.fireTransition(transitions[transitionIndex], perennialFiring);
+    }
+
+    @Override
+    public boolean tryFire(int transitionIndex) throws IllegalTransitionFiringError, PetriNetException {
+        return monitor.fireTransition(transitions[transitionIndex], true);
+    }
+
+    @Override
+    public boolean isEnabled(int transitionIndex) {
+        return petri.isEnabled(transitions[transitionIndex]);
+    }
+
+    @Override
+    public void setGuard(String guardName, boolean value) throws IndexOutOfBoundsException, PetriNetException {
+        monitor.setGuard(guardName, value);
+    }
+
+    @Override
+    public Integer[] getMarking() {
+        return petri.getCurrentMarking();
+    }
+
+    @Override
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    @Override
+    public void getMarking(int[] into) {
+        if (into == null || into.length < places.length) {
+            throw new IllegalArgumentException("The buffer must have room for " + places.length + " places");
+        }
+        for (int p = 0; p < places.length; p++) {
+            into[p] = places[p].getMarking();
+        }
+    }
+
+    @Override
+    public int getTokens(int placeIndex) {
+        return places[placeIndex].getMarking();
+    }
+
+    @Override
+    public Subscription subscribeToTransition(String transitionName, Observer<String> observer) {
+        return monitor.subscribeToTransition(transitionName, observer);
+    }
+
+    @Override
+    public void setTransitionsPolicy(TransitionsPolicy firingPolicy) {
+        monitor.setTransitionsPolicy(firingPolicy);
+    }
+}
@@ -0,0 +1,21 @@
+package org.unc.lac.baboon.petri;
+
+/**
+ * Observer Interface. The classes implementing this interface can be subscribed
+ * to a {@link BaboonPetriCore}. This way, the observer gets an update after a
+ * transition is fired or a guard is set through the {@link BaboonPetriCore},
+ * which are the operations that can change the set of enabled transitions.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see BaboonPetriCore#addMarkingObserver(MarkingObserver)
+ */
+public interface MarkingObserver {
+    /**
+     * This method is called after a transition is fired or a guard is set
+     * through the {@link BaboonPetriCore}. It is called on the thread that
+     * performed the operation, so it should return quickly.
+     */
+    void markingChanged();
+}
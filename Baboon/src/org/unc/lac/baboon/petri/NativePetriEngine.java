@@ -0,0 +1,1419 @@
+package org.unc.lac.baboon.petri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.NotInitializedPetriNetException;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+import rx.Observer;
+import rx.Subscription;
+
+/**
+ * A {@link PetriEngine} owned by Baboon, for place-transition petri nets. It
+ * reads the PNML files as the Java Petri Concurrency Monitor does, and
+ * supports the same guards, inhibitor, reset and reader arcs, and automatic
+ * and informed transitions.
+ * <p>
+ * The arcs of each transition are stored as sparse arrays of place indexes
+ * and weights, and the enabled transitions of each component as a
+ * {@link BitSet}. When a transition is fired, only the transitions that have
+ * an arc to one of the places it changed are checked again, and when a guard
+ * is set, only the transitions guarded by it. So the cost of a firing depends
+ * on the neighbourhood of the transition, not on the size of the petri net.
+ * </p>
+ * <p>
+ * The petri net is split at load into its connected components, the groups
+ * of places and transitions linked by arcs. Since a firing never changes the
+ * marking or the enabling of another component, each one has its own
+ * {@link ReentrantLock}, and a firing only locks the component of its
+ * transition, so unrelated subsystems modelled on the same petri net do not
+ * contend. The threads waiting for a transition are parked on a
+ * {@link Condition} of its component lock, and are woken up only when the
+ * transition becomes enabled. The observers of informed transitions are
+ * updated with the name of the transition after the lock is released.
+ * Transition policies are not supported: the waiting threads are woken up in
+ * the order the lock provides.
+ * </p>
+ * <p>
+ * On the optimistic mode, the components with no automatic transitions and
+ * no inhibitor, reader or reset arcs are fired without locking. The tokens
+ * of the input places of a transition are held one place at a time by
+ * compare and set, in ascending place order, and given back if a place has
+ * not enough tokens. A place whose tokens are short only because other
+ * firings hold them is tried again until those firings give them back or
+ * consume them, so a firing fails only if the transition is disabled, and
+ * the ascending order keeps two firings from waiting for each other. Only the
+ * guarded transitions and the ones with more than
+ * {@value #MAX_OPTIMISTIC_FAN_IN} input places take the lock of the
+ * component, to check the guard or to keep wide transitions from taking
+ * tokens from each other. The threads waiting for a transition are parked on
+ * the wait lists of its input places and of its guard, and are woken up
+ * whenever a token is added to one of those places or the guard is set. The
+ * marking snapshots of these components count the held tokens on their
+ * places, and might show a firing that added the tokens of its output
+ * places but did not consume the ones of its input places yet.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see PnmlNet
+ */
+public class NativePetriEngine implements PetriEngine {
+    /**
+     * The name of this engine, used to select it on
+     * {@link PetriEngines#createEngine(String, String, petriNetType, Class)}.
+     */
+    public static final String NAME = "native";
+    /**
+     * The name of this engine on its optimistic mode, used to select it on
+     * {@link PetriEngines#createEngine(String, String, petriNetType, Class)}.
+     */
+    public static final String OPTIMISTIC_NAME = "native-optimistic";
+    /**
+     * The maximum number of input places of a transition fired without
+     * locking on the optimistic mode.
+     */
+    public static final int MAX_OPTIMISTIC_FAN_IN = 3;
+
+    private static final int[] NO_ARCS = new int[0];
+
+    private final String[] transitionNames;
+    private final Map<String, Integer> transitionIndexes = new HashMap<>();
+    private final boolean[] automatic;
+    private final boolean[] informed;
+    private final boolean hasAutomaticTransitions;
+    private final String[] guardNames;
+
+    /**
+     * The guard index of each transition, or -1 if it is not guarded.
+     */
+    private final int[] transitionGuards;
+    private final boolean[] guardEnablingValues;
+    private final Map<String, Integer> guardIndexes = new HashMap<>();
+    /**
+     * The transitions guarded by each guard, indexed by guard index and
+     * sorted by component.
+     */
+    private final int[][] guardedTransitions;
+    /**
+     * The value of the guard of each transition, indexed by transition
+     * index, so it is written while holding the lock of the component of the
+     * transition.
+     */
+    private final boolean[] transitionGuardValues;
+    /**
+     * The last value set on each guard, indexed by guard index. It is written
+     * while holding the lock of the guard on {@link #guardLocks}.
+     */
+    private final boolean[] guards;
+    /**
+     * The lock of each guard, indexed by guard index, so the updates of
+     * unrelated guards do not contend.
+     */
+    private final ReentrantLock[] guardLocks;
+
+    private final int[] initialMarking;
+    /**
+     * The tokens on each place, written while holding the lock of the
+     * component of the place, or by compare and set on the optimistic
+     * components. The low 32 bits of each entry are the tokens available and
+     * the high 32 bits the ones held by the optimistic firings that are still
+     * taking their input tokens, so both are changed by one compare and set.
+     */
+    private final AtomicLongArray marking;
+    /**
+     * The value of one held token on an entry of {@link #marking}.
+     */
+    private static final long HELD_TOKEN = 1L << 32;
+
+    /*
+     * The sparse incidence of each transition, indexed by transition index:
+     * the places and weights of its arcs of each type.
+     */
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+    private final int[][] inhibitorPlaces;
+    private final int[][] inhibitorWeights;
+    private final int[][] readerPlaces;
+    private final int[][] readerWeights;
+    private final int[][] resetPlaces;
+    /**
+     * The transitions whose enabling must be checked again after each
+     * transition is fired, indexed by transition index.
+     */
+    private final int[][] dependents;
+
+    /**
+     * The connected components of the petri net.
+     */
+    private final Component[] components;
+    /**
+     * The component of each transition, indexed by transition index.
+     */
+    private final Component[] transitionComponents;
+    /**
+     * The index of the component of each transition on {@link #components},
+     * indexed by transition index.
+     */
+    private final int[] componentIndexes;
+    /**
+     * The index of each transition on its component, indexed by transition
+     * index.
+     */
+    private final int[] localIndexes;
+    private final Condition[] enabledConditions;
+    /**
+     * The number of threads waiting for each transition.
+     */
+    private final int[] waiters;
+    private volatile boolean initialized = false;
+    /**
+     * The buffers of each thread used by
+     * {@link #setGuards(String[], boolean[], int)}.
+     */
+    private final ThreadLocal<GuardGroup> guardGroups = ThreadLocal.withInitial(GuardGroup::new);
+    /**
+     * Indicates for each transition if it is fired without locking, indexed
+     * by transition index.
+     */
+    private final boolean[] lockFree;
+    /**
+     * The threads waiting for the transitions of the optimistic components,
+     * on a wait list per input place and per guard.
+     */
+    private final List<ConcurrentLinkedQueue<Thread>> placeWaiters;
+    private final List<ConcurrentLinkedQueue<Thread>> guardWaiters;
+
+    private final List<CopyOnWriteArrayList<Observer<String>>> observers;
+
+    /**
+     * Reads the petri net from a PNML file.
+     * <p>
+     * If the petri net type provided is null then
+     * {@link petriNetType#PLACE_TRANSITION} is used by default.
+     * </p>
+     *
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net.
+     * @throws IllegalArgumentException
+     *            <ul>
+     *            <li>If the pnml file path is null.</li>
+     *            <li>If the petri net is timed.</li>
+     *            <li>If the pnml file can not be read.</li>
+     *            </ul>
+     */
+    public NativePetriEngine(String pnmlFilePath, petriNetType type) {
+        this(pnmlFilePath, type, false);
+    }
+
+    /**
+     * Reads the petri net from a PNML file, indicating if the components that
+     * allow it are fired without locking.
+     * <p>
+     * If the petri net type provided is null then
+     * {@link petriNetType#PLACE_TRANSITION} is used by default.
+     * </p>
+     *
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net.
+     * @param optimistic
+     *            Indicates if the optimistic mode is used.
+     * @throws IllegalArgumentException
+     *            <ul>
+     *            <li>If the pnml file path is null.</li>
+     *            <li>If the petri net is timed.</li>
+     *            <li>If the pnml file can not be read.</li>
+     *            </ul>
+     */
+    public NativePetriEngine(String pnmlFilePath, petriNetType type, boolean optimistic) {
+        if (type == petriNetType.TIMED) {
+            throw new IllegalArgumentException("The native petri engine does not support timed petri nets");
+        }
+        PnmlNet net = PnmlNet.read(pnmlFilePath);
+        int transitionCount = net.transitionNames.length;
+        int placeCount = net.placeNames.length;
+        transitionNames = net.transitionNames;
+        automatic = net.automatic;
+        informed = net.informed;
+        guardNames = net.guardNames;
+        guardEnablingValues = net.guardEnablingValues;
+        initialMarking = net.initialMarking;
+        marking = new AtomicLongArray(initialMarking.length);
+        for (int p = 0; p < placeCount; p++) {
+            marking.set(p, initialMarking[p]);
+        }
+
+        boolean anyAutomatic = false;
+        transitionGuards = new int[transitionCount];
+        List<List<Integer>> guarded = new ArrayList<>();
+        for (int t = 0; t < transitionCount; t++) {
+            transitionIndexes.put(transitionNames[t], t);
+            anyAutomatic |= automatic[t];
+            String guardName = guardNames[t];
+            if (guardName == null) {
+                transitionGuards[t] = -1;
+                continue;
+            }
+            if (!guardIndexes.containsKey(guardName)) {
+                guardIndexes.put(guardName, guarded.size());
+                guarded.add(new ArrayList<>());
+            }
+            transitionGuards[t] = guardIndexes.get(guardName);
+            guarded.get(transitionGuards[t]).add(t);
+        }
+        hasAutomaticTransitions = anyAutomatic;
+        guardedTransitions = toArrays(guarded);
+        guards = new boolean[guarded.size()];
+        guardLocks = new ReentrantLock[guarded.size()];
+        for (int g = 0; g < guardLocks.length; g++) {
+            guardLocks[g] = new ReentrantLock();
+        }
+        transitionGuardValues = new boolean[transitionCount];
+
+        List<List<Integer>> pre = emptyLists(transitionCount);
+        List<List<Integer>> post = emptyLists(transitionCount);
+        List<List<Integer>> inhibitor = emptyLists(transitionCount);
+        List<List<Integer>> reader = emptyLists(transitionCount);
+        List<List<Integer>> reset = emptyLists(transitionCount);
+        List<Set<Integer>> placeTransitions = new ArrayList<>();
+        for (int p = 0; p < placeCount; p++) {
+            placeTransitions.add(new LinkedHashSet<>());
+        }
+        for (int[] arc : net.placeToTransitionArcs) {
+            List<List<Integer>> arcs = arc[3] == PnmlNet.ARC_INHIBITOR ? inhibitor
+                    : arc[3] == PnmlNet.ARC_READER ? reader : arc[3] == PnmlNet.ARC_RESET ? reset : pre;
+            addArc(arcs.get(arc[1]), arc[0], arc[2], arcs != reset);
+            placeTransitions.get(arc[0]).add(arc[1]);
+        }
+        for (int[] arc : net.transitionToPlaceArcs) {
+            addArc(post.get(arc[1]), arc[0], arc[2], true);
+        }
+        prePlaces = places(pre);
+        preWeights = weights(pre);
+        // the input tokens of the optimistic firings are held in ascending place order
+        sortByPlace(prePlaces, preWeights);
+        postPlaces = places(post);
+        postWeights = weights(post);
+        inhibitorPlaces = places(inhibitor);
+        inhibitorWeights = weights(inhibitor);
+        readerPlaces = places(reader);
+        readerWeights = weights(reader);
+        resetPlaces = toArrays(reset);
+
+        dependents = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; t++) {
+            Set<Integer> affected = new LinkedHashSet<>();
+            for (int[] changedPlaces : new int[][] { prePlaces[t], postPlaces[t], resetPlaces[t] }) {
+                for (int p : changedPlaces) {
+                    affected.addAll(placeTransitions.get(p));
+                }
+            }
+            dependents[t] = toArray(new ArrayList<>(affected));
+        }
+
+        components = findComponents(placeCount, transitionCount, net);
+        transitionComponents = new Component[transitionCount];
+        componentIndexes = new int[transitionCount];
+        localIndexes = new int[transitionCount];
+        enabledConditions = new Condition[transitionCount];
+        waiters = new int[transitionCount];
+        observers = new ArrayList<>(transitionCount);
+        for (int c = 0; c < components.length; c++) {
+            Component component = components[c];
+            for (int i = 0; i < component.transitions.length; i++) {
+                int t = component.transitions[i];
+                transitionComponents[t] = component;
+                componentIndexes[t] = c;
+                localIndexes[t] = i;
+                enabledConditions[t] = component.lock.newCondition();
+            }
+        }
+        for (int g = 0; g < guardedTransitions.length; g++) {
+            guardedTransitions[g] = guarded.get(g).stream().sorted(Comparator.comparingInt(t -> componentIndexes[t]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+        for (int t = 0; t < transitionCount; t++) {
+            observers.add(new CopyOnWriteArrayList<>());
+        }
+
+        lockFree = new boolean[transitionCount];
+        for (Component component : components) {
+            boolean optimisticComponent = optimistic;
+            for (int t : component.transitions) {
+                optimisticComponent &= !automatic[t] && inhibitorPlaces[t].length == 0
+                        && readerPlaces[t].length == 0 && resetPlaces[t].length == 0;
+            }
+            component.optimistic = optimisticComponent;
+            for (int t : component.transitions) {
+                lockFree[t] = optimisticComponent && transitionGuards[t] < 0
+                        && prePlaces[t].length <= MAX_OPTIMISTIC_FAN_IN;
+            }
+        }
+        placeWaiters = waitLists(optimistic ? placeCount : 0);
+        guardWaiters = waitLists(optimistic ? guardedTransitions.length : 0);
+    }
+
+    private static List<ConcurrentLinkedQueue<Thread>> waitLists(int size) {
+        List<ConcurrentLinkedQueue<Thread>> waitLists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            waitLists.add(new ConcurrentLinkedQueue<>());
+        }
+        return waitLists;
+    }
+
+    /**
+     * Groups the places and transitions of the petri net into connected
+     * components, by joining the place and the transition of each arc.
+     */
+    private static Component[] findComponents(int placeCount, int transitionCount, PnmlNet net) {
+        // places are nodes [0, placeCount), transitions follow them
+        int[] parents = new int[placeCount + transitionCount];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (List<int[]> arcs : Arrays.asList(net.placeToTransitionArcs, net.transitionToPlaceArcs)) {
+            for (int[] arc : arcs) {
+                int placeRoot = root(parents, arc[0]);
+                int transitionRoot = root(parents, placeCount + arc[1]);
+                parents[Math.max(placeRoot, transitionRoot)] = Math.min(placeRoot, transitionRoot);
+            }
+        }
+        Map<Integer, List<Integer>> componentPlaces = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> componentTransitions = new LinkedHashMap<>();
+        for (int node = 0; node < parents.length; node++) {
+            int root = root(parents, node);
+            componentPlaces.computeIfAbsent(root, key -> new ArrayList<>());
+            componentTransitions.computeIfAbsent(root, key -> new ArrayList<>());
+            if (node < placeCount) {
+                componentPlaces.get(root).add(node);
+            } else {
+                componentTransitions.get(root).add(node - placeCount);
+            }
+        }
+        Component[] components = new Component[componentPlaces.size()];
+        int index = 0;
+        for (Integer root : componentPlaces.keySet()) {
+            components[index++] = new Component(toArray(componentPlaces.get(root)),
+                    toArray(componentTransitions.get(root)));
+        }
+        return components;
+    }
+
+    private static int root(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+
+    @Override
+    public void initialize() {
+        for (Component component : components) {
+            component.lock.lock();
+            try {
+                for (int p : component.places) {
+                    marking.set(p, initialMarking[p]);
+                }
+                if (!component.optimistic) {
+                    for (int t : component.transitions) {
+                        updateEnabled(t);
+                    }
+                }
+            } finally {
+                component.lock.unlock();
+            }
+        }
+        initialized = true;
+        for (Component component : components) {
+            List<Integer> informs;
+            component.lock.lock();
+            try {
+                informs = fireAutomaticTransitions(component);
+            } finally {
+                component.lock.unlock();
+            }
+            inform(informs);
+        }
+    }
+
+    @Override
+    public int getTransitionCount() {
+        return transitionNames.length;
+    }
+
+    @Override
+    public String getTransitionName(int transitionIndex) {
+        return transitionNames[transitionIndex];
+    }
+
+    @Override
+    public String getGuardName(int transitionIndex) {
+        return guardNames[transitionIndex];
+    }
+
+    @Override
+    public boolean isAutomaticTransition(int transitionIndex) {
+        return automatic[transitionIndex];
+    }
+
+    @Override
+    public boolean fire(int transitionIndex, boolean perennialFiring)
+            throws IllegalTransitionFiringError, PetriNetException {
+        checkNotAutomatic(transitionIndex);
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic) {
+            return fireOptimistic(transitionIndex, perennialFiring, null);
+        }
+        List<Integer> informs;
+        component.lock.lock();
+        try {
+            checkInitialized();
+            if (!awaitEnabled(component, transitionIndex, perennialFiring, null)) {
+                return false;
+            }
+            informs = fireEnabled(transitionIndex);
+        } finally {
+            component.lock.unlock();
+        }
+        inform(informs);
+        return true;
+    }
+
+    /**
+     * Waits on the {@link Condition} of the transition, or on the wait lists
+     * of the optimistic components, as {@link #fire(int, boolean)} does. The
+     * waiting thread is never interrupted to check the cancellation.
+     */
+    @Override
+    public boolean fire(int transitionIndex, BooleanSupplier cancellation)
+            throws IllegalTransitionFiringError, PetriNetException {
+        checkNotAutomatic(transitionIndex);
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic) {
+            return fireOptimistic(transitionIndex, false, cancellation);
+        }
+        List<Integer> informs;
+        component.lock.lock();
+        try {
+            checkInitialized();
+            if (!awaitEnabled(component, transitionIndex, false, cancellation)) {
+                return false;
+            }
+            informs = fireEnabled(transitionIndex);
+        } finally {
+            component.lock.unlock();
+        }
+        inform(informs);
+        return true;
+    }
+
+    /**
+     * Signals the {@link Condition} of the transition, which wakes up every
+     * thread waiting for it, or unparks the thread on the optimistic
+     * components.
+     */
+    @Override
+    public void wakeUp(int transitionIndex, Thread waiter) {
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic) {
+            LockSupport.unpark(waiter);
+            return;
+        }
+        component.lock.lock();
+        try {
+            if (waiters[transitionIndex] > 0) {
+                enabledConditions[transitionIndex].signalAll();
+            }
+        } finally {
+            component.lock.unlock();
+        }
+    }
+
+    /**
+     * Fires the whole batch while holding the lock of the component once, or
+     * by one compare and set per firing on the optimistic components.
+     */
+    @Override
+    public int fireUpTo(int transitionIndex, int maxFirings, boolean perennialFiring)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        if (maxFirings < 1) {
+            throw new IllegalArgumentException("The transition must be fired at least once");
+        }
+        checkNotAutomatic(transitionIndex);
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic) {
+            if (!fireOptimistic(transitionIndex, perennialFiring, null)) {
+                return 0;
+            }
+            int fired = 1;
+            while (fired < maxFirings && tryFireOptimistic(transitionIndex)) {
+                fired++;
+            }
+            return fired;
+        }
+        List<Integer> informs = null;
+        int fired = 0;
+        component.lock.lock();
+        try {
+            checkInitialized();
+            if (!awaitEnabled(component, transitionIndex, perennialFiring, null)) {
+                return 0;
+            }
+            do {
+                List<Integer> firingInforms = fireEnabled(transitionIndex);
+                if (informs == null) {
+                    informs = firingInforms;
+                } else if (firingInforms != null) {
+                    informs.addAll(firingInforms);
+                }
+                fired++;
+            } while (fired < maxFirings && component.enabled.get(localIndexes[transitionIndex]));
+        } finally {
+            component.lock.unlock();
+        }
+        inform(informs);
+        return fired;
+    }
+
+    /**
+     * Waits until a transition of a locked component is enabled. It must be
+     * called while holding the lock of the component of the transition.
+     *
+     * @param cancellation
+     *            Returns true when the wait must be given up, or null if it
+     *            can not be cancelled.
+     * @return true if the transition is enabled, false if the firing is
+     *         perennial or the wait was cancelled, and the transition is not
+     *         enabled.
+     */
+    private boolean awaitEnabled(Component component, int transitionIndex, boolean perennialFiring,
+            BooleanSupplier cancellation) throws PetriNetException {
+        while (!component.enabled.get(localIndexes[transitionIndex])) {
+            if (perennialFiring || (cancellation != null && cancellation.getAsBoolean())) {
+                return false;
+            }
+            waiters[transitionIndex]++;
+            try {
+                enabledConditions[transitionIndex].await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PetriNetException(
+                        "Interrupted while waiting for the transition " + transitionNames[transitionIndex], e);
+            } finally {
+                waiters[transitionIndex]--;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryFire(int transitionIndex) throws IllegalTransitionFiringError, PetriNetException {
+        checkNotAutomatic(transitionIndex);
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic) {
+            checkInitialized();
+            return tryFireOptimistic(transitionIndex);
+        }
+        List<Integer> informs;
+        component.lock.lock();
+        try {
+            checkInitialized();
+            if (!component.enabled.get(localIndexes[transitionIndex])) {
+                return false;
+            }
+            informs = fireEnabled(transitionIndex);
+        } finally {
+            component.lock.unlock();
+        }
+        inform(informs);
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled(int transitionIndex) {
+        if (transitionIndex < 0 || transitionIndex >= transitionNames.length) {
+            throw new IndexOutOfBoundsException("There is no transition with index " + transitionIndex);
+        }
+        Component component = transitionComponents[transitionIndex];
+        if (component.optimistic && lockFree[transitionIndex]) {
+            return computeEnabled(transitionIndex);
+        }
+        component.lock.lock();
+        try {
+            return component.optimistic ? computeEnabled(transitionIndex)
+                    : component.enabled.get(localIndexes[transitionIndex]);
+        } finally {
+            component.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean mightBeEnabled(int transitionIndex) {
+        if (transitionIndex < 0 || transitionIndex >= transitionNames.length) {
+            throw new IndexOutOfBoundsException("There is no transition with index " + transitionIndex);
+        }
+        return computeEnabled(transitionIndex);
+    }
+
+    @Override
+    public void setGuard(String guardName, boolean value) throws IndexOutOfBoundsException, PetriNetException {
+        Integer guardIndex = guardIndexes.get(guardName);
+        if (guardIndex == null) {
+            throw new IndexOutOfBoundsException("There is no guard named " + guardName);
+        }
+        ReentrantLock guardLock = guardLocks[guardIndex];
+        guardLock.lock();
+        try {
+            if (guards[guardIndex] == value) {
+                return;
+            }
+            guards[guardIndex] = value;
+            // the guarded transitions of each component are updated under one lock
+            int[] guarded = guardedTransitions[guardIndex];
+            int first = 0;
+            while (first < guarded.length) {
+                Component component = transitionComponents[guarded[first]];
+                List<Integer> informs;
+                component.lock.lock();
+                try {
+                    int t = first;
+                    for (; t < guarded.length && transitionComponents[guarded[t]] == component; t++) {
+                        transitionGuardValues[guarded[t]] = value;
+                        if (!component.optimistic) {
+                            updateEnabled(guarded[t]);
+                        }
+                    }
+                    first = t;
+                    informs = initialized && !component.optimistic ? fireAutomaticTransitions(component) : null;
+                } finally {
+                    component.lock.unlock();
+                }
+                inform(informs);
+            }
+            if (!guardWaiters.isEmpty()) {
+                wakeUp(guardWaiters.get(guardIndex));
+            }
+        } finally {
+            guardLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the whole group while holding the locks of its guards and of the
+     * components of the guarded transitions, each taken in ascending order, so
+     * no firing sees the group half updated. The group is sorted and checked
+     * on buffers of the calling thread, so no array is allocated.
+     */
+    @Override
+    public void setGuards(String[] guardNames, boolean[] values, int count)
+            throws IndexOutOfBoundsException, PetriNetException {
+        GuardGroup group = guardGroups.get();
+        if (group.inUse) {
+            // set again by an observer informed while setting the group
+            group = new GuardGroup();
+        }
+        group.reserve(count, components.length);
+        group.inUse = true;
+        try {
+            setGuards(guardNames, values, count, group);
+        } finally {
+            group.inUse = false;
+        }
+    }
+
+    private void setGuards(String[] guardNames, boolean[] values, int count, GuardGroup group)
+            throws IndexOutOfBoundsException, PetriNetException {
+        int[] indexes = group.indexes;
+        for (int i = 0; i < count; i++) {
+            Integer guardIndex = guardIndexes.get(guardNames[i]);
+            if (guardIndex == null) {
+                throw new IndexOutOfBoundsException("There is no guard named " + guardNames[i]);
+            }
+            indexes[i] = guardIndex;
+        }
+        int[] lockedGuards = group.lockedGuards;
+        System.arraycopy(indexes, 0, lockedGuards, 0, count);
+        Arrays.sort(lockedGuards, 0, count);
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || lockedGuards[i] != lockedGuards[i - 1]) {
+                guardLocks[lockedGuards[i]].lock();
+            }
+        }
+        try {
+            boolean[] changed = group.changed;
+            boolean[] affected = group.affected;
+            int[] affectedComponents = group.affectedComponents;
+            int affectedCount = 0;
+            for (int i = 0; i < count; i++) {
+                changed[i] = guards[indexes[i]] != values[i];
+                if (changed[i]) {
+                    for (int t : guardedTransitions[indexes[i]]) {
+                        int c = componentIndexes[t];
+                        if (!affected[c]) {
+                            affected[c] = true;
+                            affectedComponents[affectedCount++] = c;
+                        }
+                    }
+                }
+            }
+            if (affectedCount == 0) {
+                return;
+            }
+            for (int k = 0; k < affectedCount; k++) {
+                affected[affectedComponents[k]] = false;
+            }
+            Arrays.sort(affectedComponents, 0, affectedCount);
+            List<Integer> informs = null;
+            int locked = 0;
+            try {
+                for (; locked < affectedCount; locked++) {
+                    components[affectedComponents[locked]].lock.lock();
+                }
+                for (int i = 0; i < count; i++) {
+                    if (!changed[i]) {
+                        continue;
+                    }
+                    guards[indexes[i]] = values[i];
+                    for (int t : guardedTransitions[indexes[i]]) {
+                        transitionGuardValues[t] = values[i];
+                        if (!transitionComponents[t].optimistic) {
+                            updateEnabled(t);
+                        }
+                    }
+                }
+                for (int k = 0; initialized && k < affectedCount; k++) {
+                    Component component = components[affectedComponents[k]];
+                    if (!component.optimistic) {
+                        List<Integer> automaticInforms = fireAutomaticTransitions(component);
+                        if (informs == null) {
+                            informs = automaticInforms;
+                        } else if (automaticInforms != null) {
+                            informs.addAll(automaticInforms);
+                        }
+                    }
+                }
+            } finally {
+                while (--locked >= 0) {
+                    components[affectedComponents[locked]].lock.unlock();
+                }
+            }
+            inform(informs);
+            if (!guardWaiters.isEmpty()) {
+                for (int i = 0; i < count; i++) {
+                    wakeUp(guardWaiters.get(indexes[i]));
+                }
+            }
+        } finally {
+            for (int i = count - 1; i >= 0; i--) {
+                if (i == 0 || lockedGuards[i] != lockedGuards[i - 1]) {
+                    guardLocks[lockedGuards[i]].unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Integer[] getMarking() {
+        Integer[] snapshot = new Integer[marking.length()];
+        int locked = 0;
+        try {
+            // every component is locked, in order, so the snapshot is consistent on
+            // the components fired under their lock
+            for (; locked < components.length; locked++) {
+                components[locked].lock.lock();
+            }
+            for (int p = 0; p < marking.length(); p++) {
+                snapshot[p] = markedTokens(marking.get(p));
+            }
+        } finally {
+            while (locked > 0) {
+                components[--locked].lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public int getPlaceCount() {
+        return marking.length();
+    }
+
+    @Override
+    public void getMarking(int[] into) {
+        if (into == null || into.length < marking.length()) {
+            throw new IllegalArgumentException("The buffer must have room for " + marking.length() + " places");
+        }
+        int locked = 0;
+        try {
+            for (; locked < components.length; locked++) {
+                components[locked].lock.lock();
+            }
+            for (int p = 0; p < marking.length(); p++) {
+                into[p] = markedTokens(marking.get(p));
+            }
+        } finally {
+            while (locked > 0) {
+                components[--locked].lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int getTokens(int placeIndex) {
+        return markedTokens(marking.get(placeIndex));
+    }
+
+    @Override
+    public Subscription subscribeToTransition(String transitionName, Observer<String> observer) {
+        Integer transitionIndex = transitionIndexes.get(transitionName);
+        if (transitionIndex == null) {
+            throw new IllegalArgumentException("The transition " + transitionName + " does not exists on petri net");
+        }
+        if (!informed[transitionIndex]) {
+            throw new IllegalArgumentException("The transition " + transitionName + " is not informed");
+        }
+        if (observer == null) {
+            throw new IllegalArgumentException("The observer can not be null");
+        }
+        final CopyOnWriteArrayList<Observer<String>> transitionObservers = observers.get(transitionIndex);
+        transitionObservers.add(observer);
+        return new Subscription() {
+            private final AtomicBoolean unsubscribed = new AtomicBoolean(false);
+
+            @Override
+            public void unsubscribe() {
+                if (unsubscribed.compareAndSet(false, true)) {
+                    transitionObservers.remove(observer);
+                }
+            }
+
+            @Override
+            public boolean isUnsubscribed() {
+                return unsubscribed.get();
+            }
+        };
+    }
+
+    /**
+     * Fires a transition of an optimistic component, waiting on the wait
+     * lists of its input places and guard while it is not enabled.
+     *
+     * @param cancellation
+     *            Returns true when the wait must be given up, or null if it
+     *            can not be cancelled.
+     * @return true if the transition was fired, false if the firing is
+     *         perennial or the wait was cancelled, and the transition was not
+     *         enabled.
+     */
+    private boolean fireOptimistic(int transitionIndex, boolean perennialFiring, BooleanSupplier cancellation)
+            throws PetriNetException {
+        checkInitialized();
+        Thread current = Thread.currentThread();
+        while (!tryFireOptimistic(transitionIndex)) {
+            if (perennialFiring || (cancellation != null && cancellation.getAsBoolean())) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                current.interrupt();
+                throw new PetriNetException("Interrupted while waiting for the transition "
+                        + transitionNames[transitionIndex], new InterruptedException());
+            }
+            int guard = transitionGuards[transitionIndex];
+            for (int p : prePlaces[transitionIndex]) {
+                placeWaiters.get(p).add(current);
+            }
+            if (guard >= 0) {
+                guardWaiters.get(guard).add(current);
+            }
+            try {
+                // checked again after registering, so a wake up is not lost
+                if (!isEnabled(transitionIndex)) {
+                    LockSupport.park(this);
+                }
+            } finally {
+                for (int p : prePlaces[transitionIndex]) {
+                    placeWaiters.get(p).remove(current);
+                }
+                if (guard >= 0) {
+                    guardWaiters.get(guard).remove(current);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fires a transition of an optimistic component if it is enabled, without
+     * waiting. The lock of the component is taken only if the transition is
+     * not {@link #lockFree}.
+     *
+     * @return true if the transition was fired.
+     */
+    private boolean tryFireOptimistic(int transitionIndex) {
+        if (lockFree[transitionIndex]) {
+            if (!takeInputTokens(transitionIndex)) {
+                return false;
+            }
+        } else {
+            ReentrantLock lock = transitionComponents[transitionIndex].lock;
+            lock.lock();
+            try {
+                int guard = transitionGuards[transitionIndex];
+                if (guard >= 0 && transitionGuardValues[transitionIndex] != guardEnablingValues[transitionIndex]) {
+                    return false;
+                }
+                if (!takeInputTokens(transitionIndex)) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        int[] places = postPlaces[transitionIndex];
+        int[] weights = postWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            marking.addAndGet(places[i], weights[i]);
+            wakeUp(placeWaiters.get(places[i]));
+        }
+        // the held tokens are consumed after adding the output ones, so a place
+        // that is both input and output never looks short to other firings
+        places = prePlaces[transitionIndex];
+        weights = preWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            marking.addAndGet(places[i], -weights[i] * HELD_TOKEN);
+        }
+        if (hasObservers(transitionIndex)) {
+            inform(Collections.singletonList(transitionIndex));
+        }
+        return true;
+    }
+
+    /**
+     * Holds the tokens of the input places of a transition by compare and
+     * set, one place at a time in ascending place order. If a place has not
+     * enough tokens but other firings hold enough of them, it is tried again
+     * until they give them back or consume them. If a place has not enough
+     * tokens even counting the held ones, the tokens already held are given
+     * back.
+     *
+     * @return true if all the tokens are held, so the firing must consume them.
+     */
+    private boolean takeInputTokens(int transitionIndex) {
+        int[] places = prePlaces[transitionIndex];
+        int[] weights = preWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            int weight = weights[i];
+            while (true) {
+                long entry = marking.get(places[i]);
+                int tokens = availableTokens(entry);
+                if (tokens >= weight) {
+                    if (marking.compareAndSet(places[i], entry, entry - weight + weight * HELD_TOKEN)) {
+                        break;
+                    }
+                } else if (tokens + heldTokens(entry) < weight) {
+                    for (int taken = 0; taken < i; taken++) {
+                        marking.addAndGet(places[taken], weights[taken] - weights[taken] * HELD_TOKEN);
+                        wakeUp(placeWaiters.get(places[taken]));
+                    }
+                    return false;
+                } else {
+                    // the tokens missing are held by other firings, wait for them to finish
+                    Thread.yield();
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int availableTokens(long entry) {
+        return (int) entry;
+    }
+
+    private static int heldTokens(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    /**
+     * Returns the tokens of a place shown on the marking: the ones available
+     * and the ones held by firings that did not consume them yet.
+     */
+    private static int markedTokens(long entry) {
+        return availableTokens(entry) + heldTokens(entry);
+    }
+
+    private static void wakeUp(ConcurrentLinkedQueue<Thread> waitList) {
+        if (waitList.isEmpty()) {
+            return;
+        }
+        for (Thread waiter : waitList) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Fires an enabled transition and then the automatic transitions it
+     * enables. It must be called while holding the lock of the component of
+     * the transition.
+     *
+     * @return the informed transitions fired that have observers, in firing
+     *         order, or null if there are none.
+     */
+    private List<Integer> fireEnabled(int transitionIndex) {
+        List<Integer> informs = null;
+        move(transitionIndex);
+        if (hasObservers(transitionIndex)) {
+            informs = new ArrayList<>();
+            informs.add(transitionIndex);
+        }
+        if (hasAutomaticTransitions) {
+            List<Integer> automaticInforms = fireAutomaticTransitions(transitionComponents[transitionIndex]);
+            if (automaticInforms != null) {
+                if (informs == null) {
+                    return automaticInforms;
+                }
+                informs.addAll(automaticInforms);
+            }
+        }
+        return informs;
+    }
+
+    /**
+     * Fires the enabled automatic transitions of a component until none of
+     * them is enabled. It must be called while holding the lock of the
+     * component.
+     */
+    private List<Integer> fireAutomaticTransitions(Component component) {
+        if (!hasAutomaticTransitions) {
+            return null;
+        }
+        List<Integer> informs = null;
+        int t = nextEnabledAutomatic(component);
+        while (t >= 0) {
+            move(t);
+            if (hasObservers(t)) {
+                if (informs == null) {
+                    informs = new ArrayList<>();
+                }
+                informs.add(t);
+            }
+            t = nextEnabledAutomatic(component);
+        }
+        return informs;
+    }
+
+    private int nextEnabledAutomatic(Component component) {
+        BitSet enabled = component.enabled;
+        for (int i = enabled.nextSetBit(0); i >= 0; i = enabled.nextSetBit(i + 1)) {
+            if (automatic[component.transitions[i]]) {
+                return component.transitions[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the tokens of a firing and updates the enabling of the
+     * transitions that depend on the places changed, which are always on the
+     * same component. It must be called while holding the lock of the
+     * component of the transition.
+     */
+    private void move(int transitionIndex) {
+        int[] places = prePlaces[transitionIndex];
+        int[] weights = preWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            marking.addAndGet(places[i], -weights[i]);
+        }
+        for (int p : resetPlaces[transitionIndex]) {
+            marking.set(p, 0);
+        }
+        places = postPlaces[transitionIndex];
+        weights = postWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            marking.addAndGet(places[i], weights[i]);
+        }
+        for (int t : dependents[transitionIndex]) {
+            updateEnabled(t);
+        }
+    }
+
+    /**
+     * Checks again if a transition is enabled, and wakes up the threads
+     * waiting for it if it became enabled. It must be called while holding
+     * the lock of the component of the transition.
+     */
+    private void updateEnabled(int transitionIndex) {
+        boolean isEnabled = computeEnabled(transitionIndex);
+        BitSet enabled = transitionComponents[transitionIndex].enabled;
+        if (isEnabled == enabled.get(localIndexes[transitionIndex])) {
+            return;
+        }
+        enabled.set(localIndexes[transitionIndex], isEnabled);
+        if (isEnabled && waiters[transitionIndex] > 0) {
+            enabledConditions[transitionIndex].signalAll();
+        }
+    }
+
+    private boolean computeEnabled(int transitionIndex) {
+        int guard = transitionGuards[transitionIndex];
+        if (guard >= 0 && transitionGuardValues[transitionIndex] != guardEnablingValues[transitionIndex]) {
+            return false;
+        }
+        int[] places = prePlaces[transitionIndex];
+        int[] weights = preWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            if (availableTokens(marking.get(places[i])) < weights[i]) {
+                return false;
+            }
+        }
+        places = readerPlaces[transitionIndex];
+        weights = readerWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            if (availableTokens(marking.get(places[i])) < weights[i]) {
+                return false;
+            }
+        }
+        places = inhibitorPlaces[transitionIndex];
+        weights = inhibitorWeights[transitionIndex];
+        for (int i = 0; i < places.length; i++) {
+            if (availableTokens(marking.get(places[i])) >= weights[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasObservers(int transitionIndex) {
+        return informed[transitionIndex] && !observers.get(transitionIndex).isEmpty();
+    }
+
+    /**
+     * Updates the observers of the informed transitions fired. It must be
+     * called after releasing the lock of their component.
+     */
+    private void inform(List<Integer> informs) {
+        if (informs == null) {
+            return;
+        }
+        for (int t : informs) {
+            for (Observer<String> observer : observers.get(t)) {
+                observer.onNext(transitionNames[t]);
+            }
+        }
+    }
+
+    private void checkNotAutomatic(int transitionIndex) {
+        if (automatic[transitionIndex]) {
+            throw new IllegalTransitionFiringError(
+                    "The transition " + transitionNames[transitionIndex] + " is automatic and can not be fired");
+        }
+    }
+
+    private void checkInitialized() throws NotInitializedPetriNetException {
+        if (!initialized) {
+            throw new NotInitializedPetriNetException();
+        }
+    }
+
+    private static List<List<Integer>> emptyLists(int size) {
+        List<List<Integer>> lists = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lists.add(new ArrayList<>());
+        }
+        return lists;
+    }
+
+    /**
+     * Appends an arc to a list of alternating places and weights, or of
+     * places alone if it is not weighted.
+     */
+    private static void addArc(List<Integer> arcs, int place, int weight, boolean weighted) {
+        arcs.add(place);
+        if (weighted) {
+            arcs.add(weight);
+        }
+    }
+
+    private static int[][] places(List<List<Integer>> arcs) {
+        int[][] places = new int[arcs.size()][];
+        for (int t = 0; t < places.length; t++) {
+            List<Integer> transitionArcs = arcs.get(t);
+            places[t] = new int[transitionArcs.size() / 2];
+            for (int i = 0; i < places[t].length; i++) {
+                places[t][i] = transitionArcs.get(2 * i);
+            }
+        }
+        return places;
+    }
+
+    private static int[][] weights(List<List<Integer>> arcs) {
+        int[][] weights = new int[arcs.size()][];
+        for (int t = 0; t < weights.length; t++) {
+            List<Integer> transitionArcs = arcs.get(t);
+            weights[t] = new int[transitionArcs.size() / 2];
+            for (int i = 0; i < weights[t].length; i++) {
+                weights[t][i] = transitionArcs.get(2 * i + 1);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Sorts the arcs of each transition by place index, keeping each weight
+     * with its place.
+     */
+    private static void sortByPlace(int[][] places, int[][] weights) {
+        for (int t = 0; t < places.length; t++) {
+            int[] transitionPlaces = places[t];
+            int[] transitionWeights = weights[t];
+            // insertion sort, transitions have few arcs
+            for (int i = 1; i < transitionPlaces.length; i++) {
+                int place = transitionPlaces[i];
+                int weight = transitionWeights[i];
+                int j = i - 1;
+                for (; j >= 0 && transitionPlaces[j] > place; j--) {
+                    transitionPlaces[j + 1] = transitionPlaces[j];
+                    transitionWeights[j + 1] = transitionWeights[j];
+                }
+                transitionPlaces[j + 1] = place;
+                transitionWeights[j + 1] = weight;
+            }
+        }
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = toArray(lists.get(i));
+        }
+        return arrays;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list.isEmpty()) {
+            return NO_ARCS;
+        }
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Returns the number of connected components the petri net was split
+     * into. Each one is locked independently.
+     *
+     * @return the number of connected components of the petri net.
+     */
+    public int getComponentCount() {
+        return components.length;
+    }
+
+    /**
+     * Returns the index of the connected component of a transition. Two
+     * transitions on different components are fired without contending.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return the index of the component of the transition.
+     */
+    public int getComponentIndex(int transitionIndex) {
+        return componentIndexes[transitionIndex];
+    }
+
+    /**
+     * A connected component of the petri net: its places, its transitions
+     * and the lock that guards their marking and enabling.
+     */
+    private static final class Component {
+        private final int[] places;
+        /**
+         * The transitions of the component, indexed by local index.
+         */
+        private final int[] transitions;
+        /**
+         * The enabled transitions of the component, by local index. It is
+         * not kept on the optimistic components.
+         */
+        private final BitSet enabled;
+        private final ReentrantLock lock = new ReentrantLock();
+        /**
+         * Indicates if the component is fired on the optimistic mode. It is
+         * set once, by the constructor of the engine.
+         */
+        private boolean optimistic = false;
+
+        private Component(int[] places, int[] transitions) {
+            this.places = places;
+            this.transitions = transitions;
+            this.enabled = new BitSet(transitions.length);
+        }
+    }
+
+    /**
+     * The buffers of a thread used to set a group of guards. They grow with
+     * the largest group set by the thread.
+     */
+    private static final class GuardGroup {
+        private int[] indexes = NO_ARCS;
+        private int[] lockedGuards = NO_ARCS;
+        private boolean[] changed = new boolean[0];
+        /**
+         * The components affected by the group, in the order they are found.
+         */
+        private int[] affectedComponents = NO_ARCS;
+        /**
+         * Marks the components already on {@link #affectedComponents}. It is
+         * cleared before the group is applied.
+         */
+        private boolean[] affected = new boolean[0];
+        /**
+         * Indicates if the buffers are being used by the thread.
+         */
+        private boolean inUse;
+
+        private void reserve(int count, int componentCount) {
+            if (indexes.length < count) {
+                indexes = new int[count];
+                lockedGuards = new int[count];
+                changed = new boolean[count];
+            }
+            if (affected.length < componentCount) {
+                affected = new boolean[componentCount];
+                affectedComponents = new int[componentCount];
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package org.unc.lac.baboon.petri;
+
+import java.util.function.BooleanSupplier;
+
+import org.unc.lac.javapetriconcurrencymonitor.errors.IllegalTransitionFiringError;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
+
+import rx.Observer;
+import rx.Subscription;
+
+/**
+ * A PetriEngine holds the marking of a petri net and fires its transitions.
+ * {@link BaboonPetriCore} delegates every operation on the petri net to a
+ * PetriEngine, and adds on top of it the resolution of names to indexes, the
+ * guard suppliers, the timed and asynchronous firings and the
+ * {@link MarkingObserver} notifications.
+ * <p>
+ * The transitions are referred by index, from zero to
+ * {@link #getTransitionCount()} minus one, and the guards by name. A
+ * PetriEngine must be safe to use from many threads at once:
+ * {@link #fire(int, boolean)} blocks the calling thread until the transition
+ * is enabled, unless the firing is perennial, and a firing wakes up the
+ * threads waiting for the transitions it enables. A wait on
+ * {@link #fire(int, BooleanSupplier)} can be given up as well, by waking up
+ * the waiting thread with {@link #wakeUp(int, Thread)}.
+ * </p>
+ * <p>
+ * {@link JpcmPetriEngine} is the default engine. Other engines are provided by
+ * a {@link PetriEngineProvider}.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see PetriEngineProvider
+ * @see BaboonPetriCore#BaboonPetriCore(PetriEngine)
+ */
+public interface PetriEngine {
+
+    /**
+     * Sets the initial marking of the petri net. It is called once, before
+     * the first firing.
+     */
+    void initialize();
+
+    /**
+     * Returns the number of transitions of the petri net.
+     *
+     * @return the number of transitions of the petri net.
+     */
+    int getTransitionCount();
+
+    /**
+     * Returns the name of a transition.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return the name of the transition.
+     */
+    String getTransitionName(int transitionIndex);
+
+    /**
+     * Returns the name of the guard of a transition.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return the name of the guard of the transition, or null if it is not
+     *         guarded.
+     */
+    String getGuardName(int transitionIndex);
+
+    /**
+     * Returns true if a transition is automatic. An automatic transition is
+     * fired by the engine itself and can not be fired through
+     * {@link #fire(int, boolean)}.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition is automatic.
+     */
+    boolean isAutomaticTransition(int transitionIndex);
+
+    /**
+     * Fires a transition. If the firing is not perennial and the transition is
+     * not enabled, the calling thread waits until it is enabled and fires it.
+     * If the firing is perennial and the transition is not enabled, it
+     * returns without firing it.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @param perennialFiring
+     *            Indicates if the firing is perennial or not.
+     * @return true if the transition was fired, false if the firing is
+     *         perennial and the transition was not enabled.
+     * @throws IllegalTransitionFiringError
+     *            If the transition is automatic.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs, as an interruption
+     *            of the calling thread while waiting.
+     */
+    boolean fire(int transitionIndex, boolean perennialFiring) throws IllegalTransitionFiringError, PetriNetException;
+
+    /**
+     * Fires a transition as {@link #fire(int, boolean)} does for a firing that
+     * is not perennial, unless the wait is cancelled. The cancellation is
+     * checked before waiting and every time the calling thread is woken up by
+     * {@link #wakeUp(int, Thread)}. Once it returns true, the transition is not
+     * fired anymore.
+     * <p>
+     * The default implementation waits on {@link #fire(int, boolean)}, and
+     * {@link #wakeUp(int, Thread)} interrupts the waiting thread. If the wait
+     * ends by an error and the cancellation returns true, the interruption is
+     * cleared and the transition is not fired. Engines that can wake up a
+     * waiting thread without interrupting it override both methods.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @param cancellation
+     *            Returns true when the wait must be given up.
+     * @return true if the transition was fired, false if the wait was
+     *         cancelled.
+     * @throws IllegalTransitionFiringError
+     *            If the transition is automatic.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs, as an interruption
+     *            of the calling thread while waiting that is not a
+     *            cancellation.
+     */
+    default boolean fire(int transitionIndex, BooleanSupplier cancellation)
+            throws IllegalTransitionFiringError, PetriNetException {
+        if (cancellation.getAsBoolean()) {
+            return false;
+        }
+        try {
+            return fire(transitionIndex, false);
+        } catch (PetriNetException | RuntimeException e) {
+            if (cancellation.getAsBoolean()) {
+                Thread.interrupted();
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Wakes up a thread whose wait for a transition on
+     * {@link #fire(int, BooleanSupplier)} was cancelled, so it checks its
+     * cancellation again and gives up the wait. Other threads waiting for the
+     * same transition might be woken up as well, and go back to wait if their
+     * waits were not cancelled.
+     * <p>
+     * The default implementation interrupts the thread, so a caller that
+     * wakes up a thread after its wait ended must clear the interruption on
+     * that thread.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition the thread waits for.
+     * @param waiter
+     *            The waiting thread.
+     */
+    default void wakeUp(int transitionIndex, Thread waiter) {
+        waiter.interrupt();
+    }
+
+    /**
+     * Fires a transition only if it is enabled, without waiting. The check of
+     * the transition and its firing are atomic, so the calling thread never
+     * waits for the transition, even if a concurrent firing disables it.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition was fired, false if it was not enabled.
+     * @throws IllegalTransitionFiringError
+     *            If the transition is automatic.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    boolean tryFire(int transitionIndex) throws IllegalTransitionFiringError, PetriNetException;
+
+    /**
+     * Fires a transition as {@link #fire(int, boolean)} does, and then keeps
+     * firing it while it is enabled, up to a maximum number of firings. Only
+     * the first firing waits for the transition: the batch ends on the first
+     * extra firing that finds it disabled.
+     * <p>
+     * The default implementation fires the transition once by
+     * {@link #fire(int, boolean)} and then calls {@link #tryFire(int)} for each
+     * extra firing, so each firing is atomic but the firings of other threads
+     * might happen between them. Engines that can fire the whole batch in one
+     * operation override it.
+     * </p>
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @param maxFirings
+     *            The maximum number of times the transition is fired.
+     * @param perennialFiring
+     *            Indicates if the first firing is perennial or not.
+     * @return the number of times the transition was fired, zero only if the
+     *         firing is perennial and the transition was not enabled.
+     * @throws IllegalArgumentException
+     *            If maxFirings is not positive.
+     * @throws IllegalTransitionFiringError
+     *            If the transition is automatic.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs, as an interruption
+     *            of the calling thread while waiting.
+     */
+    default int fireUpTo(int transitionIndex, int maxFirings, boolean perennialFiring)
+            throws IllegalArgumentException, IllegalTransitionFiringError, PetriNetException {
+        if (maxFirings < 1) {
+            throw new IllegalArgumentException("The transition must be fired at least once");
+        }
+        if (!fire(transitionIndex, perennialFiring)) {
+            return 0;
+        }
+        int fired = 1;
+        while (fired < maxFirings && tryFire(transitionIndex)) {
+            fired++;
+        }
+        return fired;
+    }
+
+    /**
+     * Returns true if a transition is enabled on the current marking and
+     * guard values.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition is enabled.
+     */
+    boolean isEnabled(int transitionIndex);
+
+    /**
+     * Returns true if a transition might be enabled, reading the current
+     * marking and guard values without taking any lock, so it can be polled
+     * while spinning. The value returned is a hint: it can be outdated by the
+     * time the caller fires the transition. Engines whose
+     * {@link #isEnabled(int)} takes a lock should override it.
+     *
+     * @param transitionIndex
+     *            The index of the transition.
+     * @return true if the transition might be enabled.
+     */
+    default boolean mightBeEnabled(int transitionIndex) {
+        return isEnabled(transitionIndex);
+    }
+
+    /**
+     * Sets the value of a guard, waking up the threads waiting for the
+     * transitions it enables.
+     *
+     * @param guardName
+     *            The name of the guard.
+     * @param value
+     *            The new value of the guard.
+     * @throws IndexOutOfBoundsException
+     *            If no transition is guarded by the guard.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    void setGuard(String guardName, boolean value) throws IndexOutOfBoundsException, PetriNetException;
+
+    /**
+     * Sets the values of a group of guards.
+     * <p>
+     * The default implementation calls
+     * {@link #setGuards(String[], boolean[], int)} with the whole group.
+     * </p>
+     *
+     * @param guardNames
+     *            The names of the guards.
+     * @param values
+     *            The new values of the guards, in the same order as the names.
+     * @throws IndexOutOfBoundsException
+     *            If no transition is guarded by one of the guards.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    default void setGuards(String[] guardNames, boolean[] values)
+            throws IndexOutOfBoundsException, PetriNetException {
+        setGuards(guardNames, values, guardNames.length);
+    }
+
+    /**
+     * Sets the values of the first guards of a group, as
+     * {@link #setGuards(String[], boolean[])} does, so the caller can keep
+     * the group on buffers longer than the group itself and reuse them.
+     * <p>
+     * The default implementation calls {@link #setGuard(String, boolean)} for
+     * each guard, in order, so a firing can happen between two of them and
+     * see the group half updated. Engines that can set the whole group in one
+     * operation override it.
+     * </p>
+     *
+     * @param guardNames
+     *            The names of the guards.
+     * @param values
+     *            The new values of the guards, in the same order as the names.
+     * @param count
+     *            The number of guards of the group, from the first one.
+     * @throws IndexOutOfBoundsException
+     *            If no transition is guarded by one of the guards, or if any
+     *            of the arrays is shorter than the count.
+     * @throws PetriNetException
+     *            If an error regarding petri nets occurs.
+     */
+    default void setGuards(String[] guardNames, boolean[] values, int count)
+            throws IndexOutOfBoundsException, PetriNetException {
+        for (int i = 0; i < count; i++) {
+            setGuard(guardNames[i], values[i]);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the marking of the petri net.
+     *
+     * @return the tokens in each place of the petri net.
+     */
+    Integer[] getMarking();
+
+    /**
+     * Returns the number of places of the petri net. By default, it is the
+     * length of {@link #getMarking()}.
+     *
+     * @return the number of places of the petri net.
+     */
+    default int getPlaceCount() {
+        return getMarking().length;
+    }
+
+    /**
+     * Copies a snapshot of the marking of the petri net into a buffer owned
+     * by the caller. By default, it copies the values of
+     * {@link #getMarking()}, so engines that can read the marking without
+     * boxing it should override it.
+     *
+     * @param into
+     *            The buffer, whose first {@link #getPlaceCount()} elements are
+     *            overwritten with the tokens in each place.
+     * @throws IllegalArgumentException
+     *            If the buffer is null or shorter than the number of places.
+     */
+    default void getMarking(int[] into) {
+        Integer[] marking = getMarking();
+        if (into == null || into.length < marking.length) {
+            throw new IllegalArgumentException("The buffer must have room for " + marking.length + " places");
+        }
+        for (int p = 0; p < marking.length; p++) {
+            into[p] = marking[p];
+        }
+    }
+
+    /**
+     * Returns the tokens in a place of the petri net. By default, it is read
+     * from {@link #getMarking()}.
+     *
+     * @param placeIndex
+     *            The index of the place, as on {@link #getMarking()}.
+     * @return the tokens in the place.
+     * @throws IndexOutOfBoundsException
+     *            If there is no place with the index provided.
+     */
+    default int getTokens(int placeIndex) {
+        return getMarking()[placeIndex];
+    }
+
+    /**
+     * Subscribes an observer to the firings of an informed transition. The
+     * observer receives the name of the transition on every firing.
+     *
+     * @param transitionName
+     *            The name of the transition.
+     * @param observer
+     *            The observer to subscribe.
+     * @return a {@link Subscription} used to unsubscribe.
+     * @throws IllegalArgumentException
+     *            If the transition is not informed.
+     * @throws UnsupportedOperationException
+     *            If the engine does not inform transitions.
+     */
+    Subscription subscribeToTransition(String transitionName, Observer<String> observer);
+
+    /**
+     * Changes the policy used to decide which transition to fire next among
+     * the ones waiting. By default the engine does not support policies.
+     *
+     * @param firingPolicy
+     *            The {@link TransitionsPolicy} to use.
+     * @throws UnsupportedOperationException
+     *            If the engine does not support transition policies.
+     */
+    default void setTransitionsPolicy(TransitionsPolicy firingPolicy) {
+        throw new UnsupportedOperationException("The petri engine does not support transition policies");
+    }
+}
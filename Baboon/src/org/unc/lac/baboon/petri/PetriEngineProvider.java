@@ -0,0 +1,51 @@
+package org.unc.lac.baboon.petri;
+
+import java.util.ServiceLoader;
+
+import org.unc.lac.baboon.exceptions.BadPolicyException;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * A PetriEngineProvider creates the {@link PetriEngine} objects of an engine
+ * from a PNML file. Providers are found with {@link ServiceLoader}, so an
+ * engine is made available by listing its provider class on a
+ * {@code META-INF/services/org.unc.lac.baboon.petri.PetriEngineProvider} file
+ * of its jar, and selected by name.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see PetriEngines#createEngine(String, String, petriNetType, Class)
+ */
+public interface PetriEngineProvider {
+
+    /**
+     * Returns the name used to select the engine of this provider.
+     *
+     * @return the name of the engine.
+     */
+    String getName();
+
+    /**
+     * Creates a {@link PetriEngine} for the petri net on a PNML file.
+     *
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net. It is never null.
+     * @param firingPolicy
+     *            A {@link Class} object that extends {@link TransitionsPolicy},
+     *            or null to use the default policy of the engine. An engine
+     *            that does not support policies ignores it.
+     * @return the {@link PetriEngine} created.
+     * @throws BadPolicyException
+     *            If the transitions policy provided is not correctly formed.
+     * @throws IllegalArgumentException
+     *            If the petri net can not be created from the file.
+     */
+    PetriEngine createEngine(String pnmlFilePath, petriNetType type, Class<? extends TransitionsPolicy> firingPolicy)
+            throws BadPolicyException;
+}
@@ -0,0 +1,82 @@
+package org.unc.lac.baboon.petri;
+
+import java.util.ServiceLoader;
+
+import org.unc.lac.baboon.exceptions.BadPolicyException;
+import org.unc.lac.javapetriconcurrencymonitor.monitor.policies.TransitionsPolicy;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * PetriEngines creates {@link PetriEngine} objects by engine name. The
+ * {@link JpcmPetriEngine} and the {@link NativePetriEngine} are always
+ * available as {@value JpcmPetriEngine#NAME}, {@value NativePetriEngine#NAME}
+ * and, on its optimistic mode, {@value NativePetriEngine#OPTIMISTIC_NAME}.
+ * The other engines are looked up among the {@link PetriEngineProvider}
+ * objects found by {@link ServiceLoader}.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see PetriEngineProvider
+ */
+public final class PetriEngines {
+
+    private PetriEngines() {
+    }
+
+    /**
+     * Creates a {@link PetriEngine} for the petri net on a PNML file, by using
+     * the engine with the name provided.
+     * <p>
+     * If the engine name is null then {@link JpcmPetriEngine} is used. If the
+     * petri net type provided is null then
+     * {@link petriNetType#PLACE_TRANSITION} is used by default.
+     * </p>
+     *
+     * @param engineName
+     *            The name of the engine, as returned by
+     *            {@link PetriEngineProvider#getName()}. It might be null.
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @param type
+     *            Indicates if the petri net to be created is a timed petri net
+     *            or a place-transition petri net.
+     * @param firingPolicy
+     *            A {@link Class} object that extends {@link TransitionsPolicy}.
+     *            It might be null, in which case the default policy of the
+     *            engine will be used. It is ignored by the
+     *            {@link NativePetriEngine}.
+     * @return the {@link PetriEngine} created.
+     * @throws BadPolicyException
+     *            If the transitions policy provided is not correctly formed.
+     * @throws IllegalArgumentException
+     *            <ul>
+     *            <li>If the pnml file path is null.</li>
+     *            <li>If there is no engine with the name provided.</li>
+     *            <li>If the engine does not support the petri net type.</li>
+     *            </ul>
+     */
+    public static PetriEngine createEngine(String engineName, String pnmlFilePath, petriNetType type,
+            Class<? extends TransitionsPolicy> firingPolicy) throws BadPolicyException {
+        if (pnmlFilePath == null) {
+            throw new IllegalArgumentException("The pnml file path can not be null");
+        }
+        petriNetType typeChecked = type == null ? petriNetType.PLACE_TRANSITION : type;
+        if (engineName == null || JpcmPetriEngine.NAME.equals(engineName)) {
+            return new JpcmPetriEngine(pnmlFilePath, typeChecked, firingPolicy);
+        }
+        if (NativePetriEngine.NAME.equals(engineName)) {
+            return new NativePetriEngine(pnmlFilePath, typeChecked);
+        }
+        if (NativePetriEngine.OPTIMISTIC_NAME.equals(engineName)) {
+            return new NativePetriEngine(pnmlFilePath, typeChecked, true);
+        }
+        for (PetriEngineProvider provider : ServiceLoader.load(PetriEngineProvider.class)) {
+            if (engineName.equals(provider.getName())) {
+                return provider.createEngine(pnmlFilePath, typeChecked, firingPolicy);
+            }
+        }
+        throw new IllegalArgumentException("There is no petri engine named " + engineName);
+    }
+}
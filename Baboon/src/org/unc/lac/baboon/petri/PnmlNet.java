@@ -0,0 +1,209 @@
+package org.unc.lac.baboon.petri;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * PnmlNet is the structure of a place-transition petri net read from a PNML
+ * file of the Tina dialect, as used by {@link NativePetriEngine}.
+ * <p>
+ * Places and transitions are indexed in the order they appear on the file.
+ * The label of a transition has the form {@code <A|D,I|N[,guard]>}: "A" marks
+ * an automatic transition, "I" an informed one, and the optional guard name
+ * is preceded by "!" or "~" when the transition is enabled while the guard is
+ * false. The type of an arc is given by a {@code type} element whose
+ * {@code value} is "normal", "inhibitor", "reset", "test" or "read", and its
+ * weight by its {@code inscription}.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+final class PnmlNet {
+    static final int ARC_NORMAL = 0;
+    static final int ARC_INHIBITOR = 1;
+    static final int ARC_RESET = 2;
+    static final int ARC_READER = 3;
+
+    final String[] placeNames;
+    final int[] initialMarking;
+    final String[] transitionNames;
+    final boolean[] automatic;
+    final boolean[] informed;
+    /**
+     * The guard name of each transition, or null if it is not guarded.
+     */
+    final String[] guardNames;
+    final boolean[] guardEnablingValues;
+    /**
+     * The arcs of the net, as {place, transition, weight, type} tuples of
+     * indexes, split by direction. Only normal arcs go from a transition to a
+     * place.
+     */
+    final List<int[]> placeToTransitionArcs = new ArrayList<>();
+    final List<int[]> transitionToPlaceArcs = new ArrayList<>();
+
+    private PnmlNet(int placeCount, int transitionCount) {
+        placeNames = new String[placeCount];
+        initialMarking = new int[placeCount];
+        transitionNames = new String[transitionCount];
+        automatic = new boolean[transitionCount];
+        informed = new boolean[transitionCount];
+        guardNames = new String[transitionCount];
+        guardEnablingValues = new boolean[transitionCount];
+    }
+
+    /**
+     * Reads a petri net from a PNML file. The path is searched on the file
+     * system first, and on the classpath if there is no such file.
+     *
+     * @param pnmlFilePath
+     *            The path to the file containing the PNML (Tina dialect)
+     *            representation of the petri net.
+     * @return the petri net read.
+     * @throws IllegalArgumentException
+     *            If the file can not be found or read, or if it is not a valid
+     *            place-transition petri net.
+     */
+    static PnmlNet read(String pnmlFilePath) {
+        if (pnmlFilePath == null) {
+            throw new IllegalArgumentException("The pnml file path can not be null");
+        }
+        File file = new File(pnmlFilePath);
+        try (InputStream input = file.isFile() ? new FileInputStream(file)
+                : PnmlNet.class.getResourceAsStream(pnmlFilePath)) {
+            if (input == null) {
+                throw new IllegalArgumentException("The pnml file " + pnmlFilePath + " does not exist");
+            }
+            DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
+            builderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return parse(builderFactory.newDocumentBuilder().parse(input));
+        } catch (IOException | SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException("The pnml file " + pnmlFilePath + " can not be read", e);
+        }
+    }
+
+    private static PnmlNet parse(Document document) {
+        NodeList places = document.getElementsByTagName("place");
+        NodeList transitions = document.getElementsByTagName("transition");
+        NodeList arcs = document.getElementsByTagName("arc");
+        PnmlNet net = new PnmlNet(places.getLength(), transitions.getLength());
+        Map<String, Integer> placeIds = new HashMap<>();
+        Map<String, Integer> transitionIds = new HashMap<>();
+        for (int i = 0; i < places.getLength(); i++) {
+            Element place = (Element) places.item(i);
+            placeIds.put(place.getAttribute("id"), i);
+            net.placeNames[i] = textOf(place, "name", place.getAttribute("id"));
+            net.initialMarking[i] = parseCount(textOf(place, "initialMarking", "0"));
+        }
+        for (int i = 0; i < transitions.getLength(); i++) {
+            Element transition = (Element) transitions.item(i);
+            transitionIds.put(transition.getAttribute("id"), i);
+            net.transitionNames[i] = textOf(transition, "name", transition.getAttribute("id"));
+            net.parseLabel(i, textOf(transition, "label", null));
+        }
+        for (int i = 0; i < arcs.getLength(); i++) {
+            Element arc = (Element) arcs.item(i);
+            String source = arc.getAttribute("source");
+            String target = arc.getAttribute("target");
+            int weight = parseCount(textOf(arc, "inscription", "1"));
+            int type = arcType(arc);
+            if (placeIds.containsKey(source) && transitionIds.containsKey(target)) {
+                net.placeToTransitionArcs.add(new int[] { placeIds.get(source), transitionIds.get(target), weight, type });
+            } else if (transitionIds.containsKey(source) && placeIds.containsKey(target) && type == ARC_NORMAL) {
+                net.transitionToPlaceArcs.add(new int[] { placeIds.get(target), transitionIds.get(source), weight, type });
+            } else {
+                throw new IllegalArgumentException("The arc " + arc.getAttribute("id") + " is not valid");
+            }
+        }
+        return net;
+    }
+
+    private void parseLabel(int transition, String label) {
+        if (label == null) {
+            return;
+        }
+        String trimmed = label.trim();
+        if (trimmed.startsWith("<") && trimmed.endsWith(">")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        String[] fields = trimmed.split(",");
+        if (fields.length < 2 || fields.length > 3) {
+            throw new IllegalArgumentException(
+                    "The label " + label + " of the transition " + transitionNames[transition] + " is not valid");
+        }
+        automatic[transition] = "A".equals(fields[0].trim());
+        informed[transition] = "I".equals(fields[1].trim());
+        if (fields.length == 3) {
+            String guard = fields[2].trim();
+            guardEnablingValues[transition] = !(guard.startsWith("!") || guard.startsWith("~"));
+            guardNames[transition] = guardEnablingValues[transition] ? guard : guard.substring(1);
+        }
+    }
+
+    private static int arcType(Element arc) {
+        Element type = childElement(arc, "type");
+        String value = type == null ? "normal" : type.getAttribute("value");
+        switch (value) {
+        case "":
+        case "normal":
+            return ARC_NORMAL;
+        case "inhibitor":
+            return ARC_INHIBITOR;
+        case "reset":
+            return ARC_RESET;
+        case "test":
+        case "read":
+            return ARC_READER;
+        default:
+            throw new IllegalArgumentException("The arc type " + value + " is not supported");
+        }
+    }
+
+    private static int parseCount(String text) {
+        try {
+            int count = Integer.parseInt(text.trim());
+            if (count < 0) {
+                throw new IllegalArgumentException("The count " + text + " can not be negative");
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The count " + text + " is not a number", e);
+        }
+    }
+
+    /**
+     * Returns the text of the "text" element under the child element with the
+     * tag provided, or the default value if there is no such element.
+     */
+    private static String textOf(Element element, String tag, String defaultValue) {
+        Element child = childElement(element, tag);
+        Element text = child == null ? null : childElement(child, "text");
+        return text == null ? defaultValue : text.getTextContent().trim();
+    }
+
+    private static Element childElement(Element element, String tag) {
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && tag.equals(node.getNodeName())) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+}
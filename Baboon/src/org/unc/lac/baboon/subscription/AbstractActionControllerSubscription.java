@@ -1,11 +1,16 @@
 package org.unc.lac.baboon.subscription;
 
 import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.unc.lac.baboon.actioncontroller.ActionController;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.topic.GuardEvaluation;
 import org.unc.lac.baboon.topic.Topic;
 import org.unc.lac.baboon.annotations.GuardProvider;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
 
 /** This class defines an AbstractActionControllerSubscription as a list of {@link ActionController}
  * objects, which are subscribed to a topic. It is used internally by framework
@@ -16,6 +21,7 @@ import org.unc.lac.baboon.annotations.GuardProvider;
  * @version 1.0
  */
 public abstract class AbstractActionControllerSubscription {
+    private final static Logger LOGGER = Logger.getLogger(AbstractActionControllerSubscription.class.getName());
 
     /**
      * List of {@link ActionController} objects subscribed to topic
@@ -27,6 +33,12 @@ public abstract class AbstractActionControllerSubscription {
      */
     protected Topic topic;
 
+    /**
+     * The last {@link TopicExecutionPlan} compiled for this subscription. It is
+     * discarded when an {@link ActionController} is added.
+     */
+    private volatile TopicExecutionPlan executionPlan;
+
     /**
      * Constructor.
      * 
@@ -83,9 +95,205 @@ public abstract class AbstractActionControllerSubscription {
                         "The actionController does not have a GuardProvider to handle guard: " + guardName);
             }
         }
+        executionPlan = null;
         return actionsList.add(actionController);
     }
 
+    /**
+     * This method returns the {@link TopicExecutionPlan} of this subscription
+     * for the {@link BaboonPetriCore} provided. The plan is compiled on the
+     * first call and reused afterwards, unless an {@link ActionController} is
+     * added or a different {@link BaboonPetriCore} is provided.
+     * 
+     * @param petriCore
+     *            The {@link BaboonPetriCore} where the transitions and guards
+     *            of the {@link Topic} are resolved.
+     * @return the {@link TopicExecutionPlan} of this subscription.
+     * 
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If a permission or fire callback transition does not
+     *             exist on the petri net</li>
+     *             <li>If a permission or fire callback transition is
+     *             automatic</li>
+     *             <li>If a permission transition is empty or null and this
+     *             subscription requires permission</li>
+     *             <li>If a guard of the guard callback is not used by the
+     *             petri net</li>
+     *             <li>If the {@link ActionController} does not have a
+     *             {@link GuardProvider} annotated method to handle a guard
+     *             declared in the topic</li>
+     *             <li>If the topic has no {@link GuardEvaluation}</li>
+     *             </ul>
+     */
+    public TopicExecutionPlan getExecutionPlan(BaboonPetriCore petriCore) throws NotSubscribableException {
+        TopicExecutionPlan plan = executionPlan;
+        if (plan == null || plan.getPetriCore() != petriCore) {
+            plan = compileExecutionPlan(petriCore);
+            executionPlan = plan;
+        }
+        return plan;
+    }
+
+    /**
+     * Compiles a new {@link TopicExecutionPlan} for this subscription.
+     * 
+     * @param petriCore
+     *            The {@link BaboonPetriCore} where the transitions and guards
+     *            of the {@link Topic} are resolved.
+     * @return a new {@link TopicExecutionPlan}.
+     * @throws NotSubscribableException
+     *             If a name of the {@link Topic} can not be resolved.
+     * @see #getExecutionPlan(BaboonPetriCore)
+     */
+    private TopicExecutionPlan compileExecutionPlan(BaboonPetriCore petriCore) throws NotSubscribableException {
+        if (petriCore == null) {
+            throw new NotSubscribableException("Cannot compile the subscription without a petri core");
+        }
+        GuardEvaluation guardEvaluation = topic.getGuardEvaluation();
+        if (guardEvaluation == null) {
+            throw new NotSubscribableException("The guard evaluation of topic " + topic.getName() + " cannot be null");
+        }
+        int steps = actionsList.size();
+        int[] permissionIndexes = new int[steps];
+        int[][] guardIndexes = new int[steps][];
+        int[][] guardProviderSlots = new int[steps][];
+        for (int step = 0; step < steps; step++) {
+            String permission = step < topic.getPermission().size() ? topic.getPermission().get(step) : null;
+            if (permission == null || permission.isEmpty()) {
+                if (requiresPermission()) {
+                    throw new NotSubscribableException(
+                            "The permission transition cannot be empty or null on topic " + topic.getName());
+                }
+                LOGGER.log(Level.WARNING, "Subscribing an action without permission transition on topic " + topic.getName());
+                permissionIndexes[step] = TopicExecutionPlan.NO_PERMISSION;
+            } else {
+                permissionIndexes[step] = resolveTransition(petriCore, permission);
+            }
+            String[] guardNames = topic.getGuardCallback(step);
+            guardIndexes[step] = new int[guardNames.length];
+            guardProviderSlots[step] = new int[guardNames.length];
+            for (int guard = 0; guard < guardNames.length; guard++) {
+                try {
+                    guardIndexes[step][guard] = petriCore.getGuardIndex(guardNames[guard]);
+                } catch (IllegalArgumentException e) {
+                    throw new NotSubscribableException("Cannot resolve the guard callback " + guardNames[guard], e);
+                }
+                guardProviderSlots[step][guard] = actionsList.get(step).getGuardProviderSlot(guardNames[guard]);
+                if (guardProviderSlots[step][guard] < 0) {
+                    throw new NotSubscribableException(
+                            "The actionController does not have a GuardProvider to handle guard: " + guardNames[guard]);
+                }
+            }
+        }
+        ArrayList<Integer> fireCallback = new ArrayList<>();
+        for (String transitionCallback : topic.getFireCallback()) {
+            if (transitionCallback == null || transitionCallback.isEmpty()) {
+                LOGGER.log(Level.WARNING, "Ignoring an empty callback transition on topic " + topic.getName());
+            } else {
+                fireCallback.add(resolveTransition(petriCore, transitionCallback));
+            }
+        }
+        int[] fireCallbackIndexes = new int[fireCallback.size()];
+        for (int i = 0; i < fireCallbackIndexes.length; i++) {
+            fireCallbackIndexes[i] = fireCallback.get(i);
+        }
+        TopicExecutionPlan plan = new TopicExecutionPlan(petriCore, permissionIndexes, guardIndexes,
+                guardProviderSlots, fireCallbackIndexes, guardEvaluation != GuardEvaluation.EAGER);
+        if (plan.hasLazyGuards()) {
+            for (int step = 0; step < steps; step++) {
+                for (int guard = 0; guard < guardIndexes[step].length; guard++) {
+                    try {
+                        petriCore.setGuardSupplier(guardIndexes[step][guard],
+                                actionsList.get(step).getGuardSupplier(guardProviderSlots[step][guard]),
+                                guardEvaluation == GuardEvaluation.MEMOIZED);
+                    } catch (PetriNetException | IllegalStateException e) {
+                        removeGuardSuppliers(plan, step, guard);
+                        throw new NotSubscribableException("Cannot register the supplier of the guard "
+                                + petriCore.getGuardName(guardIndexes[step][guard])
+                                + ", it might be provided by another subscription", e);
+                    }
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Removes the guard suppliers registered for this subscription when its
+     * {@link TopicExecutionPlan} was compiled, if its {@link Topic} evaluates
+     * the guards lazily. The suppliers registered afterwards by other
+     * subscriptions for the same guards are kept.
+     * 
+     * @see BaboonPetriCore#removeGuardSupplier(int, java.util.function.BooleanSupplier)
+     */
+    public void removeGuardSuppliers() {
+        TopicExecutionPlan plan = executionPlan;
+        if (plan == null || !plan.hasLazyGuards()) {
+            return;
+        }
+        removeGuardSuppliers(plan, plan.getSize(), 0);
+    }
+
+    /**
+     * Removes the guard suppliers of this subscription registered before a
+     * step and guard of a {@link TopicExecutionPlan}.
+     * 
+     * @param plan
+     *            The plan whose guard suppliers were registered.
+     * @param lastStep
+     *            The step of the first supplier that is not removed.
+     * @param lastGuard
+     *            The guard, on the last step, of the first supplier that is not
+     *            removed.
+     */
+    private void removeGuardSuppliers(TopicExecutionPlan plan, int lastStep, int lastGuard) {
+        for (int step = 0; step <= lastStep && step < plan.getSize(); step++) {
+            int guards = step < lastStep ? plan.getGuardCount(step) : lastGuard;
+            for (int guard = 0; guard < guards; guard++) {
+                plan.getPetriCore().removeGuardSupplier(plan.getGuardIndex(step, guard),
+                        actionsList.get(step).getGuardSupplier(plan.getGuardProviderSlot(step, guard)));
+            }
+        }
+    }
+
+    /**
+     * Resolves the index of a transition that is going to be fired by the
+     * framework.
+     * 
+     * @param petriCore
+     *            The {@link BaboonPetriCore} where the transition is resolved.
+     * @param transitionName
+     *            The name of the transition.
+     * @return the index of the transition.
+     * @throws NotSubscribableException
+     *             If the transition does not exist or if it is automatic.
+     */
+    private int resolveTransition(BaboonPetriCore petriCore, String transitionName) throws NotSubscribableException {
+        int transitionIndex;
+        try {
+            transitionIndex = petriCore.getTransitionIndex(transitionName);
+        } catch (IllegalArgumentException e) {
+            throw new NotSubscribableException("Cannot resolve the transition " + transitionName, e);
+        }
+        if (petriCore.isAutomaticTransition(transitionIndex)) {
+            throw new NotSubscribableException("The transition " + transitionName
+                    + " is automatic and cannot be fired by the framework");
+        }
+        return transitionIndex;
+    }
+
+    /**
+     * This method indicates if every {@link ActionController} of this
+     * subscription must have a permission transition.
+     * 
+     * @return true if a permission transition is required for every
+     *         {@link ActionController}. False by default.
+     */
+    protected boolean requiresPermission() {
+        return false;
+    }
+
     /**
      * This method returns the {@link Topic} element present in this
      * subscription.
@@ -1,8 +1,15 @@
 package org.unc.lac.baboon.subscription;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
 import org.unc.lac.baboon.actioncontroller.ActionController;
 import org.unc.lac.baboon.actioncontroller.TaskActionController;
+import org.unc.lac.baboon.exceptions.InvalidGuardProviderMethod;
+import org.unc.lac.baboon.exceptions.MultipleGuardProvidersException;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.topic.GuardEvaluation;
 import org.unc.lac.baboon.topic.Topic;
 
 import com.google.common.base.Strings;
@@ -22,6 +29,18 @@ import org.unc.lac.baboon.annotations.GuardProvider;
  */
 public abstract class AbstractTaskControllerSubscription extends AbstractActionControllerSubscription {
 
+    /**
+     * Number of replicas of this subscription. If zero, {@link Topic#getReplicas()}
+     * is used.
+     */
+    private int replicas = 0;
+
+    /**
+     * The {@link ReplicaFactory} used to create the object instances of the
+     * replicas. If null, all the replicas share the object instances subscribed.
+     */
+    private ReplicaFactory replicaFactory;
+
     /**
      * Constructor.
      * 
@@ -37,6 +56,7 @@ public abstract class AbstractTaskControllerSubscription extends AbstractActionC
      *             sizes are different.</li>
      *             <li>If {@link Topic#permission} is null.</li>
      *             <li>If {@link Topic#permission} is empty.</li>
+     *             <li>If {@link Topic#getReplicas()} is less than one.</li>
      *             </ul>
      * 
      */
@@ -45,6 +65,144 @@ public abstract class AbstractTaskControllerSubscription extends AbstractActionC
         if (topic.getPermission() == null || topic.getPermission().isEmpty()) {
             throw new NotSubscribableException("The topic's permission cannot be empty for a taskController subscription");
         }
+        if (topic.getReplicas() < 1) {
+            throw new NotSubscribableException("The topic's replicas must be at least one for a taskController subscription");
+        }
+    }
+
+    /**
+     * Sets the number of replicas of this subscription, overriding
+     * {@link Topic#getReplicas()}. Each replica is executed by its own worker
+     * against the same topic, so the taskControllers can be executed as many
+     * times concurrently as the petri net allows, up to the number of replicas.
+     * <p>
+     * If replicaFactory is null all the replicas execute the methods on the
+     * same object instances, so the objects must be stateless or thread safe.
+     * Otherwise, replicaFactory is used to create one object instance per
+     * replica and per {@link TaskActionController}. The arguments of the
+     * methods are shared by all the replicas.
+     * </p>
+     * 
+     * @param replicas
+     *            The number of replicas of this subscription.
+     * @param replicaFactory
+     *            The {@link ReplicaFactory} used to create the object instances
+     *            of the replicas. It might be null.
+     * @throws IllegalArgumentException
+     *            If replicas is less than one.
+     */
+    public void setReplicas(int replicas, ReplicaFactory replicaFactory) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("The replicas must be at least one");
+        }
+        this.replicas = replicas;
+        this.replicaFactory = replicaFactory;
+    }
+
+    /**
+     * Returns the number of replicas of this subscription.
+     * 
+     * @return the number of replicas set by {@link #setReplicas(int, ReplicaFactory)},
+     *         or {@link Topic#getReplicas()} if they were not set.
+     */
+    public int getReplicas() {
+        return replicas > 0 ? replicas : topic.getReplicas();
+    }
+
+    /**
+     * Returns the subscription to be executed by a replica. The first replica,
+     * and every replica when there is no {@link ReplicaFactory}, executes this
+     * same subscription. Otherwise a new subscription is created, with the
+     * {@link TaskActionController} objects using the object instances created
+     * by the {@link ReplicaFactory}. The {@link TaskActionController} objects
+     * of static methods are shared by all the replicas. The steps of this
+     * subscription that share an object instance share its replica as well,
+     * so the {@link ReplicaFactory} is called once per replica and per object.
+     * 
+     * @param replicaIndex
+     *            The index of the replica, from zero to {@link #getReplicas()} minus one.
+     * @return the subscription to be executed by the replica.
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>If the {@link ReplicaFactory} returns null or an object that
+     *             does not declare the subscribed method</li>
+     *             <li>If there is an error resolving the {@link GuardProvider}
+     *             annotated methods of the object created by the {@link ReplicaFactory}</li>
+     *             <li>If the guards of the topic are evaluated lazily, since a guard
+     *             can only have one supplier</li>
+     *             </ul>
+     */
+    public AbstractTaskControllerSubscription getReplica(int replicaIndex) throws NotSubscribableException {
+        if (replicaIndex == 0 || replicaFactory == null) {
+            return this;
+        }
+        if (topic.getGuardEvaluation() != GuardEvaluation.EAGER) {
+            throw new NotSubscribableException(
+                    "The replicas created by a ReplicaFactory cannot evaluate the guards lazily on topic " + topic.getName());
+        }
+        ArrayList<TaskActionController> replicaControllers = new ArrayList<>(getSize());
+        IdentityHashMap<Object, Object> replicaObjects = new IdentityHashMap<>();
+        for (int i = 0; i < getSize(); i++) {
+            TaskActionController taskController = getAction(i);
+            if (taskController.isStaticMethod()) {
+                replicaControllers.add(taskController);
+                continue;
+            }
+            Object replicaObject = replicaObjects.get(taskController.getActionObject());
+            if (replicaObject == null) {
+                replicaObject = replicaFactory.createReplica(taskController.getActionObject(), replicaIndex);
+                replicaObjects.put(taskController.getActionObject(), replicaObject);
+            }
+            try {
+                replicaControllers.add(taskController.createReplica(replicaObject));
+            } catch (MultipleGuardProvidersException | InvalidGuardProviderMethod | IllegalArgumentException e) {
+                throw new NotSubscribableException("Error creating the replica " + replicaIndex + " of the method "
+                        + taskController.getMethodName(), e);
+            }
+        }
+        return createReplica(replicaControllers);
+    }
+
+    /**
+     * Creates a subscription of the same type and topic of this one, with the
+     * {@link TaskActionController} objects provided.
+     * 
+     * @param replicaControllers
+     *            The {@link TaskActionController} objects of the new subscription,
+     *            in the same order of this subscription.
+     * @return the new subscription.
+     * @throws NotSubscribableException
+     *             If the {@link TaskActionController} objects can not be subscribed
+     *             to the topic.
+     */
+    protected abstract AbstractTaskControllerSubscription createReplica(List<TaskActionController> replicaControllers)
+            throws NotSubscribableException;
+
+    /**
+     * Returns the end of the stage of the {@link TaskActionController} at
+     * actionIndex. The {@link TaskActionController} objects of a stage are
+     * executed concurrently, and the next stage begins after all of them end.
+     * Every {@link TaskActionController} is a stage by itself unless a
+     * subclass groups them, so they are executed in sequence.
+     * 
+     * @param actionIndex
+     *            index of a {@link TaskActionController} on {@link #actionsList}.
+     * @return the index following the last {@link TaskActionController} of the
+     *         stage.
+     * @see ComplexForkJoinTaskControllerSubscription
+     */
+    public int getStageEnd(int actionIndex) {
+        return actionIndex + 1;
+    }
+
+    /**
+     * Every {@link TaskActionController} requires a permission transition.
+     * 
+     * @return true
+     */
+    @Override
+    protected boolean requiresPermission() {
+        return true;
     }
 
     /**
@@ -0,0 +1,137 @@
+package org.unc.lac.baboon.subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.unc.lac.baboon.actioncontroller.TaskActionController;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.topic.Topic;
+
+/**
+ * A ComplexForkJoinTaskControllerSubscription is a list of
+ * {@link TaskActionController} objects subscribed to a topic, grouped into
+ * consecutive stages.
+ * <p>
+ * The {@link TaskActionController} objects of a stage are executed
+ * concurrently, each one after firing its own permission transition, and the
+ * next stage begins after all of them end. The transition callback is fired
+ * after the last stage ends. As in a
+ * {@link ComplexSecuentialTaskControllerSubscription}, the permission and
+ * guard callback of each {@link TaskActionController} are determined by its
+ * index, regardless of its stage.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ *
+ * @see ComplexSecuentialTaskControllerSubscription
+ */
+public class ComplexForkJoinTaskControllerSubscription extends ComplexSecuentialTaskControllerSubscription {
+
+    /**
+     * The index of the first {@link TaskActionController} of each stage,
+     * after the first stage, which always begins at zero.
+     */
+    private final List<Integer> stageStarts = new ArrayList<>();
+
+    /**
+     * Indicates if the next {@link TaskActionController} appended begins a
+     * new stage.
+     */
+    private boolean newStageRequested = false;
+
+    /**
+     * Constructor.
+     *
+     * @param topic
+     *            The topic to which {@link TaskActionController} objects will be
+     *            subscribed
+     *
+     * @throws NotSubscribableException
+     *             <ul>
+     *             <li>When the topic is null</li>
+     *             <li>If there are guard callbacks on the topic and
+     *             {@link Topic#setGuardCallback} and {@link Topic#permission}
+     *             sizes are different.</li>
+     *             <li>If {@link Topic#permission} is null.</li>
+     *             <li>If {@link Topic#permission} is empty.</li>
+     *             </ul>
+     *
+     */
+    public ComplexForkJoinTaskControllerSubscription(Topic topic) throws NotSubscribableException {
+        super(topic);
+    }
+
+    /**
+     * This method appends the given {@link TaskActionController} to the end of
+     * {@link #actionsList}, on the last stage, or on a new stage if
+     * {@link #addStage()} was called after the last {@link TaskActionController}
+     * was appended.
+     *
+     * @param taskController
+     *            {@link TaskActionController} object to be appended to
+     *            {@link #actionsList}.
+     *
+     * @throws NotSubscribableException
+     *             If the {@link TaskActionController} can not be appended, as
+     *             {@link ComplexSecuentialTaskControllerSubscription#addTask(TaskActionController)}
+     *             indicates.
+     */
+    @Override
+    public void addTask(TaskActionController taskController) throws NotSubscribableException {
+        super.addTask(taskController);
+        if (newStageRequested) {
+            stageStarts.add(getSize() - 1);
+            newStageRequested = false;
+        }
+    }
+
+    /**
+     * Closes the last stage, so the next {@link TaskActionController} appended
+     * begins a new stage.
+     *
+     * @throws NotSubscribableException
+     *             If the last stage has no {@link TaskActionController} objects.
+     */
+    public void addStage() throws NotSubscribableException {
+        int lastStageStart = stageStarts.isEmpty() ? 0 : stageStarts.get(stageStarts.size() - 1);
+        if (newStageRequested || getSize() == lastStageStart) {
+            throw new NotSubscribableException("Cannot add a stage after an empty stage");
+        }
+        newStageRequested = true;
+    }
+
+    /**
+     * Returns the number of stages with at least one {@link TaskActionController}.
+     *
+     * @return the number of stages.
+     */
+    public int getStageCount() {
+        return getSize() == 0 ? 0 : stageStarts.size() + 1;
+    }
+
+    @Override
+    public int getStageEnd(int actionIndex) {
+        for (int stageStart : stageStarts) {
+            if (stageStart > actionIndex) {
+                return stageStart;
+            }
+        }
+        return getSize();
+    }
+
+    @Override
+    protected AbstractTaskControllerSubscription createReplica(List<TaskActionController> replicaControllers)
+            throws NotSubscribableException {
+        ComplexForkJoinTaskControllerSubscription replica = new ComplexForkJoinTaskControllerSubscription(topic);
+        for (int i = 0; i < replicaControllers.size(); i++) {
+            if (stageStarts.contains(i)) {
+                replica.addStage();
+            }
+            replica.addTask(replicaControllers.get(i));
+        }
+        return replica;
+    }
+
+}
@@ -1,5 +1,7 @@
 package org.unc.lac.baboon.subscription;
 
+import java.util.List;
+
 import org.unc.lac.baboon.actioncontroller.TaskActionController;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.topic.Topic;
@@ -72,4 +74,14 @@ public class ComplexSecuentialTaskControllerSubscription extends AbstractTaskCon
         super.addAction(taskController); 
     }
 
+    @Override
+    protected AbstractTaskControllerSubscription createReplica(List<TaskActionController> replicaControllers)
+            throws NotSubscribableException {
+        ComplexSecuentialTaskControllerSubscription replica = new ComplexSecuentialTaskControllerSubscription(topic);
+        for (TaskActionController taskController : replicaControllers) {
+            replica.addTask(taskController);
+        }
+        return replica;
+    }
+
 }
@@ -0,0 +1,33 @@
+package org.unc.lac.baboon.subscription;
+
+import org.unc.lac.baboon.actioncontroller.TaskActionController;
+import org.unc.lac.baboon.annotations.TaskController;
+
+/**
+ * Factory Interface. Implementations of this interface are provided by user
+ * when subscribing a {@link TaskController} annotated method with more than one
+ * replica, so each replica executes the method on its own object instance.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see AbstractTaskControllerSubscription#setReplicas(int, ReplicaFactory)
+ */
+public interface ReplicaFactory {
+    /**
+     * Creates the object instance used by a replica of a {@link TaskActionController}.
+     * This method is called once per replica and per object instance subscribed,
+     * when the subscription is executed, so the {@link TaskActionController}
+     * objects of a complex subscription that share an object instance share its
+     * replica as well.
+     * 
+     * @param actionObject
+     *            The object instance subscribed by user, which is used by
+     *            the first replica.
+     * @param replicaIndex
+     *            The index of the replica, from one to the number of replicas minus one.
+     * @return a new object instance, of the same class of actionObject, to be used by
+     *         the replica.
+     */
+    Object createReplica(Object actionObject, int replicaIndex);
+}
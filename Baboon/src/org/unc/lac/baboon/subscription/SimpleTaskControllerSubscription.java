@@ -1,5 +1,7 @@
 package org.unc.lac.baboon.subscription;
 
+import java.util.List;
+
 import org.unc.lac.baboon.actioncontroller.TaskActionController;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.topic.Topic;
@@ -57,4 +59,10 @@ public class SimpleTaskControllerSubscription extends AbstractTaskControllerSubs
 
     }
 
+    @Override
+    protected AbstractTaskControllerSubscription createReplica(List<TaskActionController> replicaControllers)
+            throws NotSubscribableException {
+        return new SimpleTaskControllerSubscription(topic, replicaControllers.get(0));
+    }
+
 }
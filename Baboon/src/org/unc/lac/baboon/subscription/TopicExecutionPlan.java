@@ -0,0 +1,179 @@
+package org.unc.lac.baboon.subscription;
+
+import org.unc.lac.baboon.actioncontroller.ActionController;
+import org.unc.lac.baboon.annotations.GuardProvider;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.topic.Topic;
+
+/**
+ * A TopicExecutionPlan is the immutable, precompiled form of an
+ * {@link AbstractActionControllerSubscription} for a given
+ * {@link BaboonPetriCore}. The transition and guard names of the {@link Topic}
+ * are translated to indexes of the {@link BaboonPetriCore}, and the guard
+ * names to slots of the {@link GuardProvider} annotated methods of each
+ * {@link ActionController}. This way, the framework fires transitions and sets
+ * guards by index at runtime, and unknown names are detected when the plan is
+ * compiled.
+ * <p>
+ * A plan has one step per {@link ActionController} of the subscription. Each
+ * step has a permission transition and a guard callback. The fire callback is
+ * shared by all the steps and is fired after the last one.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see AbstractActionControllerSubscription#getExecutionPlan(BaboonPetriCore)
+ */
+public final class TopicExecutionPlan {
+
+    /**
+     * Index used as permission of a step that does not have a permission
+     * transition.
+     */
+    public static final int NO_PERMISSION = -1;
+
+    private final BaboonPetriCore petriCore;
+    private final int[] permissionIndexes;
+    private final int[][] guardIndexes;
+    private final int[][] guardProviderSlots;
+    private final int[] fireCallbackIndexes;
+    private final boolean lazyGuards;
+
+    TopicExecutionPlan(BaboonPetriCore petriCore, int[] permissionIndexes, int[][] guardIndexes,
+            int[][] guardProviderSlots, int[] fireCallbackIndexes, boolean lazyGuards) {
+        this.petriCore = petriCore;
+        this.permissionIndexes = permissionIndexes;
+        this.guardIndexes = guardIndexes;
+        this.guardProviderSlots = guardProviderSlots;
+        this.fireCallbackIndexes = fireCallbackIndexes;
+        this.lazyGuards = lazyGuards;
+    }
+
+    /**
+     * Returns true if the guard callback is provided by guard suppliers
+     * registered on the {@link BaboonPetriCore}. In that case the guards are
+     * invalidated after each step, instead of being set.
+     * 
+     * @return true if the guards of this plan are evaluated lazily.
+     * @see BaboonPetriCore#invalidateGuards(int[])
+     */
+    public boolean hasLazyGuards() {
+        return lazyGuards;
+    }
+
+    /**
+     * Returns the {@link BaboonPetriCore} used to compile this plan. The
+     * indexes of this plan are only valid for this {@link BaboonPetriCore}.
+     * 
+     * @return the {@link BaboonPetriCore} used to compile this plan.
+     */
+    public BaboonPetriCore getPetriCore() {
+        return petriCore;
+    }
+
+    /**
+     * Returns the number of steps of this plan.
+     * 
+     * @return the number of steps, one per {@link ActionController}.
+     */
+    public int getSize() {
+        return permissionIndexes.length;
+    }
+
+    /**
+     * Returns the index of the permission transition of the step.
+     * 
+     * @param step
+     *            The index of the step.
+     * @return the index of the permission transition or {@link #NO_PERMISSION}
+     *         if the step does not have a permission transition.
+     */
+    public int getPermissionIndex(int step) {
+        return permissionIndexes[step];
+    }
+
+    /**
+     * Returns the number of guards to set after the execution of the step.
+     * 
+     * @param step
+     *            The index of the step.
+     * @return the number of guards on the guard callback of the step.
+     */
+    public int getGuardCount(int step) {
+        return guardIndexes[step].length;
+    }
+
+    /**
+     * Returns the index of a guard of the guard callback of the step.
+     * 
+     * @param step
+     *            The index of the step.
+     * @param guard
+     *            The position of the guard on the guard callback.
+     * @return the index of the guard on the {@link BaboonPetriCore}.
+     */
+    public int getGuardIndex(int step, int guard) {
+        return guardIndexes[step][guard];
+    }
+
+    /**
+     * Returns the indexes of all the guards of the guard callback of the step,
+     * in the same order used by {@link #getGuardIndex(int, int)}. The array
+     * returned is a copy and can be kept by the caller.
+     *
+     * @param step
+     *            The index of the step.
+     * @return the indexes of the guards on the {@link BaboonPetriCore}, to be
+     *         used on {@link BaboonPetriCore#setGuards(int[], boolean[])}.
+     */
+    public int[] getGuardIndexes(int step) {
+        return guardIndexes[step].clone();
+    }
+
+    /**
+     * Returns the slot of the {@link GuardProvider} annotated method that
+     * provides the value of a guard of the guard callback of the step.
+     * 
+     * @param step
+     *            The index of the step.
+     * @param guard
+     *            The position of the guard on the guard callback.
+     * @return the slot to be used on {@link ActionController#getGuardValue(int)}.
+     */
+    public int getGuardProviderSlot(int step, int guard) {
+        return guardProviderSlots[step][guard];
+    }
+
+    /**
+     * Returns the number of transitions on the fire callback.
+     * 
+     * @return the number of transitions on the fire callback.
+     */
+    public int getFireCallbackCount() {
+        return fireCallbackIndexes.length;
+    }
+
+    /**
+     * Returns the index of a transition of the fire callback.
+     * 
+     * @param position
+     *            The position of the transition on the fire callback.
+     * @return the index of the transition on the {@link BaboonPetriCore}.
+     */
+    public int getFireCallbackIndex(int position) {
+        return fireCallbackIndexes[position];
+    }
+
+    /**
+     * Returns the indexes of all the transitions of the fire callback, in the
+     * order they must be fired. The array returned is a copy and can be kept
+     * by the caller.
+     *
+     * @return the indexes of the transitions on the {@link BaboonPetriCore},
+     *         to be used on {@link BaboonPetriCore#fireTransitions(int[])}.
+     */
+    public int[] getFireCallbackIndexes() {
+        return fireCallbackIndexes.clone();
+    }
+}
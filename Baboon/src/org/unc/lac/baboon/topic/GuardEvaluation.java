@@ -0,0 +1,38 @@
+package org.unc.lac.baboon.topic;
+
+import org.unc.lac.baboon.annotations.GuardProvider;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+
+/**
+ * This enum represents when the {@link GuardProvider} annotated methods that
+ * provide the guard callback of a {@link Topic} are called.
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see Topic#getGuardEvaluation()
+ * @see BaboonPetriCore#setGuardSupplier(int, java.util.function.BooleanSupplier, boolean)
+ */
+public enum GuardEvaluation {
+    /**
+     * The {@link GuardProvider} methods are called after every execution of
+     * the action, and their values are set on the petri net.
+     */
+    EAGER,
+    /**
+     * The {@link GuardProvider} methods are registered as guard suppliers on
+     * the {@link BaboonPetriCore}, and called every time the petri net needs
+     * the value of their guards to decide if a transition is enabled. They
+     * are called from arbitrary threads, so they must be thread safe, and a
+     * guard can only be provided by one subscription.
+     */
+    LAZY,
+    /**
+     * As {@link #LAZY}, but the value of each guard is kept until it is
+     * invalidated, which the framework does after every execution of the
+     * action. The guards can also be invalidated by the user with
+     * {@link BaboonPetriCore#invalidateGuard(String)} when the state they
+     * depend on changes.
+     */
+    MEMOIZED
+}
@@ -0,0 +1,83 @@
+package org.unc.lac.baboon.topic;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+
+/**
+ * Counts the guard updates requested by the actions subscribed to a
+ * {@link Topic} after their executions, split into the updates written on the
+ * petri net and the ones skipped because the guard already had the value.
+ * <p>
+ * The counters are updated by many threads at once without locking, so a
+ * read taken while actions are being executed may not include the updates in
+ * progress.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see Topic#getGuardUpdateCounters()
+ * @see BaboonPetriCore#setGuards(int[], boolean[])
+ */
+public final class GuardUpdateCounters {
+    private final LongAdder written = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Records the result of a guard callback update. This method is called
+     * automatically by Baboon framework and is not intended to be used by user.
+     *
+     * @param writtenGuards
+     *            The number of guards whose value changed and was written.
+     * @param skippedGuards
+     *            The number of guards that already had the value.
+     */
+    public void record(int writtenGuards, int skippedGuards) {
+        if (writtenGuards > 0) {
+            written.add(writtenGuards);
+        }
+        if (skippedGuards > 0) {
+            skipped.add(skippedGuards);
+        }
+    }
+
+    /**
+     * Returns the number of guard updates written on the petri net.
+     *
+     * @return the number of guard updates written.
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Returns the number of guard updates skipped because the guard already
+     * had the value.
+     *
+     * @return the number of guard updates skipped.
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Returns the fraction of the guard updates that were skipped.
+     *
+     * @return the number of updates skipped divided by the number of updates
+     *         requested, or zero if no update was requested.
+     */
+    public double getSkipRatio() {
+        long skippedUpdates = getSkipped();
+        long requested = skippedUpdates + getWritten();
+        return requested == 0 ? 0 : (double) skippedUpdates / requested;
+    }
+
+    /**
+     * Sets both counters to zero.
+     */
+    public void reset() {
+        written.reset();
+        skipped.reset();
+    }
+}
@@ -20,6 +20,11 @@ import org.unc.lac.baboon.annotations.GuardProvider;
  */
 public class Topic {
 
+    /**
+     * Guard callback returned for the indexes that do not have one.
+     */
+    private static final String[] EMPTY_GUARD_CALLBACK = new String[] {};
+
     /**
      * Name given to this topic.
      */
@@ -43,6 +48,43 @@ public class Topic {
      * finish the execution of the last {@link ActionController} method.
      */
     private ArrayList<String> fireCallback = new ArrayList<>();
+    /**
+     * Number of workers executing each taskController subscribed to this
+     * topic. It does not apply to happeningControllers.
+     */
+    private int replicas = 1;
+    /**
+     * Maximum number of executions of a coalescing happeningController
+     * subscribed to this topic that are synchronized together. One means the
+     * executions are not coalesced. It does not apply to taskControllers.
+     */
+    private int coalescingBatchSize = 1;
+    /**
+     * Maximum time, in milliseconds, an execution of a coalescing
+     * happeningController waits for other executions to complete its batch.
+     */
+    private long coalescingWindow = 0;
+    /**
+     * How the taskControllers subscribed to this topic wait for their
+     * permission. It does not apply to happeningControllers.
+     */
+    private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+    /**
+     * Number of times a taskController checks its permission before waiting
+     * on the petri monitor, when {@link #waitStrategy} is
+     * {@link WaitStrategy#SPIN_THEN_PARK}.
+     */
+    private int spinTries = 1000;
+    /**
+     * When the {@link GuardProvider} annotated methods that provide the guard
+     * callback of this topic are called.
+     */
+    private GuardEvaluation guardEvaluation = GuardEvaluation.EAGER;
+    /**
+     * The counters of the guard updates requested by the actions subscribed
+     * to this topic. They are not read from the topics json file.
+     */
+    private final GuardUpdateCounters guardUpdateCounters = new GuardUpdateCounters();
 
     /**
      * Returns a {@link String} object describing the name of the {@link Topic}.
@@ -78,6 +120,98 @@ public class Topic {
         return fireCallback;
     }
 
+    /**
+     * Returns the number of replicas of the taskControllers subscribed to
+     * this topic. Each replica is executed by its own worker, so up to this
+     * number of executions of the same taskController can run concurrently
+     * when the petri net allows it.
+     * 
+     * @return The number of replicas of this Topic instance, one by default.
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Returns the maximum number of executions of a happeningController
+     * subscribed to this topic that are coalesced into a single batch. The
+     * executions of a batch are synchronized together: the permission is
+     * fired once per execution as the marking allows it, the batch method
+     * of the happeningController is called once, the guard callback is set
+     * once and the fire callback is fired once per execution, as a single
+     * group.
+     * 
+     * @return The coalescing batch size of this Topic instance, one by default,
+     *         which means the executions are not coalesced.
+     */
+    public int getCoalescingBatchSize() {
+        return coalescingBatchSize;
+    }
+
+    /**
+     * Returns the maximum time, in milliseconds, that a batch of coalesced
+     * executions waits for more executions before it is synchronized.
+     * 
+     * @return The coalescing window of this Topic instance.
+     */
+    public long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    /**
+     * Returns true if the executions of the happeningControllers subscribed to
+     * this topic are coalesced.
+     * 
+     * @return true if the coalescing batch size is greater than one.
+     */
+    public boolean isCoalescing() {
+        return coalescingBatchSize > 1;
+    }
+
+    /**
+     * Returns the {@link WaitStrategy} used by the taskControllers subscribed
+     * to this topic to wait for their permission transitions.
+     * 
+     * @return The wait strategy of this Topic instance,
+     *         {@link WaitStrategy#BLOCKING} by default.
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Returns the number of times a taskController subscribed to this topic
+     * checks if its permission is enabled before waiting on the petri monitor,
+     * when the {@link WaitStrategy#SPIN_THEN_PARK} strategy is used.
+     * 
+     * @return The spin tries of this Topic instance.
+     */
+    public int getSpinTries() {
+        return spinTries;
+    }
+
+    /**
+     * Returns when the {@link GuardProvider} annotated methods that provide
+     * the guard callback of this topic are called.
+     * 
+     * @return The guard evaluation of this Topic instance,
+     *         {@link GuardEvaluation#EAGER} by default.
+     */
+    public GuardEvaluation getGuardEvaluation() {
+        return guardEvaluation;
+    }
+
+    /**
+     * Returns the counters of the guard updates requested by the actions
+     * subscribed to this topic, which tell how many of them were skipped
+     * because the guards already had the values provided.
+     * 
+     * @return The guard update counters of this Topic instance.
+     */
+    public GuardUpdateCounters getGuardUpdateCounters() {
+        return guardUpdateCounters;
+    }
+
     /**
      * Returns a {@link List} of arrays of {@link String} containing the set
      * guard callback of the Topic. The set guard callback is a list of array of
@@ -102,15 +236,15 @@ public class Topic {
      * 
      * @param index
      *      The position of the guard callback in the list of guard callbacks
-     * @return The set guard callback of this Topic instance.
+     * @return The set guard callback of this Topic instance, or an empty
+     *      array if there is no guard callback at index.
      * 
      */
     public String[] getGuardCallback(int index) {
-        try {
-            return setGuardCallback.get(index);
-        } catch (IndexOutOfBoundsException e) {
-            return new String[] {};
+        if (index < 0 || index >= setGuardCallback.size()) {
+            return EMPTY_GUARD_CALLBACK;
         }
+        return setGuardCallback.get(index);
     }
 
 }
@@ -0,0 +1,41 @@
+package org.unc.lac.baboon.topic;
+
+import org.unc.lac.baboon.execution.DummyThread;
+
+/**
+ * This enum represents how the {@link DummyThread} objects executing the
+ * taskControllers subscribed to a {@link Topic} wait for their permission
+ * transitions to be enabled.
+ * <p>
+ * Waiting on the petri monitor parks the thread until another thread fires a
+ * transition that enables the permission, and the park and unpark round trip
+ * adds latency to every hand off. The strategies that spin or yield avoid it,
+ * at the cost of using a processor while waiting, so they are meant for tight
+ * producer and consumer loops running on dedicated cores.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see Topic#getWaitStrategy()
+ */
+public enum WaitStrategy {
+    /**
+     * The thread waits on the petri monitor until the permission is fired.
+     */
+    BLOCKING,
+    /**
+     * The thread checks if the permission is enabled up to
+     * {@link Topic#getSpinTries()} times, without releasing the processor. If
+     * it is not enabled by then, the thread waits on the petri monitor as
+     * {@link #BLOCKING} does.
+     */
+    SPIN_THEN_PARK,
+    /**
+     * The thread checks if the permission is enabled and yields the processor
+     * to other threads between checks, until the permission is enabled. It
+     * never waits on the petri monitor, except when another thread fires the
+     * permission between the check and the firing.
+     */
+    YIELDING
+}
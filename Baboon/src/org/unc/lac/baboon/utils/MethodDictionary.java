@@ -1,65 +1,156 @@
 package org.unc.lac.baboon.utils;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import org.javatuples.Pair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Given an object instance and a method's name, resolves and returns the
- * {@link Method} object corresponding to the method name given. This class only
- * resolves methods that does not take parameters in its signature.
- * 
+ * Given an object instance or a class, a method's name and the classes of the
+ * arguments, resolves and returns the {@link Method} object corresponding to
+ * the method name given.
+ * <p>
+ * The methods are cached per class, by using a {@link ClassValue}, and then by
+ * name and argument classes on a {@link ConcurrentHashMap}. This way, the
+ * dictionary can be used from many threads at once, a method already resolved
+ * is read without locking, static methods of different classes do not collide,
+ * and no reference to the object instances is kept.
+ * </p>
+ *
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
  * @version 1.0
  */
 public class MethodDictionary {
     /**
-     * Map of {@link Method} objects already solved
+     * Map of {@link Method} objects already solved, for each class.
      */
-    private static HashMap<Pair<Object, String>, Method> methodDict = new HashMap<>();
+    private static final ClassValue<ConcurrentHashMap<MethodKey, Method>> methodDict = new ClassValue<ConcurrentHashMap<MethodKey, Method>>() {
+        @Override
+        protected ConcurrentHashMap<MethodKey, Method> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
 
     /**
      * Given an object instance and a method's name returns the Method object
-     * corresponding to the method name given. The given method must not take
-     * any arguments.
-     * 
+     * corresponding to the method name given and the classes of the arguments.
+     *
      * @param object
      *            an object of the class declaring the method to resolve.
      * @param methodName
      *            the name of the method to resolve.
      * @param parameterClasses
-     *            the method's parameter types, in declaration order.
+     *            the classes of the arguments, in declaration order.
      * @return a {@link Method} object resolved using object's class and
      *         methodName.
      * @throws NoSuchMethodException
-     *         If the method cannot be found.
+     *         If the method cannot be found, or if more than one overload
+     *         of the method can be called with the arguments and none of them
+     *         is more specific than the rest.
      * @throws SecurityException
      *         If a security exception occurs while resolving the method.
+     * @see #getStaticMethod(Class, String, Class...)
      */
     public static Method getMethod(Object object, String methodName, Class<?>... parameterClasses)
             throws NoSuchMethodException, SecurityException {
-        Class<?> c = object.getClass();
-        Pair<Object, String> key = new Pair<>(object, methodName);
-        if (methodDict.containsKey(key)) {
-            return methodDict.get(key);
-        } else {
+        return getCachedMethod(object.getClass(), methodName, parameterClasses);
+    }
 
-            Method m = resolveMethod(c, methodName, parameterClasses);
-            methodDict.put(key, m);
-            return m;
+    /**
+     * Given a class and a method's name returns the Method object
+     * corresponding to the method name given and the classes of the
+     * arguments. It is intended to resolve static methods, but the method is
+     * not checked to be static.
+     *
+     * @param methodsClass
+     *            the class declaring the method to resolve.
+     * @param methodName
+     *            the name of the method to resolve.
+     * @param parameterClasses
+     *            the classes of the arguments, in declaration order.
+     * @return a {@link Method} object resolved using methodsClass and
+     *         methodName.
+     * @throws NoSuchMethodException
+     *         If the class is null, if the method cannot be found, or if more
+     *         than one overload of the method can be called with the
+     *         arguments and none of them is more specific than the rest.
+     * @throws SecurityException
+     *         If a security exception occurs while resolving the method.
+     */
+    public static Method getStaticMethod(Class<?> methodsClass, String methodName, Class<?>... parameterClasses)
+            throws NoSuchMethodException, SecurityException {
+        if (methodsClass == null) {
+            throw new NoSuchMethodException("Cannot resolve the method " + methodName + " of a null class");
+        }
+        return getCachedMethod(methodsClass, methodName, parameterClasses);
+    }
+
+    /**
+     * Given a class and a method's name returns the only public method of the
+     * class with that name, whatever its parameters are. It is used when the
+     * arguments are unknown, as when a method is identified only by its name.
+     *
+     * @param methodsClass
+     *            the class declaring the method to resolve.
+     * @param methodName
+     *            the name of the method to resolve.
+     * @return the public {@link Method} of methodsClass named methodName.
+     * @throws NoSuchMethodException
+     *         If the class is null, if the method cannot be found, or if the
+     *         method is overloaded.
+     * @throws SecurityException
+     *         If a security exception occurs while resolving the method.
+     */
+    public static Method getMethodByName(Class<?> methodsClass, String methodName)
+            throws NoSuchMethodException, SecurityException {
+        if (methodsClass == null) {
+            throw new NoSuchMethodException("Cannot resolve the method " + methodName + " of a null class");
+        }
+        if (methodName == null) {
+            throw new NoSuchMethodException("Cannot resolve a method without name");
         }
+        ConcurrentHashMap<MethodKey, Method> classMethods = methodDict.get(methodsClass);
+        MethodKey key = new MethodKey(methodName, null);
+        Method method = classMethods.get(key);
+        if (method == null) {
+            for (Method m : methodsClass.getMethods()) {
+                if (m.getName().equals(methodName)) {
+                    if (method != null) {
+                        throw new NoSuchMethodException("The method " + methodName + " of "
+                                + methodsClass.getName() + " is overloaded");
+                    }
+                    method = m;
+                }
+            }
+            if (method == null) {
+                throw new NoSuchMethodException(methodsClass.getName() + "." + methodName);
+            }
+            classMethods.putIfAbsent(key, method);
+        }
+        return method;
     }
-    
-    public static Method getStaticMethod(Class<?> methodsClass, String methodName, Class<?>... parameterClasses) throws NoSuchMethodException, SecurityException{
-    	Pair<Object, String> key = new Pair<>(null, methodName);
-    	 if (methodDict.containsKey(key)) {
-             return methodDict.get(key);
-         } else {
-             Method m = resolveMethod(methodsClass, methodName, parameterClasses);
-             methodDict.put(key, m);
-             return m;
-         }
+
+    private static Method getCachedMethod(Class<?> objClass, String methodName, Class<?>... parameterClasses)
+            throws NoSuchMethodException, SecurityException {
+        if (methodName == null) {
+            throw new NoSuchMethodException("Cannot resolve a method without name");
+        }
+        if (parameterClasses == null) {
+            parameterClasses = new Class<?>[0];
+        }
+        ConcurrentHashMap<MethodKey, Method> classMethods = methodDict.get(objClass);
+        MethodKey key = new MethodKey(methodName, parameterClasses);
+        Method method = classMethods.get(key);
+        if (method == null) {
+            method = resolveMethod(objClass, methodName, parameterClasses);
+            Method cached = classMethods.putIfAbsent(new MethodKey(methodName, parameterClasses.clone()), method);
+            if (cached != null) {
+                method = cached;
+            }
+        }
+        return method;
     }
 
     private static Method resolveMethod(Class<?> objClass, String methodName, Class<?>... parameterClasses)
@@ -67,27 +158,113 @@ public class MethodDictionary {
         try {
             return objClass.getMethod(methodName, parameterClasses);
         } catch (NoSuchMethodException e) {
+            List<Method> candidates = new ArrayList<>();
             for (Method m : objClass.getMethods()) {
-                if (m.getName().equals(methodName)) {
-                    Class<?>[] paramTypes = m.getParameterTypes();
-                    if (paramTypes.length == parameterClasses.length) {
-                        boolean isWantedMethod = true;
-                        for (int i = 0; i < paramTypes.length; i++) {
-                            if (!(isWantedMethod &= paramTypes[i].isAssignableFrom(parameterClasses[i]))) {
-                                break;
-                            }
-                        }
-                        if (isWantedMethod) {
-                            return m;
-                        }
-                    }
+                if (m.getName().equals(methodName) && isApplicable(m.getParameterTypes(), parameterClasses)) {
+                    candidates.add(m);
                 }
             }
+            if (candidates.isEmpty()) {
+                throw new NoSuchMethodException(e.getMessage());
+            }
+            return mostSpecific(candidates, methodName);
+        } catch (NullPointerException e) {
             throw new NoSuchMethodException(e.getMessage());
         }
-        catch(NullPointerException e){
-            throw new NoSuchMethodException(e.getMessage());
+    }
+
+    /**
+     * Returns the candidate whose parameters can be assigned to the
+     * parameters of every other candidate, as the Java compiler chooses among
+     * overloads.
+     */
+    private static Method mostSpecific(List<Method> candidates, String methodName) throws NoSuchMethodException {
+        for (Method candidate : candidates) {
+            boolean isMostSpecific = true;
+            for (Method other : candidates) {
+                if (other != candidate && !isApplicable(other.getParameterTypes(), candidate.getParameterTypes())) {
+                    isMostSpecific = false;
+                    break;
+                }
+            }
+            if (isMostSpecific) {
+                return candidate;
+            }
+        }
+        throw new NoSuchMethodException("The call to " + methodName + " is ambiguous between " + candidates);
+    }
+
+    private static boolean isApplicable(Class<?>[] paramTypes, Class<?>[] argumentClasses) {
+        if (paramTypes.length != argumentClasses.length) {
+            return false;
+        }
+        for (int i = 0; i < paramTypes.length; i++) {
+            if (!wrap(paramTypes[i]).isAssignableFrom(wrap(argumentClasses[i]))) {
+                return false;
+            }
         }
+        return true;
     }
 
+    /**
+     * Returns the wrapper class of a primitive type, so primitive parameters
+     * accept the boxed arguments received by the framework.
+     */
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == double.class) {
+            return Double.class;
+        }
+        return Void.class;
+    }
+
+    /**
+     * Key of a resolved method on the map of its class: the method's name
+     * and the classes of the arguments. A null array of classes identifies the
+     * lookups by name only. The array is not copied, so the keys stored on the
+     * map must use an array that is not modified afterwards.
+     */
+    private static final class MethodKey {
+        private final String name;
+        private final Class<?>[] parameterClasses;
+        private final int hash;
+
+        MethodKey(String name, Class<?>[] parameterClasses) {
+            this.name = name;
+            this.parameterClasses = parameterClasses;
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(parameterClasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey other = (MethodKey) obj;
+            return name.equals(other.name) && Arrays.equals(parameterClasses, other.parameterClasses);
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package org.unc.lac.baboon.test.benchmark;
+
+import java.lang.reflect.Method;
+
+import org.unc.lac.baboon.invocation.ActionInvoker;
+import org.unc.lac.baboon.invocation.LambdaActionInvoker;
+import org.unc.lac.baboon.invocation.MethodHandleActionInvoker;
+import org.unc.lac.baboon.invocation.ReflectiveActionInvoker;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+
+/**
+ * ActionInvokerBenchmark measures the cost per call of each {@link ActionInvoker}
+ * implementation, using {@link MockUserSystemObject#mockTaskCounter(CustomCounter)}
+ * as the invoked method.
+ * <p>
+ * It is not run as part of the test suite. Run its main method with the test
+ * classpath, optionally passing the number of calls per round as argument.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ */
+public class ActionInvokerBenchmark {
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Throwable {
+        final int calls = args != null && args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        MockUserSystemObject target = new MockUserSystemObject();
+        Method method = MockUserSystemObject.class.getMethod("mockTaskCounter", CustomCounter.class);
+        CustomCounter counter = new CustomCounter();
+        Object[] arguments = new Object[] { counter };
+
+        ReflectiveActionInvoker reflective = new ReflectiveActionInvoker(target, method, arguments);
+        MethodHandleActionInvoker methodHandle = new MethodHandleActionInvoker(target, method, arguments);
+        LambdaActionInvoker lambda = new LambdaActionInvoker(target, method, arguments);
+        long[] best = new long[] { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        // the first round is the warm up
+        for (int i = 0; i <= ROUNDS; i++) {
+            long reflectiveTime = run(reflective, calls);
+            long methodHandleTime = run(methodHandle, calls);
+            long lambdaTime = run(lambda, calls);
+            if (i > 0) {
+                best[0] = Math.min(best[0], reflectiveTime);
+                best[1] = Math.min(best[1], methodHandleTime);
+                best[2] = Math.min(best[2], lambdaTime);
+            }
+        }
+        report("Method.invoke", best[0], calls);
+        report("MethodHandle.invokeExact", best[1], calls);
+        report("LambdaMetafactory Runnable", best[2], calls);
+        System.out.println("counter: " + counter.getVal());
+    }
+
+    private static void report(String name, long nanos, int calls) {
+        System.out.printf("%-28s %8.2f ns/call%n", name, (double) nanos / calls);
+    }
+
+    /*
+     * One loop per invoker type, so each call site stays monomorphic as it is
+     * inside DummyThread.
+     */
+    private static long run(ReflectiveActionInvoker invoker, int calls) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            invoker.invoke();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long run(MethodHandleActionInvoker invoker, int calls) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            invoker.invoke();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long run(LambdaActionInvoker invoker, int calls) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            invoker.invoke();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,101 @@
+package org.unc.lac.baboon.test.benchmark;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.aspect.HappeningControllerJoinPointReporter;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.execution.HappeningControllerSynchronizer;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.test.utils.tasks.MockController;
+import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * HappeningCoalescingBenchmark measures the throughput of a burst of
+ * executions of a {@link HappeningController} annotated method, with and
+ * without coalescing. Both methods are subscribed to a topic whose permission
+ * is "t0" and its transition callback is "t1", on a petri net where "t1"
+ * gives back the token taken by "t0", so the permission is never exhausted.
+ * <p>
+ * The coalesced method is subscribed to a {@link Topic} with a coalescing
+ * batch size of 32 and a coalescing window of one millisecond. The time of a
+ * burst is measured until every execution was counted, as the batch method
+ * of the coalesced executions may run after the calls return.
+ * </p>
+ * <p>
+ * It is not run as part of the test suite. Run its main method with the test
+ * classpath, optionally passing the number of calls per burst and the number
+ * of calling threads as arguments.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ */
+public class HappeningCoalescingBenchmark {
+    private static final int ROUNDS = 10;
+    private static final String PETRI_NET_FILE = "/pnml03.pnml";
+    private static final String TOPICS_FILE = "/topics08.json";
+
+    public static void main(String[] args) throws Exception {
+        final int calls = args != null && args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        final int threads = args != null && args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(TOPICS_FILE);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PETRI_NET_FILE, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        MockController controller = new MockController();
+        AtomicInteger counter = new AtomicInteger();
+        baboonConfig.subscribeControllerToTopic("plain_topic", controller, "mockCounterHappeningController", counter);
+        baboonConfig.subscribeControllerToTopic("coalescing_topic", controller,
+                "mockCoalescingCounterHappeningController", counter);
+        HappeningControllerJoinPointReporter.setObserver(new HappeningControllerSynchronizer(baboonConfig, petriCore));
+
+        long[] best = new long[] { Long.MAX_VALUE, Long.MAX_VALUE };
+        // the first round is the warm up
+        for (int i = 0; i <= ROUNDS; i++) {
+            long plainTime = runBurst(controller, false, calls, threads);
+            long coalescedTime = runBurst(controller, true, calls, threads);
+            if (i > 0) {
+                best[0] = Math.min(best[0], plainTime);
+                best[1] = Math.min(best[1], coalescedTime);
+            }
+        }
+        report("happening", best[0], calls);
+        report("coalesced happening", best[1], calls);
+        System.out.printf("%-28s %8.2f x%n", "speedup", (double) best[0] / best[1]);
+    }
+
+    private static void report(String name, long nanos, int calls) {
+        System.out.printf("%-28s %12.0f calls/s%n", name, calls / (nanos / 1e9));
+    }
+
+    private static long runBurst(MockController controller, boolean coalesced, int calls, int threads)
+            throws InterruptedException {
+        final AtomicInteger counter = new AtomicInteger();
+        Thread[] callers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int callerCalls = calls / threads + (t < calls % threads ? 1 : 0);
+            callers[t] = new Thread(() -> {
+                for (int i = 0; i < callerCalls; i++) {
+                    if (coalesced) {
+                        controller.mockCoalescingCounterHappeningController(counter);
+                    } else {
+                        controller.mockCounterHappeningController(counter);
+                    }
+                }
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread caller : callers) {
+            caller.start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        while (counter.get() < calls) {
+            Thread.yield();
+        }
+        return System.nanoTime() - start;
+    }
+}
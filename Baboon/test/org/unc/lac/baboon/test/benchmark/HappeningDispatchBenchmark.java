@@ -0,0 +1,101 @@
+package org.unc.lac.baboon.test.benchmark;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.aspect.HappeningControllerJoinPointReporter;
+import org.unc.lac.baboon.aspect.JoinPointObserver.State;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.execution.HappeningControllerSynchronizer;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.test.utils.tasks.MockController;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * HappeningDispatchBenchmark measures the overhead per call of a
+ * {@link HappeningController} annotated method compared with a plain method
+ * call. It uses {@link MockController#mockHappeningController()}, subscribed
+ * to a topic without permission whose fire callback is never enabled, so the
+ * time measured is mostly the one spent by the framework.
+ * <p>
+ * Three cases are measured: a call to the empty method
+ * {@link MockController#mockNotSubscribableMethod()}, a call to the woven
+ * {@link HappeningController} method, which is synchronized by the aspect
+ * advices with the cached join point dispatch, and the same synchronization
+ * done by calling
+ * {@link HappeningControllerSynchronizer#update(Object, String, State)},
+ * which resolves the method and the subscription on each call.
+ * </p>
+ * <p>
+ * It is not run as part of the test suite. Run its main method with the test
+ * classpath, optionally passing the number of calls per round as argument.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ */
+public class HappeningDispatchBenchmark {
+    private static final int ROUNDS = 10;
+    private static final String PETRI_NET_FILE = "/pnml01.pnml";
+    private static final String TOPICS_FILE = "/topics03.json";
+    private static final String TOPIC_NAME = "topic2";
+    private static final String HAPPENING_METHOD = "mockHappeningController";
+
+    public static void main(String[] args) throws Exception {
+        final int calls = args != null && args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(TOPICS_FILE);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PETRI_NET_FILE, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        MockController controller = new MockController();
+        baboonConfig.subscribeControllerToTopic(TOPIC_NAME, controller, HAPPENING_METHOD);
+        HappeningControllerSynchronizer synchronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(synchronizer);
+
+        long[] best = new long[] { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        // the first round is the warm up
+        for (int i = 0; i <= ROUNDS; i++) {
+            long plainTime = runPlain(controller, calls);
+            long happeningTime = runHappening(controller, calls);
+            long byNameTime = runByName(synchronizer, controller, calls);
+            if (i > 0) {
+                best[0] = Math.min(best[0], plainTime);
+                best[1] = Math.min(best[1], happeningTime);
+                best[2] = Math.min(best[2], byNameTime);
+            }
+        }
+        report("plain call", best[0], calls);
+        report("happening (join point)", best[1], calls);
+        report("happening (method name)", best[2], calls);
+        System.out.printf("%-28s %8.2f ns/call%n", "overhead", (double) (best[1] - best[0]) / calls);
+    }
+
+    private static void report(String name, long nanos, int calls) {
+        System.out.printf("%-28s %8.2f ns/call%n", name, (double) nanos / calls);
+    }
+
+    private static long runPlain(MockController controller, int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            controller.mockNotSubscribableMethod();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runHappening(MockController controller, int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            controller.mockHappeningController();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runByName(HappeningControllerSynchronizer synchronizer, MockController controller,
+            int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            synchronizer.update(controller, HAPPENING_METHOD, State.BEFORE_EXECUTION);
+            controller.mockNotSubscribableMethod();
+            synchronizer.update(controller, HAPPENING_METHOD, State.AFTER_EXECUTION);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,130 @@
+package org.unc.lac.baboon.test.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unc.lac.baboon.petri.JpcmPetriEngine;
+import org.unc.lac.baboon.petri.NativePetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.javapetriconcurrencymonitor.exceptions.PetriNetException;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * PetriEngineBenchmark measures the firing throughput of each
+ * {@link PetriEngine} on a large petri net. The net is made of rings of places
+ * with one token each, and a transition from each place to the next one, so
+ * every transition is always enabled and a firing only changes the enabling
+ * of its neighbours. The rings share no places, and each one is fired in
+ * order by its own thread.
+ * <p>
+ * Two loads are measured over the same number of transitions: a single ring
+ * fired by one thread, and several rings fired concurrently, where the
+ * engines that lock each component of the net independently do not contend.
+ * </p>
+ * <p>
+ * It is not run as part of the test suite. Run its main method with the test
+ * classpath, optionally passing the number of transitions, the duration of a
+ * round in milliseconds and the number of rings of the concurrent load as
+ * arguments.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ */
+public class PetriEngineBenchmark {
+    private static final int ROUNDS = 5;
+    private static final String[] ENGINES = new String[] { JpcmPetriEngine.NAME, NativePetriEngine.NAME,
+            NativePetriEngine.OPTIMISTIC_NAME };
+
+    public static void main(String[] args) throws Exception {
+        final int transitions = args != null && args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final long duration = args != null && args.length > 1 ? Long.parseLong(args[1]) : 500;
+        final int threads = args != null && args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        for (int rings : new int[] { 1, threads }) {
+            File pnml = writeRings(transitions / rings, rings);
+            try {
+                System.out.println(rings + " ring(s) of " + (transitions / rings) + " transitions");
+                for (String engineName : ENGINES) {
+                    double best = 0;
+                    // the first round is the warm up
+                    for (int i = 0; i <= ROUNDS; i++) {
+                        double throughput = runRound(engineName, pnml.getAbsolutePath(), rings, duration);
+                        if (i > 0) {
+                            best = Math.max(best, throughput);
+                        }
+                    }
+                    System.out.printf("  %-18s %12.0f firings/s%n", engineName, best);
+                }
+            } finally {
+                pnml.delete();
+            }
+        }
+    }
+
+    private static double runRound(String engineName, String pnmlFilePath, int rings, long duration)
+            throws Exception {
+        PetriEngine engine = PetriEngines.createEngine(engineName, pnmlFilePath, petriNetType.PLACE_TRANSITION, null);
+        engine.initialize();
+        int ringSize = engine.getTransitionCount() / rings;
+        AtomicLong firings = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + duration * 1_000_000L;
+        for (int r = 0; r < rings; r++) {
+            final int first = r * ringSize;
+            Thread worker = new Thread(() -> {
+                long fired = 0;
+                try {
+                    while (System.nanoTime() < end) {
+                        for (int t = first; t < first + ringSize; t++) {
+                            engine.fire(t, false);
+                        }
+                        fired += ringSize;
+                    }
+                } catch (PetriNetException e) {
+                    throw new RuntimeException(e);
+                }
+                firings.addAndGet(fired);
+            });
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return firings.get() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static File writeRings(int transitions, int rings) throws IOException {
+        File pnml = File.createTempFile("ring", ".pnml");
+        try (PrintWriter writer = new PrintWriter(pnml, "UTF-8")) {
+            writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            writer.println("<pnml xmlns=\"http://www.pnml.org/version-2009/grammar/pnml\">");
+            writer.println(" <net id=\"ring\" type =\"http://www.laas.fr/tina/tpn\">");
+            writer.println(" <page id=\"page\">");
+            int count = transitions * rings;
+            for (int i = 0; i < count; i++) {
+                writer.println("  <place id=\"p" + i + "\"><name><text>p" + i + "</text></name>"
+                        + "<initialMarking><text>1</text></initialMarking></place>");
+            }
+            for (int i = 0; i < count; i++) {
+                int next = i - i % transitions + (i + 1) % transitions;
+                writer.println("  <transition id=\"t" + i + "\"><name><text>t" + i + "</text></name>"
+                        + "<label><text>&lt;D,N&gt;</text></label></transition>");
+                writer.println("  <arc id=\"i" + i + "\" source=\"p" + i + "\" target=\"t" + i + "\"></arc>");
+                writer.println("  <arc id=\"o" + i + "\" source=\"t" + i + "\" target=\"p" + next + "\"></arc>");
+            }
+            writer.println(" </page>");
+            writer.println(" </net>");
+            writer.println("</pnml>");
+        }
+        return pnml;
+    }
+}
@@ -0,0 +1,108 @@
+package org.unc.lac.baboon.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.execution.DummyThread;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+import org.unc.lac.baboon.topic.WaitStrategy;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+/**
+ * WaitStrategyBenchmark measures the latency of the hand off between two
+ * taskControllers for each {@link WaitStrategy}. A "ping" taskController,
+ * whose permission is "t0", and a "pong" taskController, whose permission is
+ * "t1", pass a single token back and forth, so every execution waits for the
+ * other one to fire its permission.
+ * <p>
+ * Two loads are measured: an uncontended one, with one ping and one pong
+ * {@link DummyThread}, and a contended one, where several ping and pong
+ * {@link DummyThread} objects compete for the token. The latency reported is
+ * the mean time of a round trip of the token, that is, the time of a round
+ * divided by the number of pong executions.
+ * </p>
+ * <p>
+ * It is not run as part of the test suite. Run its main method with the test
+ * classpath, optionally passing the duration of a round in milliseconds and
+ * the number of ping and pong threads of the contended load as arguments.
+ * The spinning and yielding strategies use a processor per waiting thread, so
+ * the contended results depend on the number of processors available.
+ * </p>
+ *
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ */
+public class WaitStrategyBenchmark {
+    private static final int ROUNDS = 5;
+    private static final String PETRI_NET_FILE = "/pnml04.pnml";
+    private static final String TOPICS_FILE = "/topics09.json";
+    private static final String[] STRATEGY_TOPICS = new String[] { "blocking", "spinning", "yielding" };
+
+    public static void main(String[] args) throws Exception {
+        final long duration = args != null && args.length > 0 ? Long.parseLong(args[0]) : 500;
+        final int threads = args != null && args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        for (int pairs : new int[] { 1, threads }) {
+            System.out.println(pairs == 1 ? "uncontended (1 ping, 1 pong)"
+                    : "contended (" + pairs + " ping, " + pairs + " pong)");
+            for (String strategy : STRATEGY_TOPICS) {
+                double best = Double.MAX_VALUE;
+                // the first round is the warm up
+                for (int i = 0; i <= ROUNDS; i++) {
+                    double latency = runRound(strategy, pairs, duration);
+                    if (i > 0) {
+                        best = Math.min(best, latency);
+                    }
+                }
+                System.out.printf("  %-12s %10.0f ns/round trip%n", strategy, best);
+            }
+        }
+    }
+
+    private static double runRound(String strategy, int pairs, long duration) throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(TOPICS_FILE);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PETRI_NET_FILE, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+        List<CustomCounter> pongCounters = new ArrayList<>();
+        List<DummyThread> dummies = new ArrayList<>();
+        for (int i = 0; i < pairs; i++) {
+            CustomCounter pongCounter = new CustomCounter();
+            pongCounters.add(pongCounter);
+            dummies.add(new DummyThread((AbstractTaskControllerSubscription) baboonConfig.subscribeControllerToTopic(
+                    strategy + "_ping", new MockUserSystemObject(), "mockTaskCounter", new CustomCounter()), petriCore));
+            dummies.add(new DummyThread((AbstractTaskControllerSubscription) baboonConfig.subscribeControllerToTopic(
+                    strategy + "_pong", new MockUserSystemObject(), "mockTaskCounter", pongCounter), petriCore));
+        }
+        List<Thread> workers = new ArrayList<>();
+        for (DummyThread dummy : dummies) {
+            Thread worker = new Thread(() -> dummy.call());
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        Thread.sleep(duration);
+        int roundTrips = 0;
+        for (CustomCounter counter : pongCounters) {
+            roundTrips += counter.getVal();
+        }
+        long elapsed = System.nanoTime() - start;
+        for (DummyThread dummy : dummies) {
+            dummy.stop();
+        }
+        for (Thread worker : workers) {
+            worker.join(1000);
+        }
+        return roundTrips == 0 ? Double.MAX_VALUE : (double) elapsed / roundTrips;
+    }
+}
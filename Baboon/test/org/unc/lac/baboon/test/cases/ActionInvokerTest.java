@@ -0,0 +1,115 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+import org.unc.lac.baboon.invocation.ActionInvoker;
+import org.unc.lac.baboon.invocation.ActionInvokerFactory;
+import org.unc.lac.baboon.invocation.LambdaActionInvoker;
+import org.unc.lac.baboon.invocation.MethodHandleActionInvoker;
+import org.unc.lac.baboon.invocation.ReflectiveActionInvoker;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+import org.unc.lac.baboon.utils.MethodDictionary;
+
+public class ActionInvokerTest {
+
+    /**
+     * <li>Given I have a user's system object with a public method that takes a {@link CustomCounter}</li>
+     * <li>When I create an {@link ActionInvoker} using {@link ActionInvokerFactory} for that method and a counter</li>
+     * <li>Then the invoker should be a {@link LambdaActionInvoker}</li>
+     * <li>And invoking it three times should increase the counter three times</li>
+     */
+    @Test
+    public void publicMethodShouldBeBoundToLambdaInvoker() throws Exception {
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        Method methodObj = MethodDictionary.getMethod(mockUserSystemObj, "mockTaskCounter", CustomCounter.class);
+        CustomCounter counter = new CustomCounter();
+        ActionInvoker invoker = ActionInvokerFactory.createInvoker(mockUserSystemObj, methodObj, counter);
+        assertTrue(invoker instanceof LambdaActionInvoker);
+        invoker.invoke();
+        invoker.invoke();
+        invoker.invoke();
+        assertEquals(3, counter.getVal());
+    }
+
+    /**
+     * <li>Given I have a public static method that takes no arguments</li>
+     * <li>When I create an {@link ActionInvoker} using {@link ActionInvokerFactory} with the declaring class as target</li>
+     * <li>Then the invoker should be a {@link LambdaActionInvoker}</li>
+     * <li>And invoking it should not throw an exception</li>
+     */
+    @Test
+    public void staticMethodShouldBeBoundToLambdaInvoker() throws Exception {
+        Method methodObj = MethodDictionary.getStaticMethod(MockUserSystemObject.class, "staticMockTask");
+        ActionInvoker invoker = ActionInvokerFactory.createInvoker(MockUserSystemObject.class, methodObj);
+        assertTrue(invoker instanceof LambdaActionInvoker);
+        invoker.invoke();
+    }
+
+    /**
+     * <li>Given I have a method declared on a class that is not public</li>
+     * <li>When I create an {@link ActionInvoker} using {@link ActionInvokerFactory} for that method</li>
+     * <li>Then the invoker should not be a {@link LambdaActionInvoker}</li>
+     * <li>And invoking it should execute the method</li>
+     */
+    @Test
+    public void notPublicClassMethodShouldNotBeBoundToLambdaInvoker() throws Exception {
+        HiddenCounter hidden = new HiddenCounter();
+        Method methodObj = HiddenCounter.class.getMethod("increase");
+        methodObj.setAccessible(true);
+        ActionInvoker invoker = ActionInvokerFactory.createInvoker(hidden, methodObj);
+        assertFalse(invoker instanceof LambdaActionInvoker);
+        invoker.invoke();
+        assertEquals(1, hidden.count);
+    }
+
+    /**
+     * <li>Given I have a user's system object with a public method that takes a {@link CustomCounter}</li>
+     * <li>When I create an {@link ActionInvoker} using {@link ActionInvokerFactory} for that method without arguments</li>
+     * <li>Then the invoker should be a {@link ReflectiveActionInvoker}</li>
+     * <li>And invoking it should throw an {@link IllegalArgumentException}, as {@link Method#invoke(Object, Object...)} does</li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void methodThatCannotBeBoundShouldFallbackToReflection() throws Exception {
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        Method methodObj = MethodDictionary.getMethod(mockUserSystemObj, "mockTaskCounter", CustomCounter.class);
+        ActionInvoker invoker = ActionInvokerFactory.createInvoker(mockUserSystemObj, methodObj);
+        assertTrue(invoker instanceof ReflectiveActionInvoker);
+        invoker.invoke();
+    }
+
+    /**
+     * <li>Given I have a {@link MethodHandleActionInvoker} for a method that throws an exception</li>
+     * <li>When I invoke it</li>
+     * <li>Then an {@link InvocationTargetException} should be thrown, whose cause is the exception thrown by the method</li>
+     */
+    @Test
+    public void exceptionThrownByMethodShouldBeWrapped() throws Exception {
+        Method methodObj = Thrower.class.getMethod("fail");
+        ActionInvoker invoker = new MethodHandleActionInvoker(new Thrower(), methodObj, new Object[] {});
+        try {
+            invoker.invoke();
+            fail("An InvocationTargetException should have been thrown");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    static class HiddenCounter {
+        int count = 0;
+
+        public void increase() {
+            count++;
+        }
+    }
+
+    public static class Thrower {
+        public void fail() {
+            throw new IllegalStateException("failed on purpose");
+        }
+    }
+}
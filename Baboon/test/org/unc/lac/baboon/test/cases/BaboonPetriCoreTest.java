@@ -0,0 +1,353 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.FiringReport;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+public class BaboonPetriCoreTest {
+
+    final String petriNetFile = "/pnml01.pnml";
+    final String petriNetFile_05 = "/pnml05.pnml";
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains no guards </li>
+     * <li>When I set a group of guards with the names "g1" and "g2" </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown before any guard is set </li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void settingNotExistingGuardsShouldThrowException() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        petriCore.setGuards(new String[] { "g1", "g2" }, new boolean[] { true, false });
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains no guards </li>
+     * <li>When I set a group of guards with more indexes than values </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown </li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void settingGuardsWithMissingValuesShouldThrowException() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        petriCore.setGuards(new int[] { 0, 1 }, new boolean[] { true });
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains no guards </li>
+     * <li>When I set a group of guards with an index 0 </li>
+     * <li>Then an {@link IndexOutOfBoundsException} should be thrown </li>
+     */
+    @Test (expected=IndexOutOfBoundsException.class)
+    public void settingGuardsWithNotExistingIndexShouldThrowException() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        petriCore.setGuards(new int[] { 0 }, new boolean[] { true });
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object </li>
+     * <li>When I set an empty group of guards </li>
+     * <li>Then no exception should be thrown </li>
+     */
+    @Test
+    public void settingEmptyGuardsShouldDoNothing() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        petriCore.setGuards(new int[0], new boolean[0]);
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire the group of transitions "t0" and "t1" </li>
+     * <li>Then the {@link FiringReport} should report both transitions as fired, in the order provided </li>
+     * <li>And the marking should be the same as firing "t0" and then "t1" </li>
+     */
+    @Test
+    public void firingAGroupOfTransitionsShouldFireThemInOrder() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        FiringReport report = petriCore.fireTransitions(new String[] { "t0", "t1" });
+        assertTrue(report.isSuccessful());
+        assertTrue(report.isFullyFired());
+        assertEquals(-1, report.getFailedPosition());
+        assertEquals(2, report.getSize());
+        assertEquals(petriCore.getTransitionIndex("t0"), report.getTransitionIndex(0));
+        assertEquals(petriCore.getTransitionIndex("t1"), report.getTransitionIndex(1));
+        assertEquals(FiringReport.Status.FIRED, report.getStatus(0));
+        assertEquals(FiringReport.Status.FIRED, report.getStatus(1));
+        assertNull(report.getError(0));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with transitions "t0" and "t1" </li>
+     * <li>When I fire the group of transitions "t0" and "t2", where "t2" does not exists on the Petri Net model </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown </li>
+     * <li>And no transition should be fired </li>
+     */
+    @Test
+    public void firingAGroupWithNotExistingTransitionShouldNotFireAnyTransition() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        try {
+            petriCore.fireTransitions(new String[] { "t0", "t2" });
+            fail("An IllegalArgumentException should have been thrown");
+        } catch (IllegalArgumentException e) {
+            assertArrayEquals(new Integer[] { 5, 0, 0 }, petriCore.getMarking());
+        }
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is enabled and "t1" is not </li>
+     * <li>When I try to fire "t1" without timeout </li>
+     * <li>Then the firing should be rejected at once </li>
+     * <li>And when another thread tries to fire "t1" with a timeout of 5 seconds </li>
+     * <li>And I fire "t0" while that thread is waiting </li>
+     * <li>Then "t1" should be fired as soon as "t0" enables it </li>
+     */
+    @Test
+    public void tryFiringATransitionShouldWaitUntilTimeout() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        assertFalse(petriCore.tryFireTransition("t1", 0, TimeUnit.MILLISECONDS));
+        FutureTask<Boolean> firing = new FutureTask<>(() -> petriCore.tryFireTransition("t1", 5, TimeUnit.SECONDS));
+        Thread waiting = new Thread(firing);
+        waiting.setDaemon(true);
+        waiting.start();
+        assertTrue(Awaits.awaitWaiting(waiting));
+        assertFalse(firing.isDone());
+        petriCore.fireTransition("t0", false);
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" can be fired five times </li>
+     * <li>When sixteen threads try to fire "t0" at the same time with a timeout of 200 milliseconds </li>
+     * <li>Then five of them should fire "t0" </li>
+     * <li>And every thread should return without waiting much longer than its timeout </li>
+     */
+    @Test
+    public void tryFiringATransitionUnderContentionShouldHonourTheTimeout() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        int contenders = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(contenders);
+        try {
+            List<Future<Long>> attempts = new ArrayList<>();
+            AtomicInteger fired = new AtomicInteger();
+            for (int i = 0; i < contenders; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    if (petriCore.tryFireTransition("t0", 200, TimeUnit.MILLISECONDS)) {
+                        fired.incrementAndGet();
+                    }
+                    return System.nanoTime() - begin;
+                }));
+            }
+            start.countDown();
+            for (Future<Long> attempt : attempts) {
+                assertTrue(attempt.get(5, TimeUnit.SECONDS) < TimeUnit.SECONDS.toNanos(2));
+            }
+            assertEquals(5, fired.get());
+            assertArrayEquals(new Integer[] { 0, 5, 0 }, petriCore.getMarking());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is enabled and "t1" is not </li>
+     * <li>When I request an asynchronous firing of "t1" without timeout </li>
+     * <li>Then the future returned should be completed with false </li>
+     * <li>And when I request an asynchronous firing of "t1" without limit </li>
+     * <li>Then the future returned should not be completed </li>
+     * <li>And when I fire "t0" </li>
+     * <li>Then the future should be completed with true and "t1" should be fired </li>
+     */
+    @Test
+    public void firingATransitionAsynchronouslyShouldWaitForItToBeEnabled() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        int t1 = petriCore.getTransitionIndex("t1");
+        assertFalse(petriCore.fireTransitionAsync(t1, 0, TimeUnit.MILLISECONDS).get());
+        CompletableFuture<Boolean> firing = petriCore.fireTransitionAsync(t1);
+        assertFalse(firing.isDone());
+        petriCore.fireTransition("t0", false);
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is enabled and "t1" is not </li>
+     * <li>When I request an asynchronous firing of "t1" with a timeout of 50 milliseconds </li>
+     * <li>Then the future returned should be completed with false after the timeout </li>
+     * <li>And the thread of the timer that rejected it should end once there are no timeouts left </li>
+     */
+    @Test
+    public void pendingFiringsTimerShouldEndWhenThereAreNoTimeoutsLeft() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        int t1 = petriCore.getTransitionIndex("t1");
+        assertFalse(petriCore.fireTransitionAsync(t1, 50, TimeUnit.MILLISECONDS).get(5, TimeUnit.SECONDS));
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("baboon-pending-firings-timer")) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse("The pending firings timer should have ended", thread.isAlive());
+            }
+        }
+        assertArrayEquals(new Integer[] { 5, 0, 0 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is guarded by "g0" and "t1" is not guarded </li>
+     * <li>And I register a supplier for "g0" that is not memoized, which counts its evaluations and returns true </li>
+     * <li>When I fire "t1" </li>
+     * <li>Then the supplier should not have been evaluated </li>
+     * <li>And when I check if "t0" is enabled and fire it </li>
+     * <li>Then the supplier should have been evaluated on each of them </li>
+     * <li>And "t0" should be fired </li>
+     */
+    @Test
+    public void lazyGuardShouldOnlyBeEvaluatedWhenItsTransitionIsConsidered() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_05, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        AtomicInteger evaluations = new AtomicInteger();
+        petriCore.setGuardSupplier("g0", () -> {
+            evaluations.incrementAndGet();
+            return true;
+        }, false);
+        int t0 = petriCore.getTransitionIndex("t0");
+        assertTrue(petriCore.hasGuardSupplier(petriCore.getGuardIndex("g0")));
+        assertEquals(0, evaluations.get());
+        assertTrue(petriCore.isEnabled(t0));
+        assertEquals(1, evaluations.get());
+        petriCore.fireTransition(t0, false);
+        assertEquals(2, evaluations.get());
+        assertArrayEquals(new Integer[] { 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is guarded by "g0" </li>
+     * <li>And I register a memoized supplier for "g0", which counts its evaluations </li>
+     * <li>When I check if "t0" is enabled three times </li>
+     * <li>Then the supplier should have been evaluated once </li>
+     * <li>And when I invalidate "g0" and check if "t0" is enabled again </li>
+     * <li>Then the supplier should have been evaluated twice </li>
+     */
+    @Test
+    public void memoizedGuardShouldBeEvaluatedAgainOnlyAfterInvalidation() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_05, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        AtomicInteger evaluations = new AtomicInteger();
+        petriCore.setGuardSupplier("g0", () -> {
+            evaluations.incrementAndGet();
+            return true;
+        }, true);
+        int t0 = petriCore.getTransitionIndex("t0");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(petriCore.isEnabled(t0));
+        }
+        assertEquals(1, evaluations.get());
+        petriCore.invalidateGuard("g0");
+        assertEquals(1, evaluations.get());
+        assertTrue(petriCore.isEnabled(t0));
+        assertEquals(2, evaluations.get());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is guarded by "g0" </li>
+     * <li>And I register a memoized supplier for "g0" that returns false </li>
+     * <li>When another thread tries to fire "t0" with a timeout of 5 seconds </li>
+     * <li>And I change the value returned by the supplier to true and invalidate "g0" while that thread is waiting </li>
+     * <li>Then "t0" should be fired as soon as "g0" is invalidated </li>
+     */
+    @Test
+    public void invalidatingADemandedGuardShouldEvaluateItRightAway() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_05, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        AtomicBoolean guardValue = new AtomicBoolean(false);
+        petriCore.setGuardSupplier("g0", guardValue::get, true);
+        assertFalse(petriCore.tryFireTransition("t0", 0, TimeUnit.MILLISECONDS));
+        FutureTask<Boolean> firing = new FutureTask<>(() -> petriCore.tryFireTransition("t0", 5, TimeUnit.SECONDS));
+        Thread waiting = new Thread(firing);
+        waiting.setDaemon(true);
+        waiting.start();
+        assertTrue(Awaits.awaitWaiting(waiting));
+        assertFalse(firing.isDone());
+        guardValue.set(true);
+        petriCore.invalidateGuard("g0");
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is guarded by "g0" </li>
+     * <li>And I register a supplier for "g0" that returns true </li>
+     * <li>When I register the same supplier again </li>
+     * <li>Then it should be accepted </li>
+     * <li>And when I register a different supplier that returns false </li>
+     * <li>Then it should be rejected and "t0" should still be enabled </li>
+     * <li>And when I remove the first supplier </li>
+     * <li>Then the different supplier should be accepted and "t0" should not be enabled </li>
+     */
+    @Test
+    public void registeringASecondSupplierForAGuardShouldBeRejected() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_05, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        int g0 = petriCore.getGuardIndex("g0");
+        int t0 = petriCore.getTransitionIndex("t0");
+        BooleanSupplier first = () -> true;
+        BooleanSupplier second = () -> false;
+        petriCore.setGuardSupplier(g0, first, false);
+        petriCore.setGuardSupplier(g0, first, false);
+        try {
+            petriCore.setGuardSupplier(g0, second, false);
+            fail("A second supplier should be rejected");
+        } catch (IllegalStateException e) {
+        }
+        assertTrue(petriCore.isEnabled(t0));
+        petriCore.removeGuardSupplier(g0, first);
+        petriCore.setGuardSupplier(g0, second, false);
+        assertFalse(petriCore.isEnabled(t0));
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is guarded by "g0" </li>
+     * <li>When I set "g0" to true twice </li>
+     * <li>Then the first update should be written and the second one should be skipped </li>
+     * <li>And when I set "g0" to false </li>
+     * <li>Then the update should be written and "t0" should not be enabled </li>
+     */
+    @Test
+    public void settingAGuardToTheValueItAlreadyHasShouldBeSkipped() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_05, petriNetType.PLACE_TRANSITION, null);
+        petriCore.initializePetriNet();
+        int g0 = petriCore.getGuardIndex("g0");
+        assertEquals(1, petriCore.setGuards(new int[] { g0 }, new boolean[] { true }));
+        assertEquals(0, petriCore.setGuards(new int[] { g0 }, new boolean[] { true }));
+        assertTrue(petriCore.isEnabled(petriCore.getTransitionIndex("t0")));
+        assertEquals(1, petriCore.setGuards(new int[] { g0 }, new boolean[] { false }));
+        assertFalse(petriCore.isEnabled(petriCore.getTransitionIndex("t0")));
+    }
+}
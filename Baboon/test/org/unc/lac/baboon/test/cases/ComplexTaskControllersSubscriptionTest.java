@@ -3,11 +3,13 @@ package org.unc.lac.baboon.test.cases;
 import static org.junit.Assert.*;
 
 import org.junit.Test;
+import org.unc.lac.baboon.subscription.ComplexForkJoinTaskControllerSubscription;
 import org.unc.lac.baboon.subscription.ComplexSecuentialTaskControllerSubscription;
 import org.unc.lac.baboon.actioncontroller.ActionController;
 import org.unc.lac.baboon.annotations.TaskController;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
 import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
 import org.unc.lac.baboon.topic.Topic;
 
@@ -288,4 +290,71 @@ public class ComplexTaskControllersSubscriptionTest {
         final String taskMethod = "mockTask";
         baboonConfig.appendControllerToComplexTaskController("NonExistingComplexTask", mockUserSystemObject, taskMethod);
     }
+
+    /**
+     * <li>Given I have a topics json file</li>
+     * <li>And I add the topics configuration to the Framework</li>
+     * <li>And I create a new complex secuential task associated with a {@link Topic}</li>
+     * <li>When I append a {@link TaskController} annotated method with a batch greater than one to it</li>
+     * <li>Then a {@link NotSubscribableException} exception should be
+     * thrown</li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void appendingABatchTaskToAComplexTaskShouldNotBeAllowed() throws Exception {
+        final MockUserSystemObject mockUserSystemObject = new MockUserSystemObject();
+        final BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath);
+        String complexTaskName = "complexFooTask";
+        baboonConfig.createNewComplexTaskController(complexTaskName, TOPIC_COMPLEX);
+        baboonConfig.appendControllerToComplexTaskController(complexTaskName, mockUserSystemObject,
+                "mockBatchTaskCounter", 1, new CustomCounter(), new CustomCounter());
+    }
+
+    /**
+     * <li>Given I have a topics json file</li>
+     * <li>And I add the topics configuration to the Framework</li>
+     * <li>And I create a new {@link ComplexForkJoinTaskControllerSubscription} associated with a {@link Topic} with two permissions</li>
+     * <li>When I append a {@link TaskController} annotated method, add a stage and append another one</li>
+     * <li>Then the {@link ComplexForkJoinTaskControllerSubscription} should have two stages with one taskController each</li>
+     * <li>And adding two stages in a row should throw a {@link NotSubscribableException}</li>
+     */
+    @Test
+    public void addingAStageToAForkJoinTaskShouldSplitItsTaskControllers() throws Exception {
+        final MockUserSystemObject mockUserSystemObject = new MockUserSystemObject();
+        final BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath);
+        String complexTaskName = "forkJoinFooTask";
+        baboonConfig.createNewForkJoinTaskController(complexTaskName, TOPIC_COMPLEX);
+        baboonConfig.appendControllerToComplexTaskController(complexTaskName, mockUserSystemObject, "mockTask");
+        baboonConfig.addStageToForkJoinTaskController(complexTaskName);
+        try {
+            baboonConfig.addStageToForkJoinTaskController(complexTaskName);
+            fail("An empty stage should not be allowed");
+        } catch (NotSubscribableException e) {
+        }
+        baboonConfig.appendControllerToComplexTaskController(complexTaskName, mockUserSystemObject, "mockTask2");
+        ComplexForkJoinTaskControllerSubscription complexTask = (ComplexForkJoinTaskControllerSubscription) baboonConfig
+                .getComplexSecuentialTask(complexTaskName);
+        assertEquals(2, complexTask.getStageCount());
+        assertEquals(1, complexTask.getStageEnd(0));
+        assertEquals(2, complexTask.getStageEnd(1));
+    }
+
+    /**
+     * <li>Given I have a topics json file</li>
+     * <li>And I add the topics configuration to the Framework</li>
+     * <li>And I create a new complex secuential task associated with a {@link Topic}</li>
+     * <li>When I add a stage to it</li>
+     * <li>Then a {@link NotSubscribableException} exception should be
+     * thrown</li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void addingAStageToASecuentialComplexTaskShouldNotBeAllowed() throws Exception {
+        final BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath);
+        String complexTaskName = "complexFooTask";
+        baboonConfig.createNewComplexTaskController(complexTaskName, TOPIC_COMPLEX);
+        baboonConfig.appendControllerToComplexTaskController(complexTaskName, new MockUserSystemObject(), "mockTask");
+        baboonConfig.addStageToForkJoinTaskController(complexTaskName);
+    }
 }
@@ -1,5 +1,7 @@
 package org.unc.lac.baboon.test.cases;
 
+import static org.junit.Assert.*;
+
 import java.lang.reflect.Method;
 
 import org.junit.Test;
@@ -122,4 +124,28 @@ public class ControllersTest {
         new TaskActionController(mockUserSystemObj,methodObj);
     }
 
+    /**
+     * <li>Given I have a user's system object with a {@link TaskController} annotated method</li>
+     * <li>And the same object has {@link GuardProvider} annotated methods for guards "g1" and "g2"</li>
+     * <li>And I create a {@link TaskActionController} using this object and method</li>
+     * <li>When I get the guard provider slots for "g1", "g2" and "g3"</li>
+     * <li>Then "g1" and "g2" should have different slots and "g3" should have slot -1</li>
+     * <li>And the values read by slot should follow the values of the object</li>
+     */
+    @Test
+    public void guardValuesShouldBeReadByGuardProviderSlot() throws Exception {
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        Method methodObj = MethodDictionary.getMethod(mockUserSystemObj, "mockTask");
+        TaskActionController taskController = new TaskActionController(mockUserSystemObj, methodObj);
+        int g1Slot = taskController.getGuardProviderSlot("g1");
+        int g2Slot = taskController.getGuardProviderSlot("g2");
+        assertNotEquals(g1Slot, g2Slot);
+        assertEquals(-1, taskController.getGuardProviderSlot("g3"));
+        assertFalse(taskController.getGuardValue(g1Slot));
+        assertFalse(taskController.getGuardValue(g2Slot));
+        mockUserSystemObj.setGuard1Value(true);
+        assertTrue(taskController.getGuardValue(g1Slot));
+        assertFalse(taskController.getGuardValue(g2Slot));
+    }
+
 }
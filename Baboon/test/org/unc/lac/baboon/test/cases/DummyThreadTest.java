@@ -4,30 +4,61 @@ package org.unc.lac.baboon.test.cases;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.junit.After;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 import org.unc.lac.baboon.actioncontroller.TaskActionController;
 import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.ComplexForkJoinTaskControllerSubscription;
 import org.unc.lac.baboon.execution.DummyThread;
 import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.PetriEngineNames;
 import org.unc.lac.baboon.subscription.SimpleTaskControllerSubscription;
 import org.unc.lac.baboon.test.utils.TransitionEventObserver;
 import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
 import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
 import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.baboon.topic.WaitStrategy;
 import org.unc.lac.baboon.utils.MethodDictionary;
 import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+@RunWith(Parameterized.class)
 public class DummyThreadTest {
 
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return PetriEngineNames.all();
+    }
+
+    /**
+     * The name of the {@link org.unc.lac.baboon.petri.PetriEngine} the
+     * {@link BaboonPetriCore} objects are created over.
+     */
+    @Parameter
+    public String engineName;
 
     final String petriNetFile = "/pnml01.pnml";
     final String petriNetFile_02 = "/pnml02.pnml";
+    final String petriNetFile_03 = "/pnml03.pnml";
+    final String petriNetFile_04 = "/pnml04.pnml";
     private final String topicsPath02 = "/topics02.json";
+    private final String topicsPath08 = "/topics08.json";
+    private final String topicsPath09 = "/topics09.json";
     
     
     @After
@@ -44,8 +75,9 @@ public class DummyThreadTest {
      * <li>And the {@link TaskController} method in the {@link TaskActionController} increases the count on a {@link CustomCounter} object. </li>
      * <li>And I configure a {@link DummyThread} object to execute the {@link SimpleTaskControllerSubscription} using the {@link BaboonPetriCore} </li>
      * <li>When I create a Thread to execute {@link DummyThread#call()} method</li>
-     * <li>And I let the Thread execute for a second before interrupting it</li>
-     * <li>Then {@link CustomCounter#getVal()} should be greater than zero </li>
+     * <li>And I let the Thread execute until the {@link CustomCounter} reaches ten before interrupting it</li>
+     * <li>Then the Thread should end </li>
+     * <li>And {@link CustomCounter#getVal()} should be greater than zero </li>
      * <li>And transition firing event count should be two times the counter value (with an error of +/- 1 because execution thread is interrupted) </li>
      * <li>And transition firing events on {@link TransitionEventObserver} should be interleaved in the following way "t0, t1, t0, t1, ..." </li>
      * 
@@ -57,7 +89,7 @@ public class DummyThreadTest {
         baboonConfig.addTopics(topicsPath02);
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -78,17 +110,18 @@ public class DummyThreadTest {
             };});
         
         t.start();
-        Thread.sleep(1000);
+        assertTrue(Awaits.await(() -> counter.getVal() >= 10));
         t.interrupt();
+        t.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+        assertFalse(t.isAlive());
         assertTrue(counter.getVal() > 0);
         final int receivedEventCount = tObserver.getEvents().size();
         final int expectedEvents = 2*counter.getVal();
         final int maxEventCountDeviation = 1;
         boolean eventCountRangeOk = receivedEventCount <= (expectedEvents+maxEventCountDeviation) && receivedEventCount > (expectedEvents-maxEventCountDeviation);
         assertTrue(eventCountRangeOk);
-        ObjectMapper mapper = new ObjectMapper();
         for(int i = 0; i< tObserver.getEvents().size() ; i++){
-            String receivedEvent =  mapper.readTree(tObserver.getEvents().get(i)).findValue("name").asText();
+            String receivedEvent =  TransitionEventObserver.getTransitionName(tObserver.getEvents().get(i));
             if(i%2 == 0){
                 assertEquals("t0", receivedEvent);
             }
@@ -101,6 +134,67 @@ public class DummyThreadTest {
     
     
     
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with one token on place "p0",
+     * and transitions "t0" and "t1" moving it from "p0" to "p1" and back </li>
+     * <li>And for each {@link WaitStrategy}, I have a "ping" {@link Topic} with permission "t0" and a "pong" {@link Topic} with permission "t1" </li>
+     * <li>And I subscribe a {@link TaskActionController} to each {@link Topic}, each one with its own {@link CustomCounter} </li>
+     * <li>When I execute both taskControllers on their own {@link DummyThread} until the "pong" one is executed ten times </li>
+     * <li>And I stop both {@link DummyThread} objects </li>
+     * <li>Then both taskControllers should have been executed </li>
+     * <li>And their executions should alternate, so the counters differ at most in one </li>
+     */
+    @Test
+    public void pingPongTaskControllersShouldAlternateWithEveryWaitStrategy() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath09);
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        for (String strategy : new String[] { "blocking", "spinning", "yielding" }) {
+            BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_04, petriNetType.PLACE_TRANSITION, null));
+            petriCore.initializePetriNet();
+            baboonConfig.setPetriCore(petriCore);
+            CustomCounter pingCounter = new CustomCounter();
+            CustomCounter pongCounter = new CustomCounter();
+            MockUserSystemObject pingObj = new MockUserSystemObject();
+            MockUserSystemObject pongObj = new MockUserSystemObject();
+            AbstractTaskControllerSubscription ping = (AbstractTaskControllerSubscription) baboonConfig
+                    .subscribeControllerToTopic(strategy + "_ping", pingObj, "mockTaskCounter", pingCounter);
+            AbstractTaskControllerSubscription pong = (AbstractTaskControllerSubscription) baboonConfig
+                    .subscribeControllerToTopic(strategy + "_pong", pongObj, "mockTaskCounter", pongCounter);
+            final DummyThread pingDummy = new DummyThread(ping, petriCore);
+            final DummyThread pongDummy = new DummyThread(pong, petriCore);
+            Thread pingThread = new Thread(() -> pingDummy.call());
+            Thread pongThread = new Thread(() -> pongDummy.call());
+            pingThread.start();
+            pongThread.start();
+            assertTrue(Awaits.await(() -> pongCounter.getVal() >= 10));
+            pingDummy.stop();
+            pongDummy.stop();
+            pingThread.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+            pongThread.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+            assertFalse(pingThread.isAlive());
+            assertFalse(pongThread.isAlive());
+            assertTrue(pongCounter.getVal() > 0);
+            assertTrue(pingCounter.getVal() - pongCounter.getVal() <= 1);
+            assertTrue(pingCounter.getVal() >= pongCounter.getVal());
+            baboonConfig.unsubscribeController(pingObj, "mockTaskCounter", pingCounter);
+            baboonConfig.unsubscribeController(pongObj, "mockTaskCounter", pongCounter);
+        }
+    }
+
+    /**
+     * <li>Given I have a {@link Topic} whose {@link WaitStrategy} is {@link WaitStrategy#SPIN_THEN_PARK}, with negative spin tries </li>
+     * <li>When I subscribe a {@link TaskActionController} to the {@link Topic} </li>
+     * <li>Then a {@link NotSubscribableException} should be thrown </li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void topicWithNegativeSpinTriesShouldNotAcceptTaskControllers() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath09);
+        baboonConfig.subscribeControllerToTopic("negative_spin_tries_topic", new MockUserSystemObject(), "mockTaskCounter",
+                new CustomCounter());
+    }
+
     /**
      * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains fired transitions "t0" and "t1" </li>
      * <li>And "t0" is enabled to be fired repeatedly </li>
@@ -118,7 +212,7 @@ public class DummyThreadTest {
         baboonConfig.addTopics(topicsPath02);
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -148,7 +242,7 @@ public class DummyThreadTest {
         topic.getPermission().add("t0");
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -178,7 +272,7 @@ public class DummyThreadTest {
         topic.getPermission().add("t0");
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -210,7 +304,7 @@ public class DummyThreadTest {
         topic.getFireCallback().add("t0");
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -240,7 +334,7 @@ public class DummyThreadTest {
         topic.getPermission().add("t1");
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -271,7 +365,7 @@ public class DummyThreadTest {
         topic.getPermission().add("t1");
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
         final String taskMethod = "mockTaskCounter";
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         Method methodObj =  MethodDictionary.getMethod(mockUserSystemObj, taskMethod, CustomCounter.class);
         CustomCounter counter = new CustomCounter();
@@ -311,8 +405,163 @@ public class DummyThreadTest {
      */
     @Test (expected=IllegalArgumentException.class)
     public void dummyThreadInitializationWithNullTaskShouldNotBePossible() throws Exception{
-        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_02, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet();
         new DummyThread(null, petriCore);
     }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is enabled five times </li>
+     * <li>And I configure a {@link Topic} with permission "t0" and a fireCallback "t1" </li>
+     * <li>And I subscribe a {@link TaskController} annotated method with a batch of ten to the {@link Topic} </li>
+     * <li>And the method counts its executions and the permissions received on two {@link CustomCounter} objects </li>
+     * <li>When I execute the subscription on a {@link DummyThread} until "t1" is fired five times </li>
+     * <li>Then the method should have been executed once </li>
+     * <li>And "t1" should have been fired five times </li>
+     */
+    @Test
+    public void batchTaskControllerShouldBeExecutedOnceForAllTheEnabledPermissions() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+        CustomCounter executions = new CustomCounter();
+        CustomCounter permissions = new CustomCounter();
+        AbstractTaskControllerSubscription taskSubscription = (AbstractTaskControllerSubscription) baboonConfig
+                .subscribeControllerToTopic("topic1", new MockUserSystemObject(), "mockBatchTaskCounter", executions,
+                        permissions);
+        DummyThread dummyThreadInstance = new DummyThread(taskSubscription, petriCore);
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        Thread t = new Thread(() -> dummyThreadInstance.call());
+        t.setDaemon(true);
+        t.start();
+        assertTrue(Awaits.await(() -> petriCore.getMarking()[2] == 5));
+        dummyThreadInstance.stop();
+        t.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+        assertFalse(t.isAlive());
+        assertEquals(1, executions.getVal());
+        assertEquals(5, permissions.getVal());
+        assertArrayEquals(new Integer[] { 0, 0, 5 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with one token on place "p0" </li>
+     * <li>And for each {@link WaitStrategy}, I subscribe a {@link TaskActionController} to a "pong" {@link Topic} with permission "t1", which is not enabled </li>
+     * <li>When I execute the taskController on a {@link DummyThread} until it waits for its permission </li>
+     * <li>And I stop the {@link DummyThread} </li>
+     * <li>Then the thread should end without being interrupted </li>
+     * <li>And the taskController should not have been executed </li>
+     */
+    @Test
+    public void stoppingADummyThreadWaitingForItsPermissionShouldNotInterruptIt() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath09);
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        for (String strategy : new String[] { "blocking", "spinning", "yielding" }) {
+            BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_04, petriNetType.PLACE_TRANSITION, null));
+            petriCore.initializePetriNet();
+            baboonConfig.setPetriCore(petriCore);
+            CustomCounter pongCounter = new CustomCounter();
+            MockUserSystemObject pongObj = new MockUserSystemObject();
+            AbstractTaskControllerSubscription pong = (AbstractTaskControllerSubscription) baboonConfig
+                    .subscribeControllerToTopic(strategy + "_pong", pongObj, "mockTaskCounter", pongCounter);
+            final DummyThread pongDummy = new DummyThread(pong, petriCore);
+            AtomicBoolean interrupted = new AtomicBoolean();
+            Thread pongThread = new Thread(() -> {
+                pongDummy.call();
+                interrupted.set(Thread.currentThread().isInterrupted());
+            });
+            pongThread.setDaemon(true);
+            pongThread.start();
+            assertTrue(strategy.equals("yielding") || Awaits.awaitWaiting(pongThread));
+            pongDummy.stop();
+            pongThread.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+            assertFalse(pongThread.isAlive());
+            assertFalse(interrupted.get());
+            assertEquals(0, pongCounter.getVal());
+            assertArrayEquals(new Integer[] { 1, 0 }, petriCore.getMarking());
+            baboonConfig.unsubscribeController(pongObj, "mockTaskCounter", pongCounter);
+        }
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, where "t0" is enabled many times </li>
+     * <li>And I configure a {@link Topic} with permissions "t0", "t0" and "t0" and fireCallbacks "t1", "t1" and "t1" </li>
+     * <li>And I create a {@link ComplexForkJoinTaskControllerSubscription} with three {@link TaskController} annotated methods on a single stage </li>
+     * <li>And the methods wait for each other on a {@link CyclicBarrier} before counting their executions </li>
+     * <li>When I execute the complex taskController on a {@link DummyThread} </li>
+     * <li>Then the three methods should be executed concurrently, passing the barrier </li>
+     * <li>And the executions should be a multiple of three after the {@link DummyThread} is stopped </li>
+     * <li>And the transition callbacks of the last stage should have been fired, returning every token to place "p0" </li>
+     */
+    @Test
+    public void forkJoinStageShouldExecuteItsTaskControllersConcurrently() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath08);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_03, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        AtomicInteger executions = new AtomicInteger();
+        baboonConfig.createNewForkJoinTaskController("forkJoinTask", "fork_join_topic");
+        for (int i = 0; i < 3; i++) {
+            baboonConfig.appendControllerToComplexTaskController("forkJoinTask", new MockUserSystemObject(),
+                    "mockBarrierTask", barrier, executions);
+        }
+        DummyThread dummyThreadInstance = new DummyThread(baboonConfig.getComplexSecuentialTask("forkJoinTask"),
+                petriCore);
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        Thread t = new Thread(() -> dummyThreadInstance.call());
+        t.setDaemon(true);
+        t.start();
+        assertTrue(Awaits.await(() -> executions.get() >= 3));
+        dummyThreadInstance.stop();
+        t.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+        assertFalse(t.isAlive());
+        assertTrue(executions.get() >= 3);
+        assertEquals(0, executions.get() % 3);
+        assertArrayEquals(new Integer[] { 100, 0 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with one token on place "p0" </li>
+     * <li>And I configure a {@link Topic} with permissions "t0", "t0" and "t0" on a single stage </li>
+     * <li>And I create a {@link ComplexForkJoinTaskControllerSubscription} whose first {@link TaskController} fails </li>
+     * <li>When I execute the complex taskController on a {@link DummyThread} </li>
+     * <li>Then the failure should be thrown by the {@link DummyThread} </li>
+     * <li>And the forked taskControllers, waiting for a permission that is not enabled anymore, should give it up </li>
+     */
+    @Test
+    public void failingFirstTaskControllerOfAStageShouldCancelTheForks() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath08);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_04, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+        baboonConfig.createNewForkJoinTaskController("failingForkJoinTask", "fork_join_topic");
+        baboonConfig.appendControllerToComplexTaskController("failingForkJoinTask", new MockUserSystemObject(),
+                "mockFailingTask");
+        for (int i = 0; i < 2; i++) {
+            baboonConfig.appendControllerToComplexTaskController("failingForkJoinTask", new MockUserSystemObject(),
+                    "mockTask");
+        }
+        DummyThread dummyThreadInstance = new DummyThread(baboonConfig.getComplexSecuentialTask("failingForkJoinTask"),
+                petriCore);
+        Logger.getLogger(DummyThread.class.getName()).setLevel(Level.OFF);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            try {
+                dummyThreadInstance.call();
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        t.join(TimeUnit.SECONDS.toMillis(Awaits.DEFAULT_TIMEOUT));
+        assertFalse(t.isAlive());
+        assertNotNull(failure.get());
+        assertArrayEquals(new Integer[] { 0, 1 }, petriCore.getMarking());
+    }
 }
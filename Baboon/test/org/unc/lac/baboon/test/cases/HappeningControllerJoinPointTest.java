@@ -3,33 +3,63 @@ package org.unc.lac.baboon.test.cases;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.unc.lac.baboon.annotations.AcquisitionMode;
 import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.aspect.HappeningControllerJoinPointReporter;
+import org.unc.lac.baboon.aspect.JoinPointObserver.State;
 import org.unc.lac.baboon.config.BaboonConfig;
 import org.unc.lac.baboon.exceptions.BadPolicyException;
 import org.unc.lac.baboon.exceptions.BadTopicsJsonFormat;
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
 import org.unc.lac.baboon.exceptions.NoTopicsJsonFileException;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.execution.HappeningControllerSynchronizer;
 import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.PetriEngineNames;
 import org.unc.lac.baboon.test.utils.TransitionEventObserver;
 import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
 import org.unc.lac.baboon.topic.Topic;
 import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 
+@RunWith(Parameterized.class)
 public class HappeningControllerJoinPointTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return PetriEngineNames.all();
+    }
+
+    /**
+     * The name of the {@link org.unc.lac.baboon.petri.PetriEngine} the
+     * {@link BaboonPetriCore} objects are created over.
+     */
+    @Parameter
+    public String engineName;
+
     private BaboonConfig baboonConfig;
     final String petriNetFile = "/pnml01.pnml";
     private HappeningControllerSynchronizer hcSyncronizer;
     private BaboonPetriCore petriCore;
     
     private final String topicsPath02 = "/topics02.json";
+    private final String topicsPath06 = "/topics06.json";
+    private final String topicsPath07 = "/topics07.json";
     private final String topicName = "topic1";
     
     /**
@@ -54,7 +84,7 @@ public class HappeningControllerJoinPointTest {
     public void test() throws BadTopicsJsonFormat, NoTopicsJsonFileException, NotSubscribableException, BadPolicyException, JsonProcessingException, IOException {
         baboonConfig = new BaboonConfig();
         baboonConfig.addTopics(topicsPath02);
-        petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
         petriCore.initializePetriNet(); 
         
         final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
@@ -77,13 +107,418 @@ public class HappeningControllerJoinPointTest {
        
        assertEquals(3,tObserver.getEvents().size());
        
-       ObjectMapper mapper = new ObjectMapper();
-       String receivedEventT0 =  mapper.readTree(tObserver.getEvents().get(0)).findValue("name").asText();
-       String receivedEventT1 =  mapper.readTree(tObserver.getEvents().get(2)).findValue("name").asText();
+       String receivedEventT0 =  TransitionEventObserver.getTransitionName(tObserver.getEvents().get(0));
+       String receivedEventT1 =  TransitionEventObserver.getTransitionName(tObserver.getEvents().get(2));
        
        assertEquals(expectedEventT0,receivedEventT0);
        assertEquals(eventToAdd,tObserver.getEvents().get(1));
        assertEquals(expectedEventT1,receivedEventT1);
     }
 
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I have a topics file with a topic named "topic1" </li>
+     * <li>And "topic1" permission is "t0" and its transition callback is "t1" </li>
+     * <li>And I have a {@link TransitionEventObserver} listening for firing events on transitions "t0" and "t1".
+     * <li>And I have two instances of {@link MockUserSystemObject}.
+     * <li>And I subscribe {@link MockUserSystemObject#eventInserterHappeningController(TransitionEventObserver, String)}} of the first instance to "topic1" </li>
+     * <li>And I subscribe a {@link HappeningControllerSynchronizer} to {@link HappeningControllerJoinPointReporter}. </li>
+     * <li>When I execute the {@link HappeningController} method of the first instance twice </li>
+     * <li>Then {@link TransitionEventObserver} contains the events "t0", the inserted event and "t1" twice, in that order. </li>
+     * <li>And when I execute the {@link HappeningController} method of the second instance, which is not subscribed,
+     * a RuntimeException is thrown and no transition is fired. </li>
+     */
+    @Test
+    public void happeningControllerIsResolvedByInstance() throws BadTopicsJsonFormat, NoTopicsJsonFileException, NotSubscribableException, BadPolicyException, IOException {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+
+        final MockUserSystemObject subscribedObj = new MockUserSystemObject();
+        final MockUserSystemObject notSubscribedObj = new MockUserSystemObject();
+        String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        petriCore.listenToTransitionInforms("t0", tObserver);
+        petriCore.listenToTransitionInforms("t1", tObserver);
+
+        baboonConfig.subscribeControllerToTopic(topicName, subscribedObj, "eventInserterHappeningController", tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        subscribedObj.eventInserterHappeningController(tObserver, eventToAdd);
+        subscribedObj.eventInserterHappeningController(tObserver, eventToAdd);
+
+        assertEquals(6, tObserver.getEvents().size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals("t0", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(3 * i)));
+            assertEquals(eventToAdd, tObserver.getEvents().get(3 * i + 1));
+            assertEquals("t1", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(3 * i + 2)));
+        }
+        try {
+            notSubscribedObj.eventInserterHappeningController(tObserver, eventToAdd);
+            fail("Exception should have been thrown before this point");
+        } catch (RuntimeException e) {
+            assertEquals(6, tObserver.getEvents().size());
+        }
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And {@link MockUserSystemObject#eventInserterHappeningController(TransitionEventObserver, String)}} is overloaded
+     * by {@link MockUserSystemObject#eventInserterHappeningController(TransitionEventObserver)}} </li>
+     * <li>And I subscribe only the first overload to "topic1", whose permission is "t0" and its transition callback is "t1" </li>
+     * <li>When I report the execution of the method by its name to a {@link HappeningControllerSynchronizer} </li>
+     * <li>Then the subscribed overload is resolved and "t0" and "t1" are fired, in that order. </li>
+     * <li>And when I report by name a method which is not subscribed, a RuntimeException is thrown and no transition is fired. </li>
+     */
+    @Test
+    public void overloadedHappeningControllerShouldBeResolvedByName() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        petriCore.listenToTransitionInforms("t0", tObserver);
+        petriCore.listenToTransitionInforms("t1", tObserver);
+
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, "eventInserterHappeningController", tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+
+        hcSyncronizer.update(mockUserSystemObj, "eventInserterHappeningController", State.BEFORE_EXECUTION);
+        hcSyncronizer.update(mockUserSystemObj, "eventInserterHappeningController", State.AFTER_EXECUTION);
+
+        assertEquals(2, tObserver.getEvents().size());
+        assertEquals("t0", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(0)));
+        assertEquals("t1", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(1)));
+        try {
+            hcSyncronizer.update(mockUserSystemObj, "mockHappeningController", State.BEFORE_EXECUTION);
+            fail("Exception should have been thrown before this point");
+        } catch (RuntimeException e) {
+            assertEquals(2, tObserver.getEvents().size());
+        }
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#eventInserterHappeningController(TransitionEventObserver, String)}} to "topic1",
+     * whose permission is "t0" and its transition callback is "t1" </li>
+     * <li>And I subscribe a {@link HappeningControllerSynchronizer} to {@link HappeningControllerJoinPointReporter}. </li>
+     * <li>And I execute the {@link HappeningController} method once </li>
+     * <li>When I unsubscribe the {@link HappeningController} method while the synchronizer is running </li>
+     * <li>Then the subscription should not be registered in config anymore </li>
+     * <li>And when I execute the {@link HappeningController} method again, a RuntimeException is thrown and no transition is fired. </li>
+     */
+    @Test
+    public void unsubscribedHappeningControllerShouldNotBeSynchronizedAnymore() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String happeningControllerMethod = "eventInserterHappeningController";
+        String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        petriCore.listenToTransitionInforms("t0", tObserver);
+        petriCore.listenToTransitionInforms("t1", tObserver);
+
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, happeningControllerMethod, tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        mockUserSystemObj.eventInserterHappeningController(tObserver, eventToAdd);
+        assertEquals(3, tObserver.getEvents().size());
+
+        assertEquals(1, baboonConfig.unsubscribeController(mockUserSystemObj, happeningControllerMethod, tObserver, eventToAdd).size());
+        assertEquals(0, baboonConfig.getHappeningControllerCount());
+        try {
+            mockUserSystemObj.eventInserterHappeningController(tObserver, eventToAdd);
+            fail("Exception should have been thrown before this point");
+        } catch (RuntimeException e) {
+            assertEquals(3, tObserver.getEvents().size());
+        }
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#eventInserterHappeningController(TransitionEventObserver, String)}} to "topic1" </li>
+     * <li>And I execute the {@link HappeningController} method once, so its subscription is cached by the synchronizer </li>
+     * <li>When I unsubscribe the {@link HappeningController} method and remove the unsubscribed entries from the synchronizer </li>
+     * <li>And I drop every other reference to the object </li>
+     * <li>Then the object should be garbage collected, requesting a collection until it is or the wait times out </li>
+     */
+    @Test
+    public void unsubscribedHappeningControllerShouldNotBeReferencedByTheSynchronizer() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+
+        MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String happeningControllerMethod = "eventInserterHappeningController";
+        String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, happeningControllerMethod, tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        mockUserSystemObj.eventInserterHappeningController(tObserver, eventToAdd);
+        assertEquals(1, baboonConfig.unsubscribeController(mockUserSystemObj, happeningControllerMethod, tObserver, eventToAdd).size());
+        hcSyncronizer.removeUnsubscribedEntries();
+
+        WeakReference<MockUserSystemObject> reference = new WeakReference<>(mockUserSystemObj);
+        mockUserSystemObj = null;
+        assertTrue(Awaits.await(() -> {
+            System.gc();
+            return reference.get() == null;
+        }));
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" fed by a place "p0" with 5 tokens, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#tryEventInserterHappeningController(TransitionEventObserver, String)}, which uses
+     * {@link AcquisitionMode#TRY_ONCE} and has a fallback method, to "topic1", whose permission is "t0" and its transition callback is "t1" </li>
+     * <li>When I execute the {@link HappeningController} method 6 times </li>
+     * <li>Then the first 5 executions return true and insert their event </li>
+     * <li>And the last execution returns false, the value of the fallback method, without inserting its event </li>
+     */
+    @Test
+    public void rejectedTryOnceHappeningControllerShouldCallFallback() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, "tryEventInserterHappeningController",
+                tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(mockUserSystemObj.tryEventInserterHappeningController(tObserver, eventToAdd));
+        }
+        assertFalse(mockUserSystemObj.tryEventInserterHappeningController(tObserver, eventToAdd));
+        assertEquals(5, tObserver.getEvents().size());
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" fed by a place "p0" with 5 tokens </li>
+     * <li>And I subscribe {@link MockUserSystemObject#timedEventInserterHappeningController(TransitionEventObserver, String)}, which uses
+     * {@link AcquisitionMode#TIMEOUT} of 50 milliseconds without fallback method, to "topic1", whose permission is "t0" </li>
+     * <li>And I fire "t0" 5 times, so it is not enabled anymore </li>
+     * <li>When I execute the {@link HappeningController} method </li>
+     * <li>Then a {@link HappeningRejectedException} is thrown after waiting at least 50 milliseconds </li>
+     * <li>And the event is not inserted </li>
+     */
+    @Test
+    public void timedOutHappeningControllerShouldThrowException() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, "timedEventInserterHappeningController",
+                tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+        for (int i = 0; i < 5; i++) {
+            petriCore.fireTransition("t0", false);
+        }
+        long start = System.nanoTime();
+        try {
+            mockUserSystemObj.timedEventInserterHappeningController(tObserver, eventToAdd);
+            fail("Exception should have been thrown before this point");
+        } catch (HappeningRejectedException e) {
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertTrue(tObserver.getEvents().isEmpty());
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I have a {@link TransitionEventObserver} listening for firing events on transitions "t0" and "t1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#asyncEventInserterHappeningController(TransitionEventObserver, CompletableFuture)},
+     * which returns a {@link CompletableFuture}, to "topic1", whose permission is "t0" and its transition callback is "t1" </li>
+     * <li>When I execute the {@link HappeningController} method with a work that is not completed </li>
+     * <li>Then the future returned is not completed and only the event from "t0" was received </li>
+     * <li>And when I complete the work </li>
+     * <li>Then the future returned is completed with the event </li>
+     * <li>And {@link TransitionEventObserver} contains an event from "t0", the inserted event and an event from "t1". In that order. </li>
+     */
+    @Test
+    public void asyncHappeningControllerShouldFireCallbacksOnCompletion() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath06);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final CompletableFuture<String> work = new CompletableFuture<>();
+        final String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        petriCore.listenToTransitionInforms("t0", tObserver);
+        petriCore.listenToTransitionInforms("t1", tObserver);
+        baboonConfig.subscribeControllerToTopic(topicName, mockUserSystemObj, "asyncEventInserterHappeningController",
+                tObserver, work);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        CompletableFuture<String> result = mockUserSystemObj.asyncEventInserterHappeningController(tObserver, work);
+        assertFalse(result.isDone());
+        assertEquals(1, tObserver.getEvents().size());
+        work.complete(eventToAdd);
+        assertEquals(eventToAdd, result.get(5, TimeUnit.SECONDS));
+
+        assertEquals(3, tObserver.getEvents().size());
+        assertEquals("t0", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(0)));
+        assertEquals(eventToAdd, tObserver.getEvents().get(1));
+        assertEquals("t1", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(2)));
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#asyncEventInserterHappeningController(TransitionEventObserver, CompletableFuture)},
+     * which returns a {@link CompletableFuture}, to "topic_t1_permission", whose permission is "t1" </li>
+     * <li>When I execute the {@link HappeningController} method with a completed work </li>
+     * <li>Then the method returns without waiting for "t1" to be enabled, and the future returned is not completed </li>
+     * <li>And when I fire "t0" </li>
+     * <li>Then "t1" is fired and the future returned is completed with the event </li>
+     */
+    @Test
+    public void asyncHappeningControllerShouldNotWaitForPermission() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath06);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String eventToAdd = "TEST_EVENT";
+        final CompletableFuture<String> work = CompletableFuture.completedFuture(eventToAdd);
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.subscribeControllerToTopic("topic_t1_permission", mockUserSystemObj,
+                "asyncEventInserterHappeningController", tObserver, work);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        CompletableFuture<String> result = mockUserSystemObj.asyncEventInserterHappeningController(tObserver, work);
+        assertFalse(result.isDone());
+        assertTrue(tObserver.getEvents().isEmpty());
+        petriCore.fireTransition("t0", false);
+        assertEquals(eventToAdd, result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, tObserver.getEvents().size());
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I have a {@link TransitionEventObserver} listening for firing events on transitions "t0" and "t1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#coalescingEventInserterHappeningController(TransitionEventObserver, String)}
+     * to "coalescing_topic", whose permission is "t0", its transition callback is "t1" and its coalescing batch size is 3 </li>
+     * <li>When I execute the {@link HappeningController} method twice </li>
+     * <li>Then the executions are buffered: no event was received and the marking did not change </li>
+     * <li>And when I execute the {@link HappeningController} method for the third time </li>
+     * <li>Then the batch is synchronized: "t0" is fired three times, the three events are inserted and "t1" is fired three times. In that order. </li>
+     * <li>And the batch method was called once, with the three executions. </li>
+     */
+    @Test
+    public void coalescingHappeningControllerShouldBeSynchronizedInBatches() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath07);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        petriCore.listenToTransitionInforms("t0", tObserver);
+        petriCore.listenToTransitionInforms("t1", tObserver);
+        baboonConfig.subscribeControllerToTopic("coalescing_topic", mockUserSystemObj,
+                "coalescingEventInserterHappeningController", tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        mockUserSystemObj.coalescingEventInserterHappeningController(tObserver, eventToAdd);
+        mockUserSystemObj.coalescingEventInserterHappeningController(tObserver, eventToAdd);
+        assertTrue(tObserver.getEvents().isEmpty());
+        assertArrayEquals(new Integer[] { 5, 0, 0 }, petriCore.getMarking());
+        mockUserSystemObj.coalescingEventInserterHappeningController(tObserver, eventToAdd);
+
+        assertEquals(9, tObserver.getEvents().size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("t0", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(i)));
+            assertEquals(eventToAdd, tObserver.getEvents().get(i + 3));
+            assertEquals("t1", TransitionEventObserver.getTransitionName(tObserver.getEvents().get(i + 6)));
+        }
+        assertArrayEquals(new Integer[] { 2, 0, 3 }, petriCore.getMarking());
+        assertEquals(Arrays.asList(3), mockUserSystemObj.getCoalescedBatchSizes());
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#failingCoalescingHappeningController()}, whose batch method always fails,
+     * to "coalescing_topic", whose permission is "t0", its transition callback is "t1" and its coalescing batch size is 3 </li>
+     * <li>When I execute the {@link HappeningController} method three times </li>
+     * <li>Then the third call, which completes the batch, throws the exception of the batch method </li>
+     * <li>And the callbacks of the batch were fired anyway: "t0" and "t1" were fired three times </li>
+     */
+    @Test
+    public void failingCoalescedBatchShouldThrowToTheCallerCompletingIt() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath07);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        baboonConfig.subscribeControllerToTopic("coalescing_topic", mockUserSystemObj,
+                "failingCoalescingHappeningController");
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        mockUserSystemObj.failingCoalescingHappeningController();
+        mockUserSystemObj.failingCoalescingHappeningController();
+        try {
+            mockUserSystemObj.failingCoalescingHappeningController();
+            fail("Exception should have been thrown before this point");
+        } catch (IllegalStateException e) {
+            assertEquals("The batch of 3 executions failed", e.getMessage());
+        }
+        assertArrayEquals(new Integer[] { 2, 0, 3 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a petri net with a transition "t0" enabled, a place "p1" fed by "t0" and a transition "t1" fed by "p1" </li>
+     * <li>And I subscribe {@link MockUserSystemObject#coalescingEventInserterHappeningController(TransitionEventObserver, String)}
+     * to "coalescing_window_topic", whose coalescing batch size is 10 and its coalescing window is 20 milliseconds </li>
+     * <li>When I execute the {@link HappeningController} method once </li>
+     * <li>Then the execution is buffered </li>
+     * <li>And when I wait until "t1" is fired, once the coalescing window elapses </li>
+     * <li>Then the incomplete batch is synchronized: the event is inserted and "t0" and "t1" are fired once </li>
+     */
+    @Test
+    public void incompleteCoalescedBatchShouldBeSynchronizedWhenTheWindowElapses() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath07);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        final String eventToAdd = "TEST_EVENT";
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.subscribeControllerToTopic("coalescing_window_topic", mockUserSystemObj,
+                "coalescingEventInserterHappeningController", tObserver, eventToAdd);
+        hcSyncronizer = new HappeningControllerSynchronizer(baboonConfig, petriCore);
+        HappeningControllerJoinPointReporter.setObserver(hcSyncronizer);
+
+        mockUserSystemObj.coalescingEventInserterHappeningController(tObserver, eventToAdd);
+        assertArrayEquals(new Integer[] { 5, 0, 0 }, petriCore.getMarking());
+        assertTrue(Awaits.await(() -> petriCore.getMarking()[2] == 1));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, petriCore.getMarking());
+        assertEquals(1, tObserver.getEvents().size());
+        assertEquals(eventToAdd, tObserver.getEvents().get(0));
+    }
+
 }
@@ -0,0 +1,13 @@
+package org.unc.lac.baboon.test.cases;
+
+import org.unc.lac.baboon.petri.JpcmPetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+public class JpcmPetriEngineConformanceTest extends PetriEngineConformanceTest {
+
+    @Override
+    protected PetriEngine createEngine(String pnmlFilePath) throws Exception {
+        return new JpcmPetriEngine(pnmlFilePath, petriNetType.PLACE_TRANSITION, null);
+    }
+}
@@ -3,6 +3,7 @@ package org.unc.lac.baboon.test.cases;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
 import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
@@ -89,4 +90,58 @@ public class MethodDictionaryTest {
         assertEquals(MockUserSystemObject.class, methodObj.getDeclaringClass());
     }
 
+    /**
+     * <li>Given I have a {@link MethodDictionary} object</li>
+     * <li>When I try to resolve by name only a public method that takes parameters</li>
+     * <li>Then the obtained {@link Method} object should return the same name as provided when calling {@link Method#getName()} </li>
+     * <li>And the obtained {@link Method} object should take the parameters declared on the method</li>
+     * <li>And when I try to resolve by name only a method that does not exist a {@link NoSuchMethodException} is thrown</li>
+    */
+    @Test
+    public void getMethodByNameTest() throws NoSuchMethodException, SecurityException {
+        final String happeningMethod = "eventInserterHappeningController";
+        Method methodObj = MethodDictionary.getMethodByName(MockUserSystemObject.class, happeningMethod);
+        assertEquals(happeningMethod, methodObj.getName());
+        assertEquals(2, methodObj.getParameterCount());
+        try {
+            MethodDictionary.getMethodByName(MockUserSystemObject.class, "notExistingMethod");
+            fail("Exception should have been thrown before this point");
+        } catch (NoSuchMethodException e) {
+        }
+    }
+
+    /**
+     * <li>Given I have a {@link MethodDictionary} object</li>
+     * <li>When many threads try to resolve at the same time the same public method of different instances of a class</li>
+     * <li>Then all the threads should obtain the same {@link Method} object</li>
+    */
+    @Test
+    public void getMethodFromManyThreadsTest() throws InterruptedException {
+        final String taskMethod = "mockTaskCounter";
+        final int threads = 8;
+        final Method[] resolved = new Method[threads];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] resolvers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            resolvers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    resolved[index] = MethodDictionary.getMethod(new MockUserSystemObject(), taskMethod,
+                            CustomCounter.class);
+                } catch (InterruptedException | NoSuchMethodException e) {
+                }
+            });
+            resolvers[i].start();
+        }
+        start.countDown();
+        for (Thread resolver : resolvers) {
+            resolver.join();
+        }
+        for (int i = 0; i < threads; i++) {
+            assertSame(resolved[0], resolved[i]);
+        }
+        assertEquals(taskMethod, resolved[0].getName());
+    }
+
 }
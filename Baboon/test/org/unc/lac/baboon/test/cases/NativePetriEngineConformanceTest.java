@@ -0,0 +1,79 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.unc.lac.baboon.petri.NativePetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.baboon.test.utils.TransitionEventObserver;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+public class NativePetriEngineConformanceTest extends PetriEngineConformanceTest {
+
+    final String petriNetFile_06 = "/pnml06.pnml";
+    final String petriNetFile_07 = "/pnml07.pnml";
+
+    @Override
+    protected PetriEngine createEngine(String pnmlFilePath) throws Exception {
+        return new NativePetriEngine(pnmlFilePath, petriNetType.PLACE_TRANSITION);
+    }
+
+    /**
+     * <li>Given I have an initialized {@link NativePetriEngine} with 1 token on "p0" and 2 tokens on "p2" </li>
+     * <li>And a transition "t0" from "p0" to "p1" inhibited by "p2" </li>
+     * <li>And a transition "t1" that reads "p0" and resets "p2" </li>
+     * <li>And an automatic informed transition "t2" from "p1" to "p2" with weight 3 </li>
+     * <li>When I fire "t1" and then "t0" </li>
+     * <li>Then "t0" should be enabled only after "p2" is reset </li>
+     * <li>And "t2" should be fired automatically, leaving the marking [0, 0, 3] </li>
+     */
+    @Test
+    public void nativeEngineShouldSupportInhibitorReaderResetArcsAndAutomaticTransitions() throws Exception {
+        PetriEngine engine = createEngine(petriNetFile_06);
+        engine.initialize();
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        engine.subscribeToTransition("t2", tObserver);
+        assertFalse(engine.tryFire(0));
+        assertTrue(engine.tryFire(1));
+        assertArrayEquals(new Integer[] { 1, 0, 0 }, engine.getMarking());
+        assertTrue(engine.isEnabled(0));
+        engine.fire(0, false);
+        assertArrayEquals(new Integer[] { 0, 0, 3 }, engine.getMarking());
+        assertEquals(1, tObserver.getEvents().size());
+        assertFalse(engine.isEnabled(1));
+    }
+
+    /**
+     * <li>Given I have a Petri Net with two components that share no places, "p0" and "p1" linked by "t0" and "t1", and "p2" and "p3" linked by "t2" and "t3" </li>
+     * <li>And "t0" and "t2" guarded by "g0" </li>
+     * <li>When I create a {@link NativePetriEngine} for it, set "g0" to true and fire "t0" and "t2" </li>
+     * <li>Then the engine should be split into two components, with "t0" and "t2" on different ones </li>
+     * <li>And the guard should enable the transitions of both components </li>
+     * <li>And the marking should be [0, 1, 1, 1] </li>
+     */
+    @Test
+    public void nativeEngineShouldSplitThePetriNetIntoItsConnectedComponents() throws Exception {
+        NativePetriEngine engine = (NativePetriEngine) createEngine(petriNetFile_07);
+        engine.initialize();
+        assertEquals(2, engine.getComponentCount());
+        assertEquals(engine.getComponentIndex(0), engine.getComponentIndex(1));
+        assertEquals(engine.getComponentIndex(2), engine.getComponentIndex(3));
+        assertNotEquals(engine.getComponentIndex(0), engine.getComponentIndex(2));
+        assertFalse(engine.isEnabled(0));
+        assertFalse(engine.isEnabled(2));
+        engine.setGuard("g0", true);
+        assertTrue(engine.tryFire(0));
+        assertTrue(engine.tryFire(2));
+        assertArrayEquals(new Integer[] { 0, 1, 1, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have a place-transition petri net PNML file </li>
+     * <li>When I create a {@link NativePetriEngine} for it as a timed petri net </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown </li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void creatingANativeEngineForATimedPetriNetShouldThrowException() throws Exception {
+        new NativePetriEngine(petriNetFile, petriNetType.TIMED);
+    }
+}
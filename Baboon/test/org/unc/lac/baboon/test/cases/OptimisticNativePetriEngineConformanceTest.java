@@ -0,0 +1,56 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.unc.lac.baboon.petri.NativePetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+public class OptimisticNativePetriEngineConformanceTest extends NativePetriEngineConformanceTest {
+
+    final String petriNetFile_03 = "/pnml03.pnml";
+
+    @Override
+    protected PetriEngine createEngine(String pnmlFilePath) throws Exception {
+        return new NativePetriEngine(pnmlFilePath, petriNetType.PLACE_TRANSITION, true);
+    }
+
+    /**
+     * <li>Given I have an initialized {@link NativePetriEngine} on its optimistic mode, with 100 tokens on place "p0" and transitions "t0" and "t1" moving them between "p0" and "p1" </li>
+     * <li>When 4 threads fire "t0" and 4 threads fire "t1", 10000 times each </li>
+     * <li>Then all the threads should end </li>
+     * <li>And the marking should be [100, 0], with no token lost or duplicated </li>
+     */
+    @Test
+    public void concurrentLockFreeFiringsShouldKeepTheTokens() throws Exception {
+        PetriEngine engine = createEngine(petriNetFile_03);
+        engine.initialize();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final int transition = i % 2;
+                workers.add(executor.submit(() -> {
+                    for (int n = 0; n < 10000; n++) {
+                        engine.fire(transition, false);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(new Integer[] { 100, 0 }, engine.getMarking());
+    }
+}
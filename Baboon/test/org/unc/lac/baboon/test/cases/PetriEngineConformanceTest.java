@@ -0,0 +1,501 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.FiringReport;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.TransitionEventObserver;
+
+/**
+ * Firing semantics every {@link PetriEngine} must share, so an engine can
+ * replace another one behind {@link BaboonPetriCore} without changing the
+ * behavior of the application. Each engine is tested by a subclass that
+ * creates it.
+ */
+public abstract class PetriEngineConformanceTest {
+
+    final String petriNetFile = "/pnml01.pnml";
+    final String petriNetFile_02 = "/pnml02.pnml";
+    final String petriNetFile_05 = "/pnml05.pnml";
+    final String petriNetFile_08 = "/pnml08.pnml";
+
+    /**
+     * Creates the engine under test for the petri net on a PNML file, as a
+     * place-transition petri net with the default policy of the engine.
+     *
+     * @param pnmlFilePath
+     *            The path to the PNML file.
+     * @return the engine, not initialized yet.
+     * @throws Exception
+     *            If the engine can not be created.
+     */
+    protected abstract PetriEngine createEngine(String pnmlFilePath) throws Exception;
+
+    private PetriEngine createInitializedEngine(String pnmlFilePath) throws Exception {
+        PetriEngine engine = createEngine(pnmlFilePath);
+        engine.initialize();
+        return engine;
+    }
+
+    private int indexOf(PetriEngine engine, String transitionName) {
+        for (int i = 0; i < engine.getTransitionCount(); i++) {
+            if (transitionName.equals(engine.getTransitionName(i))) {
+                return i;
+            }
+        }
+        fail("There is no transition named " + transitionName);
+        return -1;
+    }
+
+    /**
+     * <li>Given I have an engine with a Petri Net with 5 tokens on place "p0", a transition "t0" guarded by "g0" on another net, and an automatic transition "t0" on a third one </li>
+     * <li>When I ask the engines for their transitions </li>
+     * <li>Then the names, guards and labels should be the ones on the PNML files </li>
+     */
+    @Test
+    public void engineShouldDescribeTheTransitionsOfThePetriNet() throws Exception {
+        PetriEngine engine = createEngine(petriNetFile_05);
+        assertEquals(2, engine.getTransitionCount());
+        assertEquals("g0", engine.getGuardName(indexOf(engine, "t0")));
+        assertNull(engine.getGuardName(indexOf(engine, "t1")));
+        assertFalse(engine.isAutomaticTransition(indexOf(engine, "t0")));
+        PetriEngine automaticEngine = createEngine(petriNetFile_02);
+        assertTrue(automaticEngine.isAutomaticTransition(indexOf(automaticEngine, "t0")));
+        assertFalse(automaticEngine.isAutomaticTransition(indexOf(automaticEngine, "t1")));
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire "t0" twice and "t1" once </li>
+     * <li>Then the marking should be [3, 1, 1] </li>
+     */
+    @Test
+    public void firingTransitionsShouldMoveTheTokensOfTheMarking() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        assertArrayEquals(new Integer[] { 5, 0, 0 }, engine.getMarking());
+        engine.fire(indexOf(engine, "t0"), false);
+        engine.fire(indexOf(engine, "t0"), false);
+        engine.fire(indexOf(engine, "t1"), false);
+        assertArrayEquals(new Integer[] { 3, 1, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I try to fire "t1" and I perennially fire "t1", which are not enabled </li>
+     * <li>Then none of the firings should change the marking, and both should report that "t1" was not fired </li>
+     * <li>And trying to fire "t0" and perennially firing it should fire it twice </li>
+     */
+    @Test
+    public void firingADisabledTransitionWithoutWaitingShouldNotFireIt() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        int t0 = indexOf(engine, "t0");
+        int t1 = indexOf(engine, "t1");
+        assertFalse(engine.isEnabled(t1));
+        assertFalse(engine.tryFire(t1));
+        assertFalse(engine.fire(t1, true));
+        assertArrayEquals(new Integer[] { 5, 0, 0 }, engine.getMarking());
+        assertTrue(engine.isEnabled(t0));
+        assertTrue(engine.tryFire(t0));
+        assertTrue(engine.fire(t0, true));
+        assertArrayEquals(new Integer[] { 3, 2, 0 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>And a thread waiting to fire "t1", which is not enabled </li>
+     * <li>When I fire "t0" </li>
+     * <li>Then the waiting thread should fire "t1" and end </li>
+     * <li>And the marking should be [4, 0, 1] </li>
+     */
+    @Test
+    public void firingATransitionShouldWakeUpTheThreadsWaitingForTheTransitionsItEnables() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        int t1 = indexOf(engine, "t1");
+        FutureTask<Boolean> firing = new FutureTask<>(() -> engine.fire(t1, false));
+        Thread waiting = new Thread(firing);
+        waiting.setDaemon(true);
+        waiting.start();
+        assertTrue(Awaits.awaitWaiting(waiting));
+        assertFalse(firing.isDone());
+        engine.fire(indexOf(engine, "t0"), false);
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>And two threads waiting to fire "t1", which is not enabled, with a cancellable wait </li>
+     * <li>When I cancel the wait of the first thread and wake it up </li>
+     * <li>Then the first thread should give up the wait without firing "t1", and should not be left interrupted </li>
+     * <li>And the second thread should keep waiting until I fire "t0", and then fire "t1" </li>
+     */
+    @Test
+    public void wakingUpACancelledWaitShouldGiveItUpWithoutFiring() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        int t1 = indexOf(engine, "t1");
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        FutureTask<Boolean> cancelledFiring = new FutureTask<>(
+                () -> engine.fire(t1, cancelled::get) || Thread.currentThread().isInterrupted());
+        FutureTask<Boolean> firing = new FutureTask<>(() -> engine.fire(t1, () -> false));
+        Thread cancelledWaiting = new Thread(cancelledFiring);
+        Thread waiting = new Thread(firing);
+        cancelledWaiting.setDaemon(true);
+        waiting.setDaemon(true);
+        cancelledWaiting.start();
+        waiting.start();
+        assertTrue(Awaits.awaitWaiting(cancelledWaiting));
+        assertTrue(Awaits.awaitWaiting(waiting));
+        cancelled.set(true);
+        engine.wakeUp(t1, cancelledWaiting);
+        assertFalse(cancelledFiring.get(5, TimeUnit.SECONDS));
+        assertTrue(Awaits.awaitWaiting(waiting));
+        assertFalse(firing.isDone());
+        engine.fire(indexOf(engine, "t0"), false);
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 4, 0, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 1 token on place "p0" and a transition "t0" guarded by "g0", which is false </li>
+     * <li>And a thread waiting to fire "t0" </li>
+     * <li>When I set "g0" to true </li>
+     * <li>Then the waiting thread should fire "t0" and end </li>
+     * <li>And the marking should be [0, 1] </li>
+     */
+    @Test
+    public void settingAGuardShouldWakeUpTheThreadsWaitingForTheTransitionsItEnables() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile_05);
+        int t0 = indexOf(engine, "t0");
+        engine.setGuard("g0", false);
+        FutureTask<Boolean> firing = new FutureTask<>(() -> engine.fire(t0, false));
+        Thread waiting = new Thread(firing);
+        waiting.setDaemon(true);
+        waiting.start();
+        assertTrue(Awaits.awaitWaiting(waiting));
+        assertFalse(firing.isDone());
+        engine.setGuard("g0", true);
+        assertTrue(firing.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new Integer[] { 0, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When 8 threads fire "t0" perennially 10 times each, at the same time </li>
+     * <li>Then "t0" should be fired exactly 5 times, once for each token on "p0" </li>
+     * <li>And the marking should be [0, 5, 0] </li>
+     */
+    @Test
+    public void concurrentPerennialFiringsShouldFireTheTransitionOnlyWhileItIsEnabled() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        int t0 = indexOf(engine, "t0");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        int fired = 0;
+        try {
+            List<Future<Integer>> firers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                firers.add(executor.submit(() -> {
+                    start.await();
+                    int firings = 0;
+                    for (int j = 0; j < 10; j++) {
+                        if (engine.fire(t0, true)) {
+                            firings++;
+                        }
+                    }
+                    return firings;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> firer : firers) {
+                fired += firer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(5, fired);
+        assertArrayEquals(new Integer[] { 0, 5, 0 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire a batch of up to 3 firings of "t0", and then a perennial batch of up to 10 firings </li>
+     * <li>Then the first batch should fire "t0" 3 times and the second one the 2 times it is still enabled </li>
+     * <li>And a perennial batch of "t0", which is not enabled anymore, should not fire it </li>
+     */
+    @Test
+    public void firingABatchShouldFireTheTransitionWhileItIsEnabled() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        int t0 = indexOf(engine, "t0");
+        assertEquals(3, engine.fireUpTo(t0, 3, false));
+        assertArrayEquals(new Integer[] { 2, 3, 0 }, engine.getMarking());
+        assertEquals(2, engine.fireUpTo(t0, 10, true));
+        assertEquals(0, engine.fireUpTo(t0, 10, true));
+        assertArrayEquals(new Integer[] { 0, 5, 0 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 1 token on place "p0" and a transition "t0" guarded by "g0" </li>
+     * <li>When I set "g0" to false, then to true and to false again as a group of guards, and then to true </li>
+     * <li>Then "t0" should be enabled only while "g0" is true </li>
+     * <li>And firing it should move the token to "p1" </li>
+     */
+    @Test
+    public void guardedTransitionShouldBeEnabledOnlyWhileItsGuardIsTrue() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile_05);
+        int t0 = indexOf(engine, "t0");
+        engine.setGuard("g0", false);
+        assertFalse(engine.isEnabled(t0));
+        assertFalse(engine.tryFire(t0));
+        engine.setGuards(new String[] { "g0" }, new boolean[] { true });
+        assertTrue(engine.isEnabled(t0));
+        engine.setGuards(new String[] { "g0" }, new boolean[] { false });
+        assertFalse(engine.isEnabled(t0));
+        engine.setGuard("g0", true);
+        assertTrue(engine.isEnabled(t0));
+        assertTrue(engine.tryFire(t0));
+        assertArrayEquals(new Integer[] { 0, 1 }, engine.getMarking());
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object over the engine, with 1 token on place "p0" and a transition "t0" guarded by "g0" </li>
+     * <li>When I set "g0" to false as a group of guards, and then to true twice </li>
+     * <li>Then each group should report the number of guards whose value changed </li>
+     * <li>And "t0" should be enabled only after "g0" is set to true </li>
+     */
+    @Test
+    public void settingAGroupOfGuardsShouldChangeTheEnablingOfTheGuardedTransitions() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(createEngine(petriNetFile_05));
+        petriCore.initializePetriNet();
+        int g0 = petriCore.getGuardIndex("g0");
+        int t0 = petriCore.getTransitionIndex("t0");
+        assertEquals(1, petriCore.setGuards(new int[] { g0 }, new boolean[] { false }));
+        assertFalse(petriCore.isEnabled(t0));
+        assertEquals(1, petriCore.setGuards(new int[] { g0 }, new boolean[] { true }));
+        assertTrue(petriCore.isEnabled(t0));
+        assertEquals(0, petriCore.setGuards(new int[] { g0 }, new boolean[] { true }));
+        assertTrue(petriCore.fireTransition(t0, true));
+        assertArrayEquals(new Integer[] { 0, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object over the engine, with 1 token on place "p0" and a transition "t0" guarded by "g0" </li>
+     * <li>When I check if "t0" might be enabled before and after setting "g0" to true </li>
+     * <li>Then it should agree with the enabling of "t0" </li>
+     * <li>And when I register a supplier for "g0" that returns false </li>
+     * <li>Then "t0" might be enabled, and the supplier should not be called by the check </li>
+     */
+    @Test
+    public void checkingIfATransitionMightBeEnabledShouldNotCallTheGuardSupplier() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(createEngine(petriNetFile_05));
+        petriCore.initializePetriNet();
+        int g0 = petriCore.getGuardIndex("g0");
+        int t0 = petriCore.getTransitionIndex("t0");
+        petriCore.setGuard(g0, false);
+        assertFalse(petriCore.mightBeEnabled(t0));
+        petriCore.setGuard(g0, true);
+        assertTrue(petriCore.mightBeEnabled(t0));
+        AtomicInteger evaluations = new AtomicInteger();
+        petriCore.setGuardSupplier(g0, () -> {
+            evaluations.incrementAndGet();
+            return false;
+        }, false);
+        evaluations.set(0);
+        assertTrue(petriCore.mightBeEnabled(t0));
+        assertEquals(0, evaluations.get());
+        assertFalse(petriCore.isEnabled(t0));
+    }
+
+    /**
+     * <li>Given I have an initialized engine with a transition "t0" guarded by "g0" </li>
+     * <li>When I set the guard "g1", which does not exist </li>
+     * <li>Then an {@link IndexOutOfBoundsException} should be thrown </li>
+     */
+    @Test (expected=IndexOutOfBoundsException.class)
+    public void settingANotExistingGuardShouldThrowException() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile_05);
+        engine.setGuard("g1", true);
+    }
+
+    /**
+     * <li>Given I have an initialized engine with informed transitions "t0" and "t1" </li>
+     * <li>And an observer subscribed to "t0" </li>
+     * <li>When I fire "t0" twice and "t1" once </li>
+     * <li>Then the observer should receive two events, with the name of "t0" </li>
+     */
+    @Test
+    public void subscribedObserverShouldReceiveAnEventForEachFiringOfItsTransition() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        TransitionEventObserver tObserver = new TransitionEventObserver();
+        engine.subscribeToTransition("t0", tObserver);
+        engine.fire(indexOf(engine, "t0"), false);
+        engine.fire(indexOf(engine, "t0"), false);
+        engine.fire(indexOf(engine, "t1"), false);
+        assertEquals(2, tObserver.getEvents().size());
+        for (String event : tObserver.getEvents()) {
+            assertEquals("t0", TransitionEventObserver.getTransitionName(event));
+        }
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object over the engine, with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire "t0" up to 10 times </li>
+     * <li>Then it should be fired 5 times, once for each token on "p0" </li>
+     */
+    @Test
+    public void petriCoreOverTheEngineShouldFireAsManyTimesAsTheTransitionIsEnabled() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(createEngine(petriNetFile));
+        petriCore.initializePetriNet();
+        assertEquals(5, petriCore.fireTransitionUpTo(petriCore.getTransitionIndex("t0"), 10));
+        assertArrayEquals(new Integer[] { 0, 5, 0 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire "t0" and copy the marking into a buffer with room for 4 places </li>
+     * <li>Then the first 3 elements of the buffer should be [4, 1, 0] and the last one should be left untouched </li>
+     * <li>And the tokens of each place and the number of places should match the boxed marking </li>
+     */
+    @Test
+    public void markingCopiedIntoABufferShouldMatchTheBoxedMarking() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        engine.fire(indexOf(engine, "t0"), false);
+        int[] buffer = new int[] { -1, -1, -1, -1 };
+        engine.getMarking(buffer);
+        assertArrayEquals(new int[] { 4, 1, 0, -1 }, buffer);
+        assertEquals(3, engine.getPlaceCount());
+        Integer[] marking = engine.getMarking();
+        for (int p = 0; p < engine.getPlaceCount(); p++) {
+            assertEquals(marking[p].intValue(), engine.getTokens(p));
+        }
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 3 places </li>
+     * <li>When I copy the marking into a buffer with room for 2 places </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown </li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void copyingTheMarkingIntoAShortBufferShouldThrowException() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile);
+        engine.getMarking(new int[2]);
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object over the engine, with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I fire the group of transitions "t1" and "t0", where "t1" is not enabled </li>
+     * <li>Then the {@link FiringReport} should report "t1" as skipped and "t0" as fired, and no failure </li>
+     * <li>And the group should not be reported as fully fired </li>
+     * <li>And firing the group again reporting only failures should return no report </li>
+     */
+    @Test
+    public void firingAGroupShouldReportTheTransitionsThatWereNotEnabledAsSkipped() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(createEngine(petriNetFile));
+        petriCore.initializePetriNet();
+        int[] group = new int[] { petriCore.getTransitionIndex("t1"), petriCore.getTransitionIndex("t0") };
+        FiringReport report = petriCore.fireTransitions(group);
+        assertTrue(report.isSuccessful());
+        assertFalse(report.isFullyFired());
+        assertEquals(FiringReport.Status.SKIPPED, report.getStatus(0));
+        assertEquals(FiringReport.Status.FIRED, report.getStatus(1));
+        assertArrayEquals(new Integer[] { 4, 1, 0 }, petriCore.getMarking());
+        petriCore.fireTransition("t0", false);
+        petriCore.fireTransition("t0", false);
+        assertNull(petriCore.fireTransitionsReportingFailure(group));
+        assertArrayEquals(new Integer[] { 1, 3, 1 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object over the engine, with 5 tokens on place "p0" and transitions "t0" and "t1" connected in sequence </li>
+     * <li>When I copy the marking, fire a group with only "t1", which is not enabled, and then fire "t0" </li>
+     * <li>Then the version of the marking should not change until "t0" is fired </li>
+     * <li>And copying the marking again should return the new version </li>
+     */
+    @Test
+    public void markingVersionShouldChangeOnlyWhenATransitionIsFired() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(createEngine(petriNetFile));
+        petriCore.initializePetriNet();
+        int[] buffer = new int[petriCore.getPlaceCount()];
+        long version = petriCore.getMarking(buffer);
+        assertArrayEquals(new int[] { 5, 0, 0 }, buffer);
+        assertEquals(version, petriCore.getMarkingVersion());
+        petriCore.fireTransitions(new int[] { petriCore.getTransitionIndex("t1") });
+        assertEquals(version, petriCore.getMarkingVersion());
+        petriCore.fireTransition("t0", false);
+        assertNotEquals(version, petriCore.getMarkingVersion());
+        assertEquals(petriCore.getMarkingVersion(), petriCore.getMarking(buffer));
+        assertArrayEquals(new int[] { 4, 1, 0 }, buffer);
+        assertEquals(1, petriCore.getTokens(1));
+    }
+
+    /**
+     * <li>Given I have an initialized engine with 200 tokens on place "p0", 1 token on place "p1" and no tokens on place "p2" </li>
+     * <li>And a transition "t0" that takes a token from "p0" and "p1" and gives back the one of "p1" </li>
+     * <li>And a transition "t1" that takes a token from "p1" and "p2", so it is never enabled </li>
+     * <li>When four threads fire "t0" 50 times each without waiting, two of them by perennial firing, while four other threads keep firing "t1" without waiting </li>
+     * <li>Then every firing of "t0" should be done, since "t0" is always enabled </li>
+     * <li>And the marking should be [0, 1, 0, 200] </li>
+     */
+    @Test
+    public void firingAnEnabledTransitionWithoutWaitingShouldFireItUnderContention() throws Exception {
+        PetriEngine engine = createInitializedEngine(petriNetFile_08);
+        int t0 = indexOf(engine, "t0");
+        int t1 = indexOf(engine, "t1");
+        AtomicBoolean firing = new AtomicBoolean(true);
+        AtomicInteger missedFirings = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> firers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                firers.add(executor.submit(() -> {
+                    start.await();
+                    while (firing.get()) {
+                        assertFalse(engine.tryFire(t1));
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> callbacks = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                boolean perennial = i % 2 == 0;
+                callbacks.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 50; j++) {
+                        if (perennial) {
+                            engine.fire(t0, true);
+                        } else if (!engine.tryFire(t0)) {
+                            missedFirings.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> callback : callbacks) {
+                callback.get(10, TimeUnit.SECONDS);
+            }
+            firing.set(false);
+            for (Future<?> firer : firers) {
+                firer.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, missedFirings.get());
+        assertArrayEquals(new Integer[] { 0, 1, 0, 200 }, engine.getMarking());
+    }
+}
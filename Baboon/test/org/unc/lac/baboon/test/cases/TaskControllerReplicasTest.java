@@ -0,0 +1,185 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.execution.DummiesExecutor;
+import org.unc.lac.baboon.execution.DummyThread;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.PetriEngineNames;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.ReplicaFactory;
+import org.unc.lac.baboon.test.utils.tasks.MockReplicatedObject;
+import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+@RunWith(Parameterized.class)
+public class TaskControllerReplicasTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return PetriEngineNames.all();
+    }
+
+    /**
+     * The name of the {@link org.unc.lac.baboon.petri.PetriEngine} the
+     * {@link BaboonPetriCore} objects are created over.
+     */
+    @Parameter
+    public String engineName;
+
+    final String petriNetFile = "/pnml01.pnml";
+    private final String topicsPath05 = "/topics05.json";
+    private BaboonConfig baboonConfig;
+    private ArrayList<MockReplicatedObject> replicaObjects;
+    private ReplicaFactory replicaFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath05);
+        replicaObjects = new ArrayList<>();
+        replicaFactory = (actionObject, replicaIndex) -> {
+            MockReplicatedObject replica = new MockReplicatedObject();
+            replicaObjects.add(replica);
+            return replica;
+        };
+    }
+
+    /**
+     * <li>Given I have a {@link Topic} with "replicas" set to 3 on the topics json file </li>
+     * <li>And I have a {@link Topic} without "replicas" on the topics json file </li>
+     * <li>When I subscribe a TaskController to each {@link Topic} </li>
+     * <li>Then the subscription to the first {@link Topic} should have 3 replicas </li>
+     * <li>And the subscription to the second {@link Topic} should have 1 replica </li>
+     * <li>And every replica should execute the same subscription, since there is no {@link ReplicaFactory} </li>
+     */
+    @Test
+    public void replicasShouldBeTakenFromTheTopic() throws Exception {
+        baboonConfig.subscribeControllerToTopic("replicated_topic", new MockReplicatedObject(), "increaseNumber");
+        baboonConfig.subscribeControllerToTopic("not_replicated_topic", new MockReplicatedObject(), "increaseNumber");
+        AbstractTaskControllerSubscription replicated = null;
+        AbstractTaskControllerSubscription notReplicated = null;
+        for (AbstractTaskControllerSubscription taskSubscription : baboonConfig.getSimpleTasksCollection()) {
+            if (taskSubscription.getTopic().getName().equals("replicated_topic")) {
+                replicated = taskSubscription;
+            } else {
+                notReplicated = taskSubscription;
+            }
+        }
+        assertEquals(3, replicated.getReplicas());
+        assertEquals(1, notReplicated.getReplicas());
+        for (int i = 0; i < replicated.getReplicas(); i++) {
+            assertSame(replicated, replicated.getReplica(i));
+        }
+    }
+
+    /**
+     * <li>Given I have a {@link Topic} with "replicas" set to 0 on the topics json file </li>
+     * <li>When I subscribe a TaskController to the {@link Topic} </li>
+     * <li>Then a {@link NotSubscribableException} should be thrown </li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void subscribingToATopicWithZeroReplicasShouldThrowException() throws Exception {
+        baboonConfig.subscribeControllerToTopic("zero_replicas_topic", new MockReplicatedObject(), "increaseNumber");
+    }
+
+    /**
+     * <li>Given I have a {@link Topic} without "replicas" on the topics json file </li>
+     * <li>When I subscribe a TaskController to the {@link Topic} with 4 replicas and a {@link ReplicaFactory} </li>
+     * <li>Then the subscription should have 4 replicas </li>
+     * <li>And the first replica should execute the subscription itself </li>
+     * <li>And each of the other replicas should execute a new subscription, with an object created by the {@link ReplicaFactory} </li>
+     */
+    @Test
+    public void replicasShouldUseTheObjectsCreatedByTheReplicaFactory() throws Exception {
+        MockReplicatedObject subscribedObject = new MockReplicatedObject();
+        baboonConfig.subscribeReplicatedControllerToTopic("not_replicated_topic", 4, replicaFactory, subscribedObject,
+                "increaseNumber");
+        AbstractTaskControllerSubscription taskSubscription = baboonConfig.getSimpleTasksCollection().iterator().next();
+        assertEquals(4, taskSubscription.getReplicas());
+        assertSame(taskSubscription, taskSubscription.getReplica(0));
+        assertSame(subscribedObject, taskSubscription.getAction(0).getActionObject());
+        for (int i = 1; i < taskSubscription.getReplicas(); i++) {
+            AbstractTaskControllerSubscription replica = taskSubscription.getReplica(i);
+            assertNotSame(taskSubscription, replica);
+            assertSame(taskSubscription.getTopic(), replica.getTopic());
+            assertSame(replicaObjects.get(i - 1), replica.getAction(0).getActionObject());
+        }
+    }
+
+    /**
+     * <li>Given I have a complex TaskController whose two steps execute methods of the same object </li>
+     * <li>When I set 3 replicas and a {@link ReplicaFactory} to the complex TaskController </li>
+     * <li>And I get the second and third replicas </li>
+     * <li>Then the two steps of each replica should share the object created by the {@link ReplicaFactory} </li>
+     * <li>And the {@link ReplicaFactory} should have been called once per replica </li>
+     */
+    @Test
+    public void stepsSharingAnObjectShouldShareItsReplica() throws Exception {
+        MockReplicatedObject subscribedObject = new MockReplicatedObject();
+        baboonConfig.createNewComplexTaskController("sharedObjectTask", "two_steps_topic");
+        baboonConfig.appendControllerToComplexTaskController("sharedObjectTask", subscribedObject, "increaseNumber");
+        baboonConfig.appendControllerToComplexTaskController("sharedObjectTask", subscribedObject, "increaseNumber");
+        baboonConfig.setComplexTaskControllerReplicas("sharedObjectTask", 3, replicaFactory);
+        AbstractTaskControllerSubscription complexTask = baboonConfig.getComplexSecuentialTask("sharedObjectTask");
+        for (int i = 1; i < complexTask.getReplicas(); i++) {
+            AbstractTaskControllerSubscription replica = complexTask.getReplica(i);
+            assertSame(replicaObjects.get(i - 1), replica.getAction(0).getActionObject());
+            assertSame(replica.getAction(0).getActionObject(), replica.getAction(1).getActionObject());
+        }
+        assertEquals(2, replicaObjects.size());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 5 tokens on place "p0", and transition "t0" followed by transition "t1" </li>
+     * <li>And I subscribe a TaskController to a topic with permission "t0" and fire callback "t1", with 3 replicas and a {@link ReplicaFactory} </li>
+     * <li>When I execute one {@link DummyThread} per replica </li>
+     * <li>And I wait for the TaskControllers execution </li>
+     * <li>Then the replicas should have been executed five times in total </li>
+     * <li>And the five tokens should be on place "p2" </li>
+     */
+    @Test
+    public void replicasShouldShareTheTokensOfThePermission() throws Exception {
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        MockReplicatedObject subscribedObject = new MockReplicatedObject();
+        baboonConfig.subscribeReplicatedControllerToTopic("not_replicated_topic", 3, replicaFactory, subscribedObject,
+                "increaseNumber");
+        AbstractTaskControllerSubscription taskSubscription = baboonConfig.getSimpleTasksCollection().iterator().next();
+        DummiesExecutor executor = new DummiesExecutor();
+        for (int i = 0; i < taskSubscription.getReplicas(); i++) {
+            executor.executeDummy(new DummyThread(taskSubscription.getReplica(i), petriCore));
+        }
+        assertTrue(Awaits.await(() -> petriCore.getMarking()[2] == 5));
+        int executions = subscribedObject.getNumber();
+        for (MockReplicatedObject replicaObject : replicaObjects) {
+            executions += replicaObject.getNumber();
+        }
+        assertEquals(5, executions);
+        assertArrayEquals(new Integer[] { 0, 0, 5 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a {@link Topic} without "replicas" on the topics json file </li>
+     * <li>When I subscribe a TaskController to the {@link Topic} with 0 replicas </li>
+     * <li>Then a {@link NotSubscribableException} should be thrown </li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void subscribingWithZeroReplicasShouldThrowException() throws Exception {
+        baboonConfig.subscribeReplicatedControllerToTopic("not_replicated_topic", 0, null, new MockReplicatedObject(),
+                "increaseNumber");
+    }
+}
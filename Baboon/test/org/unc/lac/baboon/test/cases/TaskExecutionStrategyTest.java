@@ -0,0 +1,108 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.execution.DummiesExecutor;
+import org.unc.lac.baboon.execution.DummyThread;
+import org.unc.lac.baboon.execution.TaskExecutionStrategy;
+import org.unc.lac.baboon.execution.TaskExecutionStrategyFactory;
+import org.unc.lac.baboon.execution.VirtualThreadDummiesExecutor;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.PetriEngineNames;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+@RunWith(Parameterized.class)
+public class TaskExecutionStrategyTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return PetriEngineNames.all();
+    }
+
+    /**
+     * The name of the {@link org.unc.lac.baboon.petri.PetriEngine} the
+     * {@link BaboonPetriCore} objects are created over.
+     */
+    @Parameter
+    public String engineName;
+
+    final String petriNetFile = "/pnml01.pnml";
+    private final String topicsPath04 = "/topics04.json";
+
+    /**
+     * <li>Given I am running on a Java version with or without virtual threads </li>
+     * <li>When I create the default {@link TaskExecutionStrategy} </li>
+     * <li>Then a {@link VirtualThreadDummiesExecutor} should be created if virtual threads are supported </li>
+     * <li>And a {@link DummiesExecutor} should be created otherwise </li>
+     */
+    @Test
+    public void defaultStrategyShouldDependOnVirtualThreadsSupport() {
+        TaskExecutionStrategy strategy = TaskExecutionStrategyFactory.createDefaultStrategy();
+        if (VirtualThreadDummiesExecutor.isSupported()) {
+            assertTrue(strategy instanceof VirtualThreadDummiesExecutor);
+        } else {
+            assertTrue(strategy instanceof DummiesExecutor);
+        }
+        strategy.shutdown();
+    }
+
+    /**
+     * <li>Given I am running on a Java version with or without virtual threads </li>
+     * <li>When I create the virtual thread {@link TaskExecutionStrategy} </li>
+     * <li>Then a {@link VirtualThreadDummiesExecutor} should be created if virtual threads are supported </li>
+     * <li>And a {@link DummiesExecutor} should be created otherwise </li>
+     */
+    @Test
+    public void virtualThreadStrategyShouldDependOnVirtualThreadsSupport() {
+        TaskExecutionStrategy strategy = TaskExecutionStrategyFactory.createVirtualThreadStrategy();
+        if (VirtualThreadDummiesExecutor.isSupported()) {
+            assertTrue(strategy instanceof VirtualThreadDummiesExecutor);
+        } else {
+            assertTrue(strategy instanceof DummiesExecutor);
+            try {
+                new VirtualThreadDummiesExecutor();
+                fail("An UnsupportedOperationException should have been thrown");
+            } catch (UnsupportedOperationException e) {
+            }
+        }
+        strategy.shutdown();
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 5 tokens on place "p0", and transition "t0" followed by transition "t1" </li>
+     * <li>And I have a topic with permission "t0" and fire callback "t1" </li>
+     * <li>And I subscribe a TaskController that increases a {@link CustomCounter} to the topic </li>
+     * <li>When I execute the {@link DummyThread} of the subscription with the default {@link TaskExecutionStrategy} </li>
+     * <li>And I wait for the TaskController execution </li>
+     * <li>Then the TaskController should have been executed five times </li>
+     */
+    @Test
+    public void defaultStrategyShouldExecuteDummyThreads() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath04);
+        BaboonPetriCore petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        CustomCounter counter = new CustomCounter();
+        baboonConfig.subscribeControllerToTopic("topic1", new MockUserSystemObject(), "mockTaskCounter", counter);
+        TaskExecutionStrategy strategy = TaskExecutionStrategyFactory.createDefaultStrategy();
+        for (AbstractTaskControllerSubscription taskSubscription : baboonConfig.getSimpleTasksCollection()) {
+            strategy.executeDummy(new DummyThread(taskSubscription, petriCore));
+        }
+        assertTrue(Awaits.await(() -> counter.getVal() >= 5));
+        assertEquals(5, counter.getVal());
+        strategy.shutdown();
+    }
+}
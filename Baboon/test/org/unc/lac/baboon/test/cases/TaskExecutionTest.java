@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 import org.unc.lac.baboon.main.BaboonFramework;
+import org.unc.lac.baboon.test.utils.Awaits;
 import org.unc.lac.baboon.test.utils.appsetup.TaskExecutionAppSetup;
 import org.unc.lac.baboon.test.utils.tasks.TaskExecutionMockSingletonObject;
 
@@ -26,14 +27,14 @@ public class TaskExecutionTest {
      * <li> And the setup interface subscribed this taskController to the petri net </li>
      * <li> And the petri net limits the execution of the taskController to five times </li>
      * <li> When I run the BaboonFramework main application </li>
-     * <li> And I wait for the taskController execution </li>
+     * <li> And I wait until the taskController is executed five times </li>
      * <li> Then the number of the {@link TaskExecutionMockSingletonObject} is 5 </li> 
      */
     @Test
     public void taskExecutionTest() throws Exception {
         assertEquals(0,appSetup.getUserSystemObject().getNumber());
         BaboonFramework.main(null);
-        Thread.sleep(500);
+        assertTrue(Awaits.await(() -> appSetup.getUserSystemObject().getNumber() >= 5));
         assertEquals(5,appSetup.getUserSystemObject().getNumber());
     }
 
@@ -0,0 +1,156 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.execution.DummyThread;
+import org.unc.lac.baboon.execution.TaskScheduler;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.petri.PetriEngines;
+import org.unc.lac.baboon.test.utils.Awaits;
+import org.unc.lac.baboon.test.utils.PetriEngineNames;
+import org.unc.lac.baboon.subscription.AbstractTaskControllerSubscription;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+@RunWith(Parameterized.class)
+public class TaskSchedulerTest {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return PetriEngineNames.all();
+    }
+
+    /**
+     * The name of the {@link org.unc.lac.baboon.petri.PetriEngine} the
+     * {@link BaboonPetriCore} objects are created over.
+     */
+    @Parameter
+    public String engineName;
+
+    final String petriNetFile = "/pnml01.pnml";
+    final String petriNetFile_03 = "/pnml03.pnml";
+    private final String topicsPath04 = "/topics04.json";
+    private final String topicsPath08 = "/topics08.json";
+    private BaboonConfig baboonConfig;
+    private BaboonPetriCore petriCore;
+    private TaskScheduler taskScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath04);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+    }
+
+    @After
+    public void tearDown() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 5 tokens on place "p0", and transition "t0" followed by transition "t1" </li>
+     * <li>And I have a topic with permission "t0" and fire callback "t1" </li>
+     * <li>And I subscribe twenty TaskControllers to the topic, each one with its own {@link CustomCounter} </li>
+     * <li>When I schedule all the TaskControllers on a {@link TaskScheduler} with two worker threads </li>
+     * <li>And I wait for the TaskControllers execution </li>
+     * <li>Then the TaskControllers should have been executed five times in total </li>
+     * <li>And the five tokens should be on place "p2" </li>
+     */
+    @Test
+    public void scheduledTaskControllersShouldBeExecutedByTheWorkerThreads() throws Exception {
+        CustomCounter[] counters = new CustomCounter[20];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new CustomCounter();
+            baboonConfig.subscribeControllerToTopic("topic1", new MockUserSystemObject(), "mockTaskCounter", counters[i]);
+        }
+        taskScheduler = new TaskScheduler(petriCore, 2);
+        for (AbstractTaskControllerSubscription taskSubscription : baboonConfig.getSimpleTasksCollection()) {
+            taskScheduler.schedule(taskSubscription);
+        }
+        assertTrue(Awaits.await(() -> petriCore.getMarking()[2] == 5));
+        int executions = 0;
+        for (CustomCounter counter : counters) {
+            executions += counter.getVal();
+        }
+        assertEquals(5, executions);
+        assertArrayEquals(new Integer[] { 0, 0, 5 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a {@link BaboonPetriCore} object </li>
+     * <li>When I create a {@link TaskScheduler} without worker threads </li>
+     * <li>Then an {@link IllegalArgumentException} should be thrown </li>
+     */
+    @Test (expected=IllegalArgumentException.class)
+    public void taskSchedulerWithoutWorkerThreadsShouldThrowException() {
+        taskScheduler = new TaskScheduler(petriCore, 0);
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 100 tokens on place "p0", and transitions "t0" and "t1" moving them from "p0" to "p1" and back </li>
+     * <li>And I have a topic with permission "t0" and fire callback "t1" </li>
+     * <li>And I subscribe a TaskController to the topic, with a {@link CustomCounter} </li>
+     * <li>And I execute the TaskController on a {@link TaskScheduler} with one worker thread, by using a {@link DummyThread} </li>
+     * <li>When the TaskController was executed at least ten times </li>
+     * <li>And I stop the {@link DummyThread} </li>
+     * <li>Then the {@link DummyThread} should stop at the end of its current iteration </li>
+     * <li>And the counter should not be increased anymore </li>
+     * <li>And the 100 tokens should be back on place "p0" </li>
+     */
+    @Test
+    public void stoppedDummyThreadShouldNotBeScheduledAnymore() throws Exception {
+        baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath08);
+        petriCore = new BaboonPetriCore(PetriEngines.createEngine(engineName, petriNetFile_03, petriNetType.PLACE_TRANSITION, null));
+        petriCore.initializePetriNet();
+        baboonConfig.setPetriCore(petriCore);
+        CustomCounter counter = new CustomCounter();
+        baboonConfig.subscribeControllerToTopic("plain_topic", new MockUserSystemObject(), "mockTaskCounter", counter);
+        taskScheduler = new TaskScheduler(petriCore, 1);
+        DummyThread dummy = new DummyThread(baboonConfig.getSimpleTasksCollection().iterator().next(), petriCore);
+        taskScheduler.executeDummy(dummy);
+        assertTrue(Awaits.await(() -> counter.getVal() >= 10));
+        taskScheduler.stopDummy(dummy);
+        assertTrue(dummy.isStopRequested());
+        assertTrue(Awaits.await(() -> petriCore.getMarking()[0] == 100));
+        int executions = counter.getVal();
+        assertFalse(Awaits.await(() -> counter.getVal() != executions, 200, TimeUnit.MILLISECONDS));
+        assertArrayEquals(new Integer[] { 100, 0 }, petriCore.getMarking());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, with 5 tokens on place "p0", and transition "t0" followed by transition "t1" </li>
+     * <li>And I have a topic with permission "t0" and fire callback "t1" </li>
+     * <li>And I subscribe a TaskController that always fails to the topic </li>
+     * <li>When I schedule the TaskController on a {@link TaskScheduler} with one worker thread </li>
+     * <li>Then the TaskController should be reported as failed </li>
+     * <li>And it should not be scheduled anymore, so "t0" should have been fired only once </li>
+     */
+    @Test
+    public void failingTaskControllerShouldBeReportedAndNotScheduledAnymore() throws Exception {
+        baboonConfig.subscribeControllerToTopic("topic1", new MockUserSystemObject(), "mockFailingTask");
+        taskScheduler = new TaskScheduler(petriCore, 1);
+        AbstractTaskControllerSubscription taskSubscription = baboonConfig.getSimpleTasksCollection().iterator().next();
+        taskScheduler.schedule(taskSubscription);
+        assertTrue(Awaits.await(() -> !taskScheduler.getFailedTasks().isEmpty()));
+        assertEquals(1, taskScheduler.getFailedTasks().size());
+        assertSame(taskSubscription, taskScheduler.getFailedTasks().get(0));
+        assertArrayEquals(new Integer[] { 4, 1, 0 }, petriCore.getMarking());
+    }
+}
@@ -14,6 +14,8 @@ import org.unc.lac.baboon.annotations.TaskController;
 import org.unc.lac.baboon.annotations.GuardProvider;
 import org.unc.lac.baboon.exceptions.NotSubscribableException;
 import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.test.utils.TransitionEventObserver;
+import org.unc.lac.baboon.test.utils.tasks.MockMutableKeyObject;
 import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
 import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject2;
 import org.unc.lac.baboon.test.utils.tasks.parameters.AbstractParameter;
@@ -29,6 +31,7 @@ public class TasksAndHappeningControllersSubscriptionTest {
     private final String topicsPath02 = "/topics02.json";
     private final String topicsPath03 = "/topics03.json";
     private final String topicsPath04 = "/topics04.json";
+    private final String topicsPath07 = "/topics07.json";
     
     private final String TOPIC_1 = "topic1";
     private final String TOPIC_2 = "topic2";
@@ -750,4 +753,84 @@ public class TasksAndHappeningControllersSubscriptionTest {
         assertEquals(TOPIC_1, tasksList.get(0).getTopic().getName());
     }
 
+    /**
+     * <li>Given I have a topics json file containing a topic with name
+     * "coalescing_topic", whose coalescing batch size is 3, and a topic with
+     * name "coalescing_without_window_topic", whose coalescing batch size is
+     * 10 and has no coalescing window</li>
+     * <li>And I add the topics configuration to the Framework</li>
+     * <li>When I subscribe a {@link HappeningController} annotated method that
+     * can not be coalesced to "coalescing_topic"</li>
+     * <li>Then a {@link NotSubscribableException} exception should be thrown</li>
+     * <li>And when I subscribe a {@link HappeningController} annotated method
+     * that can be coalesced to "coalescing_without_window_topic"</li>
+     * <li>Then a {@link NotSubscribableException} exception should be thrown</li>
+     * <li>And when I subscribe a {@link HappeningController} annotated method
+     * that can be coalesced but does not declare its batch method to
+     * "coalescing_topic"</li>
+     * <li>Then a {@link NotSubscribableException} exception should be thrown</li>
+     * <li>And no happeningController should be subscribed</li>
+     */
+    @Test
+    public void subscribingHappeningMethodToCoalescingTopicShouldRequireCoalescingMethodAndWindowTest()
+            throws Exception {
+        final MockUserSystemObject mockController = new MockUserSystemObject();
+        final BaboonConfig baboonConfig = new BaboonConfig();
+        final TransitionEventObserver tObserver = new TransitionEventObserver();
+        baboonConfig.addTopics(topicsPath07);
+        try {
+            baboonConfig.subscribeControllerToTopic("coalescing_topic", mockController,
+                    "eventInserterHappeningController", tObserver, "TEST_EVENT");
+            fail("Exception should have been thrown before this point");
+        } catch (NotSubscribableException e) {
+        }
+        try {
+            baboonConfig.subscribeControllerToTopic("coalescing_without_window_topic", mockController,
+                    "coalescingEventInserterHappeningController", tObserver, "TEST_EVENT");
+            fail("Exception should have been thrown before this point");
+        } catch (NotSubscribableException e) {
+        }
+        try {
+            baboonConfig.subscribeControllerToTopic("coalescing_topic", mockController,
+                    "coalescingHappeningControllerWithoutBatch");
+            fail("Exception should have been thrown before this point");
+        } catch (NotSubscribableException e) {
+        }
+        assertEquals(0, baboonConfig.getHappeningControllerCount());
+    }
+
+    /**
+     * <li>Given I have a topics json file containing a topic with name
+     * "topic1" and a topic with name "topic2"</li>
+     * <li>And I have two instances of {@link MockMutableKeyObject} that are
+     * equal and have the same hash code</li>
+     * <li>And I add the topics configuration to the Framework</li>
+     * <li>When I subscribe the {@link HappeningController} annotated method of
+     * the first instance to "topic1" and the one of the second instance to
+     * "topic2"</li>
+     * <li>Then both subscriptions should get registered in config</li>
+     * <li>And when I change the hash code of both instances</li>
+     * <li>Then the subscription of each instance should still be found, with
+     * its own {@link Topic}</li>
+     */
+    @Test
+    public void happeningControllersShouldBeRegisteredByObjectIdentityTest() throws Exception {
+        final MockMutableKeyObject firstObject = new MockMutableKeyObject(1);
+        final MockMutableKeyObject secondObject = new MockMutableKeyObject(1);
+        final String happeningControllerMethod = "mockHappeningController";
+        final BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        baboonConfig.subscribeControllerToTopic(TOPIC_1, firstObject, happeningControllerMethod);
+        baboonConfig.subscribeControllerToTopic(TOPIC_2, secondObject, happeningControllerMethod);
+        assertEquals(2, baboonConfig.getHappeningControllerCount());
+        firstObject.setKey(2);
+        secondObject.setKey(3);
+        Method testMethod = MethodDictionary.getMethod(firstObject, happeningControllerMethod);
+        assertSame(firstObject, baboonConfig.getHappeningController(firstObject, testMethod).getAction().getActionObject());
+        assertEquals(TOPIC_1, baboonConfig.getHappeningController(firstObject, testMethod).getTopic().getName());
+        assertSame(secondObject, baboonConfig.getHappeningController(secondObject, testMethod).getAction().getActionObject());
+        assertEquals(TOPIC_2, baboonConfig.getHappeningController(secondObject, testMethod).getTopic().getName());
+        assertNull(baboonConfig.getHappeningController(new MockMutableKeyObject(2), testMethod));
+    }
+
 }
@@ -0,0 +1,91 @@
+package org.unc.lac.baboon.test.cases;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+import org.unc.lac.baboon.actioncontroller.TaskActionController;
+import org.unc.lac.baboon.config.BaboonConfig;
+import org.unc.lac.baboon.exceptions.NotSubscribableException;
+import org.unc.lac.baboon.petri.BaboonPetriCore;
+import org.unc.lac.baboon.subscription.SimpleTaskControllerSubscription;
+import org.unc.lac.baboon.subscription.TopicExecutionPlan;
+import org.unc.lac.baboon.test.utils.tasks.CustomCounter;
+import org.unc.lac.baboon.test.utils.tasks.MockUserSystemObject;
+import org.unc.lac.baboon.topic.Topic;
+import org.unc.lac.baboon.utils.MethodDictionary;
+import org.unc.lac.javapetriconcurrencymonitor.petrinets.factory.PetriNetFactory.petriNetType;
+
+public class TopicExecutionPlanTest {
+
+    final String petriNetFile = "/pnml01.pnml";
+    final String petriNetFile_02 = "/pnml02.pnml";
+    private final String topicsPath02 = "/topics02.json";
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains fired transitions "t0" and "t1" </li>
+     * <li>And I configure a {@link Topic} with permission "t0" and a fireCallback "t1" </li>
+     * <li>And I subscribe a {@link TaskActionController} to the {@link Topic}, creating the {@link SimpleTaskControllerSubscription}</li>
+     * <li>When I get the {@link TopicExecutionPlan} of the subscription for the {@link BaboonPetriCore}</li>
+     * <li>Then the plan should have one step whose permission is the index of "t0"</li>
+     * <li>And the plan fire callback should contain only the index of "t1"</li>
+     * <li>And getting the plan again should return the same plan</li>
+     */
+    @Test
+    public void executionPlanShouldContainTheIndexesOfTheTopicTransitions() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        Method methodObj = MethodDictionary.getMethod(mockUserSystemObj, "mockTaskCounter", CustomCounter.class);
+        TaskActionController taskController = new TaskActionController(mockUserSystemObj, methodObj, new CustomCounter());
+        SimpleTaskControllerSubscription taskSubscription = new SimpleTaskControllerSubscription(
+                baboonConfig.getTopicByName("topic1"), taskController);
+
+        TopicExecutionPlan plan = taskSubscription.getExecutionPlan(petriCore);
+        assertEquals(1, plan.getSize());
+        assertEquals(petriCore.getTransitionIndex("t0"), plan.getPermissionIndex(0));
+        assertEquals(0, plan.getGuardCount(0));
+        assertEquals(1, plan.getFireCallbackCount());
+        assertEquals(petriCore.getTransitionIndex("t1"), plan.getFireCallbackIndex(0));
+        assertSame(plan, taskSubscription.getExecutionPlan(petriCore));
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains fired transitions "t0" and "t1" </li>
+     * <li>And I set the {@link BaboonPetriCore} on a {@link BaboonConfig}</li>
+     * <li>And I configure a {@link Topic} with a permission "t2", that does not exists on Petri Net model </li>
+     * <li>When I subscribe a {@link TaskActionController} to the {@link Topic}</li>
+     * <li>Then a {@link NotSubscribableException} should be thrown </li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void subscribingToATopicWithNotExistingPermissionShouldThrowException() throws Exception {
+        BaboonConfig baboonConfig = new BaboonConfig();
+        baboonConfig.addTopics(topicsPath02);
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile, petriNetType.PLACE_TRANSITION, null);
+        baboonConfig.setPetriCore(petriCore);
+        baboonConfig.subscribeControllerToTopic("topic_dummy_th_wrong_permission", new MockUserSystemObject(),
+                "mockTaskCounter", new CustomCounter());
+    }
+
+    /**
+     * <li>Given I have a Petri Net model inside a {@link BaboonPetriCore} object, which contains transition "t0" of "automatic" type and transition "t1" of "fired" type </li>
+     * <li>And I configure a {@link Topic} with permission "t1" and fire callback "t0" </li>
+     * <li>And I subscribe a {@link TaskActionController} to the {@link Topic}, creating the {@link SimpleTaskControllerSubscription}</li>
+     * <li>When I get the {@link TopicExecutionPlan} of the subscription for the {@link BaboonPetriCore}</li>
+     * <li>Then a {@link NotSubscribableException} should be thrown, since automatic transitions can not be fired by the framework</li>
+     */
+    @Test (expected=NotSubscribableException.class)
+    public void automaticFireCallbackTransitionShouldNotBeCompiled() throws Exception {
+        Topic topic = new Topic();
+        topic.getPermission().add("t1");
+        topic.getFireCallback().add("t0");
+        BaboonPetriCore petriCore = new BaboonPetriCore(petriNetFile_02, petriNetType.PLACE_TRANSITION, null);
+        final MockUserSystemObject mockUserSystemObj = new MockUserSystemObject();
+        Method methodObj = MethodDictionary.getMethod(mockUserSystemObj, "mockTaskCounter", CustomCounter.class);
+        TaskActionController taskController = new TaskActionController(mockUserSystemObj, methodObj, new CustomCounter());
+        SimpleTaskControllerSubscription taskSubscription = new SimpleTaskControllerSubscription(topic, taskController);
+        taskSubscription.getExecutionPlan(petriCore);
+    }
+}
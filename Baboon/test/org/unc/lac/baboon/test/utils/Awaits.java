@@ -0,0 +1,74 @@
+package org.unc.lac.baboon.test.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Awaits is a test utility.
+ * <p>
+ * It waits, for a bounded time, for a condition that is not signaled by the
+ * code under test, such as a thread blocking on the petri net, instead of
+ * sleeping for a fixed time.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ */
+public final class Awaits {
+    /**
+     * The time to wait by default, in seconds. It is only reached when the
+     * test fails.
+     */
+    public static final long DEFAULT_TIMEOUT = 5;
+
+    private Awaits() {
+    }
+
+    /**
+     * Waits until a condition holds, for {@link #DEFAULT_TIMEOUT} seconds at
+     * most.
+     *
+     * @param condition
+     *            The condition to wait for.
+     * @return true if the condition holds, false if the time elapsed first.
+     */
+    public static boolean await(BooleanSupplier condition) {
+        return await(condition, DEFAULT_TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Waits until a condition holds, for the time provided at most.
+     *
+     * @param condition
+     *            The condition to wait for.
+     * @param timeout
+     *            The maximum time to wait.
+     * @param unit
+     *            The unit of the timeout.
+     * @return true if the condition holds, false if the time elapsed first.
+     */
+    public static boolean await(BooleanSupplier condition, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.yield();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until a thread is blocked waiting, for {@link #DEFAULT_TIMEOUT}
+     * seconds at most.
+     *
+     * @param thread
+     *            The thread to wait for.
+     * @return true if the thread is waiting, false if the time elapsed first.
+     */
+    public static boolean awaitWaiting(Thread thread) {
+        return await(() -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING);
+    }
+}
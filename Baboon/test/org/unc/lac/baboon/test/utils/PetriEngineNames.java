@@ -0,0 +1,36 @@
+package org.unc.lac.baboon.test.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.unc.lac.baboon.petri.JpcmPetriEngine;
+import org.unc.lac.baboon.petri.NativePetriEngine;
+import org.unc.lac.baboon.petri.PetriEngine;
+import org.unc.lac.baboon.petri.PetriEngines;
+
+/**
+ * PetriEngineNames is a test utility.
+ * <p>
+ * It provides the names of the {@link PetriEngine} objects always available
+ * on {@link PetriEngines}, as parameters of the test suites that run the
+ * framework over each engine.
+ * </p>
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * @version 1.0
+ * @see org.junit.runners.Parameterized
+ */
+public final class PetriEngineNames {
+
+    private PetriEngineNames() {
+    }
+
+    /**
+     * @return the name of each engine, as a parameter set of one element.
+     */
+    public static Collection<Object[]> all() {
+        return Arrays.asList(new Object[][] { { JpcmPetriEngine.NAME }, { NativePetriEngine.NAME },
+                { NativePetriEngine.OPTIMISTIC_NAME } });
+    }
+}
@@ -1,7 +1,10 @@
 package org.unc.lac.baboon.test.utils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import rx.Observer;
 
 /**
@@ -56,4 +59,22 @@ public class TransitionEventObserver implements Observer<String> {
         return eventsRecieved;
     }
 
+    /**
+     * Returns the name of the transition of a firing event. The events of
+     * {@link org.unc.lac.baboon.petri.JpcmPetriEngine} are JSON objects with
+     * the name of the transition, while the other engines send the name only.
+     *
+     * @param event
+     *            A firing event received by the observer.
+     * @return the name of the transition fired.
+     * @throws IOException
+     *            If the JSON event can not be parsed.
+     */
+    public static String getTransitionName(String event) throws IOException {
+        if (!event.startsWith("{")) {
+            return event;
+        }
+        return new ObjectMapper().readTree(event).findValue("name").asText();
+    }
+
 }
@@ -15,6 +15,12 @@ import org.unc.lac.baboon.test.cases.TaskExecutionTest;
  * purposes. It creates a {@link TaskExecutionMockObject}. Also a pnml file and
  * a topics file are used to initialize the framework. Finally it subscribes the
  * {@link TaskExecutionMockObject#increaseNumber()} taskController to "topic1".
+ * <p>
+ * The petri core is created over the engine named by the
+ * {@value #ENGINE_PROPERTY} system property, or the default engine if it is
+ * not set. As the state of {@link BaboonFramework} is static, the framework
+ * runs over one engine per JVM.
+ * </p>
  * 
  * @author Ariel Ivan Rabinovich
  * @author Juan Jose Arce Giacobbe
@@ -22,6 +28,7 @@ import org.unc.lac.baboon.test.cases.TaskExecutionTest;
  * @see BaboonFramework
  */
 public class TaskExecutionAppSetup implements BaboonApplication {
+    public static final String ENGINE_PROPERTY = "baboon.test.engine";
     private final String pnmlFile = "/pnml01.pnml";
     private final String topicsFile = "/topics04.json";
     private TaskExecutionMockSingletonObject userSystemObject;
@@ -33,7 +40,8 @@ public class TaskExecutionAppSetup implements BaboonApplication {
     @Override
     public void declare() {
         try {
-            BaboonFramework.createPetriCore(pnmlFile, petriNetType.PLACE_TRANSITION, null);
+            BaboonFramework.createPetriCore(pnmlFile, petriNetType.PLACE_TRANSITION, null,
+                    System.getProperty(ENGINE_PROPERTY));
         } catch (BadPolicyException e1) {
 
         }
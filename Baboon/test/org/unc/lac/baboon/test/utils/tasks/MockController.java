@@ -1,5 +1,8 @@
 package org.unc.lac.baboon.test.utils.tasks;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.unc.lac.baboon.annotations.GuardProvider;
 import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.annotations.TaskController;
@@ -39,6 +42,22 @@ public class MockController {
     public void mockTask2() {
     }
 
+    @HappeningController
+    public void mockCounterHappeningController(AtomicInteger counter) {
+        counter.incrementAndGet();
+    }
+
+    @HappeningController(coalescing = true, batch = "mockCoalescingCounterBatch")
+    public void mockCoalescingCounterHappeningController(AtomicInteger counter) {
+        counter.incrementAndGet();
+    }
+
+    public void mockCoalescingCounterBatch(List<Object[]> executions) {
+        for (Object[] arguments : executions) {
+            ((AtomicInteger) arguments[0]).incrementAndGet();
+        }
+    }
+
     public void setGuard1Value(boolean newValue) {
         guard1Value = newValue;
     }
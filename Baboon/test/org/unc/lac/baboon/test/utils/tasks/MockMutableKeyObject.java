@@ -0,0 +1,42 @@
+package org.unc.lac.baboon.test.utils.tasks;
+
+import org.unc.lac.baboon.annotations.HappeningController;
+import org.unc.lac.baboon.test.cases.TasksAndHappeningControllersSubscriptionTest;
+
+/**
+ * MockMutableKeyObject is used by {@link TasksAndHappeningControllersSubscriptionTest}
+ * for testing purposes. It simulates an object of the user's system whose equals and
+ * hashCode methods depend on a mutable field, so different instances can be equal
+ * and the hash code of an instance can change after it is subscribed.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * 
+ * @see HappeningController
+ */
+public class MockMutableKeyObject {
+
+    private int key;
+
+    public MockMutableKeyObject(int key) {
+        this.key = key;
+    }
+
+    public void setKey(int key) {
+        this.key = key;
+    }
+
+    @HappeningController
+    public void mockHappeningController() {
+    }
+
+    @Override
+    public int hashCode() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MockMutableKeyObject && ((MockMutableKeyObject) obj).key == key;
+    }
+}
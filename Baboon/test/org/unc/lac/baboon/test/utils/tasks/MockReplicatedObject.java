@@ -0,0 +1,27 @@
+package org.unc.lac.baboon.test.utils.tasks;
+
+import org.unc.lac.baboon.annotations.TaskController;
+import org.unc.lac.baboon.test.cases.TaskControllerReplicasTest;
+
+/**
+ * {@link MockReplicatedObject} is used by {@link TaskControllerReplicasTest} for testing purposes.
+ * Each instance counts its own executions, so it can be used by one replica without synchronization.
+ * 
+ * @author Ariel Ivan Rabinovich
+ * @author Juan Jose Arce Giacobbe
+ * 
+ * @see TaskController
+ */
+public class MockReplicatedObject {
+
+    private int counter = 0;
+
+    @TaskController
+    public void increaseNumber() {
+        counter++;
+    }
+
+    public int getNumber() {
+        return counter;
+    }
+}
@@ -1,9 +1,17 @@
 package org.unc.lac.baboon.test.utils.tasks;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.unc.lac.baboon.annotations.AcquisitionMode;
 import org.unc.lac.baboon.annotations.GuardProvider;
 import org.unc.lac.baboon.annotations.HappeningController;
 import org.unc.lac.baboon.annotations.TaskController;
+import org.unc.lac.baboon.exceptions.HappeningRejectedException;
 import org.unc.lac.baboon.test.cases.ComplexTaskControllersSubscriptionTest;
 import org.unc.lac.baboon.test.cases.HappeningControllerJoinPointTest;
 import org.unc.lac.baboon.test.cases.TasksAndHappeningControllersSubscriptionTest;
@@ -24,6 +32,7 @@ public class MockUserSystemObject {
 
     boolean guard1Value = false;
     boolean guard2Value = false;
+    private final List<Integer> coalescedBatchSizes = new CopyOnWriteArrayList<>();
 
     @HappeningController
     public void mockHappeningController() {
@@ -38,6 +47,25 @@ public class MockUserSystemObject {
         count.increase();
     }
 
+    @TaskController
+    public void mockBarrierTask(CyclicBarrier barrier, AtomicInteger executions) throws Exception {
+        barrier.await(5, TimeUnit.SECONDS);
+        executions.incrementAndGet();
+    }
+
+    @TaskController
+    public void mockFailingTask() {
+        throw new IllegalStateException("Mock failure");
+    }
+
+    @TaskController(batch = 10)
+    public void mockBatchTaskCounter(int permissions, CustomCounter executions, CustomCounter count) {
+        executions.increase();
+        for (int i = 0; i < permissions; i++) {
+            count.increase();
+        }
+    }
+
     public void mockNotSubscribableMethod() {
     }
 
@@ -61,6 +89,148 @@ public class MockUserSystemObject {
         tObs.getEvents().add(eventToInsert);
     }
 
+    /**
+     * Test Method.</br>
+     * Overload of {@link #eventInserterHappeningController(TransitionEventObserver, String)}
+     * which appends a default event to tObs event list.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object where the event is appended.
+     */
+    @HappeningController
+    public void eventInserterHappeningController(TransitionEventObserver tObs) {
+        tObs.getEvents().add("DEFAULT_EVENT");
+    }
+
+    /**
+     * Test Method.</br>
+     * Appends eventToInsert to tObs event list if its permission is enabled when called.
+     * Otherwise, {@link #rejectedEventInserter(TransitionEventObserver, String)} is called.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object where the event is appended.
+     * @param eventToInsert
+     *            Event to be appended on tObs eventsRecieved.
+     * @return true.
+     */
+    @HappeningController(acquisition = AcquisitionMode.TRY_ONCE, fallback = "rejectedEventInserter")
+    public boolean tryEventInserterHappeningController(TransitionEventObserver tObs, String eventToInsert) {
+        tObs.getEvents().add(eventToInsert);
+        return true;
+    }
+
+    /**
+     * Test Method.</br>
+     * Fallback of {@link #tryEventInserterHappeningController(TransitionEventObserver, String)}.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object, left unchanged.
+     * @param eventToInsert
+     *            Event that is not appended.
+     * @return false.
+     */
+    public boolean rejectedEventInserter(TransitionEventObserver tObs, String eventToInsert) {
+        return false;
+    }
+
+    /**
+     * Test Method.</br>
+     * Appends eventToInsert to tObs event list if its permission gets enabled before 50 milliseconds.
+     * Otherwise, a {@link HappeningRejectedException} is thrown.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object where the event is appended.
+     * @param eventToInsert
+     *            Event to be appended on tObs eventsRecieved.
+     */
+    @HappeningController(acquisition = AcquisitionMode.TIMEOUT, timeout = 50)
+    public void timedEventInserterHappeningController(TransitionEventObserver tObs, String eventToInsert) {
+        tObs.getEvents().add(eventToInsert);
+    }
+
+    /**
+     * Test Method.</br>
+     * Appends to tObs event list the event that completes the work provided.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object where the event is appended.
+     * @param work
+     *            A {@link CompletableFuture} simulating the asynchronous work started by the method.
+     * @return a {@link CompletableFuture} completed with the event after it is appended.
+     */
+    @HappeningController
+    public CompletableFuture<String> asyncEventInserterHappeningController(TransitionEventObserver tObs,
+            CompletableFuture<String> work) {
+        return work.thenApply(event -> {
+            tObs.getEvents().add(event);
+            return event;
+        });
+    }
+
+
+    /**
+     * Test Method.</br>
+     * Appends eventToInsert to tObs event list. Its executions can be coalesced,
+     * in which case {@link #insertEventBatch(List)} is called instead.
+     *
+     * @param tObs
+     *            A {@link TransitionEventObserver} object where the event is appended.
+     * @param eventToInsert
+     *            Event to append.
+     */
+    @HappeningController(coalescing = true, batch = "insertEventBatch")
+    public void coalescingEventInserterHappeningController(TransitionEventObserver tObs, String eventToInsert) {
+        tObs.getEvents().add(eventToInsert);
+    }
+
+    /**
+     * Batch method of {@link #coalescingEventInserterHappeningController(TransitionEventObserver, String)}.
+     * Appends the event of each execution to its event list and records the size of the batch.
+     *
+     * @param executions
+     *            The arguments of each coalesced execution.
+     */
+    public void insertEventBatch(List<Object[]> executions) {
+        for (Object[] arguments : executions) {
+            ((TransitionEventObserver) arguments[0]).getEvents().add((String) arguments[1]);
+        }
+        coalescedBatchSizes.add(executions.size());
+    }
+
+    /**
+     * Test Method.</br>
+     * Its executions can be coalesced, and {@link #failingBatch(int)} fails for every batch.
+     */
+    @HappeningController(coalescing = true, batch = "failingBatch")
+    public void failingCoalescingHappeningController() {
+    }
+
+    /**
+     * Batch method of {@link #failingCoalescingHappeningController()}.
+     *
+     * @param executions
+     *            The number of coalesced executions.
+     * @throws IllegalStateException
+     *            Always.
+     */
+    public void failingBatch(int executions) {
+        throw new IllegalStateException("The batch of " + executions + " executions failed");
+    }
+
+    /**
+     * Test Method.</br>
+     * Its executions can be coalesced, but it does not declare a batch method.
+     */
+    @HappeningController(coalescing = true)
+    public void coalescingHappeningControllerWithoutBatch() {
+    }
+
+    /**
+     * @return the size of each batch handled by {@link #insertEventBatch(List)}, in order.
+     */
+    public List<Integer> getCoalescedBatchSizes() {
+        return coalescedBatchSizes;
+    }
 
     @TaskController
     public void mockTask2() {